@@ -0,0 +1,297 @@
+package com.ph.ibm.generator;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.Holiday;
+import com.ph.ibm.model.PUMMonth;
+import com.ph.ibm.model.PUMQuarter;
+import com.ph.ibm.model.PUMYear;
+import com.ph.ibm.model.Project;
+import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.util.JavaToJsonUtil;
+import com.ph.ibm.util.OpumConstants;
+
+/**
+ * This class generates an organization of the given size to size hardware
+ * and benchmark against: PUM years with their quarters and months, public
+ * holidays, projects, and employees who roll in, move between projects and
+ * roll off over the years, with a full year of utilization for every year
+ * they were on board. Employees are generated and written a chunk at a time,
+ * so the size is not limited by memory. The same seed always generates the
+ * same organization.
+ * <br><br>
+ * Run from the command line with the size in system properties, e.g.
+ * -Dopum.generator.employees=20000 -Dopum.generator.projects=200
+ * -Dopum.generator.years=5. With a file name as argument a MySQL script is
+ * written, otherwise the data is saved through the repositories. The
+ * generator is not part of the war, "mvn -P generator verify" writes the
+ * script to target/organization.sql
+ */
+public class OrganizationDataGenerator {
+
+	private static final int CHUNK_SIZE = 500;
+
+	/** Share of employees on board before the first generated year, in percent */
+	private static final int ON_BOARD_PERCENT = 70;
+
+	/** Chance of an employee rolling off in a year, in percent */
+	private static final int ATTRITION_PERCENT = 12;
+
+	private static final String[] FIRST_NAMES = { "Juan", "Maria", "Jose", "Ana", "Mark", "Angelica", "John",
+			"Kristine", "Paolo", "Patricia", "Miguel", "Camille", "Carlo", "Nicole", "Rafael", "Bianca", "Joshua",
+			"Andrea", "Christian", "Katrina" };
+
+	private static final String[] LAST_NAMES = { "Santos", "Reyes", "Cruz", "Bautista", "Ocampo", "Garcia",
+			"Mendoza", "Torres", "Tomas", "Andrada", "Castillo", "Flores", "Villanueva", "Ramos", "Castro", "Rivera",
+			"Aquino", "Navarro", "Salazar", "Mercado" };
+
+	/** Public holidays which fall on the same date every year */
+	private static final String[][] HOLIDAYS = { { "New Year's Day", "01-01" }, { "Araw ng Kagitingan", "04-09" },
+			{ "Labor Day", "05-01" }, { "Independence Day", "06-12" }, { "Ninoy Aquino Day", "08-21" },
+			{ "All Saints Day", "11-01" }, { "Bonifacio Day", "11-30" }, { "Christmas Day", "12-25" },
+			{ "Rizal Day", "12-30" }, { "New Year's Eve", "12-31" } };
+
+	private Logger logger = Logger.getLogger(OrganizationDataGenerator.class);
+
+	private final long seed;
+
+	private final int employees;
+
+	private final int projects;
+
+	private final int firstYear;
+
+	private final int years;
+
+	/**
+	 * Employment of one generated employee
+	 */
+	private static final class Career {
+
+		private final LocalDate rollIn;
+		private final LocalDate rollOff;
+		private final List<ProjectEngagement> projectEngagements = new ArrayList<ProjectEngagement>();
+
+		private Career(LocalDate rollIn, LocalDate rollOff) {
+			this.rollIn = rollIn;
+			this.rollOff = rollOff;
+		}
+	}
+
+	/**
+	 * @param seed
+	 * @param employees
+	 * @param projects
+	 * @param firstYear
+	 * @param years
+	 *            - number of PUM years starting at the first year
+	 */
+	public OrganizationDataGenerator(long seed, int employees, int projects, int firstYear, int years) {
+		if (employees < 1 || projects < 1 || years < 1) {
+			throw new IllegalArgumentException("Employees, projects and years must be positive");
+		}
+		this.seed = seed;
+		this.employees = employees;
+		this.projects = projects;
+		this.firstYear = firstYear;
+		this.years = years;
+	}
+
+	/**
+	 * This method is used to generate the organization and hand it to the
+	 * writer
+	 *
+	 * @param writer
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public void generate(OrganizationWriter writer) throws SQLException, IOException {
+		List<Holiday> holidays = new ArrayList<Holiday>();
+		List<LocalDate> holidayDates = new ArrayList<LocalDate>();
+		for (int year = firstYear; year < firstYear + years; year++) {
+			writeCalendar(writer, year);
+			for (Holiday holiday : holidays(year)) {
+				holidays.add(holiday);
+				holidayDates.add(LocalDate.parse(holiday.getDate()));
+			}
+		}
+		writer.addHolidays(holidays);
+		int[] projectIds = new int[projects];
+		for (int i = 0; i < projects; i++) {
+			Project project = new Project();
+			project.setProjectName(String.format("Project %04d", i + 1));
+			project.setCreatedBy(OpumConstants.ADMIN);
+			projectIds[i] = writer.addProject(project);
+		}
+		UtilizationGenerator utilizationGenerator = new UtilizationGenerator(holidayDates);
+		for (int first = 0; first < employees; first += CHUNK_SIZE) {
+			writeEmployees(writer, utilizationGenerator, projectIds, first, Math.min(first + CHUNK_SIZE, employees));
+			logger.info("Generated " + Math.min(first + CHUNK_SIZE, employees) + " of " + employees + " employee/s");
+		}
+	}
+
+	/**
+	 * @param year
+	 * @return List - public holidays of the year, named with the year since
+	 *         holiday names are unique
+	 */
+	public static List<Holiday> holidays(int year) {
+		List<Holiday> holidays = new ArrayList<Holiday>(HOLIDAYS.length);
+		for (String[] holiday : HOLIDAYS) {
+			holidays.add(new Holiday(0, holiday[0] + " " + year, year + "-" + holiday[1], null, null,
+					OpumConstants.ADMIN, null));
+		}
+		return holidays;
+	}
+
+	private void writeCalendar(OrganizationWriter writer, int year) throws SQLException, IOException {
+		LocalDate start = LocalDate.of(year, 1, 1);
+		PUMYear pumYear = new PUMYear(0, year, start.plusYears(1).minusDays(1).toString(), start.toString(), null,
+				OpumConstants.ADMIN, null, null);
+		List<PUMQuarter> pumQuarters = new ArrayList<PUMQuarter>(4);
+		List<PUMMonth> pumMonths = new ArrayList<PUMMonth>(12);
+		for (int month = 1; month <= 12; month++) {
+			LocalDate monthStart = LocalDate.of(year, month, 1);
+			pumMonths.add(new PUMMonth(0, month, monthStart.toString(), monthStart.plusMonths(1).minusDays(1).toString(),
+					null, OpumConstants.ADMIN, null, null));
+			if (month % 3 == 1) {
+				pumQuarters.add(new PUMQuarter(0, month / 3 + 1, monthStart.toString(),
+						monthStart.plusMonths(3).minusDays(1).toString(), null, OpumConstants.ADMIN, null, null));
+			}
+		}
+		writer.addCalendar(pumYear, pumQuarters, pumMonths);
+	}
+
+	private void writeEmployees(OrganizationWriter writer, UtilizationGenerator utilizationGenerator,
+			int[] projectIds, int first, int end) throws SQLException, IOException {
+		List<Employee> chunk = new ArrayList<Employee>(end - first);
+		List<Career> careers = new ArrayList<Career>(end - first);
+		List<Random> randoms = new ArrayList<Random>(end - first);
+		List<ProjectEngagement> firstEngagements = new ArrayList<ProjectEngagement>(end - first);
+		for (int i = first; i < end; i++) {
+			// one random per employee, so the chunk size does not change the
+			// data
+			Random random = new Random(seed * 1000003L + i);
+			Employee employee = employee(i, random);
+			Career career = career(random, projectIds);
+			employee.setActive(career.rollOff == null);
+			chunk.add(employee);
+			careers.add(career);
+			randoms.add(random);
+			firstEngagements.add(career.projectEngagements.get(0));
+		}
+		int[] employeeIds = writer.addEmployees(chunk, firstEngagements);
+		List<ProjectEngagement> laterEngagements = new ArrayList<ProjectEngagement>();
+		for (int i = 0; i < careers.size(); i++) {
+			if (employeeIds[i] < 0) {
+				// already in the database
+				continue;
+			}
+			List<ProjectEngagement> projectEngagements = careers.get(i).projectEngagements;
+			for (ProjectEngagement projectEngagement : projectEngagements.subList(1, projectEngagements.size())) {
+				projectEngagement.setEmployeeId(employeeIds[i]);
+				laterEngagements.add(projectEngagement);
+			}
+		}
+		if (!laterEngagements.isEmpty()) {
+			writer.addProjectEngagements(laterEngagements);
+		}
+		for (int year = firstYear; year < firstYear + years; year++) {
+			List<Utilization> utilizations = new ArrayList<Utilization>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++) {
+				Career career = careers.get(i);
+				if (career.rollIn.getYear() > year || (career.rollOff != null && career.rollOff.getYear() < year)) {
+					continue;
+				}
+				LocalDate rollIn = career.rollIn.getYear() == year ? career.rollIn : null;
+				LocalDate rollOff = career.rollOff != null && career.rollOff.getYear() == year ? career.rollOff : null;
+				utilizations.add(new Utilization(chunk.get(i).getEmployeeIdNumber(), String.valueOf(year),
+						JavaToJsonUtil.JavaToJson(utilizationGenerator.generate(year, rollIn, rollOff, randoms.get(i)))));
+			}
+			if (!utilizations.isEmpty()) {
+				writer.addUtilizations(utilizations);
+			}
+		}
+	}
+
+	private Employee employee(int index, Random random) {
+		String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+		String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		Employee employee = new Employee();
+		employee.setEmployeeIdNumber(String.valueOf(100000 + index));
+		employee.setEmail((firstName.charAt(0) + lastName + (index + 1)).toLowerCase() + "@ph.ibm.com");
+		employee.setFullName(firstName + " " + lastName);
+		return employee;
+	}
+
+	/**
+	 * Most employees are on board before the first year, the rest roll in
+	 * during the years. Employees roll off at the attrition rate, and move to
+	 * another project every six months to two years. Large projects get more
+	 * employees than small ones
+	 */
+	private Career career(Random random, int[] projectIds) {
+		LocalDate firstDay = LocalDate.of(firstYear, 1, 1);
+		LocalDate lastDay = LocalDate.of(firstYear + years - 1, 12, 31);
+		LocalDate rollIn = random.nextInt(100) < ON_BOARD_PERCENT
+				? firstDay.minusDays(1 + random.nextInt(3 * 365))
+				: firstDay.plusDays(random.nextInt(years * 365));
+		LocalDate rollOff = null;
+		for (int year = Math.max(rollIn.getYear(), firstYear); year <= lastDay.getYear(); year++) {
+			if (random.nextInt(100) < ATTRITION_PERCENT) {
+				LocalDate candidate = LocalDate.of(year, 1, 1).plusDays(random.nextInt(365));
+				if (candidate.isAfter(rollIn)) {
+					rollOff = candidate;
+					break;
+				}
+			}
+		}
+		Career career = new Career(rollIn, rollOff);
+		LocalDate end = rollOff != null ? rollOff : lastDay.plusDays(1 + random.nextInt(365));
+		for (LocalDate start = rollIn; !start.isAfter(end);) {
+			LocalDate engagementEnd = start.plusDays(180 + random.nextInt(540));
+			if (engagementEnd.isAfter(end)) {
+				engagementEnd = end;
+			}
+			double skew = random.nextDouble();
+			int project = projectIds[(int) (skew * skew * projectIds.length)];
+			career.projectEngagements.add(new ProjectEngagement(0, project, 0, Date.valueOf(start),
+					Date.valueOf(engagementEnd), null, null, OpumConstants.ADMIN, null));
+			start = engagementEnd.plusDays(1);
+		}
+		return career;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int years = Integer.getInteger("opum.generator.years", 5);
+		OrganizationDataGenerator generator = new OrganizationDataGenerator(
+				Long.getLong("opum.generator.seed", 1L),
+				Integer.getInteger("opum.generator.employees", 20000),
+				Integer.getInteger("opum.generator.projects", 200),
+				Integer.getInteger("opum.generator.firstYear", LocalDate.now().getYear() - years + 1), years);
+		if (args.length > 0) {
+			try (SqlScriptWriter writer = new SqlScriptWriter(
+					new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[0]), StandardCharsets.UTF_8)),
+					Integer.getInteger("opum.generator.firstEmployeeId", 1000),
+					Integer.getInteger("opum.generator.firstProjectId", 1000))) {
+				generator.generate(writer);
+			}
+		} else {
+			generator.generate(new RepositoryWriter());
+		}
+	}
+}
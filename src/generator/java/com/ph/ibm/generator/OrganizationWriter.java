@@ -0,0 +1,73 @@
+package com.ph.ibm.generator;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.Holiday;
+import com.ph.ibm.model.PUMMonth;
+import com.ph.ibm.model.PUMQuarter;
+import com.ph.ibm.model.PUMYear;
+import com.ph.ibm.model.Project;
+import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.model.Utilization;
+
+/**
+ * Destination of the data made by {@link OrganizationDataGenerator}. The
+ * generator calls the methods in order: calendar, holidays, projects, then
+ * employees with their engagements and utilization, a chunk at a time
+ */
+public interface OrganizationWriter {
+
+	/**
+	 * @param pumYear
+	 * @param pumQuarters
+	 * @param pumMonths
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public void addCalendar(PUMYear pumYear, List<PUMQuarter> pumQuarters, List<PUMMonth> pumMonths)
+			throws SQLException, IOException;
+
+	/**
+	 * @param holidays
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public void addHolidays(List<Holiday> holidays) throws SQLException, IOException;
+
+	/**
+	 * @param project
+	 * @return int - project id to engage employees to
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public int addProject(Project project) throws SQLException, IOException;
+
+	/**
+	 * @param employees
+	 * @param projectEngagements
+	 *            - first engagement of each employee, same order as employees
+	 * @return int[] - employee id of each employee
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public int[] addEmployees(List<Employee> employees, List<ProjectEngagement> projectEngagements)
+			throws SQLException, IOException;
+
+	/**
+	 * @param projectEngagements
+	 *            - later engagements of employees already added
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public void addProjectEngagements(List<ProjectEngagement> projectEngagements) throws SQLException, IOException;
+
+	/**
+	 * @param utilizations
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public void addUtilizations(List<Utilization> utilizations) throws SQLException, IOException;
+}
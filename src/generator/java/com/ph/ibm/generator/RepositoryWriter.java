@@ -0,0 +1,90 @@
+package com.ph.ibm.generator;
+
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.util.List;
+
+import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.Holiday;
+import com.ph.ibm.model.PUMMonth;
+import com.ph.ibm.model.PUMQuarter;
+import com.ph.ibm.model.PUMYear;
+import com.ph.ibm.model.Project;
+import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.repository.EmployeeRepository;
+import com.ph.ibm.repository.HolidayEngagementRepository;
+import com.ph.ibm.repository.PUMYearRepository;
+import com.ph.ibm.repository.ProjectEngagementRepository;
+import com.ph.ibm.repository.ProjectRepository;
+import com.ph.ibm.repository.UtilizationEngagementRepository;
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * This class writes the generated organization through the repositories, to
+ * the database of the ConnectionPool or to the implementations set with the
+ * "opum.repository.&lt;interface&gt;" system properties
+ */
+public class RepositoryWriter implements OrganizationWriter {
+
+	private PUMYearRepository pumYearRepository = OpumBinder.getRepository(PUMYearRepository.class);
+
+	private HolidayEngagementRepository holidayEngagementRepository = OpumBinder
+			.getRepository(HolidayEngagementRepository.class);
+
+	private ProjectRepository projectRepository = OpumBinder.getRepository(ProjectRepository.class);
+
+	private EmployeeRepository employeeRepository = OpumBinder.getRepository(EmployeeRepository.class);
+
+	private ProjectEngagementRepository projectEngagementRepository = OpumBinder
+			.getRepository(ProjectEngagementRepository.class);
+
+	private UtilizationEngagementRepository utilizationEngagementRepository = OpumBinder
+			.getRepository(UtilizationEngagementRepository.class);
+
+	@Override
+	public void addCalendar(PUMYear pumYear, List<PUMQuarter> pumQuarters, List<PUMMonth> pumMonths)
+			throws SQLException {
+		try {
+			pumYearRepository.saveYear(pumYear);
+			for (PUMQuarter pumQuarter : pumQuarters) {
+				pumYearRepository.saveQuarter(pumQuarter);
+			}
+			for (PUMMonth pumMonth : pumMonths) {
+				pumYearRepository.saveMonth(pumMonth);
+			}
+		} catch (ParseException e) {
+			throw new SQLException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public void addHolidays(List<Holiday> holidays) throws SQLException {
+		for (Holiday holiday : holidays) {
+			holidayEngagementRepository.addHolidayEngagement(holiday);
+		}
+	}
+
+	@Override
+	public int addProject(Project project) throws SQLException {
+		return projectRepository.addProject(project);
+	}
+
+	@Override
+	public int[] addEmployees(List<Employee> employees, List<ProjectEngagement> projectEngagements)
+			throws SQLException {
+		return employeeRepository.addEmployeeProjectEngagements(employees, projectEngagements);
+	}
+
+	@Override
+	public void addProjectEngagements(List<ProjectEngagement> projectEngagements) throws SQLException {
+		for (ProjectEngagement projectEngagement : projectEngagements) {
+			projectEngagementRepository.addProjectEngagement(projectEngagement);
+		}
+	}
+
+	@Override
+	public void addUtilizations(List<Utilization> utilizations) throws SQLException {
+		utilizationEngagementRepository.saveUtilizations(utilizations);
+	}
+}
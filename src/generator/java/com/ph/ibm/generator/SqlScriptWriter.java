@@ -0,0 +1,173 @@
+package com.ph.ibm.generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.Holiday;
+import com.ph.ibm.model.PUMMonth;
+import com.ph.ibm.model.PUMQuarter;
+import com.ph.ibm.model.PUMYear;
+import com.ph.ibm.model.Project;
+import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.util.OpumConstants;
+
+/**
+ * This class writes the generated organization as a MySQL script of
+ * multi-row INSERT statements, one transaction per chunk, to be loaded with
+ * the mysql client. Employee and project ids are assigned by the script so
+ * engagements can refer to them, starting after the ids already in use
+ */
+public class SqlScriptWriter implements OrganizationWriter, Closeable {
+
+	/** Rows per INSERT, keeps statements below the default max_allowed_packet */
+	private static final int ROWS_PER_INSERT = 500;
+
+	/** Rows per INSERT of utilization, each row holds a whole year */
+	private static final int UTILIZATIONS_PER_INSERT = 50;
+
+	private final Writer writer;
+
+	private int nextEmployeeId;
+
+	private int nextProjectId;
+
+	/**
+	 * @param writer
+	 *            - closed with this writer
+	 * @param firstEmployeeId
+	 *            - higher than the employee ids in the target database
+	 * @param firstProjectId
+	 *            - higher than the project ids in the target database
+	 * @throws IOException
+	 */
+	public SqlScriptWriter(Writer writer, int firstEmployeeId, int firstProjectId) throws IOException {
+		this.writer = writer;
+		this.nextEmployeeId = firstEmployeeId;
+		this.nextProjectId = firstProjectId;
+		writer.write("SET NAMES utf8;\nSET autocommit = 0;\n");
+	}
+
+	@Override
+	public void addCalendar(PUMYear pumYear, List<PUMQuarter> pumQuarters, List<PUMMonth> pumMonths)
+			throws IOException {
+		List<String> rows = new ArrayList<String>();
+		rows.add(row(pumYear.getStart(), pumYear.getEnd(), pumYear.getPumYear()));
+		insert("YEAR (START, END, PUMYEAR)", rows, ROWS_PER_INSERT);
+		rows.clear();
+		for (PUMQuarter pumQuarter : pumQuarters) {
+			rows.add(row(pumQuarter.getStart(), pumQuarter.getEnd(), pumQuarter.getPumQuarter()));
+		}
+		insert("QUARTER (START, END, PUMQUARTER)", rows, ROWS_PER_INSERT);
+		rows.clear();
+		for (PUMMonth pumMonth : pumMonths) {
+			rows.add(row(pumMonth.getStart(), pumMonth.getEnd(), pumMonth.getPumMonth()));
+		}
+		insert("MONTH (START, END, PUMMONTH)", rows, ROWS_PER_INSERT);
+		commit();
+	}
+
+	@Override
+	public void addHolidays(List<Holiday> holidays) throws IOException {
+		List<String> rows = new ArrayList<String>(holidays.size());
+		for (Holiday holiday : holidays) {
+			rows.add(row(holiday.getName(), holiday.getDate(), OpumConstants.ADMIN));
+		}
+		insert("HOLIDAY (NAME, DATE, CREATEDBY)", rows, ROWS_PER_INSERT);
+		commit();
+	}
+
+	@Override
+	public int addProject(Project project) throws IOException {
+		int projectId = nextProjectId++;
+		project.setProjectId((long) projectId);
+		List<String> rows = new ArrayList<String>(1);
+		rows.add(row(projectId, project.getProjectName(), OpumConstants.ADMIN));
+		insert("PROJECT (PROJECT_ID, NAME, CREATEDBY)", rows, ROWS_PER_INSERT);
+		return projectId;
+	}
+
+	@Override
+	public int[] addEmployees(List<Employee> employees, List<ProjectEngagement> projectEngagements)
+			throws IOException {
+		int[] employeeIds = new int[employees.size()];
+		List<String> rows = new ArrayList<String>(employees.size());
+		for (int i = 0; i < employees.size(); i++) {
+			Employee employee = employees.get(i);
+			employeeIds[i] = nextEmployeeId++;
+			employee.setEmployeeId(employeeIds[i]);
+			rows.add(row(employeeIds[i], employee.getEmployeeIdNumber(), employee.getEmail(), employee.getFullName(),
+					employee.isActive() ? 1 : 0, OpumConstants.ADMIN));
+			projectEngagements.get(i).setEmployeeId(employeeIds[i]);
+		}
+		insert("EMPLOYEE (EMPLOYEE_ID, EMPLOYEE_ID_NUMBER, EMAIL, FULLNAME, ISACTIVE, CREATEDBY)", rows,
+				ROWS_PER_INSERT);
+		addProjectEngagements(projectEngagements);
+		return employeeIds;
+	}
+
+	@Override
+	public void addProjectEngagements(List<ProjectEngagement> projectEngagements) throws IOException {
+		List<String> rows = new ArrayList<String>(projectEngagements.size());
+		for (ProjectEngagement projectEngagement : projectEngagements) {
+			rows.add(row(projectEngagement.getProjectId(), projectEngagement.getEmployeeId(),
+					projectEngagement.getStartDate().toString(), projectEngagement.getEndDate().toString(),
+					OpumConstants.ADMIN));
+		}
+		insert("PROJECT_ENGAGEMENT (PROJECT_ID, EMPLOYEE_ID, START, END, CREATEDBY)", rows, ROWS_PER_INSERT);
+		commit();
+	}
+
+	@Override
+	public void addUtilizations(List<Utilization> utilizations) throws IOException {
+		List<String> rows = new ArrayList<String>(utilizations.size());
+		for (Utilization utilization : utilizations) {
+			rows.add(row(utilization.getEmployeeIdNumber(), Integer.parseInt(utilization.getYear()),
+					utilization.getUtilizationJson(), OpumConstants.ADMIN, OpumConstants.ADMIN));
+		}
+		insert("UTILIZATION (EMPLOYEE_ID, YEAR, UTILIZATION_JSON, CREATEDBY, UPDATEDBY)", rows,
+				UTILIZATIONS_PER_INSERT);
+		commit();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	private void insert(String table, List<String> rows, int rowsPerInsert) throws IOException {
+		for (int i = 0; i < rows.size(); i++) {
+			writer.write(i % rowsPerInsert == 0 ? "INSERT INTO " + table + " VALUES\n" : ",\n");
+			writer.write(rows.get(i));
+			if (i % rowsPerInsert == rowsPerInsert - 1 || i == rows.size() - 1) {
+				writer.write(";\n");
+			}
+		}
+	}
+
+	private void commit() throws IOException {
+		writer.write("COMMIT;\n");
+	}
+
+	private static String row(Object... values) {
+		StringBuilder row = new StringBuilder("(");
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				row.append(',');
+			}
+			Object value = values[i];
+			if (value == null) {
+				row.append("NULL");
+			} else if (value instanceof Number) {
+				row.append(value);
+			} else {
+				row.append('\'').append(value.toString().replace("\\", "\\\\").replace("'", "\\'")).append('\'');
+			}
+		}
+		return row.append(')').toString();
+	}
+}
@@ -0,0 +1,131 @@
+package com.ph.ibm.generator;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.ph.ibm.bo.TimeAwayTokens;
+import com.ph.ibm.model.UtilizationJson;
+import com.ph.ibm.model.UtilizationYear;
+
+/**
+ * This class generates the utilization of an employee for a year the way it
+ * is filled in: weekdays are mostly full days with the occasional partial
+ * day, vacation leave is taken in blocks, sick and emergency leave are single
+ * days, training comes in blocks, public holidays are HO and weekends are
+ * empty. Days before the roll-in or after the roll-off of the employee are
+ * empty. The same random generates the same utilization
+ */
+public class UtilizationGenerator {
+
+	private static final String FULL_DAY = "8";
+
+	private static final String EDITABLE = "E";
+
+	private final Set<LocalDate> holidays;
+
+	/**
+	 * @param holidays
+	 *            - public holidays, filled in as HO
+	 */
+	public UtilizationGenerator(Collection<LocalDate> holidays) {
+		this.holidays = new HashSet<LocalDate>(holidays);
+	}
+
+	/**
+	 * @param year
+	 * @param rollIn
+	 *            - first working day, null when the employee was already on
+	 *            board
+	 * @param rollOff
+	 *            - last working day, null when the employee is still on board
+	 * @param random
+	 * @return UtilizationYear - one entry per day of the year
+	 */
+	public UtilizationYear generate(int year, LocalDate rollIn, LocalDate rollOff, Random random) {
+		LocalDate firstDay = LocalDate.of(year, 1, 1);
+		int length = firstDay.lengthOfYear();
+		String[] hours = new String[length];
+		for (int i = 0; i < length; i++) {
+			LocalDate date = firstDay.plusDays(i);
+			if (isWeekend(date) || (rollIn != null && date.isBefore(rollIn))
+					|| (rollOff != null && date.isAfter(rollOff))) {
+				hours[i] = "";
+			} else if (holidays.contains(date)) {
+				hours[i] = TimeAwayTokens.HO.getS();
+			} else if (random.nextInt(100) < 6) {
+				hours[i] = Integer.toString(4 + random.nextInt(7));
+			} else {
+				hours[i] = FULL_DAY;
+			}
+		}
+		// 10 to 15 days of vacation leave in up to three blocks
+		int vacationLeave = 10 + random.nextInt(6);
+		for (int blocks = 1 + random.nextInt(3); blocks > 0 && vacationLeave > 0; blocks--) {
+			int days = blocks == 1 ? vacationLeave : Math.min(vacationLeave, 2 + random.nextInt(4));
+			vacationLeave -= takeBlock(hours, firstDay, random.nextInt(length), days, TimeAwayTokens.VL);
+		}
+		takeDays(hours, random, random.nextInt(7), TimeAwayTokens.SL);
+		takeDays(hours, random, random.nextInt(3), TimeAwayTokens.EL);
+		takeDays(hours, random, random.nextInt(3), TimeAwayTokens.CDO);
+		if (random.nextInt(10) == 0) {
+			takeDays(hours, random, 1, TimeAwayTokens.OL);
+		}
+		if (random.nextInt(3) == 0) {
+			takeBlock(hours, firstDay, random.nextInt(length), 2 + random.nextInt(4), TimeAwayTokens.TR);
+		}
+		List<UtilizationJson> days = new ArrayList<UtilizationJson>(length);
+		for (int i = 0; i < length; i++) {
+			LocalDate date = firstDay.plusDays(i);
+			// 1 is Sunday, as in the utilization sheet
+			int dayOfWeek = date.getDayOfWeek().getValue() % 7 + 1;
+			days.add(new UtilizationJson(date.getMonthValue(), dayOfWeek, date.getDayOfMonth(), hours[i], EDITABLE));
+		}
+		return new UtilizationYear(year, days);
+	}
+
+	/**
+	 * Replaces up to the given number of working days starting at a day with
+	 * the token, skipping weekends, holidays and leave already taken
+	 *
+	 * @return int - days replaced
+	 */
+	private int takeBlock(String[] hours, LocalDate firstDay, int start, int days, TimeAwayTokens token) {
+		int taken = 0;
+		for (int i = start; i < hours.length && taken < days; i++) {
+			if (isWorkingDay(hours[i])) {
+				hours[i] = token.getS();
+				taken++;
+			} else if (!hours[i].isEmpty() || !isWeekend(firstDay.plusDays(i))) {
+				// a holiday or an earlier leave ends the block
+				if (taken > 0) {
+					break;
+				}
+			}
+		}
+		return taken;
+	}
+
+	private void takeDays(String[] hours, Random random, int days, TimeAwayTokens token) {
+		for (int attempts = 0; days > 0 && attempts < days * 10; attempts++) {
+			int i = random.nextInt(hours.length);
+			if (isWorkingDay(hours[i])) {
+				hours[i] = token.getS();
+				days--;
+			}
+		}
+	}
+
+	private static boolean isWorkingDay(String hours) {
+		return !hours.isEmpty() && Character.isDigit(hours.charAt(0));
+	}
+
+	private static boolean isWeekend(LocalDate date) {
+		return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+	}
+}
@@ -0,0 +1,67 @@
+package com.ph.ibm.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ph.ibm.bo.ProjectBO;
+import com.ph.ibm.bo.UtilityBO;
+import com.ph.ibm.model.Year;
+
+/**
+ * Weekly, monthly and quarterly computation and year to date computation of
+ * a year of generated utilization. The utilization is parsed on every
+ * invocation, as it is in the services
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { UtilizationFixtures.PUM_YEAR_REPOSITORY, UtilizationFixtures.HOLIDAY_REPOSITORY,
+		UtilizationFixtures.PROJECT_REPOSITORY, UtilizationFixtures.ARCHIVE_REPOSITORY })
+public class ComputationBenchmark {
+
+	private static final int EMPLOYEES = 64;
+
+	private ProjectBO projectBO;
+
+	private UtilityBO utilityBO;
+
+	private int employeeId;
+
+	@Setup
+	public void setUp() {
+		InMemoryUtilizationRepository utilizationRepository = new InMemoryUtilizationRepository(EMPLOYEES,
+				UtilizationFixtures.YEAR);
+		InMemoryProjectEngagementRepository projectEngagementRepository = new InMemoryProjectEngagementRepository(
+				EMPLOYEES);
+		projectBO = new ProjectBO(null, projectEngagementRepository, utilizationRepository,
+				new InMemoryPUMYearRepository(), new InMemoryHolidayRepository());
+		utilityBO = new UtilityBO(utilizationRepository, projectEngagementRepository);
+	}
+
+	@Benchmark
+	public Year getComputation() throws Exception {
+		return projectBO.getComputation(nextEmployeeId(), UtilizationFixtures.YEAR);
+	}
+
+	@Benchmark
+	public Year getYTDComputation() throws Exception {
+		return utilityBO.getYTDComputation(nextEmployeeId(), UtilizationFixtures.YEAR);
+	}
+
+	private int nextEmployeeId() {
+		employeeId = employeeId % EMPLOYEES + 1;
+		return employeeId;
+	}
+}
@@ -0,0 +1,77 @@
+package com.ph.ibm.benchmark;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ph.ibm.bo.UtilityBO;
+
+/**
+ * Generating and writing the utilization workbook of every engaged employee.
+ * The workbook is written to a stream which discards it, so only building and
+ * serializing the workbook is measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { UtilizationFixtures.PUM_YEAR_REPOSITORY, UtilizationFixtures.HOLIDAY_REPOSITORY,
+		UtilizationFixtures.PROJECT_REPOSITORY, UtilizationFixtures.ARCHIVE_REPOSITORY })
+public class ExportBenchmark {
+
+	@Param({ "10", "100" })
+	public int employees;
+
+	private UtilityBO utilityBO;
+
+	/**
+	 * Counts the bytes written so the workbook cannot be optimized away
+	 */
+	private static final class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		utilityBO = new UtilityBO(new InMemoryUtilizationRepository(employees, UtilizationFixtures.YEAR),
+				new InMemoryProjectEngagementRepository(employees));
+	}
+
+	@Benchmark
+	public long writeUtilizationWorkbook() throws Exception {
+		CountingOutputStream out = new CountingOutputStream();
+		SXSSFWorkbook workbook = new SXSSFWorkbook();
+		try {
+			utilityBO.writeUtilizationSheet(workbook, String.valueOf(UtilizationFixtures.YEAR));
+			workbook.write(out);
+		} finally {
+			workbook.dispose();
+			workbook.close();
+		}
+		return out.count;
+	}
+}
@@ -0,0 +1,58 @@
+package com.ph.ibm.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ph.ibm.bo.UtilityBO;
+
+/**
+ * Marking the days of a year of utilization as editable or not, including
+ * the JSON conversion in both directions. The days of the current year are
+ * compared to today, the days of a past year are all closed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { UtilizationFixtures.PUM_YEAR_REPOSITORY, UtilizationFixtures.HOLIDAY_REPOSITORY,
+		UtilizationFixtures.PROJECT_REPOSITORY, UtilizationFixtures.ARCHIVE_REPOSITORY })
+public class FetchUtilizationsBenchmark {
+
+	private static final int EMPLOYEES = 64;
+
+	@Param({ "current", "past" })
+	public String year;
+
+	private UtilityBO utilityBO;
+
+	private String pumYear;
+
+	private int employeeId;
+
+	@Setup
+	public void setUp() {
+		int utilizationYear = "current".equals(year) ? LocalDate.now().getYear() : UtilizationFixtures.YEAR;
+		pumYear = String.valueOf(utilizationYear);
+		utilityBO = new UtilityBO(new InMemoryUtilizationRepository(EMPLOYEES, utilizationYear),
+				new InMemoryProjectEngagementRepository(EMPLOYEES));
+	}
+
+	@Benchmark
+	public String fetchUtilizations() throws Exception {
+		employeeId = employeeId % EMPLOYEES + 1;
+		return utilityBO.fetchUtilizations(String.valueOf(employeeId), pumYear);
+	}
+}
@@ -0,0 +1,74 @@
+package com.ph.ibm.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ph.ibm.util.FormatValidation;
+
+/**
+ * Validation of the fields of an uploaded employee row, over a mix of valid
+ * and invalid values
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatValidationBenchmark {
+
+	private static final int ROWS = 1024;
+
+	private static final String[] FIRST_NAMES = { "Juan", "Maria", "Jose", "Ana", "Mark Anthony", "Ma. Theresa" };
+
+	private static final String[] LAST_NAMES = { "Dela Cruz", "Santos", "Reyes", "Bautista", "Garcia", "O'Neil" };
+
+	private FormatValidation formatValidation = new FormatValidation();
+
+	private String[] names = new String[ROWS];
+
+	private String[] emails = new String[ROWS];
+
+	private String[] employeeIds = new String[ROWS];
+
+	private String[] projectNames = new String[ROWS];
+
+	private int row;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+			String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+			names[i] = firstName + " " + lastName;
+			// one in ten emails is not an IBM address
+			emails[i] = firstName.replaceAll("[^A-Za-z]", "").toLowerCase() + i
+					+ (random.nextInt(10) == 0 ? "@gmail.com" : "@ph.ibm.com");
+			employeeIds[i] = String.format("%06d", random.nextInt(1000000)) + "PH" + (random.nextInt(20) == 0 ? "-" : "1");
+			projectNames[i] = random.nextInt(10) == 0 ? "P" : "USAA" + random.nextInt(1000);
+		}
+	}
+
+	@Benchmark
+	public void validateRow(Blackhole blackhole) {
+		int i = row;
+		row = (row + 1) % ROWS;
+		blackhole.consume(formatValidation.isValidEmployeeName(names[i]));
+		blackhole.consume(formatValidation.isValidEmailAddress(emails[i]));
+		blackhole.consume(formatValidation.isValidEmployeeId(employeeIds[i]));
+		blackhole.consume(formatValidation.isValidProjectName(projectNames[i]));
+	}
+}
@@ -0,0 +1,57 @@
+package com.ph.ibm.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ph.ibm.model.Holiday;
+import com.ph.ibm.repository.HolidayEngagementRepository;
+
+/**
+ * Public holidays of the generated year
+ */
+public class InMemoryHolidayRepository implements HolidayEngagementRepository {
+
+	private final List<Holiday> holidays = UtilizationFixtures.holidays();
+
+	@Override
+	public boolean addHolidayEngagement(Holiday holiday) {
+		return true;
+	}
+
+	@Override
+	public boolean updateHolidayEngagement(Holiday holiday) {
+		return true;
+	}
+
+	@Override
+	public List<Holiday> getAllHoliday() {
+		return holidays;
+	}
+
+	@Override
+	public List<Holiday> getHolidays(int afterHolidayId, Integer year, int limit) {
+		List<Holiday> page = new ArrayList<Holiday>();
+		for (Holiday holiday : holidays) {
+			if (page.size() < limit && holiday.getHoliday_Id() > afterHolidayId
+					&& (year == null || holiday.getDate().startsWith(year + "-"))) {
+				page.add(holiday);
+			}
+		}
+		return page;
+	}
+
+	@Override
+	public Holiday checkHoliday(String name) {
+		for (Holiday holiday : holidays) {
+			if (holiday.getName().equals(name)) {
+				return holiday;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean deleteHoliday(Holiday holiday) {
+		return true;
+	}
+}
@@ -0,0 +1,74 @@
+package com.ph.ibm.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.ph.ibm.model.PUMMonth;
+import com.ph.ibm.model.PUMQuarter;
+import com.ph.ibm.model.PUMYear;
+import com.ph.ibm.repository.PUMYearRepository;
+
+/**
+ * PUM years from the generated year up to the current year, running from
+ * January to December. There are no quarter and month rows, so the fiscal
+ * calendar uses calendar quarters and months
+ */
+public class InMemoryPUMYearRepository implements PUMYearRepository {
+
+	@Override
+	public boolean saveYear(PUMYear pumYear) {
+		return true;
+	}
+
+	@Override
+	public List<PUMYear> retrieveYear() {
+		List<PUMYear> pumYears = new ArrayList<PUMYear>();
+		for (int year = UtilizationFixtures.YEAR; year <= LocalDate.now().getYear(); year++) {
+			pumYears.add(retrieveYearDate(year));
+		}
+		return pumYears;
+	}
+
+	@Override
+	public List<PUMYear> retrieveYears(int afterYearId, int limit) {
+		List<PUMYear> pumYears = new ArrayList<PUMYear>();
+		for (PUMYear pumYear : retrieveYear()) {
+			if (pumYears.size() < limit && pumYear.getYearId() > afterYearId) {
+				pumYears.add(pumYear);
+			}
+		}
+		return pumYears;
+	}
+
+	@Override
+	public PUMYear retrieveYearDate(int year) {
+		return new PUMYear(year, year, year + "-12-31", year + "-01-01", null, null, null, null);
+	}
+
+	@Override
+	public boolean editYear(PUMYear pumYear) {
+		return true;
+	}
+
+	@Override
+	public boolean saveQuarter(PUMQuarter pumQuarter) {
+		return true;
+	}
+
+	@Override
+	public boolean saveMonth(PUMMonth pumMonth) {
+		return true;
+	}
+
+	@Override
+	public List<PUMQuarter> retrieveQuarters() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<PUMMonth> retrieveMonths() {
+		return Collections.emptyList();
+	}
+}
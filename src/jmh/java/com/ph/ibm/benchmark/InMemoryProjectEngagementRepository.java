@@ -0,0 +1,64 @@
+package com.ph.ibm.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.repository.ProjectEngagementRepository;
+
+/**
+ * One generated project engagement per employee
+ */
+public class InMemoryProjectEngagementRepository implements ProjectEngagementRepository {
+
+	private final List<ProjectEngagement> projectEngagements;
+
+	public InMemoryProjectEngagementRepository(int employees) {
+		this.projectEngagements = UtilizationFixtures.projectEngagements(employees);
+	}
+
+	@Override
+	public boolean addProjectEngagement(ProjectEngagement projectEngagement) {
+		return true;
+	}
+
+	@Override
+	public boolean saveDate(ProjectEngagement projectEngagement) {
+		return true;
+	}
+
+	@Override
+	public int getProjectEngagementId(int projectId, int employeeId) {
+		return employeeId;
+	}
+
+	@Override
+	public boolean checkDates(int projectEngagementId) {
+		return true;
+	}
+
+	@Override
+	public List<ProjectEngagement> getAllProjectEngagement() {
+		return projectEngagements;
+	}
+
+	@Override
+	public List<ProjectEngagement> getProjectEngagements(int afterProjectEngagementId, Integer projectId,
+			Integer employeeId, int limit) {
+		List<ProjectEngagement> page = new ArrayList<ProjectEngagement>();
+		for (ProjectEngagement projectEngagement : projectEngagements) {
+			if (page.size() < limit && projectEngagement.getProjectEngagementId() > afterProjectEngagementId
+					&& (projectId == null || projectEngagement.getProjectId() == projectId)
+					&& (employeeId == null || projectEngagement.getEmployeeId() == employeeId)) {
+				page.add(projectEngagement);
+			}
+		}
+		return page;
+	}
+
+	@Override
+	public Stream<ProjectEngagement> streamProjectEngagements() {
+		return projectEngagements.stream();
+	}
+}
@@ -0,0 +1,34 @@
+package com.ph.ibm.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ph.ibm.model.Project;
+import com.ph.ibm.repository.ProjectRepository;
+
+/**
+ * Project table held in memory, starts empty and keeps the project catalog
+ * from reaching the database. Added projects get ids from 1
+ */
+public class InMemoryProjectRepository implements ProjectRepository {
+
+	private final List<Project> projects = new ArrayList<Project>();
+
+	@Override
+	public synchronized List<Project> retrieveData() {
+		return new ArrayList<Project>(projects);
+	}
+
+	@Override
+	public synchronized String getVersion() {
+		return String.valueOf(projects.size());
+	}
+
+	@Override
+	public synchronized int addProject(Project project) {
+		int projectId = projects.size() + 1;
+		project.setProjectId(Long.valueOf(projectId));
+		projects.add(project);
+		return projectId;
+	}
+}
@@ -0,0 +1,23 @@
+package com.ph.ibm.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.ph.ibm.repository.UtilizationArchiveRepository;
+
+/**
+ * No year is archived, so utilization is always read from the utilization
+ * repository of the benchmark
+ */
+public class InMemoryUtilizationArchiveRepository implements UtilizationArchiveRepository {
+
+	@Override
+	public List<Integer> getArchivedYears() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public int archiveYear(int year, String archivedBy) {
+		return 0;
+	}
+}
@@ -0,0 +1,73 @@
+package com.ph.ibm.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.repository.UtilizationEngagementRepository;
+
+/**
+ * Generated utilization of a number of employees for a single year. Employee
+ * ids start at 1, any employee id or year is answered so the services never
+ * miss
+ */
+public class InMemoryUtilizationRepository implements UtilizationEngagementRepository {
+
+	private final int year;
+
+	private final String[] utilizationJson;
+
+	public InMemoryUtilizationRepository(int employees, int year) {
+		this.year = year;
+		this.utilizationJson = new String[employees];
+		for (int i = 0; i < employees; i++) {
+			utilizationJson[i] = UtilizationFixtures.utilizationJson(year, i);
+		}
+	}
+
+	@Override
+	public boolean saveUtilization(Utilization utilization) {
+		return true;
+	}
+
+	@Override
+	public void saveUtilizations(List<Utilization> utilizations) {
+
+	}
+
+	@Override
+	public List<Utilization> retrieveUtilizations(String employeeIdNumber, String year) {
+		return Collections.singletonList(utilization(Integer.parseInt(employeeIdNumber)));
+	}
+
+	@Override
+	public Utilization downloadUtilization(String year, int employeeId) {
+		return utilization(employeeId);
+	}
+
+	@Override
+	public Utilization getComputation(int employeeId, int year) {
+		return utilization(employeeId);
+	}
+
+	@Override
+	public Stream<Utilization> streamUtilizations(String year) {
+		return IntStream.rangeClosed(1, utilizationJson.length).mapToObj(new IntFunction<Utilization>() {
+
+			@Override
+			public Utilization apply(int employeeId) {
+				Utilization utilization = utilization(employeeId);
+				utilization.setEmployeeSerial(utilization.getEmployeeIdNumber());
+				return utilization;
+			}
+		});
+	}
+
+	private Utilization utilization(int employeeId) {
+		int index = Math.floorMod(employeeId - 1, utilizationJson.length);
+		return new Utilization(String.valueOf(employeeId), String.valueOf(year), utilizationJson[index]);
+	}
+}
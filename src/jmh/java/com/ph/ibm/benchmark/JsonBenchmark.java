@@ -0,0 +1,56 @@
+package com.ph.ibm.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ph.ibm.model.UtilizationYear;
+import com.ph.ibm.util.JavaToJsonUtil;
+import com.ph.ibm.util.JsonToJavaUtil;
+
+/**
+ * Conversion of a year of utilization between the stored JSON and
+ * {@link UtilizationYear}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+	private String utilizationJson;
+
+	private UtilizationYear utilizationYear;
+
+	@Setup
+	public void setUp() {
+		utilizationYear = UtilizationFixtures.utilizationYear(UtilizationFixtures.YEAR, 1);
+		utilizationJson = JavaToJsonUtil.JavaToJson(utilizationYear);
+	}
+
+	@Benchmark
+	public UtilizationYear jsonToJava() {
+		return JsonToJavaUtil.JsonToJava(utilizationJson, UtilizationYear.class);
+	}
+
+	@Benchmark
+	public String javaToJson() {
+		return JavaToJsonUtil.JavaToJson(utilizationYear);
+	}
+
+	@Benchmark
+	public String roundTrip() {
+		return JavaToJsonUtil.JavaToJson(JsonToJavaUtil.JsonToJava(utilizationJson, UtilizationYear.class));
+	}
+}
@@ -0,0 +1,29 @@
+package com.ph.ibm.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class runs the benchmarks with the GC profiler, so every benchmark
+ * reports its throughput and the bytes allocated per operation
+ * (gc.alloc.rate.norm). Results are also written to target/jmh-result.json.
+ * Run with "mvn -P benchmark verify", a regular expression of the benchmarks
+ * to run can be passed with -Djmh.include
+ */
+public class OpumBenchmarks {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : OpumBenchmarks.class.getPackage().getName();
+		Options options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result("target/jmh-result.json")
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,91 @@
+package com.ph.ibm.benchmark;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.ph.ibm.generator.OrganizationDataGenerator;
+import com.ph.ibm.generator.UtilizationGenerator;
+import com.ph.ibm.model.Holiday;
+import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.model.UtilizationYear;
+import com.ph.ibm.util.JavaToJsonUtil;
+
+/**
+ * This class generates the utilization of employees with the
+ * {@link UtilizationGenerator}, over the public holidays of the
+ * {@link OrganizationDataGenerator}. The same seed always generates the same
+ * utilization, so benchmark runs can be compared
+ */
+public final class UtilizationFixtures {
+
+	/** JVM argument which loads the fiscal calendar from memory */
+	public static final String PUM_YEAR_REPOSITORY = "-Dopum.repository.PUMYearRepository=com.ph.ibm.benchmark.InMemoryPUMYearRepository";
+
+	/** JVM argument which loads the holiday calendar from memory */
+	public static final String HOLIDAY_REPOSITORY = "-Dopum.repository.HolidayEngagementRepository=com.ph.ibm.benchmark.InMemoryHolidayRepository";
+
+	/** JVM argument which loads the project catalog from memory */
+	public static final String PROJECT_REPOSITORY = "-Dopum.repository.ProjectRepository=com.ph.ibm.benchmark.InMemoryProjectRepository";
+
+	/** JVM argument which loads the archived years from memory */
+	public static final String ARCHIVE_REPOSITORY = "-Dopum.repository.UtilizationArchiveRepository=com.ph.ibm.benchmark.InMemoryUtilizationArchiveRepository";
+
+	/** Year of the generated utilization */
+	public static final int YEAR = 2017;
+
+	private UtilizationFixtures() {
+
+	}
+
+	/**
+	 * @param year
+	 * @param seed
+	 * @return UtilizationYear - one entry per day of the year
+	 */
+	public static UtilizationYear utilizationYear(int year, long seed) {
+		List<LocalDate> holidays = new ArrayList<LocalDate>();
+		for (Holiday holiday : OrganizationDataGenerator.holidays(year)) {
+			holidays.add(LocalDate.parse(holiday.getDate()));
+		}
+		return new UtilizationGenerator(holidays).generate(year, null, null, new Random(seed));
+	}
+
+	/**
+	 * @param year
+	 * @param seed
+	 * @return String - utilization as it is stored in the utilization table
+	 */
+	public static String utilizationJson(int year, long seed) {
+		return JavaToJsonUtil.JavaToJson(utilizationYear(year, seed));
+	}
+
+	/**
+	 * @param employees
+	 * @return List - one engagement per employee, employee ids start at 1
+	 */
+	public static List<ProjectEngagement> projectEngagements(int employees) {
+		List<ProjectEngagement> projectEngagements = new ArrayList<ProjectEngagement>(employees);
+		Random random = new Random(employees);
+		for (int employeeId = 1; employeeId <= employees; employeeId++) {
+			LocalDate rollIn = LocalDate.of(YEAR - 1, 1, 1).plusDays(random.nextInt(365));
+			LocalDate rollOff = rollIn.plusDays(365 + random.nextInt(730));
+			projectEngagements.add(new ProjectEngagement(employeeId, 1 + random.nextInt(20), employeeId,
+					Date.valueOf(rollIn), Date.valueOf(rollOff), null, null, "benchmark", "benchmark"));
+		}
+		return projectEngagements;
+	}
+
+	/**
+	 * @return List - public holidays of the generated year
+	 */
+	public static List<Holiday> holidays() {
+		List<Holiday> holidays = OrganizationDataGenerator.holidays(YEAR);
+		for (int i = 0; i < holidays.size(); i++) {
+			holidays.get(i).setHoliday_Id(i + 1);
+		}
+		return holidays;
+	}
+}
@@ -0,0 +1,147 @@
+package com.ph.ibm.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+
+import com.ph.ibm.OpumApplication;
+import com.ph.ibm.loadtest.OpumClient.Reply;
+
+/**
+ * This class runs the web service in an embedded Grizzly server against the
+ * {@link StandInDatabase} and drives it with concurrent {@link VirtualUser}s.
+ * At the end it prints the throughput and latency of each {@link Operation}
+ * and keeps the report and the service's own metrics in the target directory.
+ * Run with mvn -Ploadtest verify, the test is configured with system
+ * properties:
+ * <ul>
+ * <li>loadtest.users - concurrent virtual users, default 50</li>
+ * <li>loadtest.duration.seconds - default 60</li>
+ * <li>loadtest.rampup.seconds - time to start all users, default 10</li>
+ * <li>loadtest.employees - seeded employees, default 500</li>
+ * <li>loadtest.think.ms - mean pause between requests of a user, default
+ * 100</li>
+ * <li>loadtest.port - default 9998</li>
+ * <li>loadtest.year - year of the seeded utilization, default 2017</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+	private static final String LOG_CONFIG = "src/loadtest/resources/log4j-loadtest.properties";
+
+	private static final String REPORT = "target/loadtest-report.txt";
+
+	private static final String METRICS = "target/loadtest-metrics.txt";
+
+	private LoadTest() {
+
+	}
+
+	public static void main(String[] args) throws Exception {
+		int users = Integer.getInteger("loadtest.users", 50);
+		int durationSeconds = Integer.getInteger("loadtest.duration.seconds", 60);
+		int rampUpSeconds = Integer.getInteger("loadtest.rampup.seconds", 10);
+		int employees = Integer.getInteger("loadtest.employees", 500);
+		int thinkMillis = Integer.getInteger("loadtest.think.ms", 100);
+		int port = Integer.getInteger("loadtest.port", 9998);
+		int year = Integer.getInteger("loadtest.year", 2017);
+
+		// read when the service classes are loaded, so set before any of them
+		System.setProperty("opum.db.url", StandInDatabase.URL);
+		System.setProperty("opum.db.driver", "org.h2.Driver");
+		System.setProperty("opum.db.user", "sa");
+		System.setProperty("opum.db.password", "");
+		// H2 rejects the MySQL streaming fetch size
+		System.setProperty("opum.db.fetchSize", "500");
+		if (System.getProperty("opum.log.config") == null && new File(LOG_CONFIG).isFile()) {
+			System.setProperty("opum.log.config", LOG_CONFIG);
+		}
+
+		StandInDatabase database = StandInDatabase.start();
+		String baseUri = "http://localhost:" + port + "/webapi/";
+		HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(baseUri), new OpumApplication());
+		Logger logger = Logger.getLogger(LoadTest.class);
+		try {
+			database.seed(employees, year);
+			logger.info("Running " + users + " user/s for " + durationSeconds + "s against " + baseUri);
+			Map<Operation, OperationStats> stats = run(baseUri, users, durationSeconds, rampUpSeconds,
+					Math.min(users, employees), thinkMillis, year);
+			String report = report(stats, durationSeconds, users);
+			System.out.println(report);
+			write(REPORT, report);
+			Reply metrics = new OpumClient(baseUri).get("opum/metrics");
+			write(METRICS, metrics.getBody());
+		} finally {
+			server.shutdownNow();
+			database.stop();
+		}
+	}
+
+	private static Map<Operation, OperationStats> run(String baseUri, int users, int durationSeconds,
+			int rampUpSeconds, int employees, int thinkMillis, int year) throws InterruptedException {
+		Map<Operation, OperationStats> stats = new EnumMap<Operation, OperationStats>(Operation.class);
+		List<Operation> mix = new ArrayList<Operation>();
+		for (Operation operation : Operation.values()) {
+			stats.put(operation, new OperationStats());
+			for (int i = 0; i < operation.getWeight(); i++) {
+				mix.add(operation);
+			}
+		}
+		Operation[] weighted = mix.toArray(new Operation[mix.size()]);
+		long rampUpNanos = TimeUnit.SECONDS.toNanos(rampUpSeconds);
+		long endNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+		List<Thread> threads = new ArrayList<Thread>(users);
+		for (int i = 0; i < users; i++) {
+			Thread thread = new Thread(new VirtualUser(baseUri, i % employees + 1, year, weighted, stats, thinkMillis,
+					endNanos), "virtual-user-" + (i + 1));
+			thread.setDaemon(true);
+			threads.add(thread);
+			thread.start();
+			if (users > 1) {
+				TimeUnit.NANOSECONDS.sleep(rampUpNanos / (users - 1));
+			}
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return stats;
+	}
+
+	private static String report(Map<Operation, OperationStats> stats, int durationSeconds, int users) {
+		StringBuilder report = new StringBuilder();
+		report.append(users).append(" user/s, ").append(durationSeconds).append("s\n");
+		report.append(OperationStats.header()).append('\n');
+		long count = 0;
+		long errors = 0;
+		for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+			OperationStats operationStats = entry.getValue();
+			if (operationStats.getCount() == 0) {
+				continue;
+			}
+			count += operationStats.getCount();
+			errors += operationStats.getErrors();
+			report.append(operationStats.format(entry.getKey().getLabel(), durationSeconds)).append('\n');
+		}
+		report.append(String.format("%-18s %8d %7d %9.1f", "total", count, errors, (double) count / durationSeconds));
+		return report.toString();
+	}
+
+	private static void write(String fileName, String content) throws IOException {
+		File file = new File(fileName);
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
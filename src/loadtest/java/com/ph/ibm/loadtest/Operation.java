@@ -0,0 +1,50 @@
+package com.ph.ibm.loadtest;
+
+/**
+ * Requests sent by a virtual user. After logging in, a virtual user picks the
+ * next request at random by weight; the weight of each request can be changed
+ * with the "loadtest.weight.&lt;operation&gt;" system property, e.g.
+ * -Dloadtest.weight.export=1. Admin requests are only sent by the seeded
+ * admins
+ */
+public enum Operation {
+
+	LOGIN(0, false),
+	FETCH_UTILIZATION(30, false),
+	SAVE_UTILIZATION(10, false),
+	COMPUTATION(20, false),
+	YTD_COMPUTATION(15, false),
+	PROJECT_LIST(20, false),
+	EXPORT(5, true),
+	LOGOUT(5, false);
+
+	private final int defaultWeight;
+
+	private final boolean admin;
+
+	private Operation(int defaultWeight, boolean admin) {
+		this.defaultWeight = defaultWeight;
+		this.admin = admin;
+	}
+
+	/**
+	 * @return boolean - true if only an admin may send the request
+	 */
+	public boolean isAdmin() {
+		return admin;
+	}
+
+	/**
+	 * @return int - weight of the operation in the mix of requests
+	 */
+	public int getWeight() {
+		return Integer.getInteger("loadtest.weight." + name().toLowerCase(), defaultWeight);
+	}
+
+	/**
+	 * @return String - name of the operation in the report
+	 */
+	public String getLabel() {
+		return name().toLowerCase();
+	}
+}
@@ -0,0 +1,58 @@
+package com.ph.ibm.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ph.ibm.metrics.LatencyHistogram;
+
+/**
+ * This class holds the latency and errors of one {@link Operation}, as seen
+ * by the virtual users
+ */
+public class OperationStats {
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	private final LongAdder errors = new LongAdder();
+
+	/**
+	 * @param nanos
+	 *            - time from sending the request to reading the whole response
+	 * @param successful
+	 */
+	public void record(long nanos, boolean successful) {
+		latency.record(nanos);
+		if (!successful) {
+			errors.increment();
+		}
+	}
+
+	public long getCount() {
+		return latency.getCount();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * @param label
+	 * @param seconds
+	 *            - length of the test
+	 * @return String - one line of the report
+	 */
+	public String format(String label, double seconds) {
+		long count = getCount();
+		return String.format("%-18s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f", label, count, getErrors(),
+				count / seconds, count == 0 ? 0 : latency.getSumSeconds() * 1000 / count,
+				latency.getQuantileSeconds(0.5) * 1000, latency.getQuantileSeconds(0.95) * 1000,
+				latency.getQuantileSeconds(0.99) * 1000, latency.getMaxSeconds() * 1000);
+	}
+
+	/**
+	 * @return String - header of the report lines
+	 */
+	public static String header() {
+		return String.format("%-18s %8s %7s %9s %9s %9s %9s %9s %9s", "operation", "count", "errors", "req/s",
+				"mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms");
+	}
+}
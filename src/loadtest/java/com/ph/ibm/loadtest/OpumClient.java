@@ -0,0 +1,164 @@
+package com.ph.ibm.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class sends the requests of one virtual user to the web service and
+ * keeps the session token it was issued at login
+ */
+public class OpumClient {
+
+	private static final String BEARER = "Bearer ";
+
+	private static final int TIMEOUT_MILLIS = 30000;
+
+	private final String baseUri;
+
+	private String authorization;
+
+	/**
+	 * Status and body of a response
+	 */
+	public static final class Reply {
+
+		private final int status;
+		private final String body;
+
+		private Reply(int status, String body) {
+			this.status = status;
+			this.body = body;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public String getBody() {
+			return body;
+		}
+
+		/**
+		 * @return boolean - true when the status is 2xx
+		 */
+		public boolean isSuccessful() {
+			return status >= 200 && status < 300;
+		}
+	}
+
+	/**
+	 * @param baseUri
+	 *            - e.g. http://localhost:9998/webapi/
+	 */
+	public OpumClient(String baseUri) {
+		this.baseUri = baseUri;
+	}
+
+	/**
+	 * This method is used to log in, the session token of a successful login
+	 * is sent with the following requests
+	 *
+	 * @param email
+	 * @param password
+	 * @return Reply
+	 * @throws IOException
+	 */
+	public Reply login(String email, String password) throws IOException {
+		HttpURLConnection connection = open("POST", "opum/userLogin/" + email, "application/json");
+		Reply reply = send(connection, password);
+		String header = connection.getHeaderField("Authorization");
+		authorization = reply.isSuccessful() && header != null && header.startsWith(BEARER) ? header : null;
+		return reply;
+	}
+
+	/**
+	 * This method is used to log out and forget the session token
+	 *
+	 * @return Reply
+	 * @throws IOException
+	 */
+	public Reply logout() throws IOException {
+		Reply reply = post("opum/userLogout", null, null);
+		authorization = null;
+		return reply;
+	}
+
+	/**
+	 * @return boolean - true when a session token was issued
+	 */
+	public boolean isLoggedIn() {
+		return authorization != null;
+	}
+
+	/**
+	 * @param path
+	 *            - relative to the base uri
+	 * @return Reply
+	 * @throws IOException
+	 */
+	public Reply get(String path) throws IOException {
+		return send(open("GET", path, null), null);
+	}
+
+	/**
+	 * @param path
+	 *            - relative to the base uri
+	 * @param contentType
+	 * @param body
+	 *            - null to send an empty body
+	 * @return Reply
+	 * @throws IOException
+	 */
+	public Reply post(String path, String contentType, String body) throws IOException {
+		return send(open("POST", path, contentType), body);
+	}
+
+	private HttpURLConnection open(String method, String path, String contentType) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(baseUri + path).openConnection();
+		connection.setRequestMethod(method);
+		connection.setConnectTimeout(TIMEOUT_MILLIS);
+		connection.setReadTimeout(TIMEOUT_MILLIS);
+		if (contentType != null) {
+			connection.setRequestProperty("Content-Type", contentType);
+		}
+		if (authorization != null) {
+			connection.setRequestProperty("Authorization", authorization);
+		}
+		return connection;
+	}
+
+	/**
+	 * The whole response is read so the connection can be kept alive and
+	 * reused by the next request
+	 */
+	private static Reply send(HttpURLConnection connection, String body) throws IOException {
+		if (body != null || "POST".equals(connection.getRequestMethod())) {
+			connection.setDoOutput(true);
+			try (OutputStream outputStream = connection.getOutputStream()) {
+				if (body != null) {
+					outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+		}
+		int status = connection.getResponseCode();
+		InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+		if (inputStream == null) {
+			return new Reply(status, "");
+		}
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[8192];
+			for (int read; (read = inputStream.read(buffer)) != -1;) {
+				content.write(buffer, 0, read);
+			}
+		} finally {
+			inputStream.close();
+		}
+		return new Reply(status, new String(content.toByteArray(), StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,306 @@
+package com.ph.ibm.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.generator.OrganizationDataGenerator;
+import com.ph.ibm.generator.UtilizationGenerator;
+import com.ph.ibm.model.Holiday;
+import com.ph.ibm.util.JavaToJsonUtil;
+import com.ph.ibm.util.MD5HashEncrypter;
+
+/**
+ * This class runs an in-memory H2 database in MySQL mode in place of the opum
+ * schema. The schema is created from the MySQL dump in
+ * src/main/resources/sql, translated to statements H2 accepts, followed by
+ * sql/loadtest-schema.sql for the tables the dump does not have yet. The
+ * database lives as long as the JVM
+ */
+public class StandInDatabase {
+
+	/** JDBC URL of the stand-in database */
+	public static final String URL = "jdbc:h2:mem:opum;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	/** Password of every seeded employee */
+	public static final String PASSWORD = "loadtest";
+
+	/** Employee id and employee id number of the first seeded employee */
+	public static final int FIRST_EMPLOYEE_ID = 100001;
+
+	/** One in this many seeded employees is an admin, starting with the first */
+	public static final int ADMIN_EVERY = 10;
+
+	private static final String SCHEMA = "sql/onlinePUM_databaseDefinition_20170816v2.sql";
+
+	private static final String LOADTEST_SCHEMA = "sql/loadtest-schema.sql";
+
+	private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE (\\w+) \\(");
+
+	private static final Pattern KEY = Pattern.compile("^\\s*(UNIQUE |PRIMARY )?KEY (\\w+)? ?\\(([^)]*)\\),?$");
+
+	private static final int BATCH_SIZE = 500;
+
+	private Logger logger = Logger.getLogger(StandInDatabase.class);
+
+	/** Keeps the in-memory database open */
+	private final Connection connection;
+
+	private StandInDatabase(Connection connection) {
+		this.connection = connection;
+	}
+
+	/**
+	 * This method is used to create the database and its schema
+	 *
+	 * @return StandInDatabase
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public static StandInDatabase start() throws SQLException, IOException {
+		StandInDatabase database = new StandInDatabase(DriverManager.getConnection(URL, "sa", ""));
+		database.execute(database.translate(read(SCHEMA)));
+		database.execute(statements(read(LOADTEST_SCHEMA)));
+		return database;
+	}
+
+	/**
+	 * This method is used to add employees with a project engagement, a PUM
+	 * year and a year of utilization each. Employee ids and employee id numbers
+	 * are equal and start at {@link #FIRST_EMPLOYEE_ID}, emails are
+	 * user&lt;n&gt;@ph.ibm.com starting at 1, and the password is
+	 * {@link #PASSWORD}
+	 *
+	 * @param employees
+	 * @param year
+	 * @throws Exception
+	 */
+	public void seed(int employees, int year) throws Exception {
+		String hashed = MD5HashEncrypter.computeMD5Digest(PASSWORD);
+		Random random = new Random(employees);
+		List<LocalDate> holidays = new ArrayList<LocalDate>();
+		for (Holiday holiday : OrganizationDataGenerator.holidays(year)) {
+			holidays.add(LocalDate.parse(holiday.getDate()));
+		}
+		UtilizationGenerator utilizationGenerator = new UtilizationGenerator(holidays);
+		connection.setAutoCommit(false);
+		try (PreparedStatement employee = connection.prepareStatement(
+				"INSERT INTO EMPLOYEE (EMPLOYEE_ID, EMPLOYEE_ID_NUMBER, EMAIL, FULLNAME, PASSWORD, ISADMIN, ISACTIVE, CREATEDBY) VALUES (?,?,?,?,?,?,1,'LOADTEST')");
+				PreparedStatement projectEngagement = connection.prepareStatement(
+						"INSERT INTO PROJECT_ENGAGEMENT (PROJECT_ID, EMPLOYEE_ID, START, END) VALUES (1,?,?,?)");
+				PreparedStatement utilization = connection.prepareStatement(
+						"INSERT INTO UTILIZATION (EMPLOYEE_ID, YEAR, UTILIZATION_JSON, CREATEDBY, UPDATEDBY) VALUES (?,?,?,?,?)")) {
+			for (int i = 1; i <= employees; i++) {
+				int employeeId = FIRST_EMPLOYEE_ID + i - 1;
+				String employeeIdNumber = String.valueOf(employeeId);
+				employee.setInt(1, employeeId);
+				employee.setString(2, employeeIdNumber);
+				employee.setString(3, email(i));
+				employee.setString(4, "Load Test User " + i);
+				employee.setString(5, hashed);
+				employee.setInt(6, isAdmin(i) ? 1 : 0);
+				employee.addBatch();
+				projectEngagement.setInt(1, employeeId);
+				projectEngagement.setDate(2, Date.valueOf(LocalDate.of(year, 1, 1)));
+				projectEngagement.setDate(3, Date.valueOf(LocalDate.of(year + 1, 12, 31)));
+				projectEngagement.addBatch();
+				utilization.setString(1, employeeIdNumber);
+				utilization.setInt(2, year);
+				utilization.setString(3, JavaToJsonUtil.JavaToJson(utilizationGenerator.generate(year, null, null, random)));
+				utilization.setString(4, employeeIdNumber);
+				utilization.setString(5, employeeIdNumber);
+				utilization.addBatch();
+				if (i % BATCH_SIZE == 0 || i == employees) {
+					employee.executeBatch();
+					projectEngagement.executeBatch();
+					utilization.executeBatch();
+				}
+			}
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("INSERT INTO YEAR (PUMYEAR, START, END) SELECT " + year + ", '" + year
+						+ "-01-01', '" + year + "-12-31' FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM YEAR WHERE PUMYEAR = "
+						+ year + ")");
+			}
+			seedPeriods(year);
+			connection.commit();
+		} finally {
+			connection.setAutoCommit(true);
+		}
+		logger.info("Seeded " + employees + " employee/s with utilization for " + year);
+	}
+
+	/**
+	 * @param n
+	 *            - starts at 1
+	 * @return String - email of the n-th seeded employee, used to log in
+	 */
+	public static String email(int n) {
+		return "user" + n + "@ph.ibm.com";
+	}
+
+	/**
+	 * @param n
+	 *            - seeded employee, starts at 1
+	 * @return boolean - true if the employee is seeded as an admin
+	 */
+	public static boolean isAdmin(int n) {
+		return n % ADMIN_EVERY == 1;
+	}
+
+	/**
+	 * This method is used to drop the database
+	 *
+	 * @throws SQLException
+	 */
+	public void stop() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SHUTDOWN");
+		}
+		connection.close();
+	}
+
+	/**
+	 * Calendar quarters and months of the year, the fiscal calendar only needs
+	 * their ranges
+	 */
+	private void seedPeriods(int year) throws SQLException {
+		try (PreparedStatement quarter = connection
+				.prepareStatement("INSERT INTO QUARTER (PUMQUARTER, START, END) VALUES (?,?,?)");
+				PreparedStatement month = connection
+						.prepareStatement("INSERT INTO MONTH (PUMMONTH, START, END) VALUES (?,?,?)")) {
+			for (int i = 1; i <= 12; i++) {
+				LocalDate start = LocalDate.of(year, i, 1);
+				month.setInt(1, i);
+				month.setDate(2, Date.valueOf(start));
+				month.setDate(3, Date.valueOf(start.plusMonths(1).minusDays(1)));
+				month.addBatch();
+				if (i % 3 == 1) {
+					quarter.setInt(1, i / 3 + 1);
+					quarter.setDate(2, Date.valueOf(start));
+					quarter.setDate(3, Date.valueOf(start.plusMonths(3).minusDays(1)));
+					quarter.addBatch();
+				}
+			}
+			quarter.executeBatch();
+			month.executeBatch();
+		}
+	}
+
+	/**
+	 * Translates the statements of a mysqldump to H2: identifiers are unquoted,
+	 * table options, foreign keys and ON UPDATE clauses are dropped, keys become
+	 * constraints and indexes named after their table, and MySQL string escapes
+	 * are removed from the data
+	 */
+	private List<String> translate(String dump) {
+		List<String> translated = new ArrayList<String>();
+		for (String statement : statements(dump)) {
+			statement = statement.replace("`", "").replaceAll("(?i) ON UPDATE CURRENT_TIMESTAMP", "");
+			Matcher createTable = CREATE_TABLE.matcher(statement);
+			if (!createTable.find()) {
+				translated.add(statement.replace("\\\"", "\"").replace("\\'", "''"));
+				continue;
+			}
+			String table = createTable.group(1).toUpperCase();
+			List<String> columns = new ArrayList<String>();
+			List<String> indexes = new ArrayList<String>();
+			String[] lines = statement.split("\n");
+			for (int i = 1; i < lines.length - 1; i++) {
+				String line = lines[i].trim();
+				if (line.endsWith(",")) {
+					line = line.substring(0, line.length() - 1);
+				}
+				Matcher key = KEY.matcher(line);
+				if (line.startsWith("CONSTRAINT")) {
+					continue;
+				} else if (key.matches()) {
+					String kind = key.group(1) == null ? "" : key.group(1).trim();
+					if ("PRIMARY".equals(kind)) {
+						columns.add("PRIMARY KEY (" + key.group(3) + ")");
+					} else if ("UNIQUE".equals(kind)) {
+						columns.add("CONSTRAINT " + table + "_" + key.group(2) + " UNIQUE (" + key.group(3) + ")");
+					} else {
+						indexes.add("CREATE INDEX " + table + "_" + key.group(2) + " ON " + table + " (" + key.group(3)
+								+ ")");
+					}
+				} else {
+					columns.add(line);
+				}
+			}
+			StringBuilder create = new StringBuilder("CREATE TABLE ").append(table).append(" (");
+			for (int i = 0; i < columns.size(); i++) {
+				create.append(i == 0 ? "" : ", ").append(columns.get(i));
+			}
+			translated.add(create.append(')').toString());
+			translated.addAll(indexes);
+		}
+		return translated;
+	}
+
+	/**
+	 * Splits a script into statements, statements end with a semicolon at the
+	 * end of a line. Comments, MySQL conditional comments and table locks are
+	 * skipped
+	 */
+	private static List<String> statements(String script) {
+		List<String> statements = new ArrayList<String>();
+		StringBuilder statement = new StringBuilder();
+		for (String line : script.split("\r?\n")) {
+			String trimmed = line.trim();
+			if (trimmed.isEmpty() || trimmed.startsWith("--") || trimmed.startsWith("/*!")
+					|| trimmed.startsWith("LOCK TABLES") || trimmed.startsWith("UNLOCK TABLES")) {
+				continue;
+			}
+			statement.append(line).append('\n');
+			if (trimmed.endsWith(";")) {
+				String text = statement.toString().trim();
+				statements.add(text.substring(0, text.length() - 1));
+				statement.setLength(0);
+			}
+		}
+		return statements;
+	}
+
+	private void execute(List<String> statements) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			for (String sql : statements) {
+				try {
+					statement.execute(sql);
+				} catch (SQLException e) {
+					throw new SQLException("Unable to run " + sql, e);
+				}
+			}
+		}
+	}
+
+	private static String read(String resource) throws IOException {
+		InputStream inputStream = StandInDatabase.class.getClassLoader().getResourceAsStream(resource);
+		if (inputStream == null) {
+			throw new IOException(resource + " not found on the classpath");
+		}
+		StringBuilder text = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+			char[] buffer = new char[8192];
+			for (int read; (read = reader.read(buffer)) != -1;) {
+				text.append(buffer, 0, read);
+			}
+		}
+		return text.toString();
+	}
+}
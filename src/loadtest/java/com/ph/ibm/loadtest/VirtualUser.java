@@ -0,0 +1,142 @@
+package com.ph.ibm.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.loadtest.OpumClient.Reply;
+
+/**
+ * This class is one user of the web service. It logs in as one of the seeded
+ * employees and sends requests picked by weight from the {@link Operation}
+ * mix, with a random think time between requests, until the test ends
+ */
+public class VirtualUser implements Runnable {
+
+	private Logger logger = Logger.getLogger(VirtualUser.class);
+
+	private final OpumClient client;
+
+	private final int employee;
+
+	private final int year;
+
+	private final Operation[] mix;
+
+	private final Map<Operation, OperationStats> stats;
+
+	private final long thinkMillis;
+
+	private final long endNanos;
+
+	private final Random random;
+
+	private String utilization;
+
+	/**
+	 * @param baseUri
+	 * @param employee
+	 *            - seeded employee the user logs in as, starts at 1
+	 * @param year
+	 *            - year of the seeded utilization
+	 * @param mix
+	 *            - each operation repeated by its weight, admin operations
+	 *            are left out unless the employee is an admin
+	 * @param stats
+	 *            - shared by all virtual users
+	 * @param thinkMillis
+	 *            - mean pause between requests
+	 * @param endNanos
+	 *            - {@link System#nanoTime()} at which the user stops
+	 */
+	public VirtualUser(String baseUri, int employee, int year, Operation[] mix, Map<Operation, OperationStats> stats,
+			long thinkMillis, long endNanos) {
+		this.client = new OpumClient(baseUri);
+		this.employee = employee;
+		this.year = year;
+		this.mix = StandInDatabase.isAdmin(employee) ? mix : withoutAdminOperations(mix);
+		this.stats = stats;
+		this.thinkMillis = thinkMillis;
+		this.endNanos = endNanos;
+		this.random = new Random(employee);
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (System.nanoTime() < endNanos) {
+				Operation operation = client.isLoggedIn() ? mix[random.nextInt(mix.length)] : Operation.LOGIN;
+				if (operation == Operation.SAVE_UTILIZATION && utilization == null) {
+					// saves what the user fetched last
+					operation = Operation.FETCH_UTILIZATION;
+				}
+				long start = System.nanoTime();
+				boolean successful;
+				try {
+					successful = send(operation);
+				} catch (Exception e) {
+					if (logger.isDebugEnabled()) {
+						logger.debug(operation.getLabel() + " failed", e);
+					}
+					successful = false;
+				}
+				stats.get(operation).record(System.nanoTime() - start, successful);
+				if (thinkMillis > 0) {
+					Thread.sleep((long) (thinkMillis * 2 * random.nextDouble()));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Operation[] withoutAdminOperations(Operation[] mix) {
+		List<Operation> operations = new ArrayList<Operation>(mix.length);
+		for (Operation operation : mix) {
+			if (!operation.isAdmin()) {
+				operations.add(operation);
+			}
+		}
+		return operations.toArray(new Operation[operations.size()]);
+	}
+
+	private boolean send(Operation operation) throws Exception {
+		String employeeId = String.valueOf(StandInDatabase.FIRST_EMPLOYEE_ID + employee - 1);
+		Reply reply;
+		switch (operation) {
+		case LOGIN:
+			reply = client.login(StandInDatabase.email(employee), StandInDatabase.PASSWORD);
+			break;
+		case FETCH_UTILIZATION:
+			reply = client.get("opum/utilization/" + employeeId + "/" + year);
+			if (reply.isSuccessful()) {
+				utilization = reply.getBody();
+			}
+			break;
+		case SAVE_UTILIZATION:
+			reply = client.post("opum/utilization/" + employeeId + "/" + year, "application/json", utilization);
+			break;
+		case COMPUTATION:
+			reply = client.get("opum/getComputation/" + employeeId + "/" + year);
+			break;
+		case YTD_COMPUTATION:
+			reply = client.get("opum/getYTDComputation/" + employeeId + "/" + year);
+			break;
+		case PROJECT_LIST:
+			reply = client.get("opum/projectList");
+			break;
+		case EXPORT:
+			reply = client.get("opum/downloadUtilization?year=" + year);
+			break;
+		case LOGOUT:
+			reply = client.logout();
+			break;
+		default:
+			throw new IllegalArgumentException(operation.name());
+		}
+		return reply.isSuccessful();
+	}
+}
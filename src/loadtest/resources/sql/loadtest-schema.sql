@@ -0,0 +1,79 @@
+--
+-- Tables read by the repositories which are not in
+-- onlinePUM_databaseDefinition_20170816v2.sql. Applied by the load test
+-- after the dump. The utilization archive tables come from
+-- onlinePUM_utilizationArchive.sql and the change log tables from
+-- onlinePUM_utilizationChangeLog.sql without the MySQL storage options, H2
+-- has no partitioning so the utilization table is left as is
+--
+
+DROP TABLE IF EXISTS QUARTER;
+
+CREATE TABLE QUARTER (
+  QUARTER_ID int NOT NULL AUTO_INCREMENT,
+  PUMQUARTER tinyint NOT NULL,
+  START date NOT NULL,
+  END date NOT NULL,
+  PRIMARY KEY (QUARTER_ID)
+);
+
+DROP TABLE IF EXISTS MONTH;
+
+CREATE TABLE MONTH (
+  MONTH_ID int NOT NULL AUTO_INCREMENT,
+  PUMMONTH tinyint NOT NULL,
+  START date NOT NULL,
+  END date NOT NULL,
+  PRIMARY KEY (MONTH_ID)
+);
+
+DROP TABLE IF EXISTS UTILIZATION_ARCHIVE;
+
+CREATE TABLE UTILIZATION_ARCHIVE (
+  UTILIZATION_ID int NOT NULL,
+  EMPLOYEE_ID varchar(45) NOT NULL,
+  YEAR smallint NOT NULL,
+  UTILIZATION_JSON mediumtext,
+  CREATEDATE timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CREATEDBY varchar(45) DEFAULT NULL,
+  UPDATEDATE timestamp NULL DEFAULT NULL,
+  UPDATEDBY varchar(45) DEFAULT NULL,
+  PRIMARY KEY (UTILIZATION_ID),
+  UNIQUE KEY UNQ_UTILIZATION_ARCHIVE (EMPLOYEE_ID, YEAR)
+);
+
+DROP TABLE IF EXISTS UTILIZATION_ARCHIVED_YEAR;
+
+CREATE TABLE UTILIZATION_ARCHIVED_YEAR (
+  YEAR smallint NOT NULL,
+  UTILIZATION_COUNT int NOT NULL,
+  ARCHIVEDATE timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  ARCHIVEDBY varchar(45) DEFAULT NULL,
+  PRIMARY KEY (YEAR)
+);
+
+DROP TABLE IF EXISTS UTILIZATION_CHANGE_LOG;
+
+CREATE TABLE UTILIZATION_CHANGE_LOG (
+  SEQUENCE bigint NOT NULL,
+  EMPLOYEE_ID varchar(45) NOT NULL,
+  YEAR smallint NOT NULL,
+  CHANGES mediumtext NOT NULL,
+  CHANGEDBY varchar(45) DEFAULT NULL,
+  CHANGEDATE timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (SEQUENCE)
+);
+
+CREATE INDEX IDX_UTILIZATION_CHANGE_EMPLOYEE_YEAR ON UTILIZATION_CHANGE_LOG (EMPLOYEE_ID, YEAR, SEQUENCE);
+
+CREATE INDEX IDX_UTILIZATION_CHANGE_DATE ON UTILIZATION_CHANGE_LOG (CHANGEDATE);
+
+DROP TABLE IF EXISTS UTILIZATION_CHANGE_SEQUENCE;
+
+CREATE TABLE UTILIZATION_CHANGE_SEQUENCE (
+  SEQUENCE_ID tinyint NOT NULL,
+  SEQUENCE bigint NOT NULL,
+  PRIMARY KEY (SEQUENCE_ID)
+);
+
+INSERT INTO UTILIZATION_CHANGE_SEQUENCE (SEQUENCE_ID, SEQUENCE) VALUES (1, 0);
@@ -1,10 +1,15 @@
 package com.ph.ibm;
 
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import javax.annotation.security.RolesAllowed;
 
+import javax.inject.Inject;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -13,23 +18,30 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.log4j.Logger;
-import org.apache.log4j.PropertyConfigurator;
+import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
+import org.glassfish.jersey.media.multipart.FormDataParam;
 
 import com.ph.ibm.bo.EmployeeBO;
 import com.ph.ibm.bo.HolidayBO;
 import com.ph.ibm.bo.ProjectBO;
 import com.ph.ibm.bo.UtilityBO;
 import com.ph.ibm.bo.YearBO;
+import com.ph.ibm.metrics.MetricsRegistry;
 import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.EmployeeIdentity;
+import com.ph.ibm.model.EmployeeSearchResult;
 import com.ph.ibm.model.EmployeeUpdate;
 import com.ph.ibm.model.EmployeeUtil;
 import com.ph.ibm.model.Holiday;
@@ -38,12 +50,20 @@ import com.ph.ibm.model.PUMMonth;
 import com.ph.ibm.model.PUMQuarter;
 import com.ph.ibm.model.PUMYear;
 import com.ph.ibm.model.PUMYearList;
+import com.ph.ibm.model.Page;
 import com.ph.ibm.model.Project;
+import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.model.RowValidationResult;
 import com.ph.ibm.model.Utilization;
+import com.ph.ibm.model.UtilizationChanges;
+import com.ph.ibm.model.UtilizationRollup;
 import com.ph.ibm.model.Year;
 import com.ph.ibm.opum.exception.OpumException;
-import com.ph.ibm.util.Authenticate;
+import com.ph.ibm.resources.AuthenticationFilter;
+import com.ph.ibm.resources.WorkloadExecutors;
+import com.ph.ibm.resources.WorkloadExecutors.Workload;
 import com.ph.ibm.util.OpumConstants;
+import com.ph.ibm.util.SessionTokenService;
 
 /**
  * Root resource (exposed at "opum" path) This class is an end point called by
@@ -61,65 +81,60 @@ import com.ph.ibm.util.OpumConstants;
 @Path("opum")
 public class OnlinePUMResource {
 
+	/** Content type of the Prometheus text exposition format */
+	private static final String PROMETHEUS_TEXT_FORMAT = "text/plain; version=0.0.4";
+
 	/**
 	 * EmployeeBO is a business object layer which handle validations and invoke
 	 * method/s from the DAO
 	 */
+	@Inject
 	private EmployeeBO employeeBO;
 
 	/**
 	 * ProjectBO is a business object layer which handle validations and invoke
 	 * method/s from the DAO
 	 */
+	@Inject
 	private ProjectBO projectBO;
 
 	/**
 	 * UtilityBO is a business object layer which handle validations and invoke
 	 * method/s from the DAO
 	 */
+	@Inject
 	private UtilityBO utilityBO;
 	
 	/**
 	 * YearBO is a business object layer which handle validations and invoke
 	 * method/s from the DAO
 	 */
+	@Inject
 	private YearBO yearBO;
 
 	/**
 	 * HolidayBO is a business object layer which handle validations and invoke
 	 * method/s from the DAO
 	 */
+	@Inject
 	private HolidayBO holidayBO;
-	
+
 	/**
-	 * Logger is used to document the execution of the system and logs the
-	 * corresponding log level such as INFO, WARN, ERROR
+	 * WorkloadExecutors runs the heavy services on a bounded thread pool per
+	 * workload
 	 */
-	private Logger logger = Logger.getLogger(OnlinePUMResource.class);
+	private WorkloadExecutors workloadExecutors = WorkloadExecutors.getInstance();
 
 	/**
-	 * <b>Class Constructor to initialize <u>Property Configurator</U> for logging</b>
+	 * MetricsRegistry holds the metrics exposed to the monitoring system
 	 */
-	public OnlinePUMResource() {
-		super();
-		PropertyConfigurator.configure(
-				getClass().getProtectionDomain().getCodeSource().getLocation().getPath() + "log4j.properties");
-	}
-
+	private MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+	
 	/**
-	 * This method is used to authenticate user email and password before accessing a service
-	 * 
-	 * @param email
-	 * 			- this is user email address
-	 * @param password
-	 * 			- this is user password
-	 * @return <b>boolean</b>
-	 * 			- return true if email and password exists in employee table
-	 * @throws Exception
+	 * Logger is used to document the execution of the system and logs the
+	 * corresponding log level such as INFO, WARN, ERROR
 	 */
-	public boolean authenticateUser(String email, String password) throws Exception {
-		return new Authenticate().check(email, password);
-	}
+	private Logger logger = Logger.getLogger(OnlinePUMResource.class);
 
 	/**
 	 * This service is invoked when a user register
@@ -146,7 +161,6 @@ public class OnlinePUMResource {
 		logger.info("START registerEmployee");
 		String message = null;
 		try {
-			employeeBO = new EmployeeBO();
 			message = employeeBO.registerEmployee(employeeIdNumber, projectName, email, password);
 		} catch (Exception e) {
 			logger.error(e);
@@ -161,30 +175,64 @@ public class OnlinePUMResource {
 	 * 
 	 * <br><br>Exposed at "opum/dataLoading" path
 	 * 
-	 * @param rawData
-	 *            - JSON file e.g. (.xlsx, .xls, .csv)
+	 * @param fileInputStream
+	 *            - content of the uploaded csv file, sent as the "file" form field
 	 * @param uriInfo
 	 *            - used to obtain information about URI in Response
-	 * @return <b>Response</b>
-	 * 			  - object that contains the HTTP Response
-	 * @throws OpumException
+	 * @param asyncResponse
+	 *            - resumed with the HTTP Response, 503 if the import workload is saturated
 	 */
 	@Path("/dataLoading")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@POST
 	@Consumes(MediaType.MULTIPART_FORM_DATA)
 	@Produces(MediaType.TEXT_PLAIN)
-	public Response uploadEmployeeList(String rawData, @Context UriInfo uriInfo) throws SQLException, OpumException {
+	public void uploadEmployeeList(@FormDataParam("file") final InputStream fileInputStream, @Context final UriInfo uriInfo, @Suspended AsyncResponse asyncResponse) {
 		logger.info("START uploadEmployeeList");
-		Response response;
-		try {
-			projectBO = new ProjectBO();
-			response = projectBO.uploadEmployeeList(rawData, uriInfo);
-		} catch (Exception e) {
-			logger.error(e);
-			throw new OpumException(e.getMessage(), e);
+		if (fileInputStream == null) {
+			asyncResponse.resume(Response.status(Status.BAD_REQUEST).entity(OpumConstants.FILE_REQUIRED).build());
+			return;
+		}
+		workloadExecutors.submit(Workload.IMPORT, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				Response response = projectBO.uploadEmployeeList(fileInputStream, uriInfo);
+				logger.info("END uploadEmployeeList");
+				return response;
+			}
+		});
+	}
+
+	/**
+	 * This service is invoked when admin validates an employee list without
+	 * uploading it
+	 * 
+	 * <br><br>Exposed at "opum/dataLoading/validate" path
+	 * 
+	 * @param fileInputStream
+	 *            - content of the csv file, sent as the "file" form field
+	 * @param asyncResponse
+	 *            - resumed with the validation result of each invalid row, empty if all rows are valid
+	 */
+	@Path("/dataLoading/validate")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
+	@POST
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces(MediaType.APPLICATION_JSON)
+	public void validateEmployeeList(@FormDataParam("file") final InputStream fileInputStream, @Suspended AsyncResponse asyncResponse) {
+		logger.info("START validateEmployeeList");
+		if (fileInputStream == null) {
+			asyncResponse.resume(Response.status(Status.BAD_REQUEST).entity(OpumConstants.FILE_REQUIRED).build());
+			return;
 		}
-		logger.info("END uploadEmployeeList");
-		return response;
+		workloadExecutors.submit(Workload.IMPORT, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				List<RowValidationResult> invalidRows = projectBO.validateEmployeeList(fileInputStream);
+				logger.info("END validateEmployeeList");
+				return Response.status(Status.OK).entity(new GenericEntity<List<RowValidationResult>>(invalidRows) {}).build();
+			}
+		});
 	}
 
 	/**
@@ -209,16 +257,45 @@ public class OnlinePUMResource {
 		logger.info("START loginEmployee");
 		Employee employee = null;
 		try {
-			employeeBO = new EmployeeBO();
 			employee = employeeBO.loginEmployee(username, password);
+			if (employee == null) {
+				logger.error(OpumConstants.UNAUTHORIZED);
+				return Response.status(Status.UNAUTHORIZED).entity(OpumConstants.UNAUTHORIZED).build();
+			}
+			String token = SessionTokenService.getInstance().issue(employee);
 			logger.info("END loginEmployee");
-			return Response.status(201).entity(employee).build();
+			return Response.status(201).header(HttpHeaders.AUTHORIZATION, "Bearer " + token).entity(employee).build();
 		} catch (Exception e) {
 			logger.error(e);
 			throw new OpumException(e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * This service is invoked when user log-out, the session token of the
+	 * request is revoked
+	 * 
+	 * <br><br>Exposed at "opum/userLogout" path
+	 * 
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @return <b>Response</b> 
+	 * 			  - object that contains the http response
+	 */
+	@Path("/userLogout")
+	@POST
+	public Response logoutEmployee(@Context HttpHeaders header) {
+		logger.info("START logoutEmployee");
+		String authorization = header.getHeaderString(HttpHeaders.AUTHORIZATION);
+		if (authorization == null || !authorization.startsWith("Bearer ")
+				|| !SessionTokenService.getInstance().revoke(authorization.substring("Bearer ".length()))) {
+			logger.error(OpumConstants.UNAUTHORIZED);
+			return Response.status(Status.UNAUTHORIZED).build();
+		}
+		logger.info("END logoutEmployee");
+		return Response.status(Status.NO_CONTENT).build();
+	}
+
 	/**
 	 * This service is invoked when user view a utilization
 	 * 
@@ -229,7 +306,7 @@ public class OnlinePUMResource {
 	 * @param year
 	 *            - this is user input year - (YYYY)
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>Response</b> 
 	 * 			  - object that contains the http response
 	 * @throws Exception
@@ -238,17 +315,9 @@ public class OnlinePUMResource {
 	@Path("/utilization/{employeeIdNumber}/{year}")
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response fetchUtilization(@PathParam("employeeIdNumber") String employeeIdNumber, @PathParam("year") String year, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.status(Status.UNAUTHORIZED).build();
-		}*/
 		logger.info("START fetchUtilization");
 		String result;
 		try {
-			utilityBO = new UtilityBO();
 			result = utilityBO.fetchUtilizations(employeeIdNumber, year);
 		} catch (Exception e) {
 			logger.error(e);
@@ -269,30 +338,30 @@ public class OnlinePUMResource {
 	 *            - this is the user input employee id number
 	 * @param year
 	 *            - this is user input year - (YYYY)
+	 * @param securityContext
+	 * 			  - caller of the service, recorded as the user who changed the utilization
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>String</b> 
-	 * 			  - holds a message if a user save succeed or not
+	 * 			  - holds a message if a user save succeed or not, bad request if the employee id or
+	 * 			  year is invalid, forbidden if the year is archived
 	 * @throws Exception
 	 */
 	@POST
 	@Path("/utilization/{employeeIdNumber}/{year}")
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.TEXT_PLAIN)
-	public String saveUtilization(String rawData, @PathParam("employeeIdNumber") String employeeIdNumber, @PathParam("year") String year, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.Status.UNAUTHORIZED.toString();
-		}*/
+	public String saveUtilization(String rawData, @PathParam("employeeIdNumber") String employeeIdNumber, @PathParam("year") String year, @Context SecurityContext securityContext, @Context HttpHeaders header) throws Exception {
 		logger.info("START saveUtilization");
 		boolean status;
 		try {
 			Utilization utilization = new Utilization(employeeIdNumber, year, rawData);
-			utilityBO = new UtilityBO();
+			utilization.setUpdatedBy(securityContext.getUserPrincipal().getName());
 			status = utilityBO.saveUtilization(utilization);
+		} catch (IllegalArgumentException e) {
+			logger.error(e.getMessage());
+			return OpumConstants.YEAR_ARCHIVED.equals(e.getMessage()) ? Response.Status.FORBIDDEN.toString()
+					: Response.Status.BAD_REQUEST.toString();
 		} catch (Exception e) {
 			throw new OpumException(e.getMessage(), e);
 		}
@@ -300,13 +369,85 @@ public class OnlinePUMResource {
 		return status ? Response.Status.ACCEPTED.toString() : Response.Status.INTERNAL_SERVER_ERROR.toString();
 	}
 
+	/**
+	 * This service is invoked when a sync job or the UI polls for the
+	 * utilization saved since its last call, instead of fetching or exporting
+	 * every utilization again
+	 * 
+	 * <br><br>Exposed at "opum/utilization/changes" path
+	 * 
+	 * @param since
+	 * 			  - token of the previous call, none to read from the start of the change log
+	 * @param limit
+	 * 			  - number of changes read, at most 500
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @return <b>Response</b>
+	 * 			  - changed employee-years with their changed days, the token of the next call and
+	 * 			  whether more changes are waiting, 400 if the token is invalid
+	 * @throws Exception
+	 */
+	@GET
+	@Path("/utilization/changes")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getUtilizationChanges(@QueryParam("since") String since, @QueryParam("limit") @DefaultValue("50") int limit, @Context HttpHeaders header) throws Exception {
+		logger.info("START getUtilizationChanges");
+		UtilizationChanges changes;
+		try {
+			changes = utilityBO.getUtilizationChangesSince(since, limit);
+		} catch (IllegalArgumentException e) {
+			logger.error(e.getMessage());
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+		} catch (Exception e) {
+			logger.error(e);
+			throw new OpumException(e.getMessage(), e);
+		}
+		logger.info("END getUtilizationChanges");
+		return Response.status(Status.OK).entity(changes).build();
+	}
+
+	/**
+	 * This service is invoked when admin imports the utilization of many
+	 * employees from a file with the layout of the utilization export
+	 * 
+	 * <br><br>Exposed at "opum/utilization/import" path
+	 * 
+	 * @param fileInputStream
+	 *            - content of the csv, xls or xlsx file, sent as the "file" form field
+	 * @param fileDetail
+	 *            - used to obtain the name of the uploaded file
+	 * @param asyncResponse
+	 *            - resumed with the result of each row, a row without errors was saved
+	 */
+	@POST
+	@Path("/utilization/import")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces(MediaType.APPLICATION_JSON)
+	public void importUtilizations(@FormDataParam("file") final InputStream fileInputStream,
+			@FormDataParam("file") final FormDataContentDisposition fileDetail, @Suspended AsyncResponse asyncResponse) {
+		logger.info("START importUtilizations");
+		if (fileInputStream == null || fileDetail == null) {
+			asyncResponse.resume(Response.status(Status.BAD_REQUEST).entity(OpumConstants.FILE_REQUIRED).build());
+			return;
+		}
+		workloadExecutors.submit(Workload.IMPORT, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				List<RowValidationResult> results = utilityBO.importUtilizations(fileInputStream, fileDetail.getFileName());
+				logger.info("END importUtilizations");
+				return Response.status(Status.OK).entity(new GenericEntity<List<RowValidationResult>>(results) {}).build();
+			}
+		});
+	}
+
 	/**
 	 * This service is invoked when user retrieve data
 	 * 
 	 * <br><br>Exposed at "opum/projectList" path
 	 * 
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>JSON</b>
 	 * 			  - List of Project
 	 * @throws Exception
@@ -315,16 +456,8 @@ public class OnlinePUMResource {
 	@Path("/projectList")
 	@Produces(MediaType.APPLICATION_JSON)
 	public List<Project> retrieveData(@Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return null;
-		}*/
 		List<Project> projectdata = new ArrayList<Project>();
 		logger.info("START retrieveData");
-		projectBO = new ProjectBO();
 		try {
 			projectdata = projectBO.retrieveData();
 		} catch (Exception e) {
@@ -346,7 +479,7 @@ public class OnlinePUMResource {
 	 * @param employeeUtil
 	 *            - Plain Old Java Object
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password         
+	 * 			  - this contains the HTTP request header - authorization token         
 	 * @return <b>String</b> 
 	 * 			  - holds a message if a user save succeed or not
 	 * @throws Exception
@@ -356,17 +489,9 @@ public class OnlinePUMResource {
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.TEXT_PLAIN)
 	public String saveDate(EmployeeUtil employeeUtil, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.Status.UNAUTHORIZED.toString();
-		}*/
 		logger.info("START saveDate");
 		String message = null;
 		try {
-			projectBO = new ProjectBO();
 			message = projectBO.saveDate(employeeUtil);
 		} catch (Exception e) {
 			logger.error(e);
@@ -384,28 +509,21 @@ public class OnlinePUMResource {
 	 * @param pumYear
 	 * 			  - Plain Old Java Object
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>String</b>
 	 * 			  - holds a message if a user save succeed or not
 	 * @throws Exception
 	 */
 	@POST
 	@Path("/savePUMYearDate")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@Consumes(MediaType.APPLICATION_JSON)
 
 
 	public String saveYear(PUMYear pumYear, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.Status.UNAUTHORIZED.toString();
-		}*/
 		logger.info("START saveYear");
 		String message = null;
 		try {
-			projectBO = new ProjectBO();
 			message = projectBO.saveYear(pumYear);
 		} catch (Exception e) {
 			logger.error(e);
@@ -423,27 +541,20 @@ public class OnlinePUMResource {
 	 * @param pumYear
 	 * 			  - Plain Old Java Object
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>String</b>
 	 * 			  - holds a message if a user update succeed or not
 	 * @throws Exception
 	 */
 	@PUT
 	@Path("/editPUMYearDate")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.TEXT_PLAIN)
 	public String editYear(PUMYear pumYear, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.Status.UNAUTHORIZED.toString();
-		}*/
 		logger.info("START editYEAR");
 		String message = null;
 		try {
-			projectBO = new ProjectBO();
 			message = projectBO.editYear(pumYear);
 		} catch (Exception e) {
 			logger.error(e);
@@ -458,7 +569,7 @@ public class OnlinePUMResource {
 	 * <br><br>Exposed at "opum/yearList" path
 	 * 
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>JSON</b>
 	 * 			  - PUMYearList object
 	 * @throws Exception
@@ -467,15 +578,7 @@ public class OnlinePUMResource {
 	@Path("/yearList")
 	@Produces(MediaType.APPLICATION_JSON)
 	public PUMYearList retrieveYear(@Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return null;
-		}*/
 		logger.info("START retrieveYear");
-		yearBO = new YearBO();
 		PUMYearList pumYearList = new PUMYearList();
 		try {
 			pumYearList = yearBO.retrieveYear(pumYearList);
@@ -495,7 +598,7 @@ public class OnlinePUMResource {
 	 * @param year
 	 * 			  - this is user input year (YYYY)
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>Response</b>
 	 * 			  - object that contains the http response
 	 * @throws Exception
@@ -504,15 +607,7 @@ public class OnlinePUMResource {
 	@Path("/yeardate/{year}")
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response retrieveYearDate(@PathParam("year") int year, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return null;
-		}*/
 		logger.info("START retrieveYear");
-		yearBO = new YearBO();
 		PUMYear yeardate = new PUMYear();
 		try {
 			yeardate = yearBO.retrieveYearDate(year);
@@ -534,7 +629,7 @@ public class OnlinePUMResource {
 	 * @param employeeIdNumber
 	 *            - this is the company Id number of an employee
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>String</b> 
 	 * 			  - holds a message if the admin has successfully searched an employee
 	 * @throws Exception
@@ -543,15 +638,7 @@ public class OnlinePUMResource {
 	@Path("/searchEmployee/{employeeIdNumber}")
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response searchEmployee(@PathParam("employeeIdNumber") String employeeIdNumber, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.status(Status.UNAUTHORIZED).build();
-		}*/
 		logger.info("START searchEmployee");
-		employeeBO = new EmployeeBO();
 		EmployeeUpdate employee = null;
 		try {
 			employee = employeeBO.searchEmployee(employeeIdNumber);
@@ -575,25 +662,18 @@ public class OnlinePUMResource {
 	 * @param employeeUpdate
 	 *            - Plain Old Java Object
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>String</b> 
 	 * 			  - holds a message if the admin has successfully updated an employee's information
 	 * @throws Exception
 	 */
 	@PUT
 	@Path("/updateEmployeeDetails")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.TEXT_PLAIN)
 	public String updateDetails(EmployeeUpdate employeeUpdate, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.Status.UNAUTHORIZED.toString();
-		} */
 		logger.info("START updateEmployeeDetails");
-		employeeBO = new EmployeeBO();
 		try {
 			logger.info("END updateEmployeeDetails");
 			return employeeBO.updateEmployee(employeeUpdate) ? Response.Status.OK.toString() : Response.Status.INTERNAL_SERVER_ERROR.toString();
@@ -610,29 +690,23 @@ public class OnlinePUMResource {
 	 * 
 	 * @param year
 	 * @param header
-	 * @return Response
-	 * @throws Exception 
+	 * @param asyncResponse
+	 * 			  - resumed with the excel file, 503 if the export workload is saturated
 	 */
 	@GET
 	@Path("/downloadUtilization")
-	@Produces("application/vnd.ms-excel")
-	public Response downloadUtilization(@QueryParam("year") String year, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.status(Status.UNAUTHORIZED).build();
-		}*/
-		Response response;
-		try {
-			utilityBO = new UtilityBO();
-			response = utilityBO.downloadUtilization(year);
-		} catch (Exception e) {
-			logger.error(e);
-			throw new OpumException(e.getMessage(), e);
-		}
-		return response;
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
+	@Produces(UtilityBO.XLSX)
+	public void downloadUtilization(@QueryParam("year") final String year, @Context HttpHeaders header, @Suspended AsyncResponse asyncResponse) {
+		logger.info("START downloadUtilization");
+		workloadExecutors.submit(Workload.EXPORT, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				Response response = utilityBO.downloadUtilization(year);
+				logger.info("END downloadUtilization");
+				return response;
+			}
+		});
 	}
 
 	/**
@@ -643,26 +717,19 @@ public class OnlinePUMResource {
 	 * @param holiday
 	 * 			  - Plain Old Java Object
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>String</b>
 	 * 			  - holds a message if successfully saved data or not
 	 * @throws Exception
 	 */
 	@POST
 	@Path("/saveHolidays")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.TEXT_PLAIN)
 	public String addHolidayEngagement(Holiday holiday, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.Status.UNAUTHORIZED.toString();
-		}*/
 		logger.info("START addHoliday");
 		try {
-			holidayBO = new HolidayBO();
 			logger.info("END addHolidayEngagement");
 			return holidayBO.addHolidayEngagement(holiday) ? Response.Status.OK.toString() : Response.Status.INTERNAL_SERVER_ERROR.toString();
 		} catch (Exception e) {
@@ -679,25 +746,18 @@ public class OnlinePUMResource {
 	 * @param holiday
 	 * 			  - Plain Old Java Object
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>String</b>
 	 * 			  - holds a message if successfully updated data or not
 	 * @throws Exception
 	 */
 	@POST
 	@Path("/updateHoliday")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@Consumes(MediaType.APPLICATION_JSON)
 	public String updateHoliday(Holiday holiday, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.Status.UNAUTHORIZED.toString();
-		}*/
 		logger.info("START updateHoliday");
 		try {
-			holidayBO = new HolidayBO();
 			logger.info("END updateEmployeeDetails");
 			return holidayBO.updateHoliday(holiday) ? Response.Status.OK.toString() : Response.Status.INTERNAL_SERVER_ERROR.toString();
 		} catch (Exception e) {
@@ -714,26 +774,19 @@ public class OnlinePUMResource {
 	 * @param holiday
 	 * 			  - Plain Old Java Object
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>String</b>
 	 * 			  - holds a message if successfully deleted data or not
 	 * @throws Exception
 	 */
 	@POST
 	@Path("/deleteHoliday")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.TEXT_PLAIN)
 	public String deleteHoliday(Holiday holiday, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.Status.UNAUTHORIZED.toString();
-		}*/
 		logger.info("START deleteHoliday");
 		try {
-			holidayBO = new HolidayBO();
 			logger.info("END deleteHoliday");
 			return holidayBO.deleteHoliday(holiday) ? Response.Status.OK.toString() : Response.Status.INTERNAL_SERVER_ERROR.toString();
 		} catch (Exception e) {
@@ -748,7 +801,7 @@ public class OnlinePUMResource {
 	 * <br><br>Exposed at "opum/holidayList" path
 	 * 
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>holidayList</b>
 	 * 			  - this contain Lists of Holiday
 	 * 			  
@@ -758,17 +811,9 @@ public class OnlinePUMResource {
 	@Path("/holidayList")
 	@Produces(MediaType.APPLICATION_JSON)
 	public HolidayList getAllHoliday(@Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return null;
-		}*/
 		logger.info("START getAllHoliday");
 		HolidayList holidayList = new HolidayList();
 		try {
-			holidayBO = new HolidayBO();
 			holidayList.setHolidayList(holidayBO.getAllHoliday());
 		} catch (Exception e) {
 			logger.error(e);
@@ -786,7 +831,7 @@ public class OnlinePUMResource {
 	 * @param name
 	 * 			  - this is user input holiday name
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
+	 * 			  - this contains the HTTP request header - authorization token
 	 * @return <b>Response</b>
 	 * 			  - object that contains the http response
 	 * @throws Exception
@@ -795,17 +840,9 @@ public class OnlinePUMResource {
 	@Path("/checkHoliday/{name}")
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response checkHolidays(@PathParam("name") String name, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.status(Status.UNAUTHORIZED).build();
-		}*/
 		logger.info("START checkHolidays");
 		Holiday holiday = null;
 		try {
-			holidayBO = new HolidayBO();
 			holiday = holidayBO.checkHoliday(name);
 			if (holiday != null) {
 				logger.info("END checkHolidays");
@@ -829,37 +866,26 @@ public class OnlinePUMResource {
 	 * @param year
 	 * 			  - this is user input year - (YYYY)
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
-	 * @return <b>Response</b>
-	 * 			  - object that contains the http response
-	 * @throws Exception
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @param asyncResponse
+	 * 			  - resumed with the http response, 503 if the computation workload is saturated
 	 */
 	@GET
 	@Path("/getComputation/{employeeId}/{year}")
 	@Produces(MediaType.APPLICATION_JSON)
-	public Response getComputation(@PathParam("employeeId") int employeeId, @PathParam("year") int year, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.status(Status.UNAUTHORIZED).build();
-		}*/
+	public void getComputation(@PathParam("employeeId") final int employeeId, @PathParam("year") final int year, @Context HttpHeaders header, @Suspended AsyncResponse asyncResponse) {
 		logger.info("START getComputation");
-		projectBO = new ProjectBO();
-		Year utilizationComputation = null;
-		try {
-			utilizationComputation = projectBO.getComputation(employeeId, year);
-			if (utilizationComputation != null) {
+		workloadExecutors.submit(Workload.COMPUTATION, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				Year utilizationComputation = projectBO.getComputation(employeeId, year);
 				logger.info("END getComputation");
-				return Response.status(Status.OK).entity(utilizationComputation).build();
+				if (utilizationComputation != null) {
+					return Response.status(Status.OK).entity(utilizationComputation).build();
+				}
+				return Response.status(Status.INTERNAL_SERVER_ERROR).entity(OpumConstants.INVALID_EMPLOYEE_ID).build();
 			}
-		} catch (Exception e) {
-			logger.error(e);
-			throw new OpumException(e.getMessage());
-		}
-		logger.info("END getComputation");
-		return Response.status(Status.INTERNAL_SERVER_ERROR).entity(OpumConstants.INVALID_EMPLOYEE_ID).build();
+		});
 	}
 
 	/**
@@ -872,48 +898,150 @@ public class OnlinePUMResource {
 	 * @param year
 	 * 			  - this is user input year - (YYYY)
 	 * @param header
-	 * 			  - this contains the HTTP request header - username and password
-	 * @return <b>Response</b>
-	 * 			  - object that contains the http response
-	 * @throws Exception
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @param asyncResponse
+	 * 			  - resumed with the http response, 503 if the computation workload is saturated
 	 */
 	@GET
 	@Path("/getYTDComputation/{employeeId}/{year}")
 	@Produces(MediaType.APPLICATION_JSON)
-	public Response getYTDComputation(@PathParam("employeeId") int employeeId, @PathParam("year") int year, @Context HttpHeaders header) throws Exception {
-		/*MultivaluedMap<String, String> headerParams = header.getRequestHeaders();
-		String email = headerParams.getFirst("username");
-		String password = headerParams.getFirst("password");
-		if (!(authenticateUser(email, password))) {
-			logger.error(OpumConstants.UNAUTHORIZED);
-			return Response.status(Status.UNAUTHORIZED).build();
-		}*/
+	public void getYTDComputation(@PathParam("employeeId") final int employeeId, @PathParam("year") final int year, @Context HttpHeaders header, @Suspended AsyncResponse asyncResponse) {
 		logger.info("START getYTDComputation");
-		utilityBO = new UtilityBO();
-		Year ytdComputation = null;
-		try {
-			ytdComputation = utilityBO.getYTDComputation(employeeId, year);
-			if (ytdComputation != null) {
+		workloadExecutors.submit(Workload.COMPUTATION, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				Year ytdComputation = utilityBO.getYTDComputation(employeeId, year);
 				logger.info("END getYTDComputation");
-				return Response.status(Status.OK).entity(ytdComputation).build();
+				if (ytdComputation != null) {
+					return Response.status(Status.OK).entity(ytdComputation).build();
+				}
+				return Response.status(Status.INTERNAL_SERVER_ERROR).entity(OpumConstants.INVALID_EMPLOYEE_ID).build();
 			}
-		} catch (Exception e) {
-			logger.error(e);
-			throw new OpumException(e.getMessage());
-		}
-		logger.info("END getYTDComputation");
-		return Response.status(Status.INTERNAL_SERVER_ERROR).entity(OpumConstants.INVALID_EMPLOYEE_ID).build();
+		});
+	}
+
+	/**
+	 * This service is used to get the utilization of every project for a
+	 * period of a PUM year
+	 * 
+	 * <br><br>Exposed at "opum/rollups/projects/{year}" path
+	 * 
+	 * @param year
+	 * 			  - this is user input year - (YYYY)
+	 * @param period
+	 * 			  - fiscal month or quarter name, Q1 to Q4, the whole year when absent
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @param asyncResponse
+	 * 			  - resumed with the http response, 400 if the period is not part of the year, 503 if the computation workload is saturated
+	 */
+	@GET
+	@Path("/rollups/projects/{year}")
+	@Produces(MediaType.APPLICATION_JSON)
+	public void getProjectRollups(@PathParam("year") final int year, @QueryParam("period") final String period, @Context HttpHeaders header, @Suspended AsyncResponse asyncResponse) {
+		logger.info("START getProjectRollups");
+		workloadExecutors.submit(Workload.COMPUTATION, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				List<UtilizationRollup> projectRollups;
+				try {
+					projectRollups = projectBO.getProjectRollups(year, period);
+				} catch (IllegalArgumentException e) {
+					logger.error(e.getMessage());
+					return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+				}
+				logger.info("END getProjectRollups");
+				return Response.status(Status.OK).entity(new GenericEntity<List<UtilizationRollup>>(projectRollups) {}).build();
+			}
+		});
+	}
+
+	/**
+	 * This service is used to get the utilization of a project for a period of
+	 * a PUM year
+	 * 
+	 * <br><br>Exposed at "opum/rollups/projects/{projectId}/{year}" path
+	 * 
+	 * @param projectId
+	 * 			  - this is user input project id
+	 * @param year
+	 * 			  - this is user input year - (YYYY)
+	 * @param period
+	 * 			  - fiscal month or quarter name, Q1 to Q4, the whole year when absent
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @param asyncResponse
+	 * 			  - resumed with the http response, 400 if the period is not part of the year, 404 if the project does not exist, 503 if the computation workload is saturated
+	 */
+	@GET
+	@Path("/rollups/projects/{projectId}/{year}")
+	@Produces(MediaType.APPLICATION_JSON)
+	public void getProjectRollup(@PathParam("projectId") final long projectId, @PathParam("year") final int year, @QueryParam("period") final String period, @Context HttpHeaders header, @Suspended AsyncResponse asyncResponse) {
+		logger.info("START getProjectRollup");
+		workloadExecutors.submit(Workload.COMPUTATION, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				UtilizationRollup projectRollup;
+				try {
+					projectRollup = projectBO.getProjectRollup(projectId, year, period);
+				} catch (IllegalArgumentException e) {
+					logger.error(e.getMessage());
+					return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+				}
+				logger.info("END getProjectRollup");
+				if (projectRollup != null) {
+					return Response.status(Status.OK).entity(projectRollup).build();
+				}
+				return Response.status(Status.NOT_FOUND).entity(OpumConstants.PROJECT_NOT_FOUND).build();
+			}
+		});
+	}
+
+	/**
+	 * This service is used to get the utilization of the account for a period
+	 * of a PUM year
+	 * 
+	 * <br><br>Exposed at "opum/rollups/account/{year}" path
+	 * 
+	 * @param year
+	 * 			  - this is user input year - (YYYY)
+	 * @param period
+	 * 			  - fiscal month or quarter name, Q1 to Q4, the whole year when absent
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @param asyncResponse
+	 * 			  - resumed with the http response, 400 if the period is not part of the year, 503 if the computation workload is saturated
+	 */
+	@GET
+	@Path("/rollups/account/{year}")
+	@Produces(MediaType.APPLICATION_JSON)
+	public void getAccountRollup(@PathParam("year") final int year, @QueryParam("period") final String period, @Context HttpHeaders header, @Suspended AsyncResponse asyncResponse) {
+		logger.info("START getAccountRollup");
+		workloadExecutors.submit(Workload.COMPUTATION, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				UtilizationRollup accountRollup;
+				try {
+					accountRollup = projectBO.getAccountRollup(year, period);
+				} catch (IllegalArgumentException e) {
+					logger.error(e.getMessage());
+					return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+				}
+				logger.info("END getAccountRollup");
+				return Response.status(Status.OK).entity(accountRollup).build();
+			}
+		});
 	}
 	
 	@POST
 	@Path("/savePUMQuarter")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@Consumes(MediaType.APPLICATION_JSON)
 	
 	public String saveQuarter(PUMQuarter pumQuarter, @Context HttpHeaders header) throws Exception {
 		logger.info("START saveQuarter");
 		String message = null;
 		try{
-			projectBO = new ProjectBO();
 			message = projectBO.saveQuarter(pumQuarter);
 		} catch (Exception e){
 			logger.error(e);
@@ -925,6 +1053,7 @@ public class OnlinePUMResource {
 	
 	@POST
 	@Path("/savePUMMonth")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
 	@Consumes(MediaType.APPLICATION_JSON)
 	
 	public String saveMonth(PUMMonth pumMonth, @Context HttpHeaders header) throws Exception{
@@ -932,7 +1061,6 @@ public class OnlinePUMResource {
 		String message = null;
 		
 		try{
-			projectBO = new ProjectBO();
 			message = projectBO.saveMonth(pumMonth);
 		} catch (Exception e){
 			logger.error(e);
@@ -941,4 +1069,268 @@ public class OnlinePUMResource {
 		logger.info("END saveMonth");
 		return message;
 	}
+
+	/**
+	 * This service is invoked when admin lists employees a page at a time
+	 * 
+	 * <br><br>Exposed at "opum/employees" path
+	 * 
+	 * @param cursor
+	 * 			  - next cursor of the previous page, none for the first page
+	 * @param limit
+	 * 			  - page size, at most 500
+	 * @param active
+	 * 			  - true or false to list only active or inactive employees
+	 * @param projectId
+	 * 			  - to list only employees engaged to the project
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @return <b>Response</b>
+	 * 			  - page of employees and the cursor of the next page, 400 if the cursor is invalid
+	 * @throws Exception
+	 */
+	@GET
+	@Path("/employees")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getEmployees(@QueryParam("cursor") String cursor, @QueryParam("limit") @DefaultValue("50") int limit, @QueryParam("active") Boolean active, @QueryParam("projectId") Integer projectId, @Context HttpHeaders header) throws Exception {
+		logger.info("START getEmployees");
+		Page<EmployeeIdentity> page;
+		try {
+			page = employeeBO.getEmployees(cursor, limit, active, projectId);
+		} catch (IllegalArgumentException e) {
+			logger.error(e.getMessage());
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+		} catch (Exception e) {
+			logger.error(e);
+			throw new OpumException(e.getMessage(), e);
+		}
+		logger.info("END getEmployees");
+		return Response.status(Status.OK).entity(page).build();
+	}
+
+	/**
+	 * This service is invoked when admin lists project engagements a page at a time
+	 * 
+	 * <br><br>Exposed at "opum/projectEngagements" path
+	 * 
+	 * @param cursor
+	 * 			  - next cursor of the previous page, none for the first page
+	 * @param limit
+	 * 			  - page size, at most 500
+	 * @param projectId
+	 * 			  - to list only engagements to the project
+	 * @param employeeId
+	 * 			  - to list only engagements of the employee
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @return <b>Response</b>
+	 * 			  - page of project engagements and the cursor of the next page, 400 if the cursor is invalid
+	 * @throws Exception
+	 */
+	@GET
+	@Path("/projectEngagements")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getProjectEngagements(@QueryParam("cursor") String cursor, @QueryParam("limit") @DefaultValue("50") int limit, @QueryParam("projectId") Integer projectId, @QueryParam("employeeId") Integer employeeId, @Context HttpHeaders header) throws Exception {
+		logger.info("START getProjectEngagements");
+		Page<ProjectEngagement> page;
+		try {
+			page = projectBO.getProjectEngagements(cursor, limit, projectId, employeeId);
+		} catch (IllegalArgumentException e) {
+			logger.error(e.getMessage());
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+		} catch (Exception e) {
+			logger.error(e);
+			throw new OpumException(e.getMessage(), e);
+		}
+		logger.info("END getProjectEngagements");
+		return Response.status(Status.OK).entity(page).build();
+	}
+
+	/**
+	 * This service is invoked when user lists holidays a page at a time, the
+	 * paginated variant of "opum/holidayList"
+	 * 
+	 * <br><br>Exposed at "opum/holidays" path
+	 * 
+	 * @param cursor
+	 * 			  - next cursor of the previous page, none for the first page
+	 * @param limit
+	 * 			  - page size, at most 500
+	 * @param year
+	 * 			  - to list only holidays of the year (YYYY)
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @return <b>Response</b>
+	 * 			  - page of holidays and the cursor of the next page, 400 if the cursor is invalid
+	 * @throws Exception
+	 */
+	@GET
+	@Path("/holidays")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getHolidays(@QueryParam("cursor") String cursor, @QueryParam("limit") @DefaultValue("50") int limit, @QueryParam("year") Integer year, @Context HttpHeaders header) throws Exception {
+		logger.info("START getHolidays");
+		Page<Holiday> page;
+		try {
+			page = holidayBO.getHolidays(cursor, limit, year);
+		} catch (IllegalArgumentException e) {
+			logger.error(e.getMessage());
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+		} catch (Exception e) {
+			logger.error(e);
+			throw new OpumException(e.getMessage(), e);
+		}
+		logger.info("END getHolidays");
+		return Response.status(Status.OK).entity(page).build();
+	}
+
+	/**
+	 * This service is invoked when user lists years a page at a time, the
+	 * paginated variant of "opum/yearList"
+	 * 
+	 * <br><br>Exposed at "opum/years" path
+	 * 
+	 * @param cursor
+	 * 			  - next cursor of the previous page, none for the first page
+	 * @param limit
+	 * 			  - page size, at most 500
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @return <b>Response</b>
+	 * 			  - page of years and the cursor of the next page, 400 if the cursor is invalid
+	 * @throws Exception
+	 */
+	@GET
+	@Path("/years")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getYears(@QueryParam("cursor") String cursor, @QueryParam("limit") @DefaultValue("50") int limit, @Context HttpHeaders header) throws Exception {
+		logger.info("START getYears");
+		Page<PUMYear> page;
+		try {
+			page = yearBO.retrieveYears(cursor, limit);
+		} catch (IllegalArgumentException e) {
+			logger.error(e.getMessage());
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+		} catch (Exception e) {
+			logger.error(e);
+			throw new OpumException(e.getMessage(), e);
+		}
+		logger.info("END getYears");
+		return Response.status(Status.OK).entity(page).build();
+	}
+
+	/**
+	 * This service is invoked when admin closes a finished PUM year, its
+	 * utilization is moved to the archive and can no longer be saved
+	 * 
+	 * <br><br>Exposed at "opum/years/{year}/archive" path
+	 * 
+	 * @param year
+	 * 			  - this is user input year - (YYYY)
+	 * @param securityContext
+	 * 			  - holds the signed in employee, who has to be an admin
+	 * @param asyncResponse
+	 * 			  - resumed with the number of utilization archived, 400 if the year has not ended or is archived already, 403 if the employee is not an admin
+	 */
+	@POST
+	@Path("/years/{year}/archive")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
+	@Produces(MediaType.TEXT_PLAIN)
+	public void archiveYear(@PathParam("year") final int year, @Context final SecurityContext securityContext, @Suspended AsyncResponse asyncResponse) {
+		logger.info("START archiveYear");
+		workloadExecutors.submit(Workload.IMPORT, asyncResponse, new Callable<Response>() {
+			@Override
+			public Response call() throws Exception {
+				int archived;
+				try {
+					archived = yearBO.archiveYear(year, securityContext.getUserPrincipal().getName());
+				} catch (IllegalArgumentException e) {
+					logger.error(e.getMessage());
+					return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+				}
+				logger.info("END archiveYear");
+				return Response.status(Status.OK).entity(String.valueOf(archived)).build();
+			}
+		});
+	}
+
+	/**
+	 * This service is invoked when user lists the archived PUM years
+	 * 
+	 * <br><br>Exposed at "opum/years/archived" path
+	 * 
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @return <b>Response</b>
+	 * 			  - archived years in ascending order
+	 * @throws Exception
+	 */
+	@GET
+	@Path("/years/archived")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getArchivedYears(@Context HttpHeaders header) throws Exception {
+		logger.info("START getArchivedYears");
+		List<Integer> archivedYears;
+		try {
+			archivedYears = yearBO.getArchivedYears();
+		} catch (Exception e) {
+			logger.error(e);
+			throw new OpumException(e.getMessage(), e);
+		}
+		logger.info("END getArchivedYears");
+		return Response.status(Status.OK).entity(new GenericEntity<List<Integer>>(archivedYears) {}).build();
+	}
+
+	/**
+	 * This service is invoked when admin searches employees by part of their
+	 * full name, email or employee id number
+	 * 
+	 * <br><br>Exposed at "opum/search" path
+	 * 
+	 * @param query
+	 * 			  - words to search, each has to match the start of a word or be spelled close to it
+	 * @param limit
+	 * 			  - maximum number of employees, at most 100
+	 * @param header
+	 * 			  - this contains the HTTP request header - authorization token
+	 * @return <b>Response</b>
+	 * 			  - employees that best match the query, best match first, 400 if the query is empty
+	 * @throws Exception
+	 */
+	@GET
+	@Path("/search")
+	@RolesAllowed(AuthenticationFilter.ADMIN_ROLE)
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response searchEmployees(@QueryParam("q") String query, @QueryParam("limit") @DefaultValue("10") int limit, @Context HttpHeaders header) throws Exception {
+		logger.info("START searchEmployees");
+		List<EmployeeSearchResult> employees;
+		try {
+			employees = employeeBO.searchEmployees(query, limit);
+		} catch (IllegalArgumentException e) {
+			logger.error(e.getMessage());
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+		} catch (Exception e) {
+			logger.error(e);
+			throw new OpumException(e.getMessage(), e);
+		}
+		logger.info("END searchEmployees");
+		return Response.status(Status.OK).entity(new GenericEntity<List<EmployeeSearchResult>>(employees) {}).build();
+	}
+
+	/**
+	 * This service is invoked when the monitoring system scrapes the metrics
+	 * of the application
+	 * 
+	 * <br><br>Exposed at "opum/metrics" path
+	 * 
+	 * @return <b>String</b>
+	 * 			  - request, workload, database connection and cache metrics in the Prometheus text format
+	 */
+	@GET
+	@Path("/metrics")
+	@Produces(PROMETHEUS_TEXT_FORMAT)
+	public String scrapeMetrics() {
+		return metricsRegistry.scrape();
+	}
 }
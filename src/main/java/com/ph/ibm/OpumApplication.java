@@ -0,0 +1,72 @@
+package com.ph.ibm;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AsyncAppender;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PropertyConfigurator;
+import org.glassfish.jersey.media.multipart.MultiPartFeature;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.filter.RolesAllowedDynamicFeature;
+
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * JAX-RS application of the web service. Configures logging once at startup,
+ * from the file in the "opum.log.config" system property when it is set,
+ * scans the com.ph.ibm package for resources and providers and registers the
+ * {@link OpumBinder} which wires the business objects and repositories.
+ * {@link RolesAllowedDynamicFeature} rejects callers without the role of a
+ * RolesAllowed method with 403. The application is mapped to "/webapi" in
+ * web.xml
+ */
+public class OpumApplication extends ResourceConfig {
+
+	private static final String ASYNC_APPENDER = "ASYNC";
+
+	public OpumApplication() {
+		PropertyConfigurator.configure(System.getProperty("opum.log.config",
+				getClass().getProtectionDomain().getCodeSource().getLocation().getPath() + "log4j.properties"));
+		if (Boolean.parseBoolean(System.getProperty("opum.log.async", "true"))) {
+			configureAsyncLogging(Integer.getInteger("opum.log.async.buffer", 1024));
+		}
+		packages("com.ph.ibm");
+		register(MultiPartFeature.class);
+		register(new OpumBinder());
+		register(RolesAllowedDynamicFeature.class);
+	}
+
+	/**
+	 * This method is used to move the appenders of the root logger behind an
+	 * {@link AsyncAppender}, so request threads only queue the event and the
+	 * console and file are written on the appender's own thread. The appender
+	 * cannot be declared in log4j.properties. When the buffer is full, events
+	 * are discarded and summarized rather than blocking the request
+	 *
+	 * @param bufferSize
+	 *            - number of events which can wait to be written
+	 */
+	private static void configureAsyncLogging(int bufferSize) {
+		Logger rootLogger = Logger.getRootLogger();
+		if (rootLogger.getAppender(ASYNC_APPENDER) != null) {
+			return;
+		}
+		List<Appender> appenders = new ArrayList<Appender>();
+		for (Enumeration<?> attached = rootLogger.getAllAppenders(); attached.hasMoreElements();) {
+			appenders.add((Appender) attached.nextElement());
+		}
+		AsyncAppender asyncAppender = new AsyncAppender();
+		asyncAppender.setName(ASYNC_APPENDER);
+		asyncAppender.setBufferSize(bufferSize);
+		asyncAppender.setBlocking(false);
+		asyncAppender.setLocationInfo(false);
+		for (Appender appender : appenders) {
+			rootLogger.removeAppender(appender);
+			asyncAppender.addAppender(appender);
+		}
+		rootLogger.addAppender(asyncAppender);
+	}
+}
@@ -4,45 +4,75 @@ import static java.lang.String.format;
 
 import java.sql.BatchUpdateException;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.ToLongFunction;
+
+import javax.inject.Inject;
 
 import org.apache.log4j.Logger;
 
+import com.ph.ibm.cache.EmployeeIdentityCache;
+import com.ph.ibm.cache.EmployeeSearchIndex;
+import com.ph.ibm.cache.ProjectCatalog;
+import com.ph.ibm.cache.UtilizationRollups;
 import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.EmployeeIdentity;
 import com.ph.ibm.model.EmployeeProject;
+import com.ph.ibm.model.EmployeeSearchResult;
 import com.ph.ibm.model.EmployeeUpdate;
+import com.ph.ibm.model.FieldError;
+import com.ph.ibm.model.Page;
 import com.ph.ibm.model.Project;
 import com.ph.ibm.model.ProjectEngagement;
 import com.ph.ibm.opum.exception.InvalidEmployeeException;
 import com.ph.ibm.opum.exception.OpumException;
 import com.ph.ibm.repository.EmployeeRepository;
 import com.ph.ibm.repository.ProjectEngagementRepository;
-import com.ph.ibm.repository.ProjectRepository;
-import com.ph.ibm.repository.impl.EmployeeRepositoryImpl;
-import com.ph.ibm.repository.impl.ProjectEngagementRepositoryImpl;
-import com.ph.ibm.repository.impl.ProjectRepositoryImpl;
-import com.ph.ibm.util.FormatValidation;
 import com.ph.ibm.util.MD5HashEncrypter;
 import com.ph.ibm.util.OpumConstants;
+import com.ph.ibm.util.PageCursor;
+import com.ph.ibm.util.ValidationEngine;
+import com.ph.ibm.util.ValidationRuleSet;
 
 public class EmployeeBO {
 
+	private static final String EMPLOYEE_LISTING = "employees";
+
 	/** EmployeeRepository is a Data Access Object which contain methods to add, register, login, view, validate field/s stored in employee table - opum database */
-	private EmployeeRepository employeeRepository = new EmployeeRepositoryImpl();
+	private final EmployeeRepository employeeRepository;
+	
+	/** EmployeeIdentityCache maps employee id numbers to employee ids without a query per lookup */
+	private EmployeeIdentityCache employeeIdentityCache = EmployeeIdentityCache.getInstance();
+	
+	/** EmployeeSearchIndex finds employees by full name, email and employee id number in memory */
+	private EmployeeSearchIndex employeeSearchIndex = EmployeeSearchIndex.getInstance();
 	
-	/** ProjectRepository is a Data Access Object which contain method to retrieve fields stored in project table - opum database */
-	private ProjectRepository projectRepository = new ProjectRepositoryImpl();
+	/** ProjectCatalog holds the projects in memory, indexed by name and id */
+	private ProjectCatalog projectCatalog = ProjectCatalog.getInstance();
+	
+	/** UtilizationRollups merges the utilization of employees up to their projects and the account */
+	private UtilizationRollups utilizationRollups = UtilizationRollups.getInstance();
 	
 	/** ProjectEngagementRepository is a Data Access Object which contain method to add, save, get, check field/s stored in project_engagement table - opum database */
-	private ProjectEngagementRepository projectEngagementRepository = new ProjectEngagementRepositoryImpl();
+	private final ProjectEngagementRepository projectEngagementRepository;
 	
-	/** Validation contain methods to validate field such as employee name, employee id, project name, email address */
-	private FormatValidation validation = new FormatValidation();
+	/** ValidationEngine validates registration fields against a precompiled rule set */
+	private ValidationEngine validationEngine = ValidationEngine.getInstance();
 	
 	/** Logger is used to document the execution of the system and logs the corresponding log level such as INFO, WARN, ERROR */
 	private Logger logger = Logger.getLogger(EmployeeBO.class);
 	
+	/**
+	 * @param employeeRepository
+	 * @param projectEngagementRepository
+	 */
+	@Inject
+	public EmployeeBO(EmployeeRepository employeeRepository, ProjectEngagementRepository projectEngagementRepository) {
+		this.employeeRepository = employeeRepository;
+		this.projectEngagementRepository = projectEngagementRepository;
+	}
+	
 	/**
 	 * This method is used to register user
 	 * 
@@ -54,22 +84,12 @@ public class EmployeeBO {
 	 * @throws Exception 
 	 */
 	public String registerEmployee(String employeeIdNumber, String projectName, String email, String password) throws Exception {
-		// validate company id using regular expression pattern matching
-		if (!(validation.isValidEmployeeId(employeeIdNumber))) {
-			logger.info("CAUSE OF ERROR: " + OpumConstants.INVALID_COMPANY_ID);
-			throw new InvalidEmployeeException(OpumConstants.INVALID_COMPANY_ID);
-		}
-		
-		// validate email address using regular expression pattern matching
-		if (!(validation.isValidEmailAddress(email))) {
-			logger.error("CAUSE OF ERROR: " + OpumConstants.INVALID_EMAIL_ID);
-			throw new InvalidEmployeeException(OpumConstants.INVALID_EMAIL_ID);
-		}
-		
-		// validate project name using regular expression pattern matching
-		if (!(validation.isValidProjectName(projectName))) {
-			logger.error("CAUSE OF ERROR: " + OpumConstants.INVALID_PROJECT_NAME);
-			throw new InvalidEmployeeException(OpumConstants.INVALID_PROJECT_NAME);
+		// validate company id, email address and project name using the registration rule set
+		List<FieldError> errors = validationEngine.validate(ValidationRuleSet.EMPLOYEE_REGISTRATION,
+				Arrays.asList(employeeIdNumber, email, projectName));
+		if (!errors.isEmpty()) {
+			logger.error("CAUSE OF ERROR: " + errors.get(0).getMessage());
+			throw new InvalidEmployeeException(errors.get(0).getMessage());
 		}
 		
 		// validate if employee id number and email exist in database
@@ -80,16 +100,12 @@ public class EmployeeBO {
 		
 		String hashed = MD5HashEncrypter.computeMD5Digest(password);
 		EmployeeProject employeeProject = new EmployeeProject(employeeIdNumber, email, hashed, projectName);
-		List<Project> projects = new ArrayList<Project>();
-		projects = projectRepository.retrieveData();
 		ProjectEngagement projectEngagement = new ProjectEngagement();
 		
 		// check if USAA Project exists
-		for (Project project : projects) {
-			if (!project.getName().equals(employeeProject.getProjectName())) {
-				continue;
-			}
-			projectEngagement.setProjectId(project.getProjectId());
+		Project project = projectCatalog.findByName(employeeProject.getProjectName());
+		if (project != null) {
+			projectEngagement.setProjectId(project.getProjectId().intValue());
 		}
 		Employee employee = new Employee();
 		employee.setEmployeeIdNumber(employeeProject.getEmployeeIdNumber());
@@ -100,8 +116,14 @@ public class EmployeeBO {
 			logger.info(format("Unsuccessful Registration for employee %s %s", employeeProject.getEmployeeIdNumber(), employeeProject.getEmail()));
 			throw new InvalidEmployeeException(OpumConstants.INVALID_COMPANY_ID);
 		}
-		projectEngagement.setEmployeeId(Integer.parseInt(employeeRepository.viewEmployee(employeeProject.getEmployeeIdNumber())));
+		Integer employeeId = employeeIdentityCache.getEmployeeId(employeeProject.getEmployeeIdNumber());
+		if (employeeId == null) {
+			logger.info("CAUSE OF ERROR: " + OpumConstants.INVALID_EMPLOYEE_ID);
+			throw new InvalidEmployeeException(OpumConstants.INVALID_EMPLOYEE_ID);
+		}
+		projectEngagement.setEmployeeId(employeeId);
 		projectEngagementRepository.addProjectEngagement(projectEngagement);
+		utilizationRollups.engagementsChanged();
 
 		logger.info(OpumConstants.SUCCESSFULLY_REGISTERED);
 		return "Employee " + employeeProject.getEmployeeIdNumber() + " - " + employeeProject.getEmail()
@@ -186,7 +208,64 @@ public class EmployeeBO {
 	 * @throws SQLException
 	 */
 	public boolean updateEmployee(EmployeeUpdate employeeUpdate) throws BatchUpdateException, SQLException {
-		return employeeRepository.updateEmployee(employeeUpdate);
+		boolean updated = employeeRepository.updateEmployee(employeeUpdate);
+		if (updated) {
+			// the update also renames the project of the employee
+			projectCatalog.refresh();
+			employeeIdentityCache.evict(employeeUpdate.getEmployeeIdNumber());
+			employeeSearchIndex.put(employeeUpdate.getEmployeeId(), employeeUpdate.getEmployeeIdNumber(),
+					employeeUpdate.getFullName(), employeeUpdate.getEmail(), employeeUpdate.isActive());
+		}
+		return updated;
+	}
+
+	/**
+	 * This method is used to list employees a page at a time
+	 * 
+	 * @param cursor
+	 *            - next cursor of the previous page, null for the first page
+	 * @param limit
+	 *            - page size
+	 * @param active
+	 *            - null for active and inactive employees
+	 * @param projectId
+	 *            - null for employees of any project
+	 * @return Page of EmployeeIdentity
+	 * @throws SQLException
+	 */
+	public Page<EmployeeIdentity> getEmployees(String cursor, int limit, Boolean active, Integer projectId)
+			throws SQLException {
+		int pageSize = PageCursor.limit(limit);
+		List<EmployeeIdentity> rows = employeeRepository.getEmployeeIdentities(
+				PageCursor.decodeInt(EMPLOYEE_LISTING, cursor), active, projectId, pageSize + 1);
+		return PageCursor.page(EMPLOYEE_LISTING, rows, pageSize, new ToLongFunction<EmployeeIdentity>() {
+			@Override
+			public long applyAsLong(EmployeeIdentity employeeIdentity) {
+				return employeeIdentity.getEmployeeId();
+			}
+		});
+	}
+
+	/**
+	 * This method is used to search employees by part of their full name,
+	 * email or employee id number
+	 * 
+	 * @param query
+	 *            - words to search, each has to match
+	 * @param limit
+	 *            - maximum number of employees
+	 * @return List of EmployeeSearchResult - best match first
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the query has no words
+	 */
+	public List<EmployeeSearchResult> searchEmployees(String query, int limit) throws SQLException {
+		if (query == null || query.trim().isEmpty()) {
+			throw new IllegalArgumentException(OpumConstants.INVALID_SEARCH_QUERY);
+		}
+		int results = limit < 1 ? OpumConstants.DEFAULT_SEARCH_RESULTS
+				: Math.min(limit, OpumConstants.MAX_SEARCH_RESULTS);
+		return employeeSearchIndex.search(query, results);
 	}
 	
 }
@@ -2,21 +2,43 @@ package com.ph.ibm.bo;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
+import javax.inject.Inject;
+
+import com.ph.ibm.cache.HolidayCalendar;
 import com.ph.ibm.model.Holiday;
+import com.ph.ibm.model.Page;
 import com.ph.ibm.repository.HolidayEngagementRepository;
-import com.ph.ibm.repository.impl.HolidayRepositoryImpl;
+import com.ph.ibm.util.PageCursor;
 
 public class HolidayBO {
+
+	private static final String HOLIDAY_LISTING = "holidays";
 	
-	private HolidayEngagementRepository holidayEngagementRepository = new HolidayRepositoryImpl();
+	private final HolidayEngagementRepository holidayEngagementRepository;
+
+	/** HolidayCalendar holds the holidays and working days in memory */
+	private HolidayCalendar holidayCalendar = HolidayCalendar.getInstance();
+
+	/**
+	 * @param holidayEngagementRepository
+	 */
+	@Inject
+	public HolidayBO(HolidayEngagementRepository holidayEngagementRepository) {
+		this.holidayEngagementRepository = holidayEngagementRepository;
+	}
 
 	/**
 	 * return boolean
 	 * @throws SQLException 
 	 */
 	public boolean addHolidayEngagement(Holiday holiday) throws SQLException {
-		return holidayEngagementRepository.addHolidayEngagement(holiday);
+		boolean saved = holidayEngagementRepository.addHolidayEngagement(holiday);
+		if (saved) {
+			holidayCalendar.refresh();
+		}
+		return saved;
 	}
 	
 	/**
@@ -24,7 +46,11 @@ public class HolidayBO {
 	 * @throws SQLException 
 	 */
 	public boolean updateHoliday(Holiday holiday) throws SQLException {
-		return holidayEngagementRepository.updateHolidayEngagement(holiday);
+		boolean saved = holidayEngagementRepository.updateHolidayEngagement(holiday);
+		if (saved) {
+			holidayCalendar.refresh();
+		}
+		return saved;
 	}
 	
 	/**
@@ -33,7 +59,11 @@ public class HolidayBO {
 	 * @throws SQLException
 	 */
 	public boolean deleteHoliday(Holiday holiday) throws SQLException {
-		return holidayEngagementRepository.deleteHoliday(holiday);
+		boolean saved = holidayEngagementRepository.deleteHoliday(holiday);
+		if (saved) {
+			holidayCalendar.refresh();
+		}
+		return saved;
 	}
 	
 	/**
@@ -41,7 +71,7 @@ public class HolidayBO {
 	 * @throws SQLException
 	 */
 	public List<Holiday> getAllHoliday() throws SQLException {
-		return holidayEngagementRepository.getAllHoliday();
+		return holidayCalendar.getHolidays();
 	}
 	
 	/**
@@ -50,6 +80,31 @@ public class HolidayBO {
 	 * @throws SQLException
 	 */
 	public Holiday checkHoliday(String name) throws SQLException {
-		return holidayEngagementRepository.checkHoliday(name);
+		return holidayCalendar.findByName(name);
+	}
+
+	/**
+	 * This method is used to list holidays a page at a time, read from the
+	 * holiday table rather than the calendar
+	 * 
+	 * @param cursor
+	 *            - next cursor of the previous page, null for the first page
+	 * @param limit
+	 *            - page size
+	 * @param year
+	 *            - null for holidays of any year
+	 * @return Page of Holiday
+	 * @throws SQLException
+	 */
+	public Page<Holiday> getHolidays(String cursor, int limit, Integer year) throws SQLException {
+		int pageSize = PageCursor.limit(limit);
+		List<Holiday> rows = holidayEngagementRepository
+				.getHolidays(PageCursor.decodeInt(HOLIDAY_LISTING, cursor), year, pageSize + 1);
+		return PageCursor.page(HOLIDAY_LISTING, rows, pageSize, new ToLongFunction<Holiday>() {
+			@Override
+			public long applyAsLong(Holiday holiday) {
+				return holiday.getHoliday_Id();
+			}
+		});
 	}
 }
@@ -1,36 +1,66 @@
 package com.ph.ibm.bo;
 
-import java.sql.BatchUpdateException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.SQLException;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.function.ToLongFunction;
 
+import javax.inject.Inject;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
-import org.apache.commons.lang.time.DateUtils;
 import org.apache.log4j.Logger;
 
+import com.ph.ibm.cache.EmployeeIdentityCache;
+import com.ph.ibm.cache.EmployeeSearchIndex;
+import com.ph.ibm.cache.FiscalCalendar;
+import com.ph.ibm.cache.FiscalCalendar.FiscalYear;
+import com.ph.ibm.cache.FiscalCalendar.Period;
+import com.ph.ibm.cache.HolidayCalendar;
+import com.ph.ibm.cache.ProjectCatalog;
+import com.ph.ibm.cache.UtilizationRollups;
+import com.ph.ibm.cache.UtilizationSnapshot;
+import com.ph.ibm.cache.UtilizationSnapshots;
 import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.EmployeeIdentity;
+import com.ph.ibm.model.FieldError;
 import com.ph.ibm.model.EmployeeUtil;
 import com.ph.ibm.model.Holiday;
 import com.ph.ibm.model.Month;
+import com.ph.ibm.model.Page;
 import com.ph.ibm.model.PUMMonth;
 import com.ph.ibm.model.PUMQuarter;
 import com.ph.ibm.model.PUMYear;
 import com.ph.ibm.model.Project;
 import com.ph.ibm.model.ProjectEngagement;
 import com.ph.ibm.model.Quarter;
+import com.ph.ibm.model.RowValidationResult;
 import com.ph.ibm.model.Utilization;
 import com.ph.ibm.model.UtilizationJson;
+import com.ph.ibm.model.UtilizationRollup;
 import com.ph.ibm.model.UtilizationYear;
 import com.ph.ibm.model.Week;
 import com.ph.ibm.model.Year;
@@ -38,52 +68,58 @@ import com.ph.ibm.repository.EmployeeRepository;
 import com.ph.ibm.repository.HolidayEngagementRepository;
 import com.ph.ibm.repository.PUMYearRepository;
 import com.ph.ibm.repository.ProjectEngagementRepository;
-import com.ph.ibm.repository.ProjectRepository;
 import com.ph.ibm.repository.UtilizationEngagementRepository;
-import com.ph.ibm.repository.impl.EmployeeRepositoryImpl;
-import com.ph.ibm.repository.impl.HolidayRepositoryImpl;
-import com.ph.ibm.repository.impl.PUMYearRepositoryImpl;
-import com.ph.ibm.repository.impl.ProjectEngagementRepositoryImpl;
-import com.ph.ibm.repository.impl.ProjectRepositoryImpl;
-import com.ph.ibm.repository.impl.UtilizationEngagementRepositoryImpl;
-import com.ph.ibm.util.FormatValidation;
 import com.ph.ibm.util.JsonToJavaUtil;
 import com.ph.ibm.util.OpumConstants;
+import com.ph.ibm.util.PageCursor;
+import com.ph.ibm.util.ValidationEngine;
+import com.ph.ibm.util.ValidationRuleSet;
 
 public class ProjectBO {
 
+	private static final String PROJECT_ENGAGEMENT_LISTING = "projectEngagements";
+
 	/**
 	 * EmployeeRepository is a Data Access Object which contain methods to add,
 	 * register, login, view, validate field/s stored in employee table - opum
 	 * database
 	 */
-	private EmployeeRepository employeeRepository = new EmployeeRepositoryImpl();
+	private final EmployeeRepository employeeRepository;
+
+	/**
+	 * ProjectCatalog holds the projects in memory, indexed by name and id
+	 */
+	private ProjectCatalog projectCatalog = ProjectCatalog.getInstance();
 
 	/**
-	 * ProjectRepository is a Data Access Object which contain method to
-	 * retrieve fields stored in project table - opum database
+	 * EmployeeIdentityCache maps employee id numbers to employee ids without a
+	 * query per lookup
 	 */
-	private ProjectRepository projectRepository = new ProjectRepositoryImpl();
+	private EmployeeIdentityCache employeeIdentityCache = EmployeeIdentityCache.getInstance();
+
+	/**
+	 * EmployeeSearchIndex finds employees by full name, email and employee id
+	 * number in memory
+	 */
+	private EmployeeSearchIndex employeeSearchIndex = EmployeeSearchIndex.getInstance();
 
 	/**
 	 * ProjectEngagementRepository is a Data Access Object which contain method
 	 * to add, save, get, check field/s stored in project_engagement table -
 	 * opum database
 	 */
-	private ProjectEngagementRepository projectEngagementRepository = new ProjectEngagementRepositoryImpl();
+	private final ProjectEngagementRepository projectEngagementRepository;
 
 	/**
 	 * UtilizationEngagementRepository is a Data Access Object which contains
 	 * method to retrieve data from Utilization_JSON
 	 */
-
-	private UtilizationEngagementRepository utilizationEngagementRepository = new UtilizationEngagementRepositoryImpl();
+	private final UtilizationEngagementRepository utilizationEngagementRepository;
 
 	/**
-	 * Validation contain methods to validate field such as employee name,
-	 * employee id, project name, email address
+	 * ValidationEngine validates uploaded rows against precompiled rule sets
 	 */
-	private FormatValidation validation = new FormatValidation();
+	private ValidationEngine validationEngine = ValidationEngine.getInstance();
 
 	/**
 	 * Logger is used to document the execution of the system and logs the
@@ -91,9 +127,58 @@ public class ProjectBO {
 	 */
 	private Logger logger = Logger.getLogger(ProjectBO.class);
 
-	private PUMYearRepository pumYearRepository = new PUMYearRepositoryImpl();
+	/**
+	 * PUMYearRepository is a Data Access Object which contain methods to save
+	 * and retrieve the year, quarter and month tables - opum database
+	 */
+	private final PUMYearRepository pumYearRepository;
 
-	private HolidayEngagementRepository holidayEngagementRepository = new HolidayRepositoryImpl();
+	/**
+	 * HolidayEngagementRepository is a Data Access Object which contain methods
+	 * to add, update, delete fields stored in holiday table - opum database
+	 */
+	private final HolidayEngagementRepository holidayEngagementRepository;
+
+	/**
+	 * HolidayCalendar holds the working days of each year in memory
+	 */
+	private HolidayCalendar holidayCalendar = HolidayCalendar.getInstance();
+
+	/**
+	 * FiscalCalendar holds the months, quarters and weeks of each PUM year in
+	 * memory
+	 */
+	private FiscalCalendar fiscalCalendar = FiscalCalendar.getInstance();
+
+	/**
+	 * UtilizationRollups merges the utilization of employees up to their
+	 * projects and the account
+	 */
+	private UtilizationRollups utilizationRollups = UtilizationRollups.getInstance();
+
+	/**
+	 * UtilizationSnapshots serves the utilization of archived years from
+	 * memory mapped files
+	 */
+	private UtilizationSnapshots utilizationSnapshots = UtilizationSnapshots.getInstance();
+
+	/**
+	 * @param employeeRepository
+	 * @param projectEngagementRepository
+	 * @param utilizationEngagementRepository
+	 * @param pumYearRepository
+	 * @param holidayEngagementRepository
+	 */
+	@Inject
+	public ProjectBO(EmployeeRepository employeeRepository, ProjectEngagementRepository projectEngagementRepository,
+			UtilizationEngagementRepository utilizationEngagementRepository, PUMYearRepository pumYearRepository,
+			HolidayEngagementRepository holidayEngagementRepository) {
+		this.employeeRepository = employeeRepository;
+		this.projectEngagementRepository = projectEngagementRepository;
+		this.utilizationEngagementRepository = utilizationEngagementRepository;
+		this.pumYearRepository = pumYearRepository;
+		this.holidayEngagementRepository = holidayEngagementRepository;
+	}
 
 	/**
 	 * 
@@ -110,6 +195,7 @@ public class ProjectBO {
 			if (pumYear.getEnd() != null) {
 				value = pumYearRepository.saveYear(pumYear);
 				if (value) {
+					fiscalCalendar.refresh();
 					logger.info("END saveYear");
 					return OpumConstants.SUCCESSFULLY_SAVED;
 				} else {
@@ -138,6 +224,7 @@ public class ProjectBO {
 			if (pumYear.getEnd() != null) {
 				value = pumYearRepository.editYear(pumYear);
 				if (value) {
+					fiscalCalendar.refresh();
 					logger.info("END editYear");
 					return OpumConstants.UPDATED_SUCCESS;
 				} else {
@@ -159,6 +246,7 @@ public class ProjectBO {
 			if (holiday.getDate() != null) {
 				value = holidayEngagementRepository.updateHolidayEngagement(holiday);
 				if (value) {
+					holidayCalendar.refresh();
 					logger.info("END updateHoliday");
 					return OpumConstants.UPDATED_SUCCESS;
 				} else {
@@ -182,19 +270,17 @@ public class ProjectBO {
 	 * @throws ParseException
 	 */
 	public String saveDate(EmployeeUtil employeeUtil) throws SQLException, ParseException {
-		String employeeId = employeeRepository.viewEmployee(employeeUtil.getEmployeeIdNumber());
+		Integer employeeId = employeeIdentityCache.getEmployeeId(employeeUtil.getEmployeeIdNumber());
+		if (employeeId == null) {
+			return OpumConstants.INVALID_EMPLOYEE_ID;
+		}
 		int projectEngagementId = -1;
-		List<Project> projectList = new ArrayList<Project>();
-		projectList = projectRepository.retrieveData();
 		ProjectEngagement projectEngagement = new ProjectEngagement();
-		boolean valid = false;
-		for (Project project : projectList) {
-			if (project.getName().equals(employeeUtil.getProjectName())) {
-				valid = true;
-				projectEngagement.setProjectId(project.getProjectId());
-			}
+		Project project = projectCatalog.findByName(employeeUtil.getProjectName());
+		if (project != null) {
+			projectEngagement.setProjectId(project.getProjectId().intValue());
 		}
-		projectEngagement.setEmployeeId(Integer.parseInt(employeeId));
+		projectEngagement.setEmployeeId(employeeId);
 
 		DateFormat df = new SimpleDateFormat("yyyy-MM-dd");
 		projectEngagement.setStartDate(new java.sql.Date(df.parse(employeeUtil.getStartDate()).getTime()));
@@ -207,342 +293,363 @@ public class ProjectBO {
 		} else {
 			projectEngagement.setProjectEngagementId(projectEngagementId);
 			logger.info("END saveDate");
-			return projectEngagementRepository.saveDate(projectEngagement) ? OpumConstants.SUCCESSFULLY_SAVED
-					: OpumConstants.ERROR_WHEN_SAVING;
+			if (!projectEngagementRepository.saveDate(projectEngagement)) {
+				return OpumConstants.ERROR_WHEN_SAVING;
+			}
+			utilizationRollups.engagementsChanged();
+			return OpumConstants.SUCCESSFULLY_SAVED;
 		}
 	}
 
 	/**
+	 * This method is used to upload employee list. The file is read line by line
+	 * and processed in chunks of {@link OpumConstants#UPLOAD_BATCH_SIZE} rows,
+	 * invalid rows are written to an error report file which is streamed back
+	 * to the client
 	 * 
-	 * 
-	 * @param rawData
+	 * @param inputStream
+	 *            - content of the uploaded csv file
 	 * @param uriInfo
 	 * @return Response
 	 * @throws SQLException
+	 * @throws IOException
 	 */
-	public Response uploadEmployeeList(String rawData, @Context UriInfo uriInfo) throws SQLException {
+	public Response uploadEmployeeList(InputStream inputStream, @Context UriInfo uriInfo)
+			throws SQLException, IOException {
 		int invalidCounter = 0;
-		String invalidCsv = "";
-
-		Employee employee = new Employee();
-		ProjectEngagement projectEngagement = new ProjectEngagement();
-
-		List<Project> projectdata = new ArrayList<Project>();
-		projectdata = projectRepository.retrieveData(); // PROJECT BO
-
-		List<List<String>> employeeProjectEngagements = new ArrayList<List<String>>();
-		List<String> row = new ArrayList<String>();
-
-		String delimiter = ",";
-		String errorMessage = "";
+		Map<String, Project> projects = projectCatalog.getProjectsByName();
+
+		final File errorReport = File.createTempFile("opum-upload-errors", ".csv");
+		// the report is deleted here unless it is handed over to the response
+		boolean streamed = false;
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+			try {
+				Writer invalidCsv = new BufferedWriter(
+						new OutputStreamWriter(new FileOutputStream(errorReport), StandardCharsets.UTF_8));
+				try {
+					// first line of the file is the column header
+					reader.readLine();
+					List<List<String>> employeeProjectEngagements = new ArrayList<List<String>>(OpumConstants.UPLOAD_BATCH_SIZE);
+					int rowNumber = 1;
+					while (readChunk(reader, employeeProjectEngagements)) {
+						invalidCounter += uploadEmployeeChunk(employeeProjectEngagements, projects, rowNumber, invalidCsv);
+						rowNumber += employeeProjectEngagements.size();
+						employeeProjectEngagements.clear();
+					}
+				} finally {
+					invalidCsv.close();
+				}
+			} finally {
+				reader.close();
+			}
 
-		Scanner sc = new Scanner(rawData);
-		while (sc.hasNextLine()) {
-			String line = sc.nextLine();
-			if (line == null || line.equals("\\n") || line.equals("")) {
-				sc.nextLine();
-				break;
+			if (invalidCounter == 0) {
+				logger.info(OpumConstants.SUCCESSFULLY_UPLOADED_FILE);
+				return Response.status(Status.OK).header("Location", uriInfo.getBaseUri() + "employee/")
+						.entity("uploaded successfully").build();
+			}
+			logger.warn("There are " + invalidCounter + " invalid row/s in the uploaded file");
+			StreamingOutput invalidRows = new StreamingOutput() {
+				@Override
+				public void write(OutputStream output) throws IOException {
+					try {
+						Files.copy(errorReport.toPath(), output);
+					} finally {
+						errorReport.delete();
+					}
+				}
+			};
+			Response response = Response.status(206).header("Location", uriInfo.getBaseUri() + "employee/")
+					.entity(invalidRows).build();
+			streamed = true;
+			return response;
+		} finally {
+			if (!streamed) {
+				errorReport.delete();
 			}
 		}
+	}
 
-		while (sc.hasNextLine()) {
-
-			String line = sc.nextLine();
-
-			if ((!(line == null || line.equals("\\n") || line.equals(""))) && !line.startsWith("----")) {
-				row = Arrays.asList(line.split(delimiter));
-				employeeProjectEngagements.add(row);
+	/**
+	 * This method is used to validate an employee list without saving it. The
+	 * rows are validated with the same rules as {@link #uploadEmployeeList}
+	 * 
+	 * @param inputStream
+	 *            - content of the uploaded csv file
+	 * @return List - validation result of each invalid row
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	public List<RowValidationResult> validateEmployeeList(InputStream inputStream) throws SQLException, IOException {
+		List<RowValidationResult> invalidRows = new ArrayList<RowValidationResult>();
+		Map<String, Project> projects = projectCatalog.getProjectsByName();
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+		try {
+			// first line of the file is the column header
+			reader.readLine();
+			List<List<String>> employeeProjectEngagements = new ArrayList<List<String>>(OpumConstants.UPLOAD_BATCH_SIZE);
+			int rowNumber = 1;
+			while (readChunk(reader, employeeProjectEngagements)) {
+				for (RowValidationResult result : validateEmployeeChunk(employeeProjectEngagements, projects,
+						rowNumber)) {
+					if (!result.isValid()) {
+						invalidRows.add(result);
+					}
+				}
+				rowNumber += employeeProjectEngagements.size();
+				employeeProjectEngagements.clear();
 			}
+		} finally {
+			reader.close();
 		}
-		sc.close();
-
-		for (List<String> employeeProjectEngagement : employeeProjectEngagements) {
-			System.out.println("Row Data: " + employeeProjectEngagement);
-			boolean valid = true;
-			errorMessage = "";
+		logger.info("There are " + invalidRows.size() + " invalid row/s in the validated file");
+		return invalidRows;
+	}
 
-			if (validation.isValidEmployeeId(employeeProjectEngagement.get(0))) {
-				employee.setEmployeeIdNumber(employeeProjectEngagement.get(0));
-			} else {
-				valid = false;
-				invalidCounter++;
-				errorMessage = errorMessage + OpumConstants.INVALID_COMPANY_ID;
+	/**
+	 * This method is used to read the next rows of the uploaded file, up to
+	 * {@link OpumConstants#UPLOAD_BATCH_SIZE} rows. Empty lines and separator
+	 * lines are skipped
+	 * 
+	 * @param reader
+	 * @param chunk
+	 *            - list where the rows are added
+	 * @return boolean - true if at least one row was read
+	 * @throws IOException
+	 */
+	private boolean readChunk(BufferedReader reader, List<List<String>> chunk) throws IOException {
+		String line;
+		while (chunk.size() < OpumConstants.UPLOAD_BATCH_SIZE && (line = reader.readLine()) != null) {
+			if (line.isEmpty() || line.startsWith("----")) {
+				continue;
 			}
-			if (validation.isValidEmployeeName(employeeProjectEngagement.get(1))) {
-				employee.setFullName(employeeProjectEngagement.get(1));
-			} else {
-				valid = false;
-				invalidCounter++;
-				errorMessage = errorMessage + OpumConstants.INVALID_NAME;
+			chunk.add(Arrays.asList(line.split(",")));
+		}
+		return !chunk.isEmpty();
+	}
+
+	/**
+	 * This method is used to validate a chunk of uploaded rows against the
+	 * employee upload rule set and the existing projects
+	 * 
+	 * @param employeeProjectEngagements
+	 * @param projects
+	 *            - project by name
+	 * @param firstRowNumber
+	 *            - row number of the first row of the chunk
+	 * @return List - validation result of each row of the chunk
+	 */
+	private List<RowValidationResult> validateEmployeeChunk(List<List<String>> employeeProjectEngagements,
+			Map<String, Project> projects, int firstRowNumber) {
+		List<RowValidationResult> results = validationEngine.validateAll(ValidationRuleSet.EMPLOYEE_UPLOAD,
+				employeeProjectEngagements, firstRowNumber);
+		for (int i = 0; i < results.size(); i++) {
+			List<String> employeeProjectEngagement = employeeProjectEngagements.get(i);
+			RowValidationResult result = results.get(i);
+			if (employeeProjectEngagement.size() < 4) {
+				result.setErrors(Collections.singletonList(new FieldError(null, null, OpumConstants.INVALID_CSV)));
+			} else if (!projects.containsKey(employeeProjectEngagement.get(3))) {
+				result.getErrors().add(new FieldError("projectName", employeeProjectEngagement.get(3),
+						OpumConstants.INVALID_PROJECT_NAME));
 			}
-			if (validation.isValidEmailAddress(employeeProjectEngagement.get(2))) {
-				employee.setEmail(employeeProjectEngagement.get(2));
-			} else {
-				valid = false;
+		}
+		return results;
+	}
+
+	/**
+	 * This method is used to validate a chunk of uploaded rows and insert the
+	 * valid rows in a single transaction
+	 * 
+	 * @param employeeProjectEngagements
+	 * @param projects
+	 *            - project by name
+	 * @param firstRowNumber
+	 *            - row number of the first row of the chunk
+	 * @param invalidCsv
+	 *            - error report where invalid rows are written
+	 * @return int - number of invalid rows
+	 * @throws IOException
+	 */
+	private int uploadEmployeeChunk(List<List<String>> employeeProjectEngagements, Map<String, Project> projects,
+			int firstRowNumber, Writer invalidCsv) throws IOException {
+		int invalidCounter = 0;
+		List<List<String>> validRows = new ArrayList<List<String>>();
+		List<Employee> employees = new ArrayList<Employee>();
+		List<ProjectEngagement> projectEngagements = new ArrayList<ProjectEngagement>();
+
+		List<RowValidationResult> results = validateEmployeeChunk(employeeProjectEngagements, projects,
+				firstRowNumber);
+		for (int i = 0; i < results.size(); i++) {
+			List<String> employeeProjectEngagement = employeeProjectEngagements.get(i);
+			RowValidationResult result = results.get(i);
+			if (!result.isValid()) {
 				invalidCounter++;
-				errorMessage = errorMessage + OpumConstants.INVALID_EMAIL_ADDRESS;
+				logger.error(OpumConstants.INVALID_CSV);
+				appendInvalidRow(invalidCsv, employeeProjectEngagement, result.getErrorMessage());
+				continue;
 			}
+			Employee employee = new Employee();
+			employee.setEmployeeIdNumber(employeeProjectEngagement.get(0));
+			employee.setFullName(employeeProjectEngagement.get(1));
+			employee.setEmail(employeeProjectEngagement.get(2));
+			ProjectEngagement projectEngagement = new ProjectEngagement();
+			projectEngagement.setProjectId(projects.get(employeeProjectEngagement.get(3)).getProjectId().intValue());
+			validRows.add(employeeProjectEngagement);
+			employees.add(employee);
+			projectEngagements.add(projectEngagement);
+		}
 
-			if (valid) {
-				try {
-					boolean answer = employeeRepository.addData(employee);
-					if (answer) {
-						valid = false;
-
-						for (Project project : projectdata) {
-							if (project.getName().equals(employeeProjectEngagement.get(3))) {
-								valid = true;
-								projectEngagement.setProjectId(project.getProjectId());
-							}
-						}
-
-						if (valid) {
-							projectEngagement.setEmployeeId(
-									Integer.parseInt(employeeRepository.viewEmployee(employee.getEmployeeIdNumber())));
-							projectEngagementRepository.addProjectEngagement(projectEngagement);
-						} else {
-							invalidCounter++;
-							errorMessage = errorMessage + OpumConstants.INVALID_PROJECT_NAME;
-							invalidCsv += employeeProjectEngagement.get(0) + "," + employeeProjectEngagement.get(1)
-									+ "," + employeeProjectEngagement.get(2) + "," + employeeProjectEngagement.get(3)
-									+ "," + errorMessage + "\n";
-						}
-					}
-				} catch (BatchUpdateException e) {
-					logger.error("BatchUpdateException due to " + e.getMessage());
-					invalidCounter++;
-					System.out.println(e.getErrorCode());
-					if (e.getErrorCode() == OpumConstants.MYSQL_DUPLICATE_PK_ERROR_CODE) {
-						invalidCounter++;
-						errorMessage = errorMessage + OpumConstants.DUPLICATE_ENTRY;
-						invalidCsv += employeeProjectEngagement.get(0) + "," + employeeProjectEngagement.get(1) + ","
-								+ employeeProjectEngagement.get(2) + "," + employeeProjectEngagement.get(3) + ","
-								+ errorMessage + "\n";
-					}
-				} catch (SQLException e) {
+		if (employees.isEmpty()) {
+			return invalidCounter;
+		}
+		try {
+			int[] employeeIds = employeeRepository.addEmployeeProjectEngagements(employees, projectEngagements);
+			utilizationRollups.engagementsChanged();
+			for (int i = 0; i < employeeIds.length; i++) {
+				if (employeeIds[i] == -1) {
 					invalidCounter++;
-					logger.error("SQL Exception due to " + e.getMessage());
-					e.printStackTrace();
+					appendInvalidRow(invalidCsv, validRows.get(i), OpumConstants.DUPLICATE_ENTRY);
+				} else {
+					employeeIdentityCache.put(new EmployeeIdentity(employeeIds[i], employees.get(i).getEmployeeIdNumber(),
+							employees.get(i).getEmail()));
+					employeeSearchIndex.put(employeeIds[i], employees.get(i).getEmployeeIdNumber(),
+							employees.get(i).getFullName(), employees.get(i).getEmail(), employees.get(i).isActive());
 				}
-
-			} else {
+			}
+		} catch (SQLException e) {
+			logger.error("SQL Exception due to " + e.getMessage(), e);
+			for (List<String> validRow : validRows) {
 				invalidCounter++;
-				logger.error(OpumConstants.INVALID_CSV);
-				invalidCsv += employeeProjectEngagement.get(0) + "," + employeeProjectEngagement.get(1) + ","
-						+ employeeProjectEngagement.get(2) + "," + employeeProjectEngagement.get(3) + "," + errorMessage
-						+ "\n";
+				appendInvalidRow(invalidCsv, validRow, OpumConstants.ERROR_WHEN_SAVING);
 			}
 		}
+		return invalidCounter;
+	}
 
-		if (invalidCounter == 0) {
-			logger.info(OpumConstants.SUCCESSFULLY_UPLOADED_FILE);
-			return Response.status(Status.OK).header("Location", uriInfo.getBaseUri() + "employee/")
-					.entity("uploaded successfully").build();
-		} else {
-			logger.warn("There are some format errors in the file due to " + errorMessage);
-			return Response.status(206).header("Location", uriInfo.getBaseUri() + "employee/").entity(invalidCsv)
-					.build();
+	private void appendInvalidRow(Writer invalidCsv, List<String> employeeProjectEngagement, String errorMessage)
+			throws IOException {
+		for (String column : employeeProjectEngagement) {
+			invalidCsv.append(column).append(',');
 		}
+		invalidCsv.append(errorMessage).append('\n');
 	}
 
+	/**
+	 * This method is used to compute the weekly, monthly and quarterly
+	 * utilization of an employee for a PUM year. Days are assigned to their
+	 * month, quarter and week through the fiscal calendar of the year, and
+	 * the available hours of a period are its working days times the working
+	 * hours per day
+	 * 
+	 * @param employeeId
+	 * @param year
+	 * @return Year
+	 * @throws SQLException
+	 * @throws ParseException
+	 */
 	public Year getComputation(int employeeId, int year) throws SQLException, ParseException {
-		Utilization utilization = utilizationEngagementRepository.getComputation(employeeId, year);
-		UtilizationYear utilization_Year = JsonToJavaUtil.JsonToJava(utilization.getUtilizationJson(),UtilizationYear.class);
-		DecimalFormat formatter = new DecimalFormat("#0.00");
-		double hours = 0;
-		double weekHours = 0;
-		double monthHours = 0;
-		double quarterHours = 0;
-		double monthVLCount = 0;
-		double monthSLCount = 0;
-		double monthOLCount = 0;
-		int weekCounter = 0;
-		int monthCounter = 0;
-		int quarterCounter = 0;
+		UtilizationYear utilization_Year = readUtilizationYear(employeeId, year);
+		FiscalYear fiscalYear = fiscalCalendar.getYear(year);
+		List<Period> weeks = fiscalYear.getWeeks();
+		List<Period> months = fiscalYear.getMonths();
+		List<Period> quarters = fiscalYear.getQuarters();
+		double[] weekHours = new double[weeks.size()];
+		double[] monthHours = new double[months.size()];
+		double[] monthVLCount = new double[months.size()];
+		double[] monthSLCount = new double[months.size()];
+		double[] monthOLCount = new double[months.size()];
+		double[] quarterHours = new double[quarters.size()];
 
-		Year yearCalculation = new Year();
-		yearCalculation.setQuarters(new ArrayList<Quarter>());
-		yearCalculation.getQuarters().add(new Quarter());
-		
-		final Quarter quarterOfYear = yearCalculation.getQuarters().get(quarterCounter);
-		quarterOfYear.setMonths(new ArrayList<Month>());
-		quarterOfYear.getMonths().add(new Month());
-		
-		Month monthOfQuarter = quarterOfYear.getMonths().get(monthCounter);
-		monthOfQuarter.setWeeks(new ArrayList<Week>());
-
-		
-		
 		for (UtilizationJson json : utilization_Year.getUtilizationJSON()) {
-			//
-			final String utilizationCellValue = json.getUtilizationHours();
-			if (utilizationCellValue.equals("VL") || utilizationCellValue.equals("SL")
-					|| utilizationCellValue.equals("OL") || utilizationCellValue.equals("EL")
-					|| utilizationCellValue.equals("HO") || utilizationCellValue.equals("TR")
-					|| utilizationCellValue.equals("CDO") || utilizationCellValue.equals("")) {
-
-				hours = 0;
-			} else if (utilizationCellValue != null) {
-				hours = Integer.parseInt(utilizationCellValue);
-			}
-
-			if (utilizationCellValue.equals("VL")) {
-				monthVLCount++;
-			} else if (utilizationCellValue.equals("SL")) {
-				monthSLCount++;
-			} else if (utilizationCellValue.equals("OL")) {
-				monthOLCount++;
+			int dayIndex = fiscalYear.dayIndex(LocalDate.of(year, json.getMonth(), json.getDayOfMonth()));
+			if (dayIndex < 0) {
+				continue;
 			}
-
-			// Compute hours per week
-			final List<Week> weeksOfMonth = monthOfQuarter.getWeeks();
-			if (json.getDay() != 7) {
-				weekHours = weekHours + hours;
-				System.out.println("Total hours per day: " + hours);
-			} else {
-				System.out.println("Total hours per day: " + hours);
-				System.out.println("  TOTAL HOURS PER WEEK: " + weekHours);
-				weeksOfMonth.add(new Week());
-				weeksOfMonth.get(weekCounter).setTotalHours(weekHours);
-				weeksOfMonth.get(weekCounter)
-						.setWeekEndingDate(json.getMonth() + "/" + json.getDayOfMonth());
-				monthHours = monthHours + weekHours;
-				weekHours = 0;
-				weekCounter++;
+			final String utilizationCellValue = json.getUtilizationHours();
+			final int month = fiscalYear.monthOf(dayIndex);
+			if (TimeAwayTokens.VL.getS().equals(utilizationCellValue)) {
+				monthVLCount[month]++;
+			} else if (TimeAwayTokens.SL.getS().equals(utilizationCellValue)) {
+				monthSLCount[month]++;
+			} else if (TimeAwayTokens.OL.getS().equals(utilizationCellValue)) {
+				monthOLCount[month]++;
 			}
-
-			// Compute all data per month
-			final boolean isQ1 = json.getMonth() >= 4 && json.getDayOfMonth() == 1;
-			final boolean isQ2 = json.getMonth() >= 7 && json.getDayOfMonth() == 1;
-			final boolean isQ3 = json.getMonth() >= 10 && json.getDayOfMonth() == 1;
-			final boolean isQ4 = json.getMonth() == 12 && json.getDayOfMonth() == 31;
-			boolean isValidCalendarQuarter = isQ1 || isQ2 || isQ3 || isQ4;
-			if (weekCounter == 5 && isValidCalendarQuarter) {
-				//Process a five-week month
-				final int FIVE_WEEK_TOTAL_HOURS = 200;
-				double MTD5 = ((monthHours / FIVE_WEEK_TOTAL_HOURS) * 100);
-				monthOfQuarter.setTotalHours(monthHours);
-				monthOfQuarter.setNumberOfVL(monthVLCount);
-				monthOfQuarter.setNumberOfSL(monthSLCount);
-				monthOfQuarter.setNumberOfOL(monthOLCount);
-				monthOfQuarter.setNumberOfAvailableHours(FIVE_WEEK_TOTAL_HOURS);
-				monthOfQuarter.setMonthToDateUtilization(Double.parseDouble(formatter.format(MTD5)));
-
-				// Months
-				monthDigitToString(monthOfQuarter, json);
-				
-				getComputationSysouts(monthHours, monthVLCount, monthSLCount, monthOLCount, MTD5);
-				
-				quarterHours = quarterHours + monthHours;
-				monthHours = 0;
-				monthVLCount = 0;
-				monthSLCount = 0;
-				monthOLCount = 0;
-				quarterOfYear.getMonths().add(new Month());
-				monthCounter++;
-				monthOfQuarter.setWeeks(new ArrayList<Week>());
-				weeksOfMonth.add(new Week());
-				weekCounter = 0;
-
-			} else if (weekCounter == 4) {
-				//Process a four-week month
-				final int FOUR_WEEK_TOTAL_HOURS = 160;
-				double MTD4 = ((monthHours / FOUR_WEEK_TOTAL_HOURS) * 100);
-				monthOfQuarter.setTotalHours(monthHours);
-				monthOfQuarter.setNumberOfVL(monthVLCount);
-				monthOfQuarter.setNumberOfSL(monthSLCount);
-				monthOfQuarter.setNumberOfOL(monthOLCount);
-				monthOfQuarter.setNumberOfAvailableHours(FOUR_WEEK_TOTAL_HOURS);
-				monthOfQuarter.setMonthToDateUtilization(Double.parseDouble(formatter.format(MTD4)));
-
-				monthDigitToString(monthOfQuarter, json);
-
-				getComputationSysouts(monthHours, monthVLCount, monthSLCount, monthOLCount, MTD4);
-				
-				quarterHours = quarterHours + monthHours;
-				monthHours = 0;
-				monthVLCount = 0;
-				monthSLCount = 0;
-				monthOLCount = 0;
-				quarterOfYear.getMonths().add(new Month());
-				monthCounter++;
-				monthOfQuarter.setWeeks(new ArrayList<Week>());
-				weeksOfMonth.add(new Week());
-				weekCounter = 0;
+			if (utilizationCellValue == null || utilizationCellValue.isEmpty()
+					|| TimeAwayTokens.isToken(utilizationCellValue)) {
+				continue;
 			}
+			double hours = Integer.parseInt(utilizationCellValue);
+			weekHours[fiscalYear.weekOf(dayIndex)] += hours;
+			monthHours[month] += hours;
+			quarterHours[fiscalYear.quarterOf(dayIndex)] += hours;
+		}
 
-			
-			
-			// Compute all data per quarter
-			//TODO: validation
-			//?
-			if (isValidCalendarQuarter) {
-				double QTD = ((quarterHours / 560) * 100);
-				quarterOfYear.setTotalHours(quarterHours);
-				quarterOfYear.setNumberOfAvailableHours(560);
-				quarterOfYear.setQuarterToDateUtilization(Double.parseDouble(formatter.format(QTD)));
-
-				if (isQ1) {
-					quarterOfYear.setName("1st Quarter");
-				} else if (isQ2) {
-					quarterOfYear.setName("2nd Quarter");
-				} else if (isQ3) {
-					quarterOfYear.setName("3rd Quarter");
-				} else if (isQ4) {
-					quarterOfYear.setName("4th Quarter");
-				}
-
-				System.out.println("Total hours per quarter:" + quarterHours);
-				System.out.println("QTD: " + QTD + "%");
-				quarterHours = 0;
-				yearCalculation.getQuarters().add(new Quarter());
-				quarterCounter++;
-				quarterOfYear.setMonths(new ArrayList<Month>());
-				quarterOfYear.getMonths().add(new Month());
-				monthCounter = 0;
-				monthOfQuarter.setWeeks(new ArrayList<Week>());
-				weeksOfMonth.add(new Week());
-				weekCounter = 0;
-			}
+		DecimalFormat formatter = new DecimalFormat("#0.00");
+		Year yearCalculation = new Year();
+		yearCalculation.setQuarters(new ArrayList<Quarter>());
+		for (int i = 0; i < quarters.size(); i++) {
+			Period quarter = quarters.get(i);
+			double availableHours = availableHours(quarter);
+			Quarter quarterOfYear = new Quarter();
+			quarterOfYear.setName(quarter.getName());
+			quarterOfYear.setTotalHours(quarterHours[i]);
+			quarterOfYear.setNumberOfAvailableHours(availableHours);
+			quarterOfYear.setQuarterToDateUtilization(
+					Double.parseDouble(formatter.format(utilizationPercentage(quarterHours[i], availableHours))));
+			quarterOfYear.setMonths(new ArrayList<Month>());
+			yearCalculation.getQuarters().add(quarterOfYear);
+		}
+		List<Month> monthsOfYear = new ArrayList<Month>(months.size());
+		for (int i = 0; i < months.size(); i++) {
+			Period month = months.get(i);
+			double availableHours = availableHours(month);
+			Month monthOfQuarter = new Month();
+			monthOfQuarter.setName(month.getName());
+			monthOfQuarter.setTotalHours(monthHours[i]);
+			monthOfQuarter.setNumberOfVL(monthVLCount[i]);
+			monthOfQuarter.setNumberOfSL(monthSLCount[i]);
+			monthOfQuarter.setNumberOfOL(monthOLCount[i]);
+			monthOfQuarter.setNumberOfAvailableHours(availableHours);
+			monthOfQuarter.setMonthToDateUtilization(
+					Double.parseDouble(formatter.format(utilizationPercentage(monthHours[i], availableHours))));
+			monthOfQuarter.setWeeks(new ArrayList<Week>());
+			monthsOfYear.add(monthOfQuarter);
+			int quarter = fiscalYear.quarterOf(fiscalYear.dayIndex(month.getStart()));
+			yearCalculation.getQuarters().get(quarter).getMonths().add(monthOfQuarter);
+		}
+		for (int i = 0; i < weeks.size(); i++) {
+			Period week = weeks.get(i);
+			Week weekOfMonth = new Week();
+			weekOfMonth.setWeekEndingDate(week.getName());
+			weekOfMonth.setTotalHours(weekHours[i]);
+			int month = fiscalYear.monthOf(fiscalYear.dayIndex(week.getEnd()));
+			monthsOfYear.get(month).getWeeks().add(weekOfMonth);
 		}
 		return yearCalculation;
 	}
 
-	private void getComputationSysouts(double monthHours, double monthVLCount, double monthSLCount, double monthOLCount,
-			double MTD5) {
-		System.out.println("     TOTAL HOURS PER MONTH: " + monthHours);
-		System.out.println("Total VLs per month: " + monthVLCount);
-		System.out.println("Total SLs per month: " + monthSLCount);
-		System.out.println("Total OLs per month: " + monthOLCount);
-		System.out.println("MTD: " + MTD5 + "%");
+	/**
+	 * @return UtilizationYear - from the snapshot of an archived year,
+	 *         otherwise from utilization table
+	 */
+	private UtilizationYear readUtilizationYear(int employeeId, int year) throws SQLException {
+		UtilizationSnapshot snapshot = utilizationSnapshots.getSnapshot(year);
+		if (snapshot != null) {
+			return snapshot.getUtilizationYear(employeeId);
+		}
+		Utilization utilization = utilizationEngagementRepository.getComputation(employeeId, year);
+		return JsonToJavaUtil.JsonToJava(utilization.getUtilizationJson(), UtilizationYear.class);
+	}
+
+	private double availableHours(Period period) throws SQLException {
+		return holidayCalendar.workingDaysBetween(period.getStart(), period.getEnd())
+				* OpumConstants.WORKING_HOURS_PER_DAY;
 	}
 
-	private void monthDigitToString(Month monthUtilization, UtilizationJson json) {
-		if (json.getMonth() == 1) {
-			monthUtilization.setName("January");
-		} else if (json.getMonth() == 2) {
-			monthUtilization.setName("February");
-		} else if (json.getMonth() == 3) {
-			monthUtilization.setName("March");
-		} else if (json.getMonth() == 4) {
-			monthUtilization.setName("April");
-		} else if (json.getMonth() == 5) {
-			monthUtilization.setName("May");
-		} else if (json.getMonth() == 6) {
-			monthUtilization.setName("June");
-		} else if (json.getMonth() == 7) {
-			monthUtilization.setName("July");
-		} else if (json.getMonth() == 8) {
-			monthUtilization.setName("August");
-		} else if (json.getMonth() == 9) {
-			monthUtilization.setName("September");
-		} else if (json.getMonth() == 10) {
-			monthUtilization.setName("October");
-		} else if (json.getMonth() == 11) {
-			monthUtilization.setName("November");
-		} else if (json.getMonth() == 12) {
-			monthUtilization.setName("December");
-		}
+	private double utilizationPercentage(double hours, double availableHours) {
+		return availableHours == 0 ? 0 : (hours / availableHours) * 100;
 	}
 
 	/**
@@ -552,7 +659,80 @@ public class ProjectBO {
 	 * @throws SQLException
 	 */
 	public List<Project> retrieveData() throws SQLException {
-		return projectRepository.retrieveData();
+		return projectCatalog.getProjects();
+	}
+
+	/**
+	 * This method is used to list project engagements a page at a time
+	 * 
+	 * @param cursor
+	 *            - next cursor of the previous page, null for the first page
+	 * @param limit
+	 *            - page size
+	 * @param projectId
+	 *            - null for engagements to any project
+	 * @param employeeId
+	 *            - null for engagements of any employee
+	 * @return Page of ProjectEngagement
+	 * @throws SQLException
+	 */
+	public Page<ProjectEngagement> getProjectEngagements(String cursor, int limit, Integer projectId,
+			Integer employeeId) throws SQLException {
+		int pageSize = PageCursor.limit(limit);
+		List<ProjectEngagement> rows = projectEngagementRepository.getProjectEngagements(
+				PageCursor.decodeInt(PROJECT_ENGAGEMENT_LISTING, cursor), projectId, employeeId, pageSize + 1);
+		return PageCursor.page(PROJECT_ENGAGEMENT_LISTING, rows, pageSize, new ToLongFunction<ProjectEngagement>() {
+			@Override
+			public long applyAsLong(ProjectEngagement projectEngagement) {
+				return projectEngagement.getProjectEngagementId();
+			}
+		});
+	}
+
+	/**
+	 * This method is used to get the utilization of every project for a
+	 * period of a PUM year
+	 * 
+	 * @param year
+	 * @param period
+	 *            - fiscal month or quarter name, Q1 to Q4, null for the whole
+	 *            year
+	 * @return List of UtilizationRollup
+	 * @throws SQLException
+	 */
+	public List<UtilizationRollup> getProjectRollups(int year, String period) throws SQLException {
+		return utilizationRollups.getProjectRollups(year, period);
+	}
+
+	/**
+	 * This method is used to get the utilization of a project for a period of
+	 * a PUM year
+	 * 
+	 * @param projectId
+	 * @param year
+	 * @param period
+	 *            - fiscal month or quarter name, Q1 to Q4, null for the whole
+	 *            year
+	 * @return UtilizationRollup - null if the project does not exist
+	 * @throws SQLException
+	 */
+	public UtilizationRollup getProjectRollup(long projectId, int year, String period) throws SQLException {
+		return utilizationRollups.getProjectRollup(projectId, year, period);
+	}
+
+	/**
+	 * This method is used to get the utilization of the account for a period
+	 * of a PUM year
+	 * 
+	 * @param year
+	 * @param period
+	 *            - fiscal month or quarter name, Q1 to Q4, null for the whole
+	 *            year
+	 * @return UtilizationRollup
+	 * @throws SQLException
+	 */
+	public UtilizationRollup getAccountRollup(int year, String period) throws SQLException {
+		return utilizationRollups.getAccountRollup(year, period);
 	}
 
 	/**
@@ -565,9 +745,7 @@ public class ProjectBO {
 	 * @throws ParseException
 	 */
 	public Response getYTDComputation(int employeeId, int year) throws SQLException, ParseException {
-		Utilization utilization = utilizationEngagementRepository.getComputation(employeeId, year);
-		UtilizationYear utilization_Year = JsonToJavaUtil.JsonToJava(utilization.getUtilizationJson(),
-				UtilizationYear.class);
+		UtilizationYear utilization_Year = readUtilizationYear(employeeId, year);
 		
 		double hours = 0;
 		double VLcount = 0;
@@ -621,6 +799,7 @@ public class ProjectBO {
 			if (pumQuarter.getEnd() != null){
 				value = pumYearRepository.saveQuarter(pumQuarter);
 				if (value){
+					fiscalCalendar.refresh();
 					logger.info("END saveQuarter");
 					return OpumConstants.SUCCESSFULLY_SAVED;
 				} else {
@@ -642,6 +821,7 @@ public class ProjectBO {
 			if (pumMonth.getEnd() != null){
 				value = pumYearRepository.saveMonth(pumMonth);
 				if (value){
+					fiscalCalendar.refresh();
 					logger.info("END saveMonth");
 					return OpumConstants.SUCCESSFULLY_SAVED;
 				} else {
@@ -2,7 +2,13 @@ package com.ph.ibm.bo;
 
 public enum TimeAwayTokens {
 
-	CDO("CDO");
+	CDO("CDO"),
+	VL("VL"),
+	SL("SL"),
+	OL("OL"),
+	EL("EL"),
+	HO("HO"),
+	TR("TR");
 	
 	String s;
 	
@@ -13,5 +19,18 @@ public enum TimeAwayTokens {
 	public String getS() {
 		return s;
 	}
+
+	/**
+	 * @param s
+	 * @return true if s is a time away token
+	 */
+	public static boolean isToken(String s) {
+		for (TimeAwayTokens token : values()) {
+			if (token.s.equals(s)) {
+				return true;
+			}
+		}
+		return false;
+	}
 	
 }
@@ -1,358 +1,539 @@
 package com.ph.ibm.bo;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.SQLException;
 import java.text.DecimalFormat;
 import java.text.ParseException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
-import javax.ws.rs.core.MediaType;
+import javax.inject.Inject;
 import javax.ws.rs.core.Response;
-import javax.ws.rs.core.Response.ResponseBuilder;
-import javax.ws.rs.core.Response.Status;
-
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFCreationHelper;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.log4j.Logger;
 import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CreationHelper;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
-import com.ph.ibm.model.Project;
+import com.ph.ibm.cache.ArchivedYears;
+import com.ph.ibm.cache.EmployeeIdentityCache;
+import com.ph.ibm.cache.HolidayCalendar;
+import com.ph.ibm.cache.UtilizationRollups;
+import com.ph.ibm.cache.UtilizationSnapshot;
+import com.ph.ibm.cache.UtilizationSnapshots;
+import com.ph.ibm.model.FieldError;
 import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.model.RowValidationResult;
 import com.ph.ibm.model.Utilization;
+import com.ph.ibm.model.UtilizationChange;
+import com.ph.ibm.model.UtilizationChanges;
 import com.ph.ibm.model.UtilizationJson;
 import com.ph.ibm.model.UtilizationYear;
 import com.ph.ibm.model.Year;
+import com.ph.ibm.repository.ProjectEngagementRepository;
+import com.ph.ibm.repository.UtilizationChangeRepository;
 import com.ph.ibm.repository.UtilizationEngagementRepository;
-import com.ph.ibm.repository.impl.ProjectEngagementRepositoryImpl;
-import com.ph.ibm.repository.impl.ProjectRepositoryImpl;
-import com.ph.ibm.repository.impl.UtilizationEngagementRepositoryImpl;
+import com.ph.ibm.resources.OpumBinder;
 import com.ph.ibm.util.JSONToJava;
 import com.ph.ibm.util.JavaToJsonUtil;
 import com.ph.ibm.util.JsonToJavaUtil;
+import com.ph.ibm.util.OpumConstants;
+import com.ph.ibm.util.PageCursor;
+import com.ph.ibm.util.SpreadsheetRowReader;
+import com.ph.ibm.util.UtilizationDiff;
 
 public class UtilityBO {
 
 	/**
+	 * UtilizationEngagementRepository is a Data Access Object which contains
+	 * method to save and retrieve data from Utilization_JSON
+	 */
+	private final UtilizationEngagementRepository utilizationEngagementRepository;
+
+	/**
+	 * ProjectEngagementRepository is a Data Access Object which contain method
+	 * to add, save, get, check field/s stored in project_engagement table -
+	 * opum database
+	 */
+	private final ProjectEngagementRepository projectEngagementRepository;
+
+	/**
+	 * UtilizationChangeRepository is a Data Access Object which contains
+	 * method to read the utilization change log
+	 */
+	private final UtilizationChangeRepository utilizationChangeRepository;
+
+	/**
+	 * EmployeeIdentityCache is used to resolve the employee id of imported rows
+	 */
+	private EmployeeIdentityCache employeeIdentityCache = EmployeeIdentityCache.getInstance();
+
+	/**
+	 * HolidayCalendar is used to count the working days of available hours
+	 */
+	private HolidayCalendar holidayCalendar = HolidayCalendar.getInstance();
+
+	/**
+	 * UtilizationRollups is told of saved utilization to keep project and
+	 * account rollups current
+	 */
+	private UtilizationRollups utilizationRollups = UtilizationRollups.getInstance();
+
+	/**
+	 * ArchivedYears rejects saving the utilization of a closed year
+	 */
+	private ArchivedYears archivedYears = ArchivedYears.getInstance();
+
+	/**
+	 * UtilizationSnapshots serves the utilization of archived years from
+	 * memory mapped files
+	 */
+	private UtilizationSnapshots utilizationSnapshots = UtilizationSnapshots.getInstance();
+
+	/**
+	 * Logger is used to document the execution of the system and logs the
+	 * corresponding log level such as INFO, WARN, ERROR
+	 */
+	private Logger logger = Logger.getLogger(UtilityBO.class);
+
+	/**
+	 * @param utilizationEngagementRepository
+	 * @param projectEngagementRepository
+	 * @param utilizationChangeRepository
+	 */
+	@Inject
+	public UtilityBO(UtilizationEngagementRepository utilizationEngagementRepository,
+			ProjectEngagementRepository projectEngagementRepository,
+			UtilizationChangeRepository utilizationChangeRepository) {
+		this.utilizationEngagementRepository = utilizationEngagementRepository;
+		this.projectEngagementRepository = projectEngagementRepository;
+		this.utilizationChangeRepository = utilizationChangeRepository;
+	}
+
+	/**
+	 * @param utilizationEngagementRepository
+	 * @param projectEngagementRepository
+	 */
+	public UtilityBO(UtilizationEngagementRepository utilizationEngagementRepository,
+			ProjectEngagementRepository projectEngagementRepository) {
+		this(utilizationEngagementRepository, projectEngagementRepository,
+				OpumBinder.getRepository(UtilizationChangeRepository.class));
+	}
+
+	/** Month header of the utilization sheet */
+	private static final String[] MONTHS = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+			"NOV", "DEC" };
+
+	/** Media type of the exported workbook */
+	public static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+	/** Rows of the exported sheet held in memory, older rows are flushed to disk */
+	private static final int EXPORT_ROW_WINDOW = 100;
+
+	/** Available hours, the time away columns, total hours and YTD% of the exported sheet */
+	private static final int SUMMARY_COLUMNS = 10;
+
+	/** Listing of the utilization change tokens */
+	private static final String UTILIZATION_CHANGE_LISTING = "utilization-changes";
+
+	/** Pattern of the year column of the utilization sheet */
+	private static final Pattern YEAR_PATTERN = Pattern.compile("^\\d{4}$");
+
+	/** Employee id of a utilization, fits an int */
+	private static final Pattern NUMERIC_ID_PATTERN = Pattern.compile("^\\d{1,9}$");
+
+	/**
+	 * This method is used to export the utilization of a year as an xlsx
+	 * workbook. The sheet is written before the response is returned, rows
+	 * beyond the window of {@link #EXPORT_ROW_WINDOW} rows are flushed to a
+	 * temporary file, and the workbook is streamed to the client by the
+	 * returned response
 	 * 
+	 * @param year
+	 * @return Response - the workbook as an attachment
+	 * @throws SQLException
+	 * @throws ParseException
+	 * @throws IOException
 	 */
-	private UtilizationEngagementRepository utilizationEngagementRepository = new UtilizationEngagementRepositoryImpl();
+	public Response downloadUtilization(String year) throws SQLException, ParseException, IOException {
+		final SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+		// the workbook is disposed here unless it is handed over to the response
+		boolean streamed = false;
+		try {
+			writeUtilizationSheet(workbook, year);
+			StreamingOutput workbookOutput = new StreamingOutput() {
+				@Override
+				public void write(OutputStream output) throws IOException {
+					try {
+						workbook.write(output);
+					} finally {
+						workbook.dispose();
+						workbook.close();
+					}
+				}
+			};
+			Response response = Response.ok(workbookOutput, XLSX)
+					.header("Content-Disposition",
+							"attachment; filename=USAA_PUM_as_of" + LocalDate.now() + ".xlsx")
+					.build();
+			streamed = true;
+			return response;
+		} finally {
+			if (!streamed) {
+				workbook.dispose();
+				workbook.close();
+			}
+		}
+	}
 
 	/**
-	 * @throws IOException 
+	 * This method is used to write the utilization sheet of every engaged
+	 * employee into a workbook, one row per project engagement. The
+	 * utilization of the year is read as a stream so only the row being
+	 * written is held besides the engagements
 	 * 
+	 * @param workbook
+	 * @param year
+	 * @throws SQLException
+	 * @throws ParseException
 	 */
-	public Response downloadUtilization(String year) throws IOException {
-		UtilizationEngagementRepositoryImpl util = new UtilizationEngagementRepositoryImpl();
-		ProjectEngagementRepositoryImpl projectEngagementImplementation = new ProjectEngagementRepositoryImpl();
-		ProjectRepositoryImpl projectImplementation = new ProjectRepositoryImpl();
+	public void writeUtilizationSheet(Workbook workbook, String year) throws SQLException, ParseException {
 		JSONToJava jsontojava = new JSONToJava();
-		LocalDateTime now = LocalDateTime.now();
-		ProjectBO projectBO = new ProjectBO();
-		UtilityBO utilityBO = new UtilityBO();
-		HSSFWorkbook workbook = new HSSFWorkbook();
-		System.out.println("Year: " + year);
-		try {
-			Utilization utilization = null;
-			List<ProjectEngagement> projectEngagementList = projectEngagementImplementation.getAllProjectEngagement();
-			List<Project> projectList	= projectImplementation.retrieveData();
-			
-			HSSFSheet sheet = workbook.createSheet("PUM 2017");
-			sheet.addMergedRegion(new CellRangeAddress(0, 3, 0, 4));
+		Map<Integer, List<ProjectEngagement>> projectEngagements = new HashMap<Integer, List<ProjectEngagement>>();
+		try (Stream<ProjectEngagement> stream = projectEngagementRepository.streamProjectEngagements()) {
+			Iterator<ProjectEngagement> iterator = stream.iterator();
+			while (iterator.hasNext()) {
+				ProjectEngagement projectEngagement = iterator.next();
+				List<ProjectEngagement> employeeEngagements = projectEngagements.get(projectEngagement.getEmployeeId());
+				if (employeeEngagements == null) {
+					employeeEngagements = new ArrayList<ProjectEngagement>(1);
+					projectEngagements.put(projectEngagement.getEmployeeId(), employeeEngagements);
+				}
+				employeeEngagements.add(projectEngagement);
+			}
+		}
+		
+		Sheet sheet = workbook.createSheet("PUM " + year);
+		// a streamed sheet sizes only the columns it tracks
+		trackColumnsForAutoSizing(sheet, 0, 5);
+		sheet.addMergedRegion(new CellRangeAddress(0, 3, 0, 4));
+
+		CellStyle dateStyle = createStylingForRollinRolloffDate(workbook);
+		
+		CellStyle hStyle = createHeaderStyling(workbook);
+		
+		CellStyle compStyle = createYTDStyle(workbook);
+					
+		CellStyle monthStyle = createMonthHeaderStyling(workbook);
+		
+		CellStyle dataStyle = createDataStyling(workbook);
+
+		int rowNum = 5;
+		int summaryColumn = -1;
+		Row daysHeader = sheet.createRow(3);
+		Row monthHeader = sheet.createRow(0);
+		Row header = sheet.createRow(4);
+
+		Cell header1 = header.createCell(0);
+		Cell header2 = header.createCell(1);
+		Cell header3 = header.createCell(2);
+		Cell header4 = header.createCell(3);
+		Cell header5 = header.createCell(4);
+
+		header1.setCellValue("Project");
+		header1.setCellStyle(hStyle);
+		sheet.autoSizeColumn(0);
+	    header2.setCellValue("Employee Serial No.");
+	    header2.setCellStyle(hStyle);
+	    sheet.autoSizeColumn(1);
+	    
+	    header3.setCellValue("Year");
+	    header3.setCellStyle(hStyle);
+	    sheet.autoSizeColumn(2);
+	    header4.setCellValue("Roll In Date");
+	    header4.setCellStyle(hStyle);
+	    sheet.autoSizeColumn(3);
+	    header5.setCellValue("Roll Off Date");
+	    header5.setCellStyle(hStyle);
+	    sheet.autoSizeColumn(4);
+	    
+	  
+		try (Stream<Utilization> utilizations = utilizationEngagementRepository.streamUtilizations(year)) {
+			Iterator<Utilization> iterator = utilizations.iterator();
+			while (iterator.hasNext()) {
+				Utilization excelRow = iterator.next();
+				List<ProjectEngagement> employeeEngagements = projectEngagements
+						.get(Integer.valueOf(excelRow.getEmployeeIdNumber()));
+				if (employeeEngagements == null) {
+					continue;
+				}
+				UtilizationYear utilizationYear = jsontojava.jsonToJava(excelRow.getUtilizationJson());
+				if (utilizationYear == null) {
+					logger.warn("Skipping unreadable utilization of employee " + excelRow.getEmployeeIdNumber() + " in " + year);
+					continue;
+				}
+				Year yearComputation = getYTDComputation(utilizationYear, Integer.parseInt(excelRow.getYear()));
+				for (ProjectEngagement projectEngagement : employeeEngagements) {
+					Row row = sheet.createRow(rowNum);
+					Cell cell1 = row.createCell(0);
+					Cell cell2 = row.createCell(1);
+					Cell cell3 = row.createCell(2);
+					Cell cell4 = row.createCell(3);
+					Cell cell5 = row.createCell(4);
 
-			HSSFCellStyle dateStyle = createStylingForRollinRolloffDate(workbook);
-			
-			HSSFCellStyle hStyle = createHeaderStyling(workbook);
 			
-			HSSFCellStyle compStyle = createYTDStyle(workbook);
-						
-			HSSFCellStyle monthStyle = createMonthHeaderStyling(workbook);
+					cell1.setCellValue("USAA");
+					cell1.setCellStyle(dataStyle);
+					cell2.setCellValue(excelRow.getEmployeeSerial());
+					cell2.setCellStyle(dataStyle);
+					cell3.setCellValue(excelRow.getYear());
+					cell3.setCellStyle(dataStyle);
+
+					cell4.setCellValue(projectEngagement.getStartDate());
+					cell4.setCellStyle(dateStyle);
+					cell5.setCellValue(projectEngagement.getEndDate());
+					cell5.setCellStyle(dateStyle);
 			
-			HSSFCellStyle dataStyle = createDataStyling(workbook);
-	
-			int rowNum = 5;
-			HSSFRow daysHeader = sheet.createRow(3);
-			HSSFRow monthHeader = sheet.createRow(0);
-			HSSFRow header = sheet.createRow(4);
-
-			HSSFCell header1 = header.createCell(0);
-			HSSFCell header2 = header.createCell(1);
-			HSSFCell header3 = header.createCell(2);
-			HSSFCell header4 = header.createCell(3);
-			HSSFCell header5 = header.createCell(4);
-
-			header1.setCellValue("Project");
-			header1.setCellStyle(hStyle);
-			sheet.autoSizeColumn(0);
-		    header2.setCellValue("Employee Serial No.");
-		    header2.setCellStyle(hStyle);
-		    sheet.autoSizeColumn(1);
-		    
-		    header3.setCellValue("Year");
-		    header3.setCellStyle(hStyle);
-		    sheet.autoSizeColumn(2);
-		    header4.setCellValue("Roll In Date");
-		    header4.setCellStyle(hStyle);
-		    sheet.autoSizeColumn(3);
-		    header5.setCellValue("Roll Off Date");
-		    header5.setCellStyle(hStyle);
-		    sheet.autoSizeColumn(4);
-		    
-		  
-			for (int i=0; i<projectEngagementList.size(); i++) {
+					int utilColumn = 5;
+					int colHeader = 5;
+					int monthHeaderCtr = 5;
+					int daysUtil = 5;
+					int ctr = 1;
+					int monthStartCtr = 5;
+					int monthEndCtr = 5;
+					for(UtilizationJson utilJson: utilizationYear.getUtilizationJSON())
+					{       
+						Cell cellHours = row.createCell(utilColumn++);
+						cellHours.setCellValue(utilJson.getUtilizationHours());
+						cellHours.setCellStyle(dataStyle);
 				
-				Utilization excelRow = util.downloadUtilization("2017", projectEngagementList.get(i).getEmployeeId());
-				HSSFRow row = sheet.createRow(rowNum);
-				//Year yearComputation = projectBO.getComputation(projectEngagementList.get(i).getEmployeeId(), Integer.parseInt(excelRow.getYear()));
-				Year yearComputation = utilityBO.getYTDComputation(projectEngagementList.get(i).getEmployeeId(), Integer.parseInt(excelRow.getYear()));
-				HSSFCell cell1 = row.createCell(0);
-				HSSFCell cell2 = row.createCell(1);
-				HSSFCell cell3 = row.createCell(2);
-				HSSFCell cell4 = row.createCell(3);
-				HSSFCell cell5 = row.createCell(4);
-
+						Cell dayOfMonth = daysHeader.createCell(daysUtil++);
+						dayOfMonth.setCellValue(utilJson.getDayOfMonth());
+						dayOfMonth.setCellStyle(hStyle);
 				
-				cell1.setCellValue("USAA");
-				cell1.setCellStyle(dataStyle);
-				cell2.setCellValue(excelRow.getEmployeeIdNumber());
-				cell2.setCellStyle(dataStyle);
-				cell3.setCellValue(excelRow.getYear());
-				cell3.setCellStyle(dataStyle);
-
-				cell4.setCellValue(projectEngagementList.get(i).getStartDate());
-				cell4.setCellStyle(dateStyle);
-				sheet.autoSizeColumn(3);
-				cell5.setCellValue(projectEngagementList.get(i).getEndDate());
-				cell5.setCellStyle(dateStyle);
-				sheet.autoSizeColumn(4);
+						Cell dayHeader = header.createCell(colHeader++);
+						if(utilJson.getDay() == 1){
+							dayHeader.setCellValue("S"); //Change to Sunday 
+							dayHeader.setCellStyle(hStyle);
+						}else if(utilJson.getDay() == 2){
+							dayHeader.setCellValue("M");
+							dayHeader.setCellStyle(hStyle);
+						}else if(utilJson.getDay() == 3){
+							dayHeader.setCellValue("T");
+							dayHeader.setCellStyle(hStyle);
+						}else if(utilJson.getDay() == 4){
+							dayHeader.setCellValue("W");
+							dayHeader.setCellStyle(hStyle);
+						}else if(utilJson.getDay() == 5){
+							dayHeader.setCellValue("T");//Change to Thursday
+							dayHeader.setCellStyle(hStyle);
+						}else if(utilJson.getDay() == 6){
+							dayHeader.setCellValue("F");
+							dayHeader.setCellStyle(hStyle);
+						}else if(utilJson.getDay() == 7){
+							dayHeader.setCellValue("S"); //Change to Saturday
+							dayHeader.setCellStyle(hStyle);
+						}else{
+						dayHeader.setCellValue(utilJson.getDay());
+						}
 				
-				UtilizationYear utilizationYear = jsontojava.jsonToJava(excelRow.getUtilizationJson());
+						Cell month = monthHeader.createCell(monthHeaderCtr++);
+						if(utilJson.getMonth()==1){
+							month.setCellValue("JAN");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==2){
+							month.setCellValue("FEB");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==3){
+							month.setCellValue("MAR");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==4){
+							month.setCellValue("APR");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==5){
+							month.setCellValue("MAY");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==6){
+							month.setCellValue("JUN");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==7){
+							month.setCellValue("JUL");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==8){
+							month.setCellValue("AUG");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==9){
+							month.setCellValue("SEP");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==10){
+							month.setCellValue("OCT");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==11){
+							month.setCellValue("NOV");
+							month.setCellStyle(monthStyle);
+						}else if(utilJson.getMonth()==12){
+							month.setCellValue("DEC");
+							month.setCellStyle(monthStyle);
+						}else{
+						month.setCellValue(utilJson.getMonth());
+						}
 				
-				int utilColumn = 5;
-				int colHeader = 5;
-				int monthHeaderCtr = 5;
-				int daysUtil = 5;
-				int ctr = 1;
-				int monthStartCtr = 5;
-				int monthEndCtr = 5;
-				for(UtilizationJson utilJson: utilizationYear.getUtilizationJSON())
-				{       
-					HSSFCell cellHours = row.createCell(utilColumn++);
-					cellHours.setCellValue(utilJson.getUtilizationHours());
-					cellHours.setCellStyle(dataStyle);
-					
-					HSSFCell dayOfMonth = daysHeader.createCell(daysUtil++);
-					dayOfMonth.setCellValue(utilJson.getDayOfMonth());
-					dayOfMonth.setCellStyle(hStyle);
-					
-					HSSFCell dayHeader = header.createCell(colHeader++);
-					if(utilJson.getDay() == 1){
-						dayHeader.setCellValue("S"); //Change to Sunday 
-						dayHeader.setCellStyle(hStyle);
-					}else if(utilJson.getDay() == 2){
-						dayHeader.setCellValue("M");
-						dayHeader.setCellStyle(hStyle);
-					}else if(utilJson.getDay() == 3){
-						dayHeader.setCellValue("T");
-						dayHeader.setCellStyle(hStyle);
-					}else if(utilJson.getDay() == 4){
-						dayHeader.setCellValue("W");
-						dayHeader.setCellStyle(hStyle);
-					}else if(utilJson.getDay() == 5){
-						dayHeader.setCellValue("T");//Change to Thursday
-						dayHeader.setCellStyle(hStyle);
-					}else if(utilJson.getDay() == 6){
-						dayHeader.setCellValue("F");
-						dayHeader.setCellStyle(hStyle);
-					}else if(utilJson.getDay() == 7){
-						dayHeader.setCellValue("S"); //Change to Saturday
-						dayHeader.setCellStyle(hStyle);
-					}else{
-					dayHeader.setCellValue(utilJson.getDay());
-					}
+						if(ctr < utilizationYear.getUtilizationJSON().size() && rowNum==5){
+						if(utilJson.getMonth() != utilizationYear.getUtilizationJSON().get(ctr).getMonth()){
 					
-					HSSFCell month = monthHeader.createCell(monthHeaderCtr++);
-					if(utilJson.getMonth()==1){
-						month.setCellValue("JAN");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==2){
-						month.setCellValue("FEB");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==3){
-						month.setCellValue("MAR");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==4){
-						month.setCellValue("APR");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==5){
-						month.setCellValue("MAY");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==6){
-						month.setCellValue("JUN");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==7){
-						month.setCellValue("JUL");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==8){
-						month.setCellValue("AUG");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==9){
-						month.setCellValue("SEP");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==10){
-						month.setCellValue("OCT");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==11){
-						month.setCellValue("NOV");
-						month.setCellStyle(monthStyle);
-					}else if(utilJson.getMonth()==12){
-						month.setCellValue("DEC");
-						month.setCellStyle(monthStyle);
-					}else{
-					month.setCellValue(utilJson.getMonth());
-					}
-					
-					if(ctr < utilizationYear.getUtilizationJSON().size() && i==0){
-					if(utilJson.getMonth() != utilizationYear.getUtilizationJSON().get(ctr).getMonth()){
-						
-						sheet.addMergedRegion(new CellRangeAddress(0,0,monthStartCtr,monthEndCtr));
-						monthStartCtr = monthEndCtr + 1;
+							sheet.addMergedRegion(new CellRangeAddress(0,0,monthStartCtr,monthEndCtr));
+							monthStartCtr = monthEndCtr + 1;
+							}
+						}else if(ctr == utilizationYear.getUtilizationJSON().size() && rowNum==5){
+							sheet.addMergedRegion(new CellRangeAddress(0,0,monthStartCtr,monthEndCtr));
 						}
-					}else if(ctr == utilizationYear.getUtilizationJSON().size() && i==0){
-						sheet.addMergedRegion(new CellRangeAddress(0,0,monthStartCtr,monthEndCtr));
-					}
-					monthEndCtr++;
-					ctr++;
+						monthEndCtr++;
+						ctr++;
+						}
+			
+					if (summaryColumn < 0) {
+						summaryColumn = colHeader;
+						trackColumnsForAutoSizing(sheet, summaryColumn, SUMMARY_COLUMNS);
 					}
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellNumOfAvailHrsHdr = header.createCell(colHeader++);
-				cellNumOfAvailHrsHdr.setCellValue("Available Hours");
-				cellNumOfAvailHrsHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellNumOfCDOHdr = header.createCell(colHeader++);
-				cellNumOfCDOHdr.setCellValue(TimeAwayTokens.CDO.getS());
-				cellNumOfCDOHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellNumOfELHdr = header.createCell(colHeader++);
-				cellNumOfELHdr.setCellValue("EL");
-				cellNumOfELHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellNumOfHOHdr = header.createCell(colHeader++);
-				cellNumOfHOHdr.setCellValue("HO");
-				cellNumOfHOHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellNumOfOLHdr = header.createCell(colHeader++);
-				cellNumOfOLHdr.setCellValue("OL");
-				cellNumOfOLHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellNumOfSLHdr = header.createCell(colHeader++);
-				cellNumOfSLHdr.setCellValue("SL");
-				cellNumOfSLHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellNumOfTRHdr = header.createCell(colHeader++);
-				cellNumOfTRHdr.setCellValue("TR");
-				cellNumOfTRHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellNumOfVLHdr = header.createCell(colHeader++);
-				cellNumOfVLHdr.setCellValue("VL");
-				cellNumOfVLHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellTotalHrsHdr = header.createCell(colHeader++);
-				cellTotalHrsHdr.setCellValue("Total Hours");
-				cellTotalHrsHdr.setCellStyle(compStyle);
-				
-				sheet.autoSizeColumn(colHeader);
-				HSSFCell cellYrToDateUtilHdr = header.createCell(colHeader++);
-				cellYrToDateUtilHdr.setCellValue("YTD%");
-				cellYrToDateUtilHdr.setCellStyle(compStyle);
-				
-				HSSFCell cellNumOfAvailHrs = row.createCell(daysUtil++);
-				HSSFCell cellNumOfCDO = row.createCell(daysUtil++);
-				HSSFCell cellNumOfEL = row.createCell(daysUtil++);
-				HSSFCell cellNumOfHO = row.createCell(daysUtil++);
-				HSSFCell cellNumOfOL = row.createCell(daysUtil++);
-				HSSFCell cellNumOfSL = row.createCell(daysUtil++);
-				HSSFCell cellNumOfTR = row.createCell(daysUtil++);
-				HSSFCell cellNumOfVL = row.createCell(daysUtil++);
-				HSSFCell cellTotalHrs = row.createCell(daysUtil++);
-				HSSFCell cellYrToDateUtil = row.createCell(daysUtil++);
-				
-				cellNumOfAvailHrs.setCellValue(yearComputation.getNumberOfAvailableHours());
-				cellNumOfAvailHrs.setCellStyle(dataStyle);
-				
-				cellNumOfCDO.setCellValue(yearComputation.getNumberOfCDO());
-				cellNumOfCDO.setCellStyle(dataStyle);
-				
-				cellNumOfEL.setCellValue(yearComputation.getNumberOfEL());
-				cellNumOfEL.setCellStyle(dataStyle);
-				
-				cellNumOfHO.setCellValue(yearComputation.getNumberOfHO());
-				cellNumOfHO.setCellStyle(dataStyle);
-				
-				cellNumOfOL.setCellValue(yearComputation.getNumberOfOL());
-				cellNumOfOL.setCellStyle(dataStyle);
-				
-				cellNumOfSL.setCellValue(yearComputation.getNumberOfSL());
-				cellNumOfSL.setCellStyle(dataStyle);
-				
-				cellNumOfTR.setCellValue(yearComputation.getNumberOfTR());
-				cellNumOfTR.setCellStyle(dataStyle);
-				
-				cellNumOfVL.setCellValue(yearComputation.getNumberOfVL());
-				cellNumOfVL.setCellStyle(dataStyle);
-				
-				cellTotalHrs.setCellValue(yearComputation.getTotalHours());
-				cellTotalHrs.setCellStyle(dataStyle);
-				
-				cellYrToDateUtil.setCellValue(yearComputation.getYearToDateUtilization());
-				cellYrToDateUtil.setCellStyle(dataStyle);
-				
-				rowNum++;
+					Cell cellNumOfAvailHrsHdr = header.createCell(colHeader++);
+					cellNumOfAvailHrsHdr.setCellValue("Available Hours");
+					cellNumOfAvailHrsHdr.setCellStyle(compStyle);
+			
+					Cell cellNumOfCDOHdr = header.createCell(colHeader++);
+					cellNumOfCDOHdr.setCellValue(TimeAwayTokens.CDO.getS());
+					cellNumOfCDOHdr.setCellStyle(compStyle);
+			
+					Cell cellNumOfELHdr = header.createCell(colHeader++);
+					cellNumOfELHdr.setCellValue("EL");
+					cellNumOfELHdr.setCellStyle(compStyle);
+			
+					Cell cellNumOfHOHdr = header.createCell(colHeader++);
+					cellNumOfHOHdr.setCellValue("HO");
+					cellNumOfHOHdr.setCellStyle(compStyle);
+			
+					Cell cellNumOfOLHdr = header.createCell(colHeader++);
+					cellNumOfOLHdr.setCellValue("OL");
+					cellNumOfOLHdr.setCellStyle(compStyle);
+			
+					Cell cellNumOfSLHdr = header.createCell(colHeader++);
+					cellNumOfSLHdr.setCellValue("SL");
+					cellNumOfSLHdr.setCellStyle(compStyle);
+			
+					Cell cellNumOfTRHdr = header.createCell(colHeader++);
+					cellNumOfTRHdr.setCellValue("TR");
+					cellNumOfTRHdr.setCellStyle(compStyle);
+			
+					Cell cellNumOfVLHdr = header.createCell(colHeader++);
+					cellNumOfVLHdr.setCellValue("VL");
+					cellNumOfVLHdr.setCellStyle(compStyle);
+			
+					Cell cellTotalHrsHdr = header.createCell(colHeader++);
+					cellTotalHrsHdr.setCellValue("Total Hours");
+					cellTotalHrsHdr.setCellStyle(compStyle);
+			
+					Cell cellYrToDateUtilHdr = header.createCell(colHeader++);
+					cellYrToDateUtilHdr.setCellValue("YTD%");
+					cellYrToDateUtilHdr.setCellStyle(compStyle);
+			
+					Cell cellNumOfAvailHrs = row.createCell(daysUtil++);
+					Cell cellNumOfCDO = row.createCell(daysUtil++);
+					Cell cellNumOfEL = row.createCell(daysUtil++);
+					Cell cellNumOfHO = row.createCell(daysUtil++);
+					Cell cellNumOfOL = row.createCell(daysUtil++);
+					Cell cellNumOfSL = row.createCell(daysUtil++);
+					Cell cellNumOfTR = row.createCell(daysUtil++);
+					Cell cellNumOfVL = row.createCell(daysUtil++);
+					Cell cellTotalHrs = row.createCell(daysUtil++);
+					Cell cellYrToDateUtil = row.createCell(daysUtil++);
+			
+					cellNumOfAvailHrs.setCellValue(yearComputation.getNumberOfAvailableHours());
+					cellNumOfAvailHrs.setCellStyle(dataStyle);
+			
+					cellNumOfCDO.setCellValue(yearComputation.getNumberOfCDO());
+					cellNumOfCDO.setCellStyle(dataStyle);
+			
+					cellNumOfEL.setCellValue(yearComputation.getNumberOfEL());
+					cellNumOfEL.setCellStyle(dataStyle);
+			
+					cellNumOfHO.setCellValue(yearComputation.getNumberOfHO());
+					cellNumOfHO.setCellStyle(dataStyle);
+			
+					cellNumOfOL.setCellValue(yearComputation.getNumberOfOL());
+					cellNumOfOL.setCellStyle(dataStyle);
+			
+					cellNumOfSL.setCellValue(yearComputation.getNumberOfSL());
+					cellNumOfSL.setCellStyle(dataStyle);
+			
+					cellNumOfTR.setCellValue(yearComputation.getNumberOfTR());
+					cellNumOfTR.setCellStyle(dataStyle);
+			
+					cellNumOfVL.setCellValue(yearComputation.getNumberOfVL());
+					cellNumOfVL.setCellStyle(dataStyle);
+			
+					cellTotalHrs.setCellValue(yearComputation.getTotalHours());
+					cellTotalHrs.setCellStyle(dataStyle);
+			
+					cellYrToDateUtil.setCellValue(yearComputation.getYearToDateUtilization());
+					cellYrToDateUtil.setCellStyle(dataStyle);
+			
+					rowNum++;
+				}
 			}
-			try {
-				File file = new File(
-						"C:\\Users\\IBM_ADMIN\\Desktop\\USAA_PUM_as_of" + now.now().toLocalDate() + ".xls");//CHANGE PATH TO DYNAMIC BASED ON ENVIRONEMTN
-				workbook.write(file);
-				workbook.close();
-				ResponseBuilder response = Response.ok(file);
-				response.header("Content-Disposition",
-						"attachement; filename=USAA_PUM_as_of" + now.now().toLocalDate() + ".xls");
-				return response.build();
-			} catch (IOException io) {
-				io.printStackTrace();
-				return Response.status(Status.BAD_REQUEST).entity(workbook).type(MediaType.APPLICATION_OCTET_STREAM)
-						.build();
-			}finally{
-				workbook.close();
+		}
+
+		// sized once after the rows are written, sizing on every row measures the column again each time
+		sheet.autoSizeColumn(3);
+		sheet.autoSizeColumn(4);
+		for (int column = summaryColumn; summaryColumn >= 0 && column < summaryColumn + SUMMARY_COLUMNS; column++) {
+			sheet.autoSizeColumn(column);
+		}
+	}
+
+	/**
+	 * This method is used to track columns of a streamed sheet so they can be
+	 * auto sized after their rows are flushed, other sheets keep every row
+	 * 
+	 * @param sheet
+	 * @param firstColumn
+	 * @param columns
+	 *            - number of columns from the first column
+	 */
+	private static void trackColumnsForAutoSizing(Sheet sheet, int firstColumn, int columns) {
+		if (sheet instanceof SXSSFSheet) {
+			for (int column = firstColumn; column < firstColumn + columns; column++) {
+				((SXSSFSheet) sheet).trackColumnForAutoSizing(column);
 			}
-		} catch (Exception e) { // Change to specific exception
-			e.printStackTrace();
-			return Response.status(Status.BAD_REQUEST).entity(workbook).type(MediaType.APPLICATION_OCTET_STREAM)
-					.build();
 		}
 	}
 
-	private HSSFCellStyle createDataStyling(HSSFWorkbook workbook) {
-		HSSFCellStyle dataStyle = workbook.createCellStyle();
+	private CellStyle createDataStyling(Workbook workbook) {
+		CellStyle dataStyle = workbook.createCellStyle();
 		Font dataFont = workbook.createFont();
 		dataFont.setFontHeightInPoints((short)(9));
 		dataFont.setFontName("Calibri");
@@ -368,8 +549,8 @@ public class UtilityBO {
 		return dataStyle;
 	}
 
-	private HSSFCellStyle createMonthHeaderStyling(HSSFWorkbook workbook) {
-		HSSFCellStyle monthStyle = workbook.createCellStyle();			
+	private CellStyle createMonthHeaderStyling(Workbook workbook) {
+		CellStyle monthStyle = workbook.createCellStyle();			
 		Font monthFont = workbook.createFont();
 		monthFont.setFontHeightInPoints((short)(12));
 		monthFont.setFontName("Trebuchet MS");
@@ -387,8 +568,8 @@ public class UtilityBO {
 		return monthStyle;
 	}
 
-	private HSSFCellStyle createYTDStyle(HSSFWorkbook workbook) {
-		HSSFCellStyle compStyle = workbook.createCellStyle();
+	private CellStyle createYTDStyle(Workbook workbook) {
+		CellStyle compStyle = workbook.createCellStyle();
 		Font comFont = workbook.createFont();
 		comFont.setFontHeightInPoints((short)(9));
 		comFont.setFontName("Verdana");
@@ -406,8 +587,8 @@ public class UtilityBO {
 		return compStyle;
 	}
 
-	private HSSFCellStyle createHeaderStyling(HSSFWorkbook workbook) {
-		HSSFCellStyle hStyle = workbook.createCellStyle();
+	private CellStyle createHeaderStyling(Workbook workbook) {
+		CellStyle hStyle = workbook.createCellStyle();
 		Font font = workbook.createFont();
 		font.setFontHeightInPoints((short)(9));
 		font.setFontName("Verdana");
@@ -425,9 +606,9 @@ public class UtilityBO {
 		return hStyle;
 	}
 
-	private HSSFCellStyle createStylingForRollinRolloffDate(HSSFWorkbook workbook) {
-		HSSFCreationHelper createHelper = workbook.getCreationHelper();
-		HSSFCellStyle dateStyle = workbook.createCellStyle();
+	private CellStyle createStylingForRollinRolloffDate(Workbook workbook) {
+		CreationHelper createHelper = workbook.getCreationHelper();
+		CellStyle dateStyle = workbook.createCellStyle();
 		dateStyle.setDataFormat(createHelper.createDataFormat().getFormat("MM-dd-yyyy"));
 		Font dateFont = workbook.createFont();
 		dateFont.setFontHeightInPoints((short)(9));
@@ -450,11 +631,329 @@ public class UtilityBO {
 	 * @param utilization
 	 * @return boolean
 	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the employee id or year is invalid, YEAR_ARCHIVED when
+	 *             the year is archived
 	 */
 	public boolean saveUtilization(Utilization utilization) throws SQLException {
-		return utilizationEngagementRepository.saveUtilization(utilization);
+		if (utilization.getEmployeeIdNumber() == null
+				|| !NUMERIC_ID_PATTERN.matcher(utilization.getEmployeeIdNumber()).matches()) {
+			throw new IllegalArgumentException(OpumConstants.INVALID_EMPLOYEE_ID);
+		}
+		if (utilization.getYear() == null || !YEAR_PATTERN.matcher(utilization.getYear()).matches()) {
+			throw new IllegalArgumentException(OpumConstants.INVALID_YEAR);
+		}
+		if (archivedYears.isClosed(Integer.parseInt(utilization.getYear()))) {
+			throw new IllegalArgumentException(OpumConstants.YEAR_ARCHIVED);
+		}
+		boolean saved = utilizationEngagementRepository.saveUtilization(utilization);
+		if (saved) {
+			utilizationRollups.utilizationSaved(utilization);
+		}
+		return saved;
 	}
 	
+	/**
+	 * This method is used to import utilization of many employee-years from a
+	 * file that has the layout of the {@link #downloadUtilization} export. Rows
+	 * are validated as they are read and saved in batches of
+	 * {@link OpumConstants#UPLOAD_BATCH_SIZE}
+	 * 
+	 * @param inputStream
+	 *            - content of the csv, xls or xlsx file
+	 * @param fileName
+	 * @return List - result of each row, a row without errors was saved
+	 * @throws IOException
+	 */
+	public List<RowValidationResult> importUtilizations(InputStream inputStream, String fileName) throws IOException {
+		UtilizationImportHandler importHandler = new UtilizationImportHandler();
+		SpreadsheetRowReader.read(inputStream, fileName, importHandler);
+		importHandler.saveChunk();
+		logger.info("Imported utilization of " + importHandler.savedCounter + " employee-year/s, "
+				+ (importHandler.results.size() - importHandler.savedCounter) + " row/s with errors");
+		return importHandler.results;
+	}
+
+	/**
+	 * Validates the rows of an imported utilization file and saves the valid
+	 * rows in chunks. Row 0 holds the month, row 3 the day of month and row 4
+	 * the column headers, employee rows start at row 5
+	 */
+	private class UtilizationImportHandler implements SpreadsheetRowReader.RowHandler {
+
+		private static final int FIRST_DAY_COLUMN = 5;
+		private static final int FIRST_EMPLOYEE_ROW = 5;
+
+		private final List<RowValidationResult> results = new ArrayList<RowValidationResult>();
+		private final List<RowValidationResult> chunkResults = new ArrayList<RowValidationResult>();
+		private final List<Utilization> chunk = new ArrayList<Utilization>();
+		private int savedCounter = 0;
+
+		private List<String> monthHeader;
+		private List<String> dayOfMonthHeader;
+		private List<String> header;
+		private int[] columnMonth;
+		private int[] columnDayOfMonth;
+
+		@Override
+		public void handleRow(int rowIndex, List<String> cells) {
+			if (rowIndex == 0) {
+				monthHeader = cells;
+			} else if (rowIndex == 3) {
+				dayOfMonthHeader = cells;
+			} else if (rowIndex == 4) {
+				header = cells;
+			}
+			if (rowIndex < FIRST_EMPLOYEE_ROW || isBlank(cells)) {
+				return;
+			}
+			RowValidationResult result = new RowValidationResult(rowIndex + 1, new ArrayList<FieldError>());
+			results.add(result);
+			if (columnMonth == null && !mapDayColumns()) {
+				result.getErrors().add(new FieldError(null, null, OpumConstants.INVALID_CSV));
+				return;
+			}
+			String employeeIdNumber = cell(cells, 1);
+			if (employeeIdNumber.isEmpty()) {
+				result.getErrors().add(new FieldError("employeeIdNumber", employeeIdNumber, OpumConstants.INVALID_EMPLOYEE_ID));
+			}
+			String year = cell(cells, 2);
+			if (!YEAR_PATTERN.matcher(year).matches()) {
+				result.getErrors().add(new FieldError("year", year, OpumConstants.INVALID_YEAR));
+				return;
+			}
+			try {
+				if (archivedYears.isClosed(Integer.parseInt(year))) {
+					result.getErrors().add(new FieldError("year", year, OpumConstants.YEAR_ARCHIVED));
+					return;
+				}
+			} catch (SQLException e) {
+				logger.error("SQL Exception due to " + e.getMessage(), e);
+				result.getErrors().add(new FieldError("year", year, OpumConstants.ERROR));
+				return;
+			}
+			List<UtilizationJson> utilizationJSON = new ArrayList<UtilizationJson>(columnMonth.length);
+			LocalDate today = LocalDate.now();
+			for (int column = FIRST_DAY_COLUMN; column < columnMonth.length; column++) {
+				String field = columnMonth[column] + "/" + columnDayOfMonth[column];
+				String hours = cell(cells, column);
+				LocalDate date;
+				try {
+					date = LocalDate.of(Integer.parseInt(year), columnMonth[column], columnDayOfMonth[column]);
+				} catch (DateTimeException e) {
+					result.getErrors().add(new FieldError(field, hours, OpumConstants.INVALID_DATE));
+					continue;
+				}
+				if (!isValidUtilizationHours(hours)) {
+					result.getErrors().add(new FieldError(field, hours, OpumConstants.INVALID_UTILIZATION));
+					continue;
+				}
+				// day of week 1 is sunday up to 7 which is saturday
+				int day = date.getDayOfWeek().getValue() % 7 + 1;
+				utilizationJSON.add(new UtilizationJson(columnMonth[column], day, columnDayOfMonth[column], hours,
+						JSONToJava.editable(date, today)));
+			}
+			if (!result.isValid()) {
+				return;
+			}
+			UtilizationYear utilizationYear = new UtilizationYear(Integer.parseInt(year), utilizationJSON);
+			chunk.add(new Utilization(employeeIdNumber, year, JavaToJsonUtil.JavaToJson(utilizationYear)));
+			chunkResults.add(result);
+			if (chunk.size() == OpumConstants.UPLOAD_BATCH_SIZE) {
+				saveChunk();
+			}
+		}
+
+		/**
+		 * This method is used to resolve the employee id of the rows of the
+		 * chunk and save them in a single transaction
+		 */
+		private void saveChunk() {
+			if (chunk.isEmpty()) {
+				return;
+			}
+			try {
+				Set<String> employeeIdNumbers = new HashSet<String>();
+				for (Utilization utilization : chunk) {
+					employeeIdNumbers.add(utilization.getEmployeeIdNumber());
+				}
+				Map<String, Integer> employeeIds = employeeIdentityCache.resolveEmployeeIds(employeeIdNumbers);
+				List<Utilization> utilizations = new ArrayList<Utilization>(chunk.size());
+				for (int i = 0; i < chunk.size(); i++) {
+					Utilization utilization = chunk.get(i);
+					Integer employeeId = employeeIds.get(utilization.getEmployeeIdNumber());
+					if (employeeId == null) {
+						chunkResults.get(i).getErrors().add(new FieldError("employeeIdNumber",
+								utilization.getEmployeeIdNumber(), OpumConstants.INVALID_EMPLOYEE_ID));
+						continue;
+					}
+					utilization.setEmployeeIdNumber(String.valueOf(employeeId));
+					utilizations.add(utilization);
+				}
+				if (!utilizations.isEmpty()) {
+					utilizationEngagementRepository.saveUtilizations(utilizations);
+					utilizationRollups.utilizationsSaved(utilizations);
+					savedCounter += utilizations.size();
+				}
+			} catch (IllegalArgumentException e) {
+				// a year archived after its rows were validated
+				for (int i = 0; i < chunk.size(); i++) {
+					if (chunkResults.get(i).isValid()) {
+						chunkResults.get(i).getErrors().add(
+								new FieldError("year", chunk.get(i).getYear(), yearError(chunk.get(i).getYear())));
+					}
+				}
+			} catch (SQLException e) {
+				logger.error("SQL Exception due to " + e.getMessage(), e);
+				for (RowValidationResult result : chunkResults) {
+					if (result.isValid()) {
+						result.getErrors().add(new FieldError(null, null, OpumConstants.ERROR_WHEN_SAVING));
+					}
+				}
+			} finally {
+				chunk.clear();
+				chunkResults.clear();
+			}
+		}
+
+		/**
+		 * @return String - YEAR_ARCHIVED if the year is closed, else the error
+		 *         of a failed save
+		 */
+		private String yearError(String year) {
+			try {
+				return archivedYears.isClosed(Integer.parseInt(year)) ? OpumConstants.YEAR_ARCHIVED
+						: OpumConstants.ERROR_WHEN_SAVING;
+			} catch (SQLException e) {
+				logger.error("SQL Exception due to " + e.getMessage(), e);
+				return OpumConstants.ERROR_WHEN_SAVING;
+			}
+		}
+
+		/**
+		 * This method is used to map each day column to its month and day of
+		 * month. Day columns end before the "Available Hours" column
+		 * 
+		 * @return boolean - false if the header rows are missing
+		 */
+		private boolean mapDayColumns() {
+			if (monthHeader == null || dayOfMonthHeader == null) {
+				return false;
+			}
+			int lastColumn = Math.min(monthHeader.size(), dayOfMonthHeader.size());
+			if (header != null) {
+				for (int column = FIRST_DAY_COLUMN; column < header.size(); column++) {
+					if ("Available Hours".equalsIgnoreCase(header.get(column).trim())) {
+						lastColumn = Math.min(lastColumn, column);
+						break;
+					}
+				}
+			}
+			columnMonth = new int[lastColumn];
+			columnDayOfMonth = new int[lastColumn];
+			int month = 0;
+			for (int column = FIRST_DAY_COLUMN; column < lastColumn; column++) {
+				// month header cells are merged, only the first day of a month has a value
+				String monthName = cell(monthHeader, column);
+				if (!monthName.isEmpty()) {
+					month = Arrays.asList(MONTHS).indexOf(monthName.toUpperCase()) + 1;
+				}
+				try {
+					columnDayOfMonth[column] = (int) Double.parseDouble(cell(dayOfMonthHeader, column));
+				} catch (NumberFormatException e) {
+					columnMonth = null;
+					return false;
+				}
+				if (month == 0) {
+					columnMonth = null;
+					return false;
+				}
+				columnMonth[column] = month;
+			}
+			return true;
+		}
+
+		private String cell(List<String> cells, int column) {
+			return column < cells.size() && cells.get(column) != null ? cells.get(column).trim() : "";
+		}
+
+		private boolean isBlank(List<String> cells) {
+			for (String cell : cells) {
+				if (cell != null && !cell.trim().isEmpty()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * This method is used to validate a utilization cell, it is either empty, a
+	 * time away token or a number of hours
+	 * 
+	 * @param hours
+	 * @return boolean
+	 */
+	private boolean isValidUtilizationHours(String hours) {
+		if (hours.isEmpty() || TimeAwayTokens.isToken(hours)) {
+			return true;
+		}
+		try {
+			int value = Integer.parseInt(hours);
+			return value >= 0 && value <= OpumConstants.MAX_UTILIZATION_HOURS;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * This method is used to get the utilization changed since a token. The
+	 * changes of an employee and year within the page are merged into one
+	 * change holding every day changed, with the hours before the first and
+	 * after the last change
+	 * 
+	 * @param token
+	 *            - token of the previous call, none to read from the start of
+	 *            the change log
+	 * @param limit
+	 *            - number of changes read from the log, up to
+	 *            {@link OpumConstants#MAX_PAGE_SIZE}
+	 * @return UtilizationChanges - changed employee-years in the order of
+	 *         their last change and the token to continue from
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the token is invalid
+	 */
+	public UtilizationChanges getUtilizationChangesSince(String token, int limit) throws SQLException {
+		long afterSequence = PageCursor.decode(UTILIZATION_CHANGE_LISTING, token);
+		int pageSize = PageCursor.limit(limit);
+		List<UtilizationChange> rows = utilizationChangeRepository.getChanges(afterSequence, pageSize + 1);
+		boolean more = rows.size() > pageSize;
+		if (more) {
+			rows = rows.subList(0, pageSize);
+		}
+		Map<String, List<UtilizationChange>> changesByEmployeeYear = new LinkedHashMap<String, List<UtilizationChange>>();
+		for (UtilizationChange change : rows) {
+			String key = change.getEmployeeId() + ":" + change.getYear();
+			List<UtilizationChange> employeeYearChanges = changesByEmployeeYear.remove(key);
+			if (employeeYearChanges == null) {
+				employeeYearChanges = new ArrayList<UtilizationChange>();
+			}
+			employeeYearChanges.add(change);
+			// moved last, employee-years are ordered by their last change
+			changesByEmployeeYear.put(key, employeeYearChanges);
+		}
+		List<UtilizationChange> changes = new ArrayList<UtilizationChange>(changesByEmployeeYear.size());
+		for (List<UtilizationChange> employeeYearChanges : changesByEmployeeYear.values()) {
+			UtilizationChange last = employeeYearChanges.get(employeeYearChanges.size() - 1);
+			changes.add(employeeYearChanges.size() == 1 ? last
+					: new UtilizationChange(last.getSequence(), last.getEmployeeId(), last.getYear(),
+							UtilizationDiff.merge(employeeYearChanges), last.getChangedBy(), last.getChangeDate()));
+		}
+		long lastSequence = rows.isEmpty() ? afterSequence : rows.get(rows.size() - 1).getSequence();
+		return new UtilizationChanges(changes, PageCursor.encode(UTILIZATION_CHANGE_LISTING, lastSequence), more);
+	}
+
 	/**
 	 * This method is used to get utilization from utilization table
 	 * 
@@ -464,11 +963,22 @@ public class UtilityBO {
 	 * @throws SQLException
 	 */
 	public String fetchUtilizations(String employeeIdNumber, String year) throws SQLException {
-		List<Utilization> utilizations = new ArrayList<Utilization>();
-		utilizations = utilizationEngagementRepository.retrieveUtilizations(employeeIdNumber, year);
-		if(utilizations.size() > 0){
-			UtilizationYear utilizationYear = JsonToJavaUtil.JsonToJava(utilizations.get(0).getUtilizationJson(), UtilizationYear.class);
-	
+		UtilizationYear utilizationYear = null;
+		UtilizationSnapshot snapshot = YEAR_PATTERN.matcher(year).matches()
+				? utilizationSnapshots.getSnapshot(Integer.parseInt(year)) : null;
+		if (snapshot != null) {
+			try {
+				utilizationYear = snapshot.getUtilizationYear(Integer.parseInt(employeeIdNumber));
+			} catch (NumberFormatException e) {
+				// not an employee id, no utilization
+			}
+		} else {
+			List<Utilization> utilizations = utilizationEngagementRepository.retrieveUtilizations(employeeIdNumber, year);
+			if (utilizations.size() > 0) {
+				utilizationYear = JsonToJavaUtil.JsonToJava(utilizations.get(0).getUtilizationJson(), UtilizationYear.class);
+			}
+		}
+		if(utilizationYear != null){
 			LocalDateTime now = LocalDateTime.now();
 			int currentYear = now.getYear();
 			int currentMonth = now.getMonthValue();
@@ -501,7 +1011,9 @@ public class UtilityBO {
 				}
 			}
 			String finalJson = JavaToJsonUtil.JavaToJson(utilizationYear);
-			System.out.println(finalJson);
+			if (logger.isTraceEnabled()) {
+				logger.trace(finalJson);
+			}
 			return finalJson;
 		}
 		else{
@@ -519,9 +1031,28 @@ public class UtilityBO {
 	 * @throws ParseException
 	 */
 	public Year getYTDComputation(int employeeId, int year) throws SQLException, ParseException {
+		UtilizationSnapshot snapshot = utilizationSnapshots.getSnapshot(year);
+		if (snapshot != null) {
+			return getYTDComputation(snapshot.getUtilizationYear(employeeId), year);
+		}
 		Utilization utilization = utilizationEngagementRepository.getComputation(employeeId, year);
 		UtilizationYear utilization_Year = JsonToJavaUtil.JsonToJava(utilization.getUtilizationJson(),
 				UtilizationYear.class);
+		return getYTDComputation(utilization_Year, year);
+	}
+
+	/**
+	 * This method is used to compute the year to date utilization of a
+	 * utilization already read
+	 * 
+	 * @param utilization_Year
+	 * @param year
+	 * @return Year
+	 * @throws SQLException
+	 *             if the holidays of the year are not loaded yet and loading
+	 *             fails
+	 */
+	public Year getYTDComputation(UtilizationYear utilization_Year, int year) throws SQLException {
 		Year ytdComputation = new Year();
 		double hours = 0; //TODO: change to big decimal
 		double totalActualHours = 0;
@@ -572,7 +1103,7 @@ public class UtilityBO {
 			if (json.getUtilizationHours().equals("HO")) {
 				HOcount++;
 			}
-			if (json.getDay() != 6 && json.getDay() != 1) {
+			if (holidayCalendar.isWorkingDay(LocalDate.of(year, json.getMonth(), json.getDayOfMonth()))) {
 				availableHoursCounter++;
 			}
 
@@ -1,15 +1,46 @@
 package com.ph.ibm.bo;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.ToLongFunction;
 
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.cache.ArchivedYears;
+import com.ph.ibm.cache.FiscalCalendar;
+import com.ph.ibm.cache.UtilizationSnapshots;
 import com.ph.ibm.model.PUMYear;
 import com.ph.ibm.model.PUMYearList;
+import com.ph.ibm.model.Page;
 import com.ph.ibm.repository.PUMYearRepository;
-import com.ph.ibm.repository.impl.PUMYearRepositoryImpl;
+import com.ph.ibm.util.OpumConstants;
+import com.ph.ibm.util.PageCursor;
 
 public class YearBO {
 
-	private PUMYearRepository pumYearRepository = new PUMYearRepositoryImpl();
+	private static final String YEAR_LISTING = "years";
+
+	private Logger logger = Logger.getLogger(YearBO.class);
+
+	private final PUMYearRepository pumYearRepository;
+
+	private FiscalCalendar fiscalCalendar = FiscalCalendar.getInstance();
+
+	private ArchivedYears archivedYears = ArchivedYears.getInstance();
+
+	private UtilizationSnapshots utilizationSnapshots = UtilizationSnapshots.getInstance();
+
+	/**
+	 * @param pumYearRepository
+	 */
+	@Inject
+	public YearBO(PUMYearRepository pumYearRepository) {
+		this.pumYearRepository = pumYearRepository;
+	}
 
 	/**
 	 * @param pumYearList
@@ -19,7 +50,7 @@ public class YearBO {
 		try {
 			pumYearList.setPumYearList(pumYearRepository.retrieveYear());
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		}
 		return pumYearList;
 	}
@@ -32,4 +63,61 @@ public class YearBO {
 	public PUMYear retrieveYearDate(int year) throws SQLException {
 		return pumYearRepository.retrieveYearDate(year);
 	}
+
+	/**
+	 * This method is used to list years a page at a time
+	 * 
+	 * @param cursor
+	 *            - next cursor of the previous page, null for the first page
+	 * @param limit
+	 *            - page size
+	 * @return Page of PUMYear
+	 * @throws SQLException
+	 */
+	public Page<PUMYear> retrieveYears(String cursor, int limit) throws SQLException {
+		int pageSize = PageCursor.limit(limit);
+		List<PUMYear> rows = pumYearRepository.retrieveYears(PageCursor.decodeInt(YEAR_LISTING, cursor),
+				pageSize + 1);
+		return PageCursor.page(YEAR_LISTING, rows, pageSize, new ToLongFunction<PUMYear>() {
+			@Override
+			public long applyAsLong(PUMYear pumYear) {
+				return pumYear.getYearId();
+			}
+		});
+	}
+
+	/**
+	 * This method is used to close a finished PUM year by moving its
+	 * utilization to the archive and writing its snapshot. The utilization of
+	 * an archived year is still read, but can no longer be saved
+	 * 
+	 * @param year
+	 * @param archivedBy
+	 * @return int - number of utilization archived
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the year has not ended yet or is archived already
+	 */
+	public int archiveYear(int year, String archivedBy) throws SQLException {
+		if (!fiscalCalendar.getYear(year).getEnd().isBefore(LocalDate.now())) {
+			throw new IllegalArgumentException(OpumConstants.YEAR_NOT_FINISHED);
+		}
+		int archived = archivedYears.archive(year, archivedBy);
+		logger.info(archived + " utilization/s of " + year + " archived by " + archivedBy);
+		try {
+			utilizationSnapshots.build(year);
+		} catch (IOException e) {
+			// written again on first read
+			logger.error("Unable to write utilization snapshot of " + year + " due to " + e.getMessage(), e);
+		}
+		return archived;
+	}
+
+	/**
+	 * @return List - archived years in ascending order
+	 * @throws SQLException
+	 */
+	public List<Integer> getArchivedYears() throws SQLException {
+		return archivedYears.getArchivedYears();
+	}
 }
@@ -0,0 +1,134 @@
+package com.ph.ibm.cache;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.repository.UtilizationArchiveRepository;
+import com.ph.ibm.repository.impl.WriteBehindUtilizationRepository;
+import com.ph.ibm.resources.OpumBinder;
+import com.ph.ibm.util.OpumConstants;
+
+/**
+ * This class holds the archived PUM years in memory. The utilization of an
+ * archived year is read from the archive table and cannot be saved, which
+ * keeps the utilization table and its indexes down to the open years. A year
+ * is closed to writes as soon as archiving starts and read from the archive
+ * once archiving committed
+ */
+public class ArchivedYears {
+
+	private static ArchivedYears archivedYears = new ArchivedYears(
+			OpumBinder.getRepository(UtilizationArchiveRepository.class));
+
+	private Logger logger = Logger.getLogger(ArchivedYears.class);
+
+	private final UtilizationArchiveRepository utilizationArchiveRepository;
+
+	/** Archived years, the set cannot be modified */
+	private final AtomicReference<Set<Integer>> years = new AtomicReference<Set<Integer>>();
+
+	/** Years being archived */
+	private final Set<Integer> archiving = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+	private ArchivedYears(UtilizationArchiveRepository utilizationArchiveRepository) {
+		this.utilizationArchiveRepository = utilizationArchiveRepository;
+	}
+
+	public static ArchivedYears getInstance() {
+		return archivedYears;
+	}
+
+	/**
+	 * @param year
+	 * @return boolean - true if the utilization of the year is in the archive
+	 * @throws SQLException
+	 *             if the years are not loaded yet and loading fails
+	 */
+	public boolean isArchived(int year) throws SQLException {
+		return currentYears().contains(year);
+	}
+
+	/**
+	 * @param year
+	 * @return boolean - true if the utilization of the year cannot be saved,
+	 *         because the year is archived or being archived
+	 * @throws SQLException
+	 *             if the years are not loaded yet and loading fails
+	 */
+	public boolean isClosed(int year) throws SQLException {
+		return archiving.contains(year) || isArchived(year);
+	}
+
+	/**
+	 * @return List - archived years in ascending order
+	 * @throws SQLException
+	 *             if the years are not loaded yet and loading fails
+	 */
+	public List<Integer> getArchivedYears() throws SQLException {
+		List<Integer> archived = new ArrayList<Integer>(currentYears());
+		Collections.sort(archived);
+		return archived;
+	}
+
+	/**
+	 * This method is used to move the utilization of a year to the archive.
+	 * The year is closed to writes before its rows are moved and stays open
+	 * if moving fails
+	 *
+	 * @param year
+	 * @param archivedBy
+	 * @return int - number of utilization archived
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the year is archived already
+	 */
+	public synchronized int archive(int year, String archivedBy) throws SQLException {
+		if (isClosed(year)) {
+			throw new IllegalArgumentException(OpumConstants.YEAR_ARCHIVED);
+		}
+		archiving.add(year);
+		try {
+			// saves of the year still waiting in the write-behind buffer
+			WriteBehindUtilizationRepository.flushBuffer();
+			int archived = utilizationArchiveRepository.archiveYear(year, archivedBy);
+			Set<Integer> archivedYears = new HashSet<Integer>(currentYears());
+			archivedYears.add(year);
+			years.set(Collections.unmodifiableSet(archivedYears));
+			return archived;
+		} finally {
+			archiving.remove(year);
+		}
+	}
+
+	/**
+	 * This method is used to reload the archived years
+	 *
+	 * @throws SQLException
+	 */
+	public void refresh() throws SQLException {
+		years.set(Collections.unmodifiableSet(new HashSet<Integer>(utilizationArchiveRepository.getArchivedYears())));
+		logger.info("Archived years loaded, " + years.get());
+	}
+
+	private Set<Integer> currentYears() throws SQLException {
+		Set<Integer> current = years.get();
+		if (current == null) {
+			synchronized (this) {
+				current = years.get();
+				if (current == null) {
+					refresh();
+					current = years.get();
+				}
+			}
+		}
+		return current;
+	}
+}
@@ -0,0 +1,223 @@
+package com.ph.ibm.cache;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.metrics.MetricsRegistry;
+import com.ph.ibm.model.EmployeeIdentity;
+import com.ph.ibm.repository.EmployeeRepository;
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * This class maps employee id numbers to employee ids and emails and back
+ * without a query per lookup. The cache is filled in bulk by {@link #warm()}
+ * at startup, misses are loaded from the employee table, a batch of misses
+ * with a single query. The number of employees held is read from the
+ * "opum.employee.cache.size" system property, when it is reached an arbitrary
+ * employee is evicted for each new one
+ */
+public class EmployeeIdentityCache {
+
+	private static final int DEFAULT_MAXIMUM_SIZE = 20000;
+
+	private static EmployeeIdentityCache employeeIdentityCache = new EmployeeIdentityCache(
+			OpumBinder.getRepository(EmployeeRepository.class),
+			Integer.getInteger("opum.employee.cache.size", DEFAULT_MAXIMUM_SIZE));
+
+	private Logger logger = Logger.getLogger(EmployeeIdentityCache.class);
+
+	private final EmployeeRepository employeeRepository;
+
+	private final int maximumSize;
+
+	private final ConcurrentMap<String, EmployeeIdentity> byEmployeeIdNumber;
+
+	private final ConcurrentMap<Integer, EmployeeIdentity> byEmployeeId;
+
+	private final LongAdder hits;
+
+	private final LongAdder misses;
+
+	private EmployeeIdentityCache(EmployeeRepository employeeRepository, int maximumSize) {
+		this.employeeRepository = employeeRepository;
+		this.maximumSize = maximumSize;
+		this.byEmployeeIdNumber = new ConcurrentHashMap<String, EmployeeIdentity>(maximumSize * 4 / 3 + 1);
+		this.byEmployeeId = new ConcurrentHashMap<Integer, EmployeeIdentity>(maximumSize * 4 / 3 + 1);
+		MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+		this.hits = metricsRegistry.counter("opum_cache_hits_total", "Cache lookups answered from memory",
+				"cache=\"employee_identity\"");
+		this.misses = metricsRegistry.counter("opum_cache_misses_total", "Cache lookups loaded from the database",
+				"cache=\"employee_identity\"");
+		metricsRegistry.gauge("opum_cache_size", "Entries held in memory", "cache=\"employee_identity\"",
+				new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						return byEmployeeIdNumber.size();
+					}
+				});
+	}
+
+	public static EmployeeIdentityCache getInstance() {
+		return employeeIdentityCache;
+	}
+
+	/**
+	 * This method is used to load the most recently added employees, up to the
+	 * size of the cache
+	 *
+	 * @throws SQLException
+	 */
+	public void warm() throws SQLException {
+		List<EmployeeIdentity> employeeIdentities = employeeRepository.getEmployeeIdentities(maximumSize);
+		for (EmployeeIdentity employeeIdentity : employeeIdentities) {
+			put(employeeIdentity);
+		}
+		logger.info("Employee identity cache loaded with " + employeeIdentities.size() + " employee/s");
+	}
+
+	/**
+	 * This method is used to get the employee id of an employee id number
+	 *
+	 * @param employeeIdNumber
+	 * @return Integer - null if there is no employee with the employee id
+	 *         number
+	 * @throws SQLException
+	 */
+	public Integer getEmployeeId(String employeeIdNumber) throws SQLException {
+		EmployeeIdentity employeeIdentity = findByEmployeeIdNumber(employeeIdNumber);
+		return employeeIdentity == null ? null : employeeIdentity.getEmployeeId();
+	}
+
+	/**
+	 * This method is used to get an employee by employee id number
+	 *
+	 * @param employeeIdNumber
+	 * @return EmployeeIdentity - null if there is no employee with the
+	 *         employee id number
+	 * @throws SQLException
+	 */
+	public EmployeeIdentity findByEmployeeIdNumber(String employeeIdNumber) throws SQLException {
+		EmployeeIdentity employeeIdentity = byEmployeeIdNumber.get(employeeIdNumber);
+		if (employeeIdentity != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+			for (EmployeeIdentity loaded : employeeRepository
+					.getEmployeeIdentities(Collections.singleton(employeeIdNumber))) {
+				put(loaded);
+				employeeIdentity = loaded;
+			}
+		}
+		return employeeIdentity;
+	}
+
+	/**
+	 * This method is used to get an employee by employee id
+	 *
+	 * @param employeeId
+	 * @return EmployeeIdentity - null if there is no employee with the
+	 *         employee id
+	 * @throws SQLException
+	 */
+	public EmployeeIdentity findByEmployeeId(int employeeId) throws SQLException {
+		EmployeeIdentity employeeIdentity = byEmployeeId.get(employeeId);
+		if (employeeIdentity != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+			employeeIdentity = employeeRepository.getEmployeeIdentity(employeeId);
+			if (employeeIdentity != null) {
+				put(employeeIdentity);
+			}
+		}
+		return employeeIdentity;
+	}
+
+	/**
+	 * This method is used to get the employee id of many employee id numbers,
+	 * the employee id numbers which are not cached are loaded with a single
+	 * query
+	 *
+	 * @param employeeIdNumbers
+	 * @return Map - employee id by employee id number, unknown employee id
+	 *         numbers are not included
+	 * @throws SQLException
+	 */
+	public Map<String, Integer> resolveEmployeeIds(Collection<String> employeeIdNumbers) throws SQLException {
+		Map<String, Integer> employeeIds = new HashMap<String, Integer>(employeeIdNumbers.size() * 2);
+		Set<String> misses = new LinkedHashSet<String>();
+		for (String employeeIdNumber : employeeIdNumbers) {
+			EmployeeIdentity employeeIdentity = byEmployeeIdNumber.get(employeeIdNumber);
+			if (employeeIdentity == null) {
+				misses.add(employeeIdNumber);
+			} else {
+				employeeIds.put(employeeIdNumber, employeeIdentity.getEmployeeId());
+			}
+		}
+		hits.add(employeeIds.size());
+		this.misses.add(misses.size());
+		if (!misses.isEmpty()) {
+			for (EmployeeIdentity employeeIdentity : employeeRepository
+					.getEmployeeIdentities(new ArrayList<String>(misses))) {
+				put(employeeIdentity);
+				employeeIds.put(employeeIdentity.getEmployeeIdNumber(), employeeIdentity.getEmployeeId());
+			}
+		}
+		return employeeIds;
+	}
+
+	/**
+	 * This method is used to add or replace an employee after it was inserted
+	 * into the employee table
+	 *
+	 * @param employeeIdentity
+	 */
+	public void put(EmployeeIdentity employeeIdentity) {
+		EmployeeIdentity previous = byEmployeeIdNumber.put(employeeIdentity.getEmployeeIdNumber(), employeeIdentity);
+		if (previous != null && previous.getEmployeeId() != employeeIdentity.getEmployeeId()) {
+			byEmployeeId.remove(previous.getEmployeeId(), previous);
+		}
+		byEmployeeId.put(employeeIdentity.getEmployeeId(), employeeIdentity);
+		if (previous == null) {
+			evictOverflow(employeeIdentity);
+		}
+	}
+
+	/**
+	 * This method is used to remove an employee after it was updated, the
+	 * employee is loaded again on its next lookup
+	 *
+	 * @param employeeIdNumber
+	 */
+	public void evict(String employeeIdNumber) {
+		EmployeeIdentity employeeIdentity = byEmployeeIdNumber.remove(employeeIdNumber);
+		if (employeeIdentity != null) {
+			byEmployeeId.remove(employeeIdentity.getEmployeeId(), employeeIdentity);
+		}
+	}
+
+	private void evictOverflow(EmployeeIdentity keep) {
+		Iterator<EmployeeIdentity> iterator = byEmployeeIdNumber.values().iterator();
+		while (byEmployeeIdNumber.size() > maximumSize && iterator.hasNext()) {
+			EmployeeIdentity employeeIdentity = iterator.next();
+			if (employeeIdentity != keep) {
+				iterator.remove();
+				byEmployeeId.remove(employeeIdentity.getEmployeeId(), employeeIdentity);
+			}
+		}
+	}
+}
@@ -0,0 +1,405 @@
+package com.ph.ibm.cache;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.metrics.MetricsRegistry;
+import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.EmployeeSearchResult;
+import com.ph.ibm.repository.EmployeeRepository;
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * This class searches employees by full name, email and employee id number
+ * in memory. Every word of the full name and of the email before the "@",
+ * the whole email and the employee id number are terms of a sorted term
+ * dictionary, so a prefix is looked up as the range of terms that start with
+ * it. The words are also indexed by their trigrams to find words that are
+ * spelled differently. The index is loaded from the employee table on first
+ * use or on {@link #refresh()}, employees are added or replaced with
+ * {@link #put} after they are inserted or updated
+ */
+public class EmployeeSearchIndex {
+
+	/** Weight of a match on the employee id number */
+	private static final float SERIAL_WEIGHT = 3;
+
+	/** Weight of a match on a word of the full name */
+	private static final float NAME_WEIGHT = 2;
+
+	/** Weight of a match on the email or a word of it */
+	private static final float EMAIL_WEIGHT = 1;
+
+	/** Words shorter than this are only matched by prefix */
+	private static final int MIN_FUZZY_LENGTH = 3;
+
+	/** Trigram similarity below which words do not match */
+	private static final double MIN_SIMILARITY = 0.4;
+
+	private static EmployeeSearchIndex employeeSearchIndex = new EmployeeSearchIndex(
+			OpumBinder.getRepository(EmployeeRepository.class));
+
+	private Logger logger = Logger.getLogger(EmployeeSearchIndex.class);
+
+	private final EmployeeRepository employeeRepository;
+
+	private final AtomicReference<Index> index = new AtomicReference<Index>();
+
+	/**
+	 * Indexed employee and the weight of each of its terms
+	 */
+	private static final class Entry {
+
+		private final EmployeeSearchResult employee;
+		private final Map<String, Float> terms;
+		private final Set<String> words;
+
+		private Entry(int employeeId, String employeeIdNumber, String fullName, String email, boolean active) {
+			this.employee = new EmployeeSearchResult(employeeId, employeeIdNumber, fullName, email, active, 0);
+			Map<String, Float> terms = new HashMap<String, Float>();
+			Set<String> words = new HashSet<String>();
+			addTerm(terms, normalize(employeeIdNumber), SERIAL_WEIGHT);
+			if (fullName != null) {
+				for (String word : split(fullName)) {
+					addTerm(terms, word, NAME_WEIGHT);
+					words.add(word);
+				}
+			}
+			if (email != null) {
+				String normalizedEmail = normalize(email);
+				addTerm(terms, normalizedEmail, EMAIL_WEIGHT);
+				// the email also matches its part before the "@" by prefix
+				int at = normalizedEmail.indexOf('@');
+				for (String word : split(at < 0 ? normalizedEmail : normalizedEmail.substring(0, at))) {
+					addTerm(terms, word, EMAIL_WEIGHT);
+					words.add(word);
+				}
+			}
+			this.terms = Collections.unmodifiableMap(terms);
+			this.words = Collections.unmodifiableSet(words);
+		}
+
+		private static void addTerm(Map<String, Float> terms, String term, float weight) {
+			if (term != null && !term.isEmpty()) {
+				Float previous = terms.get(term);
+				if (previous == null || previous < weight) {
+					terms.put(term, weight);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Term dictionary and trigram index, readers do not lock, writers hold the
+	 * lock of the search index
+	 */
+	private static final class Index {
+
+		private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+		private final ConcurrentNavigableMap<String, Set<Entry>> postings = new ConcurrentSkipListMap<String, Set<Entry>>();
+		private final ConcurrentMap<String, Set<String>> trigrams = new ConcurrentHashMap<String, Set<String>>();
+
+		private void add(Entry entry) {
+			Entry previous = entries.put(entry.employee.getEmployeeIdNumber(), entry);
+			if (previous != null) {
+				unlink(previous);
+			}
+			for (String term : entry.terms.keySet()) {
+				Set<Entry> termEntries = postings.get(term);
+				if (termEntries == null) {
+					termEntries = ConcurrentHashMap.newKeySet();
+					postings.put(term, termEntries);
+				}
+				termEntries.add(entry);
+			}
+			for (String word : entry.words) {
+				if (word.length() >= MIN_FUZZY_LENGTH) {
+					for (String trigram : trigrams(word)) {
+						Set<String> trigramWords = trigrams.get(trigram);
+						if (trigramWords == null) {
+							trigramWords = ConcurrentHashMap.newKeySet();
+							trigrams.put(trigram, trigramWords);
+						}
+						trigramWords.add(word);
+					}
+				}
+			}
+		}
+
+		private void unlink(Entry entry) {
+			for (String term : entry.terms.keySet()) {
+				Set<Entry> termEntries = postings.get(term);
+				if (termEntries != null) {
+					termEntries.remove(entry);
+					if (termEntries.isEmpty()) {
+						postings.remove(term);
+						if (term.length() >= MIN_FUZZY_LENGTH) {
+							for (String trigram : trigrams(term)) {
+								Set<String> trigramWords = trigrams.get(trigram);
+								if (trigramWords != null) {
+									trigramWords.remove(term);
+									if (trigramWords.isEmpty()) {
+										trigrams.remove(trigram);
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private EmployeeSearchIndex(EmployeeRepository employeeRepository) {
+		this.employeeRepository = employeeRepository;
+		MetricsRegistry.getInstance().gauge("opum_cache_size", "Entries held in memory", "cache=\"employee_search\"",
+				new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						Index current = index.get();
+						return current == null ? 0 : current.entries.size();
+					}
+				});
+	}
+
+	public static EmployeeSearchIndex getInstance() {
+		return employeeSearchIndex;
+	}
+
+	/**
+	 * This method is used to find the employees that best match a query. Each
+	 * word of the query has to match a term of the employee: the whole term
+	 * scores highest, then the start of a term, then a term spelled
+	 * differently. Matches on the employee id number weigh more than matches
+	 * on the full name, which weigh more than matches on the email
+	 *
+	 * @param query
+	 * @param limit
+	 *            - maximum number of employees
+	 * @return List - best match first, empty if the query has no words
+	 * @throws SQLException
+	 *             if the index is not loaded yet and loading fails
+	 */
+	public List<EmployeeSearchResult> search(String query, int limit) throws SQLException {
+		Index current = currentIndex();
+		Map<Entry, Double> scores = null;
+		for (String token : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+			if (token.isEmpty()) {
+				continue;
+			}
+			Map<Entry, Double> tokenScores = score(current, token);
+			if (scores != null) {
+				// every word of the query has to match
+				tokenScores.keySet().retainAll(scores.keySet());
+				for (Map.Entry<Entry, Double> tokenScore : tokenScores.entrySet()) {
+					tokenScore.setValue(tokenScore.getValue() + scores.get(tokenScore.getKey()));
+				}
+			}
+			scores = tokenScores;
+			if (scores.isEmpty()) {
+				break;
+			}
+		}
+		if (scores == null || scores.isEmpty() || limit < 1) {
+			return new ArrayList<EmployeeSearchResult>();
+		}
+		Comparator<EmployeeSearchResult> ranking = new Comparator<EmployeeSearchResult>() {
+			@Override
+			public int compare(EmployeeSearchResult first, EmployeeSearchResult second) {
+				int byScore = Double.compare(second.getScore(), first.getScore());
+				return byScore != 0 ? byScore
+						: first.getEmployeeIdNumber().compareTo(second.getEmployeeIdNumber());
+			}
+		};
+		// worst of the best results on top
+		PriorityQueue<EmployeeSearchResult> best = new PriorityQueue<EmployeeSearchResult>(limit + 1,
+				Collections.reverseOrder(ranking));
+		for (Map.Entry<Entry, Double> score : scores.entrySet()) {
+			EmployeeSearchResult employee = score.getKey().employee;
+			best.add(new EmployeeSearchResult(employee.getEmployeeId(), employee.getEmployeeIdNumber(),
+					employee.getFullName(), employee.getEmail(), employee.isActive(), score.getValue()));
+			if (best.size() > limit) {
+				best.poll();
+			}
+		}
+		List<EmployeeSearchResult> results = new ArrayList<EmployeeSearchResult>(best);
+		Collections.sort(results, ranking);
+		return results;
+	}
+
+	/**
+	 * This method is used to add or replace an employee after it was inserted
+	 * or updated in the employee table
+	 *
+	 * @param employeeId
+	 *            - 0 keeps the employee id already indexed
+	 * @param employeeIdNumber
+	 * @param fullName
+	 * @param email
+	 * @param active
+	 */
+	public synchronized void put(int employeeId, String employeeIdNumber, String fullName, String email,
+			boolean active) {
+		Index current = index.get();
+		if (current == null || employeeIdNumber == null) {
+			// loaded with the employee on first use
+			return;
+		}
+		if (employeeId == 0) {
+			Entry previous = current.entries.get(employeeIdNumber);
+			if (previous != null) {
+				employeeId = previous.employee.getEmployeeId();
+			}
+		}
+		current.add(new Entry(employeeId, employeeIdNumber, fullName, email, active));
+	}
+
+	/**
+	 * This method is used to reload the index from the employee table
+	 *
+	 * @throws SQLException
+	 */
+	public synchronized void refresh() throws SQLException {
+		Index loaded = new Index();
+		try (Stream<Employee> employees = employeeRepository.streamEmployees()) {
+			Iterator<Employee> iterator = employees.iterator();
+			while (iterator.hasNext()) {
+				Employee employee = iterator.next();
+				if (employee.getEmployeeIdNumber() != null) {
+					loaded.add(new Entry(employee.getEmployeeId(), employee.getEmployeeIdNumber(),
+							employee.getFullName(), employee.getEmail(), employee.isActive()));
+				}
+			}
+		}
+		index.set(loaded);
+		logger.info("Employee search index loaded with " + loaded.entries.size() + " employee/s, "
+				+ loaded.postings.size() + " term/s");
+	}
+
+	private Index currentIndex() throws SQLException {
+		Index current = index.get();
+		if (current == null) {
+			synchronized (this) {
+				current = index.get();
+				if (current == null) {
+					refresh();
+					current = index.get();
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * @return Map - best score of each employee with a term matching the token
+	 */
+	private static Map<Entry, Double> score(Index current, String token) {
+		Map<Entry, Double> scores = new HashMap<Entry, Double>();
+		for (Map.Entry<String, Set<Entry>> posting : current.postings
+				.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+			String term = posting.getKey();
+			// the whole term scores 1, the start of a term by the share typed
+			double match = term.length() == token.length() ? 1
+					: 0.5 + 0.4 * token.length() / term.length();
+			for (Entry entry : posting.getValue()) {
+				keepBest(scores, entry, match * entry.terms.get(term));
+			}
+		}
+		if (token.length() >= MIN_FUZZY_LENGTH) {
+			for (Map.Entry<String, Double> word : similarWords(current, token).entrySet()) {
+				Set<Entry> wordEntries = current.postings.get(word.getKey());
+				if (wordEntries != null) {
+					for (Entry entry : wordEntries) {
+						keepBest(scores, entry, 0.5 * word.getValue() * entry.terms.get(word.getKey()));
+					}
+				}
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * @return Map - similarity of each indexed word sharing enough trigrams
+	 *         with the token
+	 */
+	private static Map<String, Double> similarWords(Index current, String token) {
+		Set<String> tokenTrigrams = trigrams(token);
+		Map<String, Integer> shared = new HashMap<String, Integer>();
+		for (String trigram : tokenTrigrams) {
+			Set<String> trigramWords = current.trigrams.get(trigram);
+			if (trigramWords != null) {
+				for (String word : trigramWords) {
+					Integer count = shared.get(word);
+					shared.put(word, count == null ? 1 : count + 1);
+				}
+			}
+		}
+		Map<String, Double> similarities = new HashMap<String, Double>();
+		for (Map.Entry<String, Integer> word : shared.entrySet()) {
+			int common = word.getValue();
+			// Jaccard similarity of the trigram sets
+			double similarity = (double) common
+					/ (tokenTrigrams.size() + trigrams(word.getKey()).size() - common);
+			if (similarity >= MIN_SIMILARITY && !word.getKey().startsWith(token)) {
+				similarities.put(word.getKey(), similarity);
+			}
+		}
+		return similarities;
+	}
+
+	private static void keepBest(Map<Entry, Double> scores, Entry entry, double score) {
+		Double previous = scores.get(entry);
+		if (previous == null || previous < score) {
+			scores.put(entry, score);
+		}
+	}
+
+	/**
+	 * @return Set - trigrams of the word padded with two spaces in front and
+	 *         one at the end, so the start of the word counts more
+	 */
+	private static Set<String> trigrams(String word) {
+		String padded = "  " + word + " ";
+		Set<String> trigrams = new HashSet<String>(padded.length() * 2);
+		for (int i = 0; i + 3 <= padded.length(); i++) {
+			trigrams.add(padded.substring(i, i + 3));
+		}
+		return trigrams;
+	}
+
+	private static String normalize(String value) {
+		return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * @return List - lower case words of letters and digits
+	 */
+	private static List<String> split(String value) {
+		List<String> words = new ArrayList<String>();
+		for (String word : normalize(value).split("[^\\p{L}\\p{N}]+")) {
+			if (!word.isEmpty()) {
+				words.add(word);
+			}
+		}
+		return words;
+	}
+}
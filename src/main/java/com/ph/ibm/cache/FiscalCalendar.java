@@ -0,0 +1,443 @@
+package com.ph.ibm.cache;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.model.PUMMonth;
+import com.ph.ibm.model.PUMQuarter;
+import com.ph.ibm.model.PUMYear;
+import com.ph.ibm.repository.PUMYearRepository;
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * This class builds the fiscal calendar of a PUM year from the year, quarter
+ * and month tables. Each year is a set of arrays indexed by the day of the
+ * year, counted from the start of the PUM year, which give the fiscal month,
+ * quarter and week of the day. Quarters and months belong to the year their
+ * start date falls in. When the quarters or months of a year do not cover it
+ * without gaps, calendar quarters or months are used instead. Weeks end on
+ * Saturday. The calendar is replaced atomically on {@link #refresh()}, which
+ * is called whenever a year, quarter or month is saved
+ */
+public class FiscalCalendar {
+
+	private static final String[] ORDINAL_SUFFIXES = { "th", "st", "nd", "rd" };
+
+	private static FiscalCalendar fiscalCalendar = new FiscalCalendar(
+			OpumBinder.getRepository(PUMYearRepository.class));
+
+	private Logger logger = Logger.getLogger(FiscalCalendar.class);
+
+	private final PUMYearRepository pumYearRepository;
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>();
+
+	/**
+	 * A fiscal month, quarter or week, both dates included
+	 */
+	public static final class Period {
+
+		private final int number;
+		private final String name;
+		private final LocalDate start;
+		private final LocalDate end;
+
+		private Period(int number, String name, LocalDate start, LocalDate end) {
+			this.number = number;
+			this.name = name;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * @return int - one based position of the period in the year
+		 */
+		public int getNumber() {
+			return number;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public LocalDate getStart() {
+			return start;
+		}
+
+		public LocalDate getEnd() {
+			return end;
+		}
+	}
+
+	/**
+	 * Fiscal calendar of a single PUM year
+	 */
+	public static final class FiscalYear {
+
+		private final int year;
+		private final LocalDate start;
+		private final LocalDate end;
+		private final List<Period> months;
+		private final List<Period> quarters;
+		private final List<Period> weeks;
+
+		/** Element i is the index in months of day i of the year */
+		private final int[] monthOfDay;
+
+		/** Element i is the index in quarters of day i of the year */
+		private final int[] quarterOfDay;
+
+		/** Element i is the index in weeks of day i of the year */
+		private final int[] weekOfDay;
+
+		private FiscalYear(int year, LocalDate start, LocalDate end, List<Period> months, List<Period> quarters,
+				List<Period> weeks) {
+			int days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+			this.year = year;
+			this.start = start;
+			this.end = end;
+			this.months = Collections.unmodifiableList(months);
+			this.quarters = Collections.unmodifiableList(quarters);
+			this.weeks = Collections.unmodifiableList(weeks);
+			this.monthOfDay = indexDays(start, days, months);
+			this.quarterOfDay = indexDays(start, days, quarters);
+			this.weekOfDay = indexDays(start, days, weeks);
+		}
+
+		private static int[] indexDays(LocalDate start, int days, List<Period> periods) {
+			int[] periodOfDay = new int[days];
+			Arrays.fill(periodOfDay, -1);
+			for (int i = 0; i < periods.size(); i++) {
+				Period period = periods.get(i);
+				int from = (int) ChronoUnit.DAYS.between(start, period.start);
+				int to = (int) ChronoUnit.DAYS.between(start, period.end);
+				Arrays.fill(periodOfDay, Math.max(from, 0), Math.min(to, days - 1) + 1, i);
+			}
+			return periodOfDay;
+		}
+
+		public int getYear() {
+			return year;
+		}
+
+		public LocalDate getStart() {
+			return start;
+		}
+
+		public LocalDate getEnd() {
+			return end;
+		}
+
+		/**
+		 * @return int - number of days in the year
+		 */
+		public int length() {
+			return monthOfDay.length;
+		}
+
+		/**
+		 * @param date
+		 * @return int - index of the date in the year, -1 if the date is
+		 *         outside the year
+		 */
+		public int dayIndex(LocalDate date) {
+			if (date.isBefore(start) || date.isAfter(end)) {
+				return -1;
+			}
+			return (int) ChronoUnit.DAYS.between(start, date);
+		}
+
+		/**
+		 * @param dayIndex
+		 * @return int - index in {@link #getMonths()} of the day
+		 */
+		public int monthOf(int dayIndex) {
+			return monthOfDay[dayIndex];
+		}
+
+		/**
+		 * @param dayIndex
+		 * @return int - index in {@link #getQuarters()} of the day
+		 */
+		public int quarterOf(int dayIndex) {
+			return quarterOfDay[dayIndex];
+		}
+
+		/**
+		 * @param dayIndex
+		 * @return int - index in {@link #getWeeks()} of the day
+		 */
+		public int weekOf(int dayIndex) {
+			return weekOfDay[dayIndex];
+		}
+
+		/**
+		 * @return List - months in order, the list cannot be modified
+		 */
+		public List<Period> getMonths() {
+			return months;
+		}
+
+		/**
+		 * @return List - quarters in order, the list cannot be modified
+		 */
+		public List<Period> getQuarters() {
+			return quarters;
+		}
+
+		/**
+		 * @return List - weeks in order, the list cannot be modified
+		 */
+		public List<Period> getWeeks() {
+			return weeks;
+		}
+	}
+
+	/**
+	 * Immutable year, quarter and month rows, fiscal years are built on first
+	 * use
+	 */
+	private static final class Snapshot {
+
+		private final Map<Integer, PUMYear> pumYears;
+		private final List<Period> quarters;
+		private final List<Period> months;
+		private final ConcurrentMap<Integer, FiscalYear> years = new ConcurrentHashMap<Integer, FiscalYear>();
+
+		private Snapshot(Map<Integer, PUMYear> pumYears, List<Period> quarters, List<Period> months) {
+			this.pumYears = Collections.unmodifiableMap(pumYears);
+			this.quarters = Collections.unmodifiableList(quarters);
+			this.months = Collections.unmodifiableList(months);
+		}
+	}
+
+	private FiscalCalendar(PUMYearRepository pumYearRepository) {
+		this.pumYearRepository = pumYearRepository;
+	}
+
+	public static FiscalCalendar getInstance() {
+		return fiscalCalendar;
+	}
+
+	/**
+	 * This method is used to get the fiscal calendar of a PUM year, a year
+	 * without a row in the year table runs from January 1 to December 31
+	 *
+	 * @param year
+	 * @return FiscalYear
+	 * @throws SQLException
+	 *             if the calendar is not loaded yet and loading fails
+	 */
+	public FiscalYear getYear(int year) throws SQLException {
+		Snapshot current = currentSnapshot();
+		FiscalYear fiscalYear = current.years.get(year);
+		if (fiscalYear == null) {
+			fiscalYear = buildYear(year, current);
+			FiscalYear existing = current.years.putIfAbsent(year, fiscalYear);
+			if (existing != null) {
+				fiscalYear = existing;
+			}
+		}
+		return fiscalYear;
+	}
+
+	/**
+	 * This method is used to reload the year, quarter and month tables and
+	 * drop the fiscal years built so far
+	 *
+	 * @throws SQLException
+	 */
+	public void refresh() throws SQLException {
+		Map<Integer, PUMYear> pumYears = new HashMap<Integer, PUMYear>();
+		for (PUMYear pumYear : pumYearRepository.retrieveYear()) {
+			pumYears.put(pumYear.getPumYear(), pumYear);
+		}
+		List<Period> quarters = new ArrayList<Period>();
+		for (PUMQuarter pumQuarter : pumYearRepository.retrieveQuarters()) {
+			addPeriod(quarters, pumQuarter.getPumQuarter(), pumQuarter.getStart(), pumQuarter.getEnd(), "Quarter");
+		}
+		List<Period> months = new ArrayList<Period>();
+		for (PUMMonth pumMonth : pumYearRepository.retrieveMonths()) {
+			addPeriod(months, pumMonth.getPumMonth(), pumMonth.getStart(), pumMonth.getEnd(), "Month");
+		}
+		snapshot.set(new Snapshot(pumYears, quarters, months));
+		logger.info("Fiscal calendar loaded with " + pumYears.size() + " year/s, " + quarters.size()
+				+ " quarter/s and " + months.size() + " month/s");
+	}
+
+	private void addPeriod(List<Period> periods, int number, String start, String end, String kind) {
+		LocalDate startDate = parseDate(start);
+		LocalDate endDate = parseDate(end);
+		if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+			logger.warn(kind + " " + number + " has an invalid range " + start + " - " + end);
+			return;
+		}
+		periods.add(new Period(number, null, startDate, endDate));
+	}
+
+	private FiscalYear buildYear(int year, Snapshot current) {
+		LocalDate start = null;
+		LocalDate end = null;
+		PUMYear pumYear = current.pumYears.get(year);
+		if (pumYear != null) {
+			start = parseDate(pumYear.getStart());
+			end = parseDate(pumYear.getEnd());
+		}
+		if (start == null || end == null || end.isBefore(start)) {
+			start = LocalDate.of(year, 1, 1);
+			end = LocalDate.of(year, 12, 31);
+		}
+
+		List<Period> months = periodsOfYear(current.months, start, end);
+		if (months == null) {
+			logger.info("Using calendar months for PUM year " + year);
+			months = calendarMonths(start, end);
+		}
+		List<Period> quarters = periodsOfYear(current.quarters, start, end);
+		if (quarters == null) {
+			logger.info("Using calendar quarters for PUM year " + year);
+			quarters = calendarQuarters(start, end);
+		}
+
+		List<Period> namedMonths = new ArrayList<Period>(months.size());
+		for (int i = 0; i < months.size(); i++) {
+			Period month = months.get(i);
+			LocalDate middle = month.start.plusDays(ChronoUnit.DAYS.between(month.start, month.end) / 2);
+			namedMonths.add(new Period(i + 1, middle.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH),
+					month.start, month.end));
+		}
+		List<Period> namedQuarters = new ArrayList<Period>(quarters.size());
+		for (int i = 0; i < quarters.size(); i++) {
+			Period quarter = quarters.get(i);
+			namedQuarters.add(new Period(i + 1, ordinal(i + 1) + " Quarter", quarter.start, quarter.end));
+		}
+		return new FiscalYear(year, start, end, namedMonths, namedQuarters, weeks(start, end));
+	}
+
+	/**
+	 * @return List - periods starting within the year in order, null if they
+	 *         do not cover the year without gaps or overlaps
+	 */
+	private List<Period> periodsOfYear(List<Period> periods, LocalDate start, LocalDate end) {
+		List<Period> periodsOfYear = new ArrayList<Period>();
+		for (Period period : periods) {
+			if (!period.start.isBefore(start) && !period.start.isAfter(end)) {
+				periodsOfYear.add(period);
+			}
+		}
+		if (periodsOfYear.isEmpty()) {
+			return null;
+		}
+		Collections.sort(periodsOfYear, new Comparator<Period>() {
+			@Override
+			public int compare(Period first, Period second) {
+				return first.start.compareTo(second.start);
+			}
+		});
+		LocalDate expectedStart = start;
+		for (Period period : periodsOfYear) {
+			if (!period.start.equals(expectedStart)) {
+				return null;
+			}
+			expectedStart = period.end.plusDays(1);
+		}
+		Period last = periodsOfYear.get(periodsOfYear.size() - 1);
+		if (last.end.isBefore(end)) {
+			return null;
+		}
+		if (last.end.isAfter(end)) {
+			periodsOfYear.set(periodsOfYear.size() - 1, new Period(last.number, last.name, last.start, end));
+		}
+		return periodsOfYear;
+	}
+
+	private List<Period> calendarMonths(LocalDate start, LocalDate end) {
+		List<Period> months = new ArrayList<Period>();
+		LocalDate periodStart = start;
+		while (!periodStart.isAfter(end)) {
+			LocalDate periodEnd = min(periodStart.with(TemporalAdjusters.lastDayOfMonth()), end);
+			months.add(new Period(months.size() + 1, null, periodStart, periodEnd));
+			periodStart = periodEnd.plusDays(1);
+		}
+		return months;
+	}
+
+	private List<Period> calendarQuarters(LocalDate start, LocalDate end) {
+		List<Period> quarters = new ArrayList<Period>();
+		LocalDate periodStart = start;
+		while (!periodStart.isAfter(end)) {
+			LocalDate quarterStart = periodStart.with(IsoFields.DAY_OF_QUARTER, 1);
+			LocalDate periodEnd = min(quarterStart.plusMonths(3).minusDays(1), end);
+			quarters.add(new Period(quarters.size() + 1, null, periodStart, periodEnd));
+			periodStart = periodEnd.plusDays(1);
+		}
+		return quarters;
+	}
+
+	private List<Period> weeks(LocalDate start, LocalDate end) {
+		List<Period> weeks = new ArrayList<Period>();
+		LocalDate periodStart = start;
+		while (!periodStart.isAfter(end)) {
+			LocalDate periodEnd = min(periodStart.with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY)), end);
+			weeks.add(new Period(weeks.size() + 1, periodEnd.getMonthValue() + "/" + periodEnd.getDayOfMonth(),
+					periodStart, periodEnd));
+			periodStart = periodEnd.plusDays(1);
+		}
+		return weeks;
+	}
+
+	private static LocalDate min(LocalDate first, LocalDate second) {
+		return first.isBefore(second) ? first : second;
+	}
+
+	private static String ordinal(int number) {
+		int suffix = number % 100 >= 11 && number % 100 <= 13 || number % 10 > 3 ? 0 : number % 10;
+		return number + ORDINAL_SUFFIXES[suffix];
+	}
+
+	private LocalDate parseDate(String date) {
+		if (date == null) {
+			return null;
+		}
+		String trimmed = date.trim();
+		try {
+			return LocalDate.parse(trimmed.length() > 10 ? trimmed.substring(0, 10) : trimmed);
+		} catch (DateTimeParseException e) {
+			logger.warn("Invalid fiscal calendar date " + date);
+			return null;
+		}
+	}
+
+	private Snapshot currentSnapshot() throws SQLException {
+		Snapshot current = snapshot.get();
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot.get();
+				if (current == null) {
+					refresh();
+					current = snapshot.get();
+				}
+			}
+		}
+		return current;
+	}
+}
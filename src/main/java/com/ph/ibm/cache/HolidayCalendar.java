@@ -0,0 +1,206 @@
+package com.ph.ibm.cache;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.model.Holiday;
+import com.ph.ibm.repository.HolidayEngagementRepository;
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * This class holds the holiday table in memory together with a per-year
+ * calendar of working days, which are weekdays that are not a holiday. Each
+ * year is a bitset of its days and a prefix sum of working days, so checking a
+ * day and counting the working days between two dates do not scan the year.
+ * The calendar is replaced atomically on {@link #refresh()}, which is called
+ * whenever a holiday is added, updated or deleted
+ */
+public class HolidayCalendar {
+
+	private static HolidayCalendar holidayCalendar = new HolidayCalendar(
+			OpumBinder.getRepository(HolidayEngagementRepository.class));
+
+	private Logger logger = Logger.getLogger(HolidayCalendar.class);
+
+	private final HolidayEngagementRepository holidayEngagementRepository;
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>();
+
+	/**
+	 * Working days of a single year
+	 */
+	private static final class YearCalendar {
+
+		/** Bit i is set if day of year i + 1 is a working day */
+		private final BitSet workingDays;
+
+		/** Element i is the number of working days before day of year i + 1 */
+		private final int[] workingDaysBefore;
+
+		private YearCalendar(int year, Set<LocalDate> holidayDates) {
+			LocalDate firstDay = LocalDate.of(year, 1, 1);
+			int days = firstDay.lengthOfYear();
+			workingDays = new BitSet(days);
+			workingDaysBefore = new int[days + 1];
+			LocalDate date = firstDay;
+			for (int i = 0; i < days; i++) {
+				DayOfWeek dayOfWeek = date.getDayOfWeek();
+				boolean workingDay = dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY
+						&& !holidayDates.contains(date);
+				if (workingDay) {
+					workingDays.set(i);
+				}
+				workingDaysBefore[i + 1] = workingDaysBefore[i] + (workingDay ? 1 : 0);
+				date = date.plusDays(1);
+			}
+		}
+	}
+
+	/**
+	 * Immutable holidays, year calendars are built on first use
+	 */
+	private static final class Snapshot {
+
+		private final List<Holiday> holidays;
+		private final Map<String, Holiday> holidaysByName;
+		private final Set<LocalDate> holidayDates;
+		private final ConcurrentMap<Integer, YearCalendar> years = new ConcurrentHashMap<Integer, YearCalendar>();
+
+		private Snapshot(List<Holiday> holidays, Set<LocalDate> holidayDates) {
+			Map<String, Holiday> holidaysByName = new HashMap<String, Holiday>(holidays.size() * 2);
+			for (Holiday holiday : holidays) {
+				holidaysByName.put(holiday.getName(), holiday);
+			}
+			this.holidays = Collections.unmodifiableList(holidays);
+			this.holidaysByName = Collections.unmodifiableMap(holidaysByName);
+			this.holidayDates = Collections.unmodifiableSet(holidayDates);
+		}
+
+		private YearCalendar year(int year) {
+			YearCalendar yearCalendar = years.get(year);
+			if (yearCalendar == null) {
+				yearCalendar = new YearCalendar(year, holidayDates);
+				YearCalendar existing = years.putIfAbsent(year, yearCalendar);
+				if (existing != null) {
+					yearCalendar = existing;
+				}
+			}
+			return yearCalendar;
+		}
+	}
+
+	private HolidayCalendar(HolidayEngagementRepository holidayEngagementRepository) {
+		this.holidayEngagementRepository = holidayEngagementRepository;
+	}
+
+	public static HolidayCalendar getInstance() {
+		return holidayCalendar;
+	}
+
+	/**
+	 * @return List - all holidays, the list cannot be modified
+	 * @throws SQLException
+	 *             if the calendar is not loaded yet and loading fails
+	 */
+	public List<Holiday> getHolidays() throws SQLException {
+		return currentSnapshot().holidays;
+	}
+
+	/**
+	 * This method is used to get a holiday by name
+	 *
+	 * @param name
+	 * @return Holiday - null if there is no holiday with the name
+	 * @throws SQLException
+	 *             if the calendar is not loaded yet and loading fails
+	 */
+	public Holiday findByName(String name) throws SQLException {
+		return currentSnapshot().holidaysByName.get(name);
+	}
+
+	/**
+	 * @param date
+	 * @return boolean - true if the date is a weekday and not a holiday
+	 * @throws SQLException
+	 *             if the calendar is not loaded yet and loading fails
+	 */
+	public boolean isWorkingDay(LocalDate date) throws SQLException {
+		return currentSnapshot().year(date.getYear()).workingDays.get(date.getDayOfYear() - 1);
+	}
+
+	/**
+	 * This method is used to count the working days from a date up to another
+	 * date, both dates included
+	 *
+	 * @param from
+	 * @param to
+	 * @return int - number of working days, 0 if from is after to
+	 * @throws SQLException
+	 *             if the calendar is not loaded yet and loading fails
+	 */
+	public int workingDaysBetween(LocalDate from, LocalDate to) throws SQLException {
+		if (from.isAfter(to)) {
+			return 0;
+		}
+		Snapshot current = currentSnapshot();
+		int workingDays = 0;
+		for (int year = from.getYear(); year <= to.getYear(); year++) {
+			int[] workingDaysBefore = current.year(year).workingDaysBefore;
+			int start = year == from.getYear() ? from.getDayOfYear() - 1 : 0;
+			int end = year == to.getYear() ? to.getDayOfYear() : workingDaysBefore.length - 1;
+			workingDays += workingDaysBefore[end] - workingDaysBefore[start];
+		}
+		return workingDays;
+	}
+
+	/**
+	 * This method is used to reload the holidays and rebuild the working day
+	 * calendars
+	 *
+	 * @throws SQLException
+	 */
+	public void refresh() throws SQLException {
+		List<Holiday> holidays = holidayEngagementRepository.getAllHoliday();
+		Set<LocalDate> holidayDates = new HashSet<LocalDate>();
+		for (Holiday holiday : holidays) {
+			if (holiday.getDate() == null) {
+				continue;
+			}
+			try {
+				holidayDates.add(LocalDate.parse(holiday.getDate().trim()));
+			} catch (DateTimeParseException e) {
+				logger.warn("Holiday " + holiday.getName() + " has an invalid date " + holiday.getDate());
+			}
+		}
+		snapshot.set(new Snapshot(holidays, holidayDates));
+		logger.info("Holiday calendar loaded with " + holidayDates.size() + " holiday/s");
+	}
+
+	private Snapshot currentSnapshot() throws SQLException {
+		Snapshot current = snapshot.get();
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot.get();
+				if (current == null) {
+					refresh();
+					current = snapshot.get();
+				}
+			}
+		}
+		return current;
+	}
+}
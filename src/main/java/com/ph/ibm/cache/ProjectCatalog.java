@@ -0,0 +1,187 @@
+package com.ph.ibm.cache;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.metrics.MetricsRegistry;
+import com.ph.ibm.model.Project;
+import com.ph.ibm.repository.ProjectRepository;
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * This class holds the project table in memory as an immutable snapshot
+ * indexed by name and by id. The snapshot is replaced atomically on
+ * {@link #refresh()} and when a periodic check finds that the project table
+ * version changed. The check interval in seconds is read from the
+ * "opum.catalog.refresh.seconds" system property
+ */
+public class ProjectCatalog {
+
+	private static final long DEFAULT_REFRESH_SECONDS = 60;
+
+	private static ProjectCatalog projectCatalog = new ProjectCatalog(
+			OpumBinder.getRepository(ProjectRepository.class));
+
+	private Logger logger = Logger.getLogger(ProjectCatalog.class);
+
+	private final ProjectRepository projectRepository;
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>();
+
+	private final ScheduledExecutorService versionChecker;
+
+	/**
+	 * Immutable content of the catalog
+	 */
+	private static final class Snapshot {
+
+		private final String version;
+		private final List<Project> projects;
+		private final Map<String, Project> projectsByName;
+		private final Map<Long, Project> projectsById;
+
+		private Snapshot(String version, List<Project> projects) {
+			Map<String, Project> projectsByName = new HashMap<String, Project>(projects.size() * 2);
+			Map<Long, Project> projectsById = new HashMap<Long, Project>(projects.size() * 2);
+			for (Project project : projects) {
+				projectsByName.put(project.getProjectName(), project);
+				projectsById.put(project.getProjectId(), project);
+			}
+			this.version = version;
+			this.projects = Collections.unmodifiableList(projects);
+			this.projectsByName = Collections.unmodifiableMap(projectsByName);
+			this.projectsById = Collections.unmodifiableMap(projectsById);
+		}
+	}
+
+	private ProjectCatalog(ProjectRepository projectRepository) {
+		this.projectRepository = projectRepository;
+		this.versionChecker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "opum-project-catalog");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		long refreshSeconds = Long.getLong("opum.catalog.refresh.seconds", DEFAULT_REFRESH_SECONDS);
+		versionChecker.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				checkVersion();
+			}
+		}, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+		MetricsRegistry.getInstance().gauge("opum_cache_size", "Entries held in memory", "cache=\"project_catalog\"",
+				new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						Snapshot current = snapshot.get();
+						return current == null ? 0 : current.projects.size();
+					}
+				});
+	}
+
+	public static ProjectCatalog getInstance() {
+		return projectCatalog;
+	}
+
+	/**
+	 * This method is used to get a project by name
+	 *
+	 * @param projectName
+	 * @return Project - null if there is no project with the name
+	 * @throws SQLException
+	 *             if the catalog is not loaded yet and loading fails
+	 */
+	public Project findByName(String projectName) throws SQLException {
+		return currentSnapshot().projectsByName.get(projectName);
+	}
+
+	/**
+	 * This method is used to get a project by id
+	 *
+	 * @param projectId
+	 * @return Project - null if there is no project with the id
+	 * @throws SQLException
+	 *             if the catalog is not loaded yet and loading fails
+	 */
+	public Project findById(Long projectId) throws SQLException {
+		return currentSnapshot().projectsById.get(projectId);
+	}
+
+	/**
+	 * @return Map - project by name, the map cannot be modified
+	 * @throws SQLException
+	 *             if the catalog is not loaded yet and loading fails
+	 */
+	public Map<String, Project> getProjectsByName() throws SQLException {
+		return currentSnapshot().projectsByName;
+	}
+
+	/**
+	 * @return List - all projects, the list cannot be modified
+	 * @throws SQLException
+	 *             if the catalog is not loaded yet and loading fails
+	 */
+	public List<Project> getProjects() throws SQLException {
+		return currentSnapshot().projects;
+	}
+
+	/**
+	 * This method is used to reload the catalog after a project was inserted,
+	 * updated or deleted
+	 *
+	 * @throws SQLException
+	 */
+	public void refresh() throws SQLException {
+		String version = projectRepository.getVersion();
+		snapshot.set(new Snapshot(version, projectRepository.retrieveData()));
+		logger.info("Project catalog loaded, version " + version);
+	}
+
+	/**
+	 * This method is used to stop the periodic version check
+	 */
+	public void shutdown() {
+		versionChecker.shutdownNow();
+	}
+
+	private Snapshot currentSnapshot() throws SQLException {
+		Snapshot current = snapshot.get();
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot.get();
+				if (current == null) {
+					refresh();
+					current = snapshot.get();
+				}
+			}
+		}
+		return current;
+	}
+
+	private void checkVersion() {
+		Snapshot current = snapshot.get();
+		if (current == null) {
+			return;
+		}
+		try {
+			if (!current.version.equals(projectRepository.getVersion())) {
+				refresh();
+			}
+		} catch (Exception e) {
+			logger.error("Unable to check project catalog version due to " + e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,631 @@
+package com.ph.ibm.cache;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.text.DecimalFormat;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.bo.TimeAwayTokens;
+import com.ph.ibm.cache.FiscalCalendar.FiscalYear;
+import com.ph.ibm.cache.FiscalCalendar.Period;
+import com.ph.ibm.metrics.MetricsRegistry;
+import com.ph.ibm.model.Project;
+import com.ph.ibm.model.ProjectEngagement;
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.model.UtilizationJson;
+import com.ph.ibm.model.UtilizationRollup;
+import com.ph.ibm.model.UtilizationYear;
+import com.ph.ibm.repository.ProjectEngagementRepository;
+import com.ph.ibm.repository.UtilizationEngagementRepository;
+import com.ph.ibm.resources.OpumBinder;
+import com.ph.ibm.util.JsonToJavaUtil;
+import com.ph.ibm.util.OpumConstants;
+
+/**
+ * This class rolls the utilization of employees up to their projects and to
+ * the account. The hours and leave of each employee are aggregated per fiscal
+ * month once per year, from a single streamed read of the utilization of the
+ * year, and kept up to date as utilization is saved. A rollup merges the
+ * aggregates of the members month by month, in parallel for large projects,
+ * and is cached until the utilization of one of its members is saved or the
+ * project engagements change. Members count in the months their engagement
+ * overlaps, employees without utilization for the year are not counted.
+ * Quarter and year figures are the sums of their months
+ */
+public class UtilizationRollups {
+
+	public static final String PROJECT_LEVEL = "PROJECT";
+
+	public static final String ACCOUNT_LEVEL = "ACCOUNT";
+
+	/** Members from which a rollup is merged in parallel */
+	private static final int PARALLEL_MEMBERS = 1000;
+
+	private static UtilizationRollups utilizationRollups = new UtilizationRollups(
+			OpumBinder.getRepository(UtilizationEngagementRepository.class),
+			OpumBinder.getRepository(ProjectEngagementRepository.class));
+
+	private Logger logger = Logger.getLogger(UtilizationRollups.class);
+
+	private final UtilizationEngagementRepository utilizationEngagementRepository;
+
+	private final ProjectEngagementRepository projectEngagementRepository;
+
+	private FiscalCalendar fiscalCalendar = FiscalCalendar.getInstance();
+
+	private HolidayCalendar holidayCalendar = HolidayCalendar.getInstance();
+
+	private ProjectCatalog projectCatalog = ProjectCatalog.getInstance();
+
+	/** Employee aggregates of each year read so far */
+	private final ConcurrentMap<Integer, YearAggregates> years = new ConcurrentHashMap<Integer, YearAggregates>();
+
+	/** Rollups by level, id and year */
+	private final ConcurrentMap<String, Rollup> rollups = new ConcurrentHashMap<String, Rollup>();
+
+	/**
+	 * Utilization saved while a year is read, by year and employee id. The
+	 * read may have streamed a row before its save was committed
+	 */
+	private final ConcurrentMap<Integer, Map<Integer, Utilization>> savedWhileReading = new ConcurrentHashMap<Integer, Map<Integer, Utilization>>();
+
+	/** Incremented on every invalidation, a rollup built across one is not cached */
+	private final AtomicLong invalidations = new AtomicLong();
+
+	/**
+	 * Hours and leave of one employee per fiscal month
+	 */
+	private static final class EmployeeAggregate {
+
+		private final double[] hours;
+		private final double[] vl;
+		private final double[] sl;
+		private final double[] ol;
+
+		private EmployeeAggregate(FiscalYear fiscalYear, int year, UtilizationYear utilizationYear) {
+			int months = fiscalYear.getMonths().size();
+			this.hours = new double[months];
+			this.vl = new double[months];
+			this.sl = new double[months];
+			this.ol = new double[months];
+			for (UtilizationJson json : utilizationYear.getUtilizationJSON()) {
+				int dayIndex;
+				try {
+					dayIndex = fiscalYear.dayIndex(LocalDate.of(year, json.getMonth(), json.getDayOfMonth()));
+				} catch (DateTimeException e) {
+					continue;
+				}
+				if (dayIndex < 0) {
+					continue;
+				}
+				int month = fiscalYear.monthOf(dayIndex);
+				if (month < 0) {
+					continue;
+				}
+				String utilizationCellValue = json.getUtilizationHours();
+				if (TimeAwayTokens.VL.getS().equals(utilizationCellValue)) {
+					vl[month]++;
+				} else if (TimeAwayTokens.SL.getS().equals(utilizationCellValue)) {
+					sl[month]++;
+				} else if (TimeAwayTokens.OL.getS().equals(utilizationCellValue)) {
+					ol[month]++;
+				}
+				if (utilizationCellValue == null || utilizationCellValue.isEmpty()
+						|| TimeAwayTokens.isToken(utilizationCellValue)) {
+					continue;
+				}
+				try {
+					hours[month] += Double.parseDouble(utilizationCellValue);
+				} catch (NumberFormatException e) {
+					// not hours, counts as an empty day
+				}
+			}
+		}
+	}
+
+	/**
+	 * Employee aggregates of a year, by employee id
+	 */
+	private static final class YearAggregates {
+
+		private final FiscalYear fiscalYear;
+		private final ConcurrentMap<Integer, EmployeeAggregate> employees = new ConcurrentHashMap<Integer, EmployeeAggregate>();
+
+		private YearAggregates(FiscalYear fiscalYear) {
+			this.fiscalYear = fiscalYear;
+		}
+	}
+
+	/**
+	 * Sums of the aggregates of members per fiscal month
+	 */
+	private static final class Totals {
+
+		private final double[] hours;
+		private final double[] vl;
+		private final double[] sl;
+		private final double[] ol;
+		private final int[] members;
+
+		private Totals(int months) {
+			this.hours = new double[months];
+			this.vl = new double[months];
+			this.sl = new double[months];
+			this.ol = new double[months];
+			this.members = new int[months];
+		}
+
+		private void add(EmployeeAggregate aggregate, long months) {
+			for (int month = 0; month < hours.length; month++) {
+				if ((months & (1L << month)) != 0) {
+					hours[month] += aggregate.hours[month];
+					vl[month] += aggregate.vl[month];
+					sl[month] += aggregate.sl[month];
+					ol[month] += aggregate.ol[month];
+					members[month]++;
+				}
+			}
+		}
+
+		private void merge(Totals other) {
+			for (int month = 0; month < hours.length; month++) {
+				hours[month] += other.hours[month];
+				vl[month] += other.vl[month];
+				sl[month] += other.sl[month];
+				ol[month] += other.ol[month];
+				members[month] += other.members[month];
+			}
+		}
+	}
+
+	/**
+	 * Merged months of the members of a project or of the account
+	 */
+	private static final class Rollup {
+
+		private final YearAggregates aggregates;
+		/** Fiscal months of each member as bits, by employee id */
+		private final Map<Integer, Long> memberMonths;
+		private final Totals totals;
+
+		private Rollup(YearAggregates aggregates, Map<Integer, Long> memberMonths, Totals totals) {
+			this.aggregates = aggregates;
+			this.memberMonths = memberMonths;
+			this.totals = totals;
+		}
+	}
+
+	private UtilizationRollups(UtilizationEngagementRepository utilizationEngagementRepository,
+			ProjectEngagementRepository projectEngagementRepository) {
+		this.utilizationEngagementRepository = utilizationEngagementRepository;
+		this.projectEngagementRepository = projectEngagementRepository;
+		MetricsRegistry.getInstance().gauge("opum_cache_size", "Entries held in memory",
+				"cache=\"utilization_rollup\"", new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						return rollups.size();
+					}
+				});
+	}
+
+	public static UtilizationRollups getInstance() {
+		return utilizationRollups;
+	}
+
+	/**
+	 * This method is used to get the rollup of the members of a project
+	 *
+	 * @param projectId
+	 * @param year
+	 * @param period
+	 *            - name of a fiscal month or quarter, Q1 to Q4, or null for
+	 *            the whole year
+	 * @return UtilizationRollup - null if there is no project with the id
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the period is not a month or quarter of the year
+	 */
+	public UtilizationRollup getProjectRollup(long projectId, int year, String period) throws SQLException {
+		Project project = projectCatalog.findById(projectId);
+		if (project == null) {
+			return null;
+		}
+		return toUtilizationRollup(rollup(PROJECT_LEVEL, projectId, year), PROJECT_LEVEL, projectId,
+				project.getProjectName(), year, period);
+	}
+
+	/**
+	 * This method is used to get the rollup of every project
+	 *
+	 * @param year
+	 * @param period
+	 *            - name of a fiscal month or quarter, Q1 to Q4, or null for
+	 *            the whole year
+	 * @return List - one rollup per project
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the period is not a month or quarter of the year
+	 */
+	public List<UtilizationRollup> getProjectRollups(int year, String period) throws SQLException {
+		List<Project> projects = projectCatalog.getProjects();
+		List<UtilizationRollup> projectRollups = new ArrayList<UtilizationRollup>(projects.size());
+		YearAggregates aggregates = yearAggregates(year);
+		// every rollup which is not cached comes from the same build
+		Map<String, Rollup> built = null;
+		for (Project project : projects) {
+			String key = key(PROJECT_LEVEL, project.getProjectId(), year);
+			Rollup rollup = rollups.get(key);
+			if (rollup == null || rollup.aggregates != aggregates) {
+				if (built == null) {
+					built = buildRollups(aggregates);
+				}
+				rollup = built.get(key);
+			}
+			if (rollup == null) {
+				rollup = emptyRollup(aggregates);
+			}
+			projectRollups.add(toUtilizationRollup(rollup, PROJECT_LEVEL, project.getProjectId(),
+					project.getProjectName(), year, period));
+		}
+		return projectRollups;
+	}
+
+	/**
+	 * This method is used to get the rollup of every employee engaged to a
+	 * project
+	 *
+	 * @param year
+	 * @param period
+	 *            - name of a fiscal month or quarter, Q1 to Q4, or null for
+	 *            the whole year
+	 * @return UtilizationRollup
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the period is not a month or quarter of the year
+	 */
+	public UtilizationRollup getAccountRollup(int year, String period) throws SQLException {
+		return toUtilizationRollup(rollup(ACCOUNT_LEVEL, null, year), ACCOUNT_LEVEL, null,
+				OpumConstants.ACCOUNT_NAME, year, period);
+	}
+
+	/**
+	 * This method is used to update the aggregate of an employee after its
+	 * utilization was saved and drop the rollups the employee is a member of
+	 *
+	 * @param utilization
+	 *            - employee id number holds the employee id
+	 */
+	public void utilizationSaved(Utilization utilization) {
+		utilizationsSaved(Collections.singletonList(utilization));
+	}
+
+	/**
+	 * This method is used to update the aggregates of employees after their
+	 * utilization was saved and drop the rollups they are members of
+	 *
+	 * @param utilizations
+	 *            - employee id number of each utilization holds the employee
+	 *            id
+	 */
+	public void utilizationsSaved(List<Utilization> utilizations) {
+		for (Utilization utilization : utilizations) {
+			int employeeId;
+			int year;
+			try {
+				employeeId = Integer.parseInt(utilization.getEmployeeIdNumber());
+				year = Integer.parseInt(utilization.getYear());
+			} catch (NumberFormatException e) {
+				continue;
+			}
+			invalidations.incrementAndGet();
+			Map<Integer, Utilization> saved = savedWhileReading.get(year);
+			if (saved != null) {
+				saved.put(employeeId, utilization);
+			}
+			if (years.containsKey(year)) {
+				UtilizationYear utilizationYear = JsonToJavaUtil.JsonToJava(utilization.getUtilizationJson(),
+						UtilizationYear.class);
+				synchronized (this) {
+					YearAggregates aggregates = years.get(year);
+					if (aggregates != null) {
+						aggregate(aggregates, employeeId, utilizationYear);
+					}
+				}
+			}
+			Iterator<Rollup> iterator = rollups.values().iterator();
+			while (iterator.hasNext()) {
+				Rollup rollup = iterator.next();
+				if (rollup.aggregates.fiscalYear.getYear() == year && rollup.memberMonths.containsKey(employeeId)) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method is used to drop every rollup after project engagements were
+	 * added or their dates changed
+	 */
+	public void engagementsChanged() {
+		invalidations.incrementAndGet();
+		rollups.clear();
+	}
+
+	private Rollup rollup(String level, Long id, int year) throws SQLException {
+		YearAggregates aggregates = yearAggregates(year);
+		Rollup rollup = rollups.get(key(level, id, year));
+		if (rollup == null || rollup.aggregates != aggregates) {
+			rollup = buildRollups(aggregates).get(key(level, id, year));
+		}
+		if (rollup == null) {
+			rollup = emptyRollup(aggregates);
+		}
+		return rollup;
+	}
+
+	/**
+	 * @return Rollup - rollup of a project without engagements
+	 */
+	private static Rollup emptyRollup(YearAggregates aggregates) {
+		return new Rollup(aggregates, Collections.<Integer, Long> emptyMap(),
+				new Totals(aggregates.fiscalYear.getMonths().size()));
+	}
+
+	/**
+	 * This method is used to replace the aggregate of an employee, or remove
+	 * it when the utilization cannot be read
+	 */
+	private static void aggregate(YearAggregates aggregates, int employeeId, UtilizationYear utilizationYear) {
+		if (utilizationYear == null || utilizationYear.getUtilizationJSON() == null) {
+			aggregates.employees.remove(employeeId);
+		} else {
+			aggregates.employees.put(employeeId, new EmployeeAggregate(aggregates.fiscalYear,
+					aggregates.fiscalYear.getYear(), utilizationYear));
+		}
+	}
+
+	/**
+	 * @return YearAggregates - read again when the fiscal calendar of the year
+	 *         changed
+	 */
+	private YearAggregates yearAggregates(int year) throws SQLException {
+		FiscalYear fiscalYear = fiscalCalendar.getYear(year);
+		YearAggregates aggregates = years.get(year);
+		if (aggregates == null || aggregates.fiscalYear != fiscalYear) {
+			synchronized (this) {
+				aggregates = years.get(year);
+				if (aggregates == null || aggregates.fiscalYear != fiscalYear) {
+					Map<Integer, Utilization> saved = new ConcurrentHashMap<Integer, Utilization>();
+					savedWhileReading.put(year, saved);
+					try {
+						aggregates = readYear(fiscalYear);
+						years.put(year, aggregates);
+					} finally {
+						savedWhileReading.remove(year);
+					}
+					// a save which missed the new aggregates is applied here, one which
+					// sees them waits for this lock and applies itself after
+					for (Map.Entry<Integer, Utilization> utilization : saved.entrySet()) {
+						aggregate(aggregates, utilization.getKey(), JsonToJavaUtil
+								.JsonToJava(utilization.getValue().getUtilizationJson(), UtilizationYear.class));
+					}
+				}
+			}
+		}
+		return aggregates;
+	}
+
+	private YearAggregates readYear(final FiscalYear fiscalYear) throws SQLException {
+		final YearAggregates aggregates = new YearAggregates(fiscalYear);
+		final int year = fiscalYear.getYear();
+		try (Stream<Utilization> utilizations = utilizationEngagementRepository
+				.streamUtilizations(String.valueOf(year))) {
+			// rows are read in order, parsing runs in parallel
+			utilizations.parallel().forEach(new Consumer<Utilization>() {
+				@Override
+				public void accept(Utilization utilization) {
+					UtilizationYear utilizationYear = JsonToJavaUtil.JsonToJava(utilization.getUtilizationJson(),
+							UtilizationYear.class);
+					if (utilizationYear != null && utilizationYear.getUtilizationJSON() != null) {
+						aggregates.employees.put(Integer.valueOf(utilization.getEmployeeIdNumber()),
+								new EmployeeAggregate(fiscalYear, year, utilizationYear));
+					}
+				}
+			});
+		}
+		logger.info("Utilization of " + aggregates.employees.size() + " employee/s aggregated for " + year);
+		return aggregates;
+	}
+
+	/**
+	 * This method is used to merge the rollup of every project and of the
+	 * account of a year from one read of the project engagements
+	 *
+	 * @return Map - rollup by key
+	 */
+	private Map<String, Rollup> buildRollups(YearAggregates aggregates) throws SQLException {
+		long invalidationsAtStart = invalidations.get();
+		int year = aggregates.fiscalYear.getYear();
+		List<Period> months = aggregates.fiscalYear.getMonths();
+		Map<Integer, Map<Integer, Long>> projectMembers = new HashMap<Integer, Map<Integer, Long>>();
+		Map<Integer, Long> accountMembers = new HashMap<Integer, Long>();
+		try (Stream<ProjectEngagement> projectEngagements = projectEngagementRepository.streamProjectEngagements()) {
+			Iterator<ProjectEngagement> iterator = projectEngagements.iterator();
+			while (iterator.hasNext()) {
+				ProjectEngagement projectEngagement = iterator.next();
+				long engagedMonths = engagedMonths(months, projectEngagement.getStartDate(),
+						projectEngagement.getEndDate());
+				if (engagedMonths == 0) {
+					continue;
+				}
+				Map<Integer, Long> members = projectMembers.get(projectEngagement.getProjectId());
+				if (members == null) {
+					members = new HashMap<Integer, Long>();
+					projectMembers.put(projectEngagement.getProjectId(), members);
+				}
+				addMonths(members, projectEngagement.getEmployeeId(), engagedMonths);
+				addMonths(accountMembers, projectEngagement.getEmployeeId(), engagedMonths);
+			}
+		}
+		Map<String, Rollup> built = new HashMap<String, Rollup>(projectMembers.size() * 2 + 2);
+		for (Map.Entry<Integer, Map<Integer, Long>> members : projectMembers.entrySet()) {
+			built.put(key(PROJECT_LEVEL, members.getKey().longValue(), year), merge(aggregates, members.getValue()));
+		}
+		built.put(key(ACCOUNT_LEVEL, null, year), merge(aggregates, accountMembers));
+		if (invalidations.get() == invalidationsAtStart) {
+			rollups.putAll(built);
+		}
+		return built;
+	}
+
+	private Rollup merge(final YearAggregates aggregates, final Map<Integer, Long> memberMonths) {
+		final int months = aggregates.fiscalYear.getMonths().size();
+		int[] employeeIds = new int[memberMonths.size()];
+		int i = 0;
+		for (Integer employeeId : memberMonths.keySet()) {
+			employeeIds[i++] = employeeId;
+		}
+		IntStream members = IntStream.of(employeeIds);
+		if (employeeIds.length >= PARALLEL_MEMBERS) {
+			members = members.parallel();
+		}
+		Totals totals = members.collect(new Supplier<Totals>() {
+			@Override
+			public Totals get() {
+				return new Totals(months);
+			}
+		}, new ObjIntConsumer<Totals>() {
+			@Override
+			public void accept(Totals totals, int employeeId) {
+				EmployeeAggregate aggregate = aggregates.employees.get(employeeId);
+				if (aggregate != null) {
+					totals.add(aggregate, memberMonths.get(employeeId));
+				}
+			}
+		}, new BiConsumer<Totals, Totals>() {
+			@Override
+			public void accept(Totals totals, Totals other) {
+				totals.merge(other);
+			}
+		});
+		return new Rollup(aggregates, memberMonths, totals);
+	}
+
+	private UtilizationRollup toUtilizationRollup(Rollup rollup, String level, Long id, String name, int year,
+			String period) throws SQLException {
+		FiscalYear fiscalYear = rollup.aggregates.fiscalYear;
+		List<Period> months = fiscalYear.getMonths();
+		long periodMonths = periodMonths(fiscalYear, period);
+		double totalHours = 0;
+		double availableHours = 0;
+		double vl = 0;
+		double sl = 0;
+		double ol = 0;
+		for (int month = 0; month < months.size(); month++) {
+			if ((periodMonths & (1L << month)) != 0) {
+				totalHours += rollup.totals.hours[month];
+				vl += rollup.totals.vl[month];
+				sl += rollup.totals.sl[month];
+				ol += rollup.totals.ol[month];
+				availableHours += rollup.totals.members[month] * holidayCalendar
+						.workingDaysBetween(months.get(month).getStart(), months.get(month).getEnd())
+						* OpumConstants.WORKING_HOURS_PER_DAY;
+			}
+		}
+		int members = 0;
+		for (Map.Entry<Integer, Long> member : rollup.memberMonths.entrySet()) {
+			if ((member.getValue() & periodMonths) != 0 && rollup.aggregates.employees.containsKey(member.getKey())) {
+				members++;
+			}
+		}
+		DecimalFormat formatter = new DecimalFormat("#0.00");
+		UtilizationRollup utilizationRollup = new UtilizationRollup(level, id, name, year,
+				period == null || period.trim().isEmpty() ? String.valueOf(year) : period.trim());
+		utilizationRollup.setMembers(members);
+		utilizationRollup.setTotalHours(totalHours);
+		utilizationRollup.setNumberOfAvailableHours(availableHours);
+		utilizationRollup.setNumberOfVL(vl);
+		utilizationRollup.setNumberOfSL(sl);
+		utilizationRollup.setNumberOfOL(ol);
+		utilizationRollup.setUtilization(Double
+				.parseDouble(formatter.format(availableHours == 0 ? 0 : (totalHours / availableHours) * 100)));
+		return utilizationRollup;
+	}
+
+	/**
+	 * @return long - fiscal months of the period as bits
+	 * @throws IllegalArgumentException
+	 *             when the period is not a month or quarter of the year
+	 */
+	private static long periodMonths(FiscalYear fiscalYear, String period) {
+		List<Period> months = fiscalYear.getMonths();
+		if (period == null || period.trim().isEmpty()) {
+			return (1L << months.size()) - 1;
+		}
+		String name = period.trim();
+		for (int month = 0; month < months.size(); month++) {
+			if (name.equalsIgnoreCase(months.get(month).getName())) {
+				return 1L << month;
+			}
+		}
+		List<Period> quarters = fiscalYear.getQuarters();
+		for (int quarter = 0; quarter < quarters.size(); quarter++) {
+			if (name.equalsIgnoreCase(quarters.get(quarter).getName()) || name.equalsIgnoreCase("Q" + (quarter + 1))) {
+				long quarterMonths = 0;
+				for (int month = 0; month < months.size(); month++) {
+					int dayIndex = fiscalYear.dayIndex(months.get(month).getStart());
+					if (dayIndex >= 0 && fiscalYear.quarterOf(dayIndex) == quarter) {
+						quarterMonths |= 1L << month;
+					}
+				}
+				return quarterMonths;
+			}
+		}
+		throw new IllegalArgumentException(OpumConstants.INVALID_PERIOD);
+	}
+
+	/**
+	 * @return long - fiscal months overlapped by the engagement as bits, an
+	 *         engagement without an end date is still running
+	 */
+	private static long engagedMonths(List<Period> months, Date startDate, Date endDate) {
+		LocalDate start = startDate == null ? null : startDate.toLocalDate();
+		LocalDate end = endDate == null ? null : endDate.toLocalDate();
+		long engagedMonths = 0;
+		for (int month = 0; month < months.size(); month++) {
+			Period period = months.get(month);
+			if ((start == null || !start.isAfter(period.getEnd())) && (end == null || !end.isBefore(period.getStart()))) {
+				engagedMonths |= 1L << month;
+			}
+		}
+		return engagedMonths;
+	}
+
+	private static void addMonths(Map<Integer, Long> members, int employeeId, long months) {
+		Long previous = members.get(employeeId);
+		members.put(employeeId, previous == null ? months : previous | months);
+	}
+
+	private static String key(String level, Long id, int year) {
+		return level + ":" + id + ":" + year;
+	}
+}
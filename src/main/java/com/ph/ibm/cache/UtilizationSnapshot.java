@@ -0,0 +1,359 @@
+package com.ph.ibm.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.ph.ibm.bo.TimeAwayTokens;
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.model.UtilizationJson;
+import com.ph.ibm.model.UtilizationYear;
+import com.ph.ibm.util.JsonToJavaUtil;
+import com.ph.ibm.util.OpumConstants;
+
+/**
+ * This class reads the utilization of every employee for an archived year
+ * from a binary file mapped into memory, without a query or JSON parsing. The
+ * file is a header, an offset table sorted by employee id and the days of
+ * each employee, all big-endian:
+ *
+ * <pre>
+ * header  magic, version, year, days in the year, employees, employees kept
+ *         as JSON - int each
+ *         first day of the year as epoch day - long
+ * offsets employee id, format, offset, length - int each, one per employee
+ * days    packed - one short per day of the year
+ *         JSON   - utilization JSON in UTF-8
+ * </pre>
+ *
+ * A packed day is {@link #NO_ENTRY}, {@link #NO_HOURS}, {@link #TOKEN_BASE}
+ * plus the ordinal of a time away token, or {@link #HOURS_BASE} plus the
+ * hours in hundredths. Utilization which does not read back exactly as it was
+ * saved, like hours written as "8.0" or days out of order, is kept as JSON.
+ * Lookups use absolute reads only, so one snapshot is shared by all threads
+ */
+public final class UtilizationSnapshot {
+
+	static final int MAGIC = 0x4F50554D;
+
+	static final int VERSION = 1;
+
+	private static final int HEADER_BYTES = 32;
+
+	private static final int ENTRY_BYTES = 16;
+
+	private static final int PACKED = 0;
+
+	private static final int JSON = 1;
+
+	private static final short NO_ENTRY = 0;
+
+	private static final short NO_HOURS = 1;
+
+	private static final int TOKEN_BASE = 2;
+
+	private static final int HOURS_BASE = 100;
+
+	private static final int MAX_HUNDREDTHS = OpumConstants.MAX_UTILIZATION_HOURS * 100;
+
+	/** Days of an archived year cannot be edited */
+	private static final String EDITABLE = "D";
+
+	private static final TimeAwayTokens[] TOKENS = TimeAwayTokens.values();
+
+	/** Hours as saved for each number of hundredths */
+	private static final String[] HOURS = new String[MAX_HUNDREDTHS + 1];
+
+	static {
+		for (int hundredths = 0; hundredths <= MAX_HUNDREDTHS; hundredths++) {
+			HOURS[hundredths] = BigDecimal.valueOf(hundredths, 2).stripTrailingZeros().toPlainString();
+		}
+	}
+
+	private final MappedByteBuffer buffer;
+
+	private final int year;
+
+	private final int employees;
+
+	private final int dayCount;
+
+	/** Month, day of month and day of week of each day of the year */
+	private final byte[] months;
+	private final byte[] daysOfMonth;
+	private final byte[] daysOfWeek;
+
+	private UtilizationSnapshot(MappedByteBuffer buffer, int year, int employees, int dayCount, long firstDay) {
+		this.buffer = buffer;
+		this.year = year;
+		this.employees = employees;
+		this.dayCount = dayCount;
+		this.months = new byte[dayCount];
+		this.daysOfMonth = new byte[dayCount];
+		this.daysOfWeek = new byte[dayCount];
+		LocalDate date = LocalDate.ofEpochDay(firstDay);
+		for (int day = 0; day < dayCount; day++) {
+			months[day] = (byte) date.getMonthValue();
+			daysOfMonth[day] = (byte) date.getDayOfMonth();
+			// day of week 1 is sunday up to 7 which is saturday
+			daysOfWeek[day] = (byte) (date.getDayOfWeek().getValue() % 7 + 1);
+			date = date.plusDays(1);
+		}
+	}
+
+	/**
+	 * @return int - year of the snapshot
+	 */
+	public int getYear() {
+		return year;
+	}
+
+	/**
+	 * @return int - number of employees with utilization in the year
+	 */
+	public int size() {
+		return employees;
+	}
+
+	/**
+	 * This method is used to get the utilization of an employee
+	 *
+	 * @param employeeId
+	 * @return UtilizationYear - null if the employee has no utilization in the
+	 *         year
+	 */
+	public UtilizationYear getUtilizationYear(int employeeId) {
+		int entry = find(employeeId);
+		if (entry < 0) {
+			return null;
+		}
+		int position = HEADER_BYTES + entry * ENTRY_BYTES;
+		int format = buffer.getInt(position + 4);
+		int offset = buffer.getInt(position + 8);
+		int length = buffer.getInt(position + 12);
+		if (format == JSON) {
+			byte[] json = new byte[length];
+			ByteBuffer duplicate = buffer.duplicate();
+			duplicate.position(offset);
+			duplicate.get(json);
+			return JsonToJavaUtil.JsonToJava(new String(json, StandardCharsets.UTF_8), UtilizationYear.class);
+		}
+		List<UtilizationJson> utilizationJSON = new ArrayList<UtilizationJson>();
+		for (int day = 0; day < dayCount; day++) {
+			short code = buffer.getShort(offset + day * 2);
+			if (code != NO_ENTRY) {
+				utilizationJSON.add(new UtilizationJson(months[day], daysOfWeek[day], daysOfMonth[day], hours(code),
+						EDITABLE));
+			}
+		}
+		return new UtilizationYear(year, utilizationJSON);
+	}
+
+	private int find(int employeeId) {
+		int low = 0;
+		int high = employees - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleId = buffer.getInt(HEADER_BYTES + middle * ENTRY_BYTES);
+			if (middleId < employeeId) {
+				low = middle + 1;
+			} else if (middleId > employeeId) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	private static String hours(short code) {
+		if (code == NO_HOURS) {
+			return "";
+		}
+		if (code < HOURS_BASE) {
+			return TOKENS[code - TOKEN_BASE].getS();
+		}
+		return HOURS[code - HOURS_BASE];
+	}
+
+	/**
+	 * This method is used to map a snapshot file
+	 *
+	 * @param file
+	 * @param year
+	 * @return UtilizationSnapshot
+	 * @throws IOException
+	 *             when the file is not a complete snapshot of the year
+	 */
+	static UtilizationSnapshot open(Path file, int year) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+				|| buffer.getInt(8) != year) {
+			throw new IOException(file + " is not a utilization snapshot of " + year);
+		}
+		int dayCount = buffer.getInt(12);
+		int employees = buffer.getInt(16);
+		long firstDay = buffer.getLong(24);
+		if (dayCount != LocalDate.ofYearDay(year, 1).lengthOfYear()
+				|| firstDay != LocalDate.ofYearDay(year, 1).toEpochDay()
+				|| (long) HEADER_BYTES + (long) employees * ENTRY_BYTES > buffer.capacity()) {
+			throw new IOException(file + " has an invalid header");
+		}
+		for (int entry = 0; entry < employees; entry++) {
+			int position = HEADER_BYTES + entry * ENTRY_BYTES;
+			int format = buffer.getInt(position + 4);
+			long end = (long) buffer.getInt(position + 8) + buffer.getInt(position + 12);
+			if ((format != PACKED && format != JSON) || end > buffer.capacity()
+					|| (format == PACKED && buffer.getInt(position + 12) != dayCount * 2)) {
+				throw new IOException(file + " is truncated");
+			}
+		}
+		return new UtilizationSnapshot(buffer, year, employees, dayCount, firstDay);
+	}
+
+	/**
+	 * This method is used to write the snapshot file of a year. The file is
+	 * written next to its final name and moved in place when complete
+	 *
+	 * @param file
+	 * @param year
+	 * @param utilizations
+	 *            - employee id number of each utilization holds the employee
+	 *            id
+	 * @return int - number of employees written
+	 * @throws IOException
+	 */
+	static int write(Path file, int year, Iterator<Utilization> utilizations) throws IOException {
+		LocalDate firstDate = LocalDate.ofYearDay(year, 1);
+		int dayCount = firstDate.lengthOfYear();
+		Map<Integer, Object> days = new TreeMap<Integer, Object>();
+		int jsonCounter = 0;
+		while (utilizations.hasNext()) {
+			Utilization utilization = utilizations.next();
+			if (utilization.getUtilizationJson() == null) {
+				continue;
+			}
+			short[] packed = pack(utilization.getUtilizationJson(), year, firstDate, dayCount);
+			if (packed != null) {
+				days.put(Integer.valueOf(utilization.getEmployeeIdNumber()), packed);
+			} else {
+				days.put(Integer.valueOf(utilization.getEmployeeIdNumber()),
+						utilization.getUtilizationJson().getBytes(StandardCharsets.UTF_8));
+				jsonCounter++;
+			}
+		}
+
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(year);
+			output.writeInt(dayCount);
+			output.writeInt(days.size());
+			output.writeInt(jsonCounter);
+			output.writeLong(firstDate.toEpochDay());
+			long offset = HEADER_BYTES + (long) days.size() * ENTRY_BYTES;
+			for (Map.Entry<Integer, Object> employee : days.entrySet()) {
+				int length = employee.getValue() instanceof short[] ? dayCount * 2
+						: ((byte[]) employee.getValue()).length;
+				if (offset + length > Integer.MAX_VALUE) {
+					throw new IOException("Utilization snapshot of " + year + " is too large");
+				}
+				output.writeInt(employee.getKey());
+				output.writeInt(employee.getValue() instanceof short[] ? PACKED : JSON);
+				output.writeInt((int) offset);
+				output.writeInt(length);
+				offset += length;
+			}
+			for (Object employeeDays : days.values()) {
+				if (employeeDays instanceof short[]) {
+					for (short code : (short[]) employeeDays) {
+						output.writeShort(code);
+					}
+				} else {
+					output.write((byte[]) employeeDays);
+				}
+			}
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return days.size();
+	}
+
+	/**
+	 * @return short[] - code of each day, null if the utilization does not
+	 *         read back exactly from codes
+	 */
+	private static short[] pack(String json, int year, LocalDate firstDate, int dayCount) {
+		UtilizationYear utilizationYear = JsonToJavaUtil.JsonToJava(json, UtilizationYear.class);
+		if (utilizationYear == null || utilizationYear.getYear() != year
+				|| utilizationYear.getUtilizationJSON() == null) {
+			return null;
+		}
+		short[] packed = new short[dayCount];
+		int previousDay = -1;
+		for (UtilizationJson utilizationJson : utilizationYear.getUtilizationJSON()) {
+			LocalDate date;
+			try {
+				date = LocalDate.of(year, utilizationJson.getMonth(), utilizationJson.getDayOfMonth());
+			} catch (DateTimeException e) {
+				return null;
+			}
+			int day = (int) (date.toEpochDay() - firstDate.toEpochDay());
+			short code = code(utilizationJson.getUtilizationHours());
+			if (day <= previousDay || code == NO_ENTRY
+					|| utilizationJson.getDay() != date.getDayOfWeek().getValue() % 7 + 1) {
+				return null;
+			}
+			packed[day] = code;
+			previousDay = day;
+		}
+		return packed;
+	}
+
+	/**
+	 * @return short - code of the hours, NO_ENTRY if they have no code
+	 */
+	private static short code(String hours) {
+		if (hours == null) {
+			return NO_ENTRY;
+		}
+		if (hours.isEmpty()) {
+			return NO_HOURS;
+		}
+		for (TimeAwayTokens token : TOKENS) {
+			if (token.getS().equals(hours)) {
+				return (short) (TOKEN_BASE + token.ordinal());
+			}
+		}
+		int hundredths;
+		try {
+			hundredths = new BigDecimal(hours).movePointRight(2).intValueExact();
+		} catch (NumberFormatException | ArithmeticException e) {
+			return NO_ENTRY;
+		}
+		if (hundredths < 0 || hundredths > MAX_HUNDREDTHS || !HOURS[hundredths].equals(hours)) {
+			return NO_ENTRY;
+		}
+		return (short) (HOURS_BASE + hundredths);
+	}
+}
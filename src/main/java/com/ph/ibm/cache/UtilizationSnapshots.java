@@ -0,0 +1,158 @@
+package com.ph.ibm.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.metrics.MetricsRegistry;
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.repository.UtilizationEngagementRepository;
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * This class holds a {@link UtilizationSnapshot} of each archived year, so the
+ * utilization of a year which can no longer change is read from a file mapped
+ * into memory instead of the database. The snapshot of a year is written when
+ * the year is archived, or on first use if its file is missing or invalid. A
+ * year whose snapshot cannot be written is read from the database until
+ * {@link #build(int)} succeeds, it is tried again on the first use after
+ * "opum.snapshot.retry.minutes", by default 10. Files are kept in the
+ * directory named by the "opum.snapshot.dir" system property, by default
+ * opum-snapshots in the temporary directory
+ */
+public class UtilizationSnapshots {
+
+	private static final String DIRECTORY_PROPERTY = "opum.snapshot.dir";
+
+	private static final long DEFAULT_RETRY_MINUTES = 10;
+
+	private static UtilizationSnapshots utilizationSnapshots = new UtilizationSnapshots(
+			OpumBinder.getRepository(UtilizationEngagementRepository.class),
+			Paths.get(System.getProperty(DIRECTORY_PROPERTY,
+					Paths.get(System.getProperty("java.io.tmpdir"), "opum-snapshots").toString())));
+
+	private Logger logger = Logger.getLogger(UtilizationSnapshots.class);
+
+	private final UtilizationEngagementRepository utilizationEngagementRepository;
+
+	private final Path directory;
+
+	private ArchivedYears archivedYears = ArchivedYears.getInstance();
+
+	private final ConcurrentMap<Integer, UtilizationSnapshot> snapshots = new ConcurrentHashMap<Integer, UtilizationSnapshot>();
+
+	private final long retryNanos = TimeUnit.MINUTES
+			.toNanos(Long.getLong("opum.snapshot.retry.minutes", DEFAULT_RETRY_MINUTES));
+
+	/** Years whose snapshot could not be written, by System.nanoTime to retry at */
+	private final ConcurrentMap<Integer, Long> unavailable = new ConcurrentHashMap<Integer, Long>();
+
+	private UtilizationSnapshots(UtilizationEngagementRepository utilizationEngagementRepository, Path directory) {
+		this.utilizationEngagementRepository = utilizationEngagementRepository;
+		this.directory = directory;
+		MetricsRegistry.getInstance().gauge("opum_cache_size", "Entries held in memory",
+				"cache=\"utilization_snapshot\"", new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						return snapshots.size();
+					}
+				});
+	}
+
+	public static UtilizationSnapshots getInstance() {
+		return utilizationSnapshots;
+	}
+
+	/**
+	 * This method is used to get the snapshot of a year
+	 *
+	 * @param year
+	 * @return UtilizationSnapshot - null if the year is not archived or its
+	 *         snapshot is unavailable, read the database instead
+	 * @throws SQLException
+	 *             if the archived years are not loaded yet and loading fails
+	 */
+	public UtilizationSnapshot getSnapshot(int year) throws SQLException {
+		UtilizationSnapshot snapshot = snapshots.get(year);
+		if (snapshot != null || isUnavailable(year) || !archivedYears.isArchived(year)) {
+			return snapshot;
+		}
+		synchronized (this) {
+			snapshot = snapshots.get(year);
+			if (snapshot == null && !isUnavailable(year)) {
+				try {
+					snapshot = open(year);
+				} catch (IOException | SQLException | IllegalStateException e) {
+					logger.error("Unable to load utilization snapshot of " + year + " due to " + e.getMessage()
+							+ ", retrying in " + TimeUnit.NANOSECONDS.toMinutes(retryNanos) + " minute/s", e);
+					unavailable.put(year, System.nanoTime() + retryNanos);
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * This method is used to write the snapshot of an archived year again
+	 * from the database and map it
+	 *
+	 * @param year
+	 * @return UtilizationSnapshot
+	 * @throws SQLException
+	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 *             when the year is not archived
+	 */
+	public synchronized UtilizationSnapshot build(int year) throws SQLException, IOException {
+		if (!archivedYears.isArchived(year)) {
+			throw new IllegalArgumentException("Utilization of " + year + " is not archived");
+		}
+		Path file = file(year);
+		int employees;
+		try (Stream<Utilization> utilizations = utilizationEngagementRepository
+				.streamUtilizations(String.valueOf(year))) {
+			employees = UtilizationSnapshot.write(file, year, utilizations.iterator());
+		}
+		UtilizationSnapshot snapshot = UtilizationSnapshot.open(file, year);
+		snapshots.put(year, snapshot);
+		unavailable.remove(year);
+		logger.info("Utilization snapshot of " + year + " written with " + employees + " employee/s to " + file);
+		return snapshot;
+	}
+
+	/**
+	 * @return boolean - true if the snapshot of the year failed and is not to
+	 *         be tried again yet
+	 */
+	private boolean isUnavailable(int year) {
+		Long retryAt = unavailable.get(year);
+		return retryAt != null && System.nanoTime() - retryAt < 0;
+	}
+
+	private UtilizationSnapshot open(int year) throws SQLException, IOException {
+		Path file = file(year);
+		if (Files.isRegularFile(file)) {
+			try {
+				UtilizationSnapshot snapshot = UtilizationSnapshot.open(file, year);
+				snapshots.put(year, snapshot);
+				return snapshot;
+			} catch (IOException e) {
+				logger.warn("Writing utilization snapshot of " + year + " again, " + e.getMessage());
+			}
+		}
+		return build(year);
+	}
+
+	private Path file(int year) {
+		return directory.resolve("utilization-" + year + ".snapshot");
+	}
+}
@@ -0,0 +1,53 @@
+package com.ph.ibm.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request count, error count, in-flight requests and latency of a resource
+ * method
+ */
+public class EndpointMetrics {
+
+	private final LongAdder requests;
+
+	private final LongAdder errors;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final LatencyHistogram latency;
+
+	EndpointMetrics(LongAdder requests, LongAdder errors, LatencyHistogram latency) {
+		this.requests = requests;
+		this.errors = errors;
+		this.latency = latency;
+	}
+
+	/**
+	 * This method is used when the resource method starts
+	 */
+	public void start() {
+		inFlight.incrementAndGet();
+	}
+
+	/**
+	 * This method is used when the response of the resource method was sent
+	 *
+	 * @param nanos
+	 *            - time since the request was received
+	 * @param error
+	 *            - true if the request failed with a server error
+	 */
+	public void finish(long nanos, boolean error) {
+		inFlight.decrementAndGet();
+		requests.increment();
+		if (error) {
+			errors.increment();
+		}
+		latency.record(nanos);
+	}
+
+	int getInFlight() {
+		return inFlight.get();
+	}
+}
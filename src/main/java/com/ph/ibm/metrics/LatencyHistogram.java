@@ -0,0 +1,103 @@
+package com.ph.ibm.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed buckets. Recording is lock free, a single
+ * array slot and two adders are updated per observation. Quantiles are
+ * estimated by linear interpolation inside the bucket they fall in
+ */
+public class LatencyHistogram {
+
+	/** Upper bound of each bucket in seconds, the last bucket is unbounded */
+	static final double[] BUCKET_SECONDS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10,
+			30, 60 };
+
+	private static final long[] BUCKET_NANOS = new long[BUCKET_SECONDS.length];
+
+	static {
+		for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+			BUCKET_NANOS[i] = (long) (BUCKET_SECONDS[i] * TimeUnit.SECONDS.toNanos(1));
+		}
+	}
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_SECONDS.length + 1);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder sumNanos = new LongAdder();
+
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param nanos
+	 *            - observed latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		int bucket = 0;
+		while (bucket < BUCKET_NANOS.length && nanos > BUCKET_NANOS[bucket]) {
+			bucket++;
+		}
+		buckets.incrementAndGet(bucket);
+		count.increment();
+		sumNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public double getSumSeconds() {
+		return sumNanos.sum() / 1e9;
+	}
+
+	public double getMaxSeconds() {
+		return maxNanos.get() / 1e9;
+	}
+
+	/**
+	 * @return long[] - number of observations of each bucket, not cumulative,
+	 *         the last element is the unbounded bucket
+	 */
+	long[] getBucketCounts() {
+		long[] counts = new long[buckets.length()];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buckets.get(i);
+		}
+		return counts;
+	}
+
+	/**
+	 * @param quantile
+	 *            - between 0 and 1
+	 * @return double - estimated latency in seconds, 0 if nothing was recorded
+	 */
+	public double getQuantileSeconds(double quantile) {
+		long[] counts = getBucketCounts();
+		long total = 0;
+		for (long bucketCount : counts) {
+			total += bucketCount;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		double rank = quantile * total;
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0 && cumulative + counts[i] >= rank) {
+				if (i == BUCKET_SECONDS.length) {
+					return getMaxSeconds();
+				}
+				double lower = i == 0 ? 0 : BUCKET_SECONDS[i - 1];
+				double upper = Math.min(BUCKET_SECONDS[i], Math.max(getMaxSeconds(), lower));
+				return lower + (upper - lower) * ((rank - cumulative) / counts[i]);
+			}
+			cumulative += counts[i];
+		}
+		return getMaxSeconds();
+	}
+}
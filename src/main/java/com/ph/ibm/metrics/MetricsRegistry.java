@@ -0,0 +1,224 @@
+package com.ph.ibm.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * This class holds the counters, gauges and latency histograms of the
+ * application and writes them in the Prometheus text exposition format. A
+ * metric is identified by its name and its labels, written as they appear in
+ * the exposition, e.g. workload="export"
+ */
+public class MetricsRegistry {
+
+	private static final double[] QUANTILES = { 0.5, 0.95, 0.99 };
+
+	private static MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+	private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<String, Family>();
+
+	private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<String, EndpointMetrics>();
+
+	/**
+	 * Metrics with the same name and type
+	 */
+	private static final class Family {
+
+		private final String name;
+		private final String help;
+		private final String type;
+		private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<String, Object>();
+
+		private Family(String name, String help, String type) {
+			this.name = name;
+			this.help = help;
+			this.type = type;
+		}
+	}
+
+	private MetricsRegistry() {
+
+	}
+
+	public static MetricsRegistry getInstance() {
+		return metricsRegistry;
+	}
+
+	/**
+	 * @param name
+	 * @param help
+	 * @param labels
+	 *            - empty string for a metric without labels
+	 * @return LongAdder - counter, the same counter is returned for the same
+	 *         name and labels
+	 */
+	public LongAdder counter(String name, String help, String labels) {
+		return (LongAdder) metric(name, help, "counter", labels, new LongAdder());
+	}
+
+	/**
+	 * @param name
+	 * @param help
+	 * @param labels
+	 *            - empty string for a metric without labels
+	 * @return LatencyHistogram - histogram in seconds, the same histogram is
+	 *         returned for the same name and labels
+	 */
+	public LatencyHistogram histogram(String name, String help, String labels) {
+		return (LatencyHistogram) metric(name, help, "histogram", labels, new LatencyHistogram());
+	}
+
+	/**
+	 * This method is used to register a value which is read on every scrape,
+	 * a gauge registered again replaces the previous one
+	 *
+	 * @param name
+	 * @param help
+	 * @param labels
+	 *            - empty string for a metric without labels
+	 * @param value
+	 */
+	public void gauge(String name, String help, String labels, DoubleSupplier value) {
+		family(name, help, "gauge").metrics.put(labels, value);
+	}
+
+	/**
+	 * @param method
+	 *            - name of the resource method, e.g.
+	 *            OnlinePUMResource.getComputation
+	 * @return EndpointMetrics - metrics of the resource method
+	 */
+	public EndpointMetrics endpoint(String method) {
+		EndpointMetrics endpointMetrics = endpoints.get(method);
+		if (endpointMetrics == null) {
+			final String labels = "method=\"" + escape(method) + "\"";
+			endpointMetrics = new EndpointMetrics(
+					counter("opum_http_requests_total", "Requests served by resource method", labels),
+					counter("opum_http_request_errors_total", "Requests which failed with a server error", labels),
+					histogram("opum_http_request_duration_seconds", "Request latency by resource method", labels));
+			EndpointMetrics existing = endpoints.putIfAbsent(method, endpointMetrics);
+			if (existing != null) {
+				endpointMetrics = existing;
+			} else {
+				final EndpointMetrics registered = endpointMetrics;
+				gauge("opum_http_requests_in_flight", "Requests being served by resource method", labels,
+						new DoubleSupplier() {
+							@Override
+							public double getAsDouble() {
+								return registered.getInFlight();
+							}
+						});
+			}
+		}
+		return endpointMetrics;
+	}
+
+	/**
+	 * @return String - all metrics in the Prometheus text exposition format
+	 */
+	public String scrape() {
+		StringBuilder text = new StringBuilder(8192);
+		for (Family family : new TreeMap<String, Family>(families).values()) {
+			Map<String, Object> metrics = new TreeMap<String, Object>(family.metrics);
+			header(text, family.name, family.help, family.type);
+			for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+				String labels = metric.getKey();
+				Object value = metric.getValue();
+				if (value instanceof LongAdder) {
+					sample(text, family.name, labels, ((LongAdder) value).sum());
+				} else if (value instanceof DoubleSupplier) {
+					sample(text, family.name, labels, ((DoubleSupplier) value).getAsDouble());
+				} else {
+					writeHistogram(text, family.name, labels, (LatencyHistogram) value);
+				}
+			}
+			if ("histogram".equals(family.type)) {
+				writeSummaryGauges(text, family, metrics);
+			}
+		}
+		return text.toString();
+	}
+
+	private void writeHistogram(StringBuilder text, String name, String labels, LatencyHistogram histogram) {
+		long[] counts = histogram.getBucketCounts();
+		String separator = labels.isEmpty() ? "" : labels + ",";
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; i++) {
+			cumulative += counts[i];
+			String le = i < LatencyHistogram.BUCKET_SECONDS.length ? format(LatencyHistogram.BUCKET_SECONDS[i])
+					: "+Inf";
+			sample(text, name + "_bucket", separator + "le=\"" + le + "\"", cumulative);
+		}
+		sample(text, name + "_sum", labels, histogram.getSumSeconds());
+		sample(text, name + "_count", labels, cumulative);
+	}
+
+	private void writeSummaryGauges(StringBuilder text, Family family, Map<String, Object> metrics) {
+		header(text, family.name + "_max", "Maximum of " + family.help.toLowerCase(), "gauge");
+		for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+			sample(text, family.name + "_max", metric.getKey(), ((LatencyHistogram) metric.getValue()).getMaxSeconds());
+		}
+		header(text, family.name + "_quantile", "Estimated quantiles of " + family.help.toLowerCase(), "gauge");
+		for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+			LatencyHistogram histogram = (LatencyHistogram) metric.getValue();
+			String separator = metric.getKey().isEmpty() ? "" : metric.getKey() + ",";
+			for (double quantile : QUANTILES) {
+				sample(text, family.name + "_quantile", separator + "quantile=\"" + format(quantile) + "\"",
+						histogram.getQuantileSeconds(quantile));
+			}
+		}
+	}
+
+	private Object metric(String name, String help, String type, String labels, Object metric) {
+		Family family = family(name, help, type);
+		Object existing = family.metrics.putIfAbsent(labels, metric);
+		return existing != null ? existing : metric;
+	}
+
+	private Family family(String name, String help, String type) {
+		Family family = families.get(name);
+		if (family == null) {
+			family = new Family(name, help, type);
+			Family existing = families.putIfAbsent(name, family);
+			if (existing != null) {
+				family = existing;
+			}
+		}
+		if (!family.type.equals(type)) {
+			throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+		}
+		return family;
+	}
+
+	private static void header(StringBuilder text, String name, String help, String type) {
+		text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(StringBuilder text, String name, String labels, double value) {
+		text.append(name);
+		if (!labels.isEmpty()) {
+			text.append('{').append(labels).append('}');
+		}
+		text.append(' ').append(format(value)).append('\n');
+	}
+
+	private static String format(double value) {
+		if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+			return Long.toString((long) value);
+		}
+		return Double.toString(value);
+	}
+
+	/**
+	 * @param value
+	 * @return String - value escaped to be used as a label value
+	 */
+	public static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
@@ -17,6 +17,10 @@ public class Employee extends BaseAuditBean{
 	private String password;
 	private boolean isActive;
 	private Utilization utilization;
+	private int employeeId;
+	private String employeeIdNumber;
+	private String email;
+	private boolean isAdmin;
 
 	public Employee() {
 		super();
@@ -118,4 +122,35 @@ public class Employee extends BaseAuditBean{
 		this.utilization = utilization;
 	}
 
+	public int getEmployeeId() {
+		return employeeId;
+	}
+
+	public void setEmployeeId(int employeeId) {
+		this.employeeId = employeeId;
+	}
+
+	public String getEmployeeIdNumber() {
+		return employeeIdNumber;
+	}
+
+	public void setEmployeeIdNumber(String employeeIdNumber) {
+		this.employeeIdNumber = employeeIdNumber;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+	public boolean isAdmin() {
+		return isAdmin;
+	}
+
+	public void setAdmin(boolean isAdmin) {
+		this.isAdmin = isAdmin;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.ph.ibm.model;
+
+public class EmployeeIdentity {
+
+	private int employeeId;
+	private String employeeIdNumber;
+	private String email;
+
+	public EmployeeIdentity() {
+
+	}
+
+	public EmployeeIdentity(int employeeId, String employeeIdNumber, String email) {
+		super();
+		this.employeeId = employeeId;
+		this.employeeIdNumber = employeeIdNumber;
+		this.email = email;
+	}
+
+	public int getEmployeeId() {
+		return employeeId;
+	}
+
+	public void setEmployeeId(int employeeId) {
+		this.employeeId = employeeId;
+	}
+
+	public String getEmployeeIdNumber() {
+		return employeeIdNumber;
+	}
+
+	public void setEmployeeIdNumber(String employeeIdNumber) {
+		this.employeeIdNumber = employeeIdNumber;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.ph.ibm.model;
+
+public class EmployeeSearchResult {
+
+	private int employeeId;
+	private String employeeIdNumber;
+	private String fullName;
+	private String email;
+	private boolean isActive;
+	private double score;
+
+	public EmployeeSearchResult() {
+
+	}
+
+	public EmployeeSearchResult(int employeeId, String employeeIdNumber, String fullName, String email,
+			boolean isActive, double score) {
+		super();
+		this.employeeId = employeeId;
+		this.employeeIdNumber = employeeIdNumber;
+		this.fullName = fullName;
+		this.email = email;
+		this.isActive = isActive;
+		this.score = score;
+	}
+
+	public int getEmployeeId() {
+		return employeeId;
+	}
+
+	public void setEmployeeId(int employeeId) {
+		this.employeeId = employeeId;
+	}
+
+	public String getEmployeeIdNumber() {
+		return employeeIdNumber;
+	}
+
+	public void setEmployeeIdNumber(String employeeIdNumber) {
+		this.employeeIdNumber = employeeIdNumber;
+	}
+
+	public String getFullName() {
+		return fullName;
+	}
+
+	public void setFullName(String fullName) {
+		this.fullName = fullName;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+	public boolean isActive() {
+		return isActive;
+	}
+
+	public void setActive(boolean isActive) {
+		this.isActive = isActive;
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	public void setScore(double score) {
+		this.score = score;
+	}
+
+}
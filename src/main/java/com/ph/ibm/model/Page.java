@@ -0,0 +1,43 @@
+package com.ph.ibm.model;
+
+import java.util.List;
+
+/**
+ * One page of a listing. The next page is requested with the next cursor,
+ * which is null on the last page
+ *
+ * @param <T>
+ *            - type of the listed rows
+ */
+public class Page<T> {
+
+	private List<T> items;
+	private String nextCursor;
+
+	public Page() {
+
+	}
+
+	public Page(List<T> items, String nextCursor) {
+		super();
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+}
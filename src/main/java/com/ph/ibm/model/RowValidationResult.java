@@ -0,0 +1,53 @@
+package com.ph.ibm.model;
+
+import java.util.List;
+
+public class RowValidationResult {
+
+	private int rowNumber;
+	private List<FieldError> errors;
+
+	public RowValidationResult() {
+
+	}
+
+	public RowValidationResult(int rowNumber, List<FieldError> errors) {
+		super();
+		this.rowNumber = rowNumber;
+		this.errors = errors;
+	}
+
+	public int getRowNumber() {
+		return rowNumber;
+	}
+
+	public void setRowNumber(int rowNumber) {
+		this.rowNumber = rowNumber;
+	}
+
+	public List<FieldError> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<FieldError> errors) {
+		this.errors = errors;
+	}
+
+	public boolean isValid() {
+		return errors == null || errors.isEmpty();
+	}
+
+	/**
+	 * @return String - messages of all errors of the row
+	 */
+	public String getErrorMessage() {
+		StringBuilder errorMessage = new StringBuilder();
+		if (errors != null) {
+			for (FieldError error : errors) {
+				errorMessage.append(error.getMessage());
+			}
+		}
+		return errorMessage.toString();
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.ph.ibm.model;
+
+public class SessionToken {
+
+	private String tokenId;
+	private int employeeId;
+	private String employeeIdNumber;
+	private boolean isAdmin;
+	private long expiresAt;
+
+	public SessionToken() {
+
+	}
+
+	public SessionToken(String tokenId, int employeeId, String employeeIdNumber, boolean isAdmin, long expiresAt) {
+		super();
+		this.tokenId = tokenId;
+		this.employeeId = employeeId;
+		this.employeeIdNumber = employeeIdNumber;
+		this.isAdmin = isAdmin;
+		this.expiresAt = expiresAt;
+	}
+
+	public String getTokenId() {
+		return tokenId;
+	}
+
+	public void setTokenId(String tokenId) {
+		this.tokenId = tokenId;
+	}
+
+	public int getEmployeeId() {
+		return employeeId;
+	}
+
+	public void setEmployeeId(int employeeId) {
+		this.employeeId = employeeId;
+	}
+
+	public String getEmployeeIdNumber() {
+		return employeeIdNumber;
+	}
+
+	public void setEmployeeIdNumber(String employeeIdNumber) {
+		this.employeeIdNumber = employeeIdNumber;
+	}
+
+	public boolean isAdmin() {
+		return isAdmin;
+	}
+
+	public void setAdmin(boolean isAdmin) {
+		this.isAdmin = isAdmin;
+	}
+
+	public long getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(long expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+}
@@ -4,6 +4,7 @@ public class Utilization extends BaseAuditBean{
 	
 	private Long utilizationId;
 	private String employeeSerial;
+	private String employeeIdNumber;
 	private String year;
 	private String utilizationJson;
 	
@@ -19,6 +20,13 @@ public class Utilization extends BaseAuditBean{
 		this.utilizationJson = utilizationJson;
 	}
 
+	public Utilization(String employeeIdNumber, String year, String utilizationJson) {
+		super();
+		this.employeeIdNumber = employeeIdNumber;
+		this.year = year;
+		this.utilizationJson = utilizationJson;
+	}
+
 	public Long getUtilizationId() {
 		return utilizationId;
 	}
@@ -35,6 +43,14 @@ public class Utilization extends BaseAuditBean{
 		this.employeeSerial = employeeSerial;
 	}
 
+	public String getEmployeeIdNumber() {
+		return employeeIdNumber;
+	}
+
+	public void setEmployeeIdNumber(String employeeIdNumber) {
+		this.employeeIdNumber = employeeIdNumber;
+	}
+
 	public String getYear() {
 		return year;
 	}
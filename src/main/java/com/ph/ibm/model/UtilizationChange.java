@@ -0,0 +1,77 @@
+package com.ph.ibm.model;
+
+import java.util.List;
+
+public class UtilizationChange {
+
+	private long sequence;
+	private int employeeId;
+	private int year;
+	private List<UtilizationDayChange> days;
+	private String changedBy;
+	private String changeDate;
+
+	public UtilizationChange() {
+
+	}
+
+	public UtilizationChange(long sequence, int employeeId, int year, List<UtilizationDayChange> days,
+			String changedBy, String changeDate) {
+		super();
+		this.sequence = sequence;
+		this.employeeId = employeeId;
+		this.year = year;
+		this.days = days;
+		this.changedBy = changedBy;
+		this.changeDate = changeDate;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+
+	public int getEmployeeId() {
+		return employeeId;
+	}
+
+	public void setEmployeeId(int employeeId) {
+		this.employeeId = employeeId;
+	}
+
+	public int getYear() {
+		return year;
+	}
+
+	public void setYear(int year) {
+		this.year = year;
+	}
+
+	public List<UtilizationDayChange> getDays() {
+		return days;
+	}
+
+	public void setDays(List<UtilizationDayChange> days) {
+		this.days = days;
+	}
+
+	public String getChangedBy() {
+		return changedBy;
+	}
+
+	public void setChangedBy(String changedBy) {
+		this.changedBy = changedBy;
+	}
+
+	public String getChangeDate() {
+		return changeDate;
+	}
+
+	public void setChangeDate(String changeDate) {
+		this.changeDate = changeDate;
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.ph.ibm.model;
+
+import java.util.List;
+
+/**
+ * Utilization changed since a token. The changes after the returned token are
+ * requested with it, also when there are no more changes for now
+ */
+public class UtilizationChanges {
+
+	private List<UtilizationChange> changes;
+	private String token;
+	private boolean more;
+
+	public UtilizationChanges() {
+
+	}
+
+	public UtilizationChanges(List<UtilizationChange> changes, String token, boolean more) {
+		super();
+		this.changes = changes;
+		this.token = token;
+		this.more = more;
+	}
+
+	public List<UtilizationChange> getChanges() {
+		return changes;
+	}
+
+	public void setChanges(List<UtilizationChange> changes) {
+		this.changes = changes;
+	}
+
+	public String getToken() {
+		return token;
+	}
+
+	public void setToken(String token) {
+		this.token = token;
+	}
+
+	public boolean isMore() {
+		return more;
+	}
+
+	public void setMore(boolean more) {
+		this.more = more;
+	}
+
+}
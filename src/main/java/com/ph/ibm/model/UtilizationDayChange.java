@@ -0,0 +1,54 @@
+package com.ph.ibm.model;
+
+public class UtilizationDayChange {
+
+	private int month;
+	private int dayOfMonth;
+	private String oldHours;
+	private String newHours;
+
+	public UtilizationDayChange() {
+
+	}
+
+	public UtilizationDayChange(int month, int dayOfMonth, String oldHours, String newHours) {
+		super();
+		this.month = month;
+		this.dayOfMonth = dayOfMonth;
+		this.oldHours = oldHours;
+		this.newHours = newHours;
+	}
+
+	public int getMonth() {
+		return month;
+	}
+
+	public void setMonth(int month) {
+		this.month = month;
+	}
+
+	public int getDayOfMonth() {
+		return dayOfMonth;
+	}
+
+	public void setDayOfMonth(int dayOfMonth) {
+		this.dayOfMonth = dayOfMonth;
+	}
+
+	public String getOldHours() {
+		return oldHours;
+	}
+
+	public void setOldHours(String oldHours) {
+		this.oldHours = oldHours;
+	}
+
+	public String getNewHours() {
+		return newHours;
+	}
+
+	public void setNewHours(String newHours) {
+		this.newHours = newHours;
+	}
+
+}
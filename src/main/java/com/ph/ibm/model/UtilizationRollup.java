@@ -0,0 +1,127 @@
+package com.ph.ibm.model;
+
+public class UtilizationRollup {
+
+	private String level;
+	private Long id;
+	private String name;
+	private int year;
+	private String period;
+	private int members;
+	private double totalHours;
+	private double numberOfAvailableHours;
+	private double numberOfVL;
+	private double numberOfSL;
+	private double numberOfOL;
+	private double utilization;
+
+	public UtilizationRollup() {
+
+	}
+
+	public UtilizationRollup(String level, Long id, String name, int year, String period) {
+		super();
+		this.level = level;
+		this.id = id;
+		this.name = name;
+		this.year = year;
+		this.period = period;
+	}
+
+	public String getLevel() {
+		return level;
+	}
+
+	public void setLevel(String level) {
+		this.level = level;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getYear() {
+		return year;
+	}
+
+	public void setYear(int year) {
+		this.year = year;
+	}
+
+	public String getPeriod() {
+		return period;
+	}
+
+	public void setPeriod(String period) {
+		this.period = period;
+	}
+
+	public int getMembers() {
+		return members;
+	}
+
+	public void setMembers(int members) {
+		this.members = members;
+	}
+
+	public double getTotalHours() {
+		return totalHours;
+	}
+
+	public void setTotalHours(double totalHours) {
+		this.totalHours = totalHours;
+	}
+
+	public double getNumberOfAvailableHours() {
+		return numberOfAvailableHours;
+	}
+
+	public void setNumberOfAvailableHours(double numberOfAvailableHours) {
+		this.numberOfAvailableHours = numberOfAvailableHours;
+	}
+
+	public double getNumberOfVL() {
+		return numberOfVL;
+	}
+
+	public void setNumberOfVL(double numberOfVL) {
+		this.numberOfVL = numberOfVL;
+	}
+
+	public double getNumberOfSL() {
+		return numberOfSL;
+	}
+
+	public void setNumberOfSL(double numberOfSL) {
+		this.numberOfSL = numberOfSL;
+	}
+
+	public double getNumberOfOL() {
+		return numberOfOL;
+	}
+
+	public void setNumberOfOL(double numberOfOL) {
+		this.numberOfOL = numberOfOL;
+	}
+
+	public double getUtilization() {
+		return utilization;
+	}
+
+	public void setUtilization(double utilization) {
+		this.utilization = utilization;
+	}
+
+}
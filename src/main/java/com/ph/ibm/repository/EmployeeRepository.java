@@ -3,9 +3,14 @@ package com.ph.ibm.repository;
 
 import java.sql.BatchUpdateException;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.EmployeeIdentity;
 import com.ph.ibm.model.EmployeeUpdate;
+import com.ph.ibm.model.ProjectEngagement;
 
 /**
  * Data Access Object to employee table
@@ -22,6 +27,81 @@ public interface EmployeeRepository {
 	 */
 	public boolean addData(Employee employee) throws BatchUpdateException, SQLException;
 
+	/**
+	 * This method is used to insert fields into employee and project_engagement
+	 * table in a single transaction using batched inserts
+	 * 
+	 * @param employees
+	 * @param projectEngagements
+	 *            - project engagement of the employee with the same index
+	 * @return int[] - generated employee id of each row, -1 if the row is a
+	 *         duplicate entry
+	 * @throws SQLException
+	 */
+	public int[] addEmployeeProjectEngagements(List<Employee> employees, List<ProjectEngagement> projectEngagements)
+			throws SQLException;
+
+	/**
+	 * This method is used to select the employee id and email of a list of
+	 * employee id numbers
+	 * 
+	 * @param employeeIdNumbers
+	 * @return List - identity of each known employee id number, unknown
+	 *         employee id numbers are not included
+	 * @throws SQLException
+	 */
+	public List<EmployeeIdentity> getEmployeeIdentities(Collection<String> employeeIdNumbers) throws SQLException;
+
+	/**
+	 * This method is used to select the employee id, employee id number and
+	 * email of the most recently added employees
+	 * 
+	 * @param limit
+	 *            - maximum number of employees
+	 * @return List
+	 * @throws SQLException
+	 */
+	public List<EmployeeIdentity> getEmployeeIdentities(int limit) throws SQLException;
+
+	/**
+	 * This method is used to select the employee id number and email of an
+	 * employee id
+	 * 
+	 * @param employeeId
+	 * @return EmployeeIdentity - null if there is no employee with the id
+	 * @throws SQLException
+	 */
+	public EmployeeIdentity getEmployeeIdentity(int employeeId) throws SQLException;
+
+	/**
+	 * This method is used to select a page of employees in the order of their
+	 * employee id
+	 * 
+	 * @param afterEmployeeId
+	 *            - employee id of the last row of the previous page, 0 for
+	 *            the first page
+	 * @param active
+	 *            - null for active and inactive employees
+	 * @param projectId
+	 *            - null for employees of any project, otherwise only
+	 *            employees ever engaged to the project
+	 * @param limit
+	 * @return List of EmployeeIdentity
+	 * @throws SQLException
+	 */
+	public List<EmployeeIdentity> getEmployeeIdentities(int afterEmployeeId, Boolean active, Integer projectId,
+			int limit) throws SQLException;
+
+	/**
+	 * This method is used to read the employee id, employee id number, email,
+	 * full name and status of every employee as the rows arrive from the
+	 * database. The stream holds a connection until it is closed
+	 * 
+	 * @return Stream of Employee
+	 * @throws SQLException
+	 */
+	public Stream<Employee> streamEmployees() throws SQLException;
+
 	/**
 	 * This method is used to update fields from employee table
 	 * 
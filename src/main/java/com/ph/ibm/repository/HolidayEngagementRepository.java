@@ -30,6 +30,21 @@ public interface HolidayEngagementRepository {
 	 */
 	public List<Holiday> getAllHoliday() throws SQLException;
 
+	/**
+	 * This method is used to select a page of holidays in the order of their
+	 * holiday id
+	 * 
+	 * @param afterHolidayId
+	 *            - holiday id of the last row of the previous page, 0 for the
+	 *            first page
+	 * @param year
+	 *            - null for holidays of any year
+	 * @param limit
+	 * @return List
+	 * @throws SQLException
+	 */
+	public List<Holiday> getHolidays(int afterHolidayId, Integer year, int limit) throws SQLException;
+
 	/**
 	 * 
 	 * @param name
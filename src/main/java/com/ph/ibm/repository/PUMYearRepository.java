@@ -29,6 +29,19 @@ public interface PUMYearRepository {
 	 */
 	public List<PUMYear> retrieveYear() throws SQLException;
 
+	/**
+	 * This method is used to select a page of years in the order of their
+	 * year id
+	 * 
+	 * @param afterYearId
+	 *            - year id of the last row of the previous page, 0 for the
+	 *            first page
+	 * @param limit
+	 * @return List of PUMYear
+	 * @throws SQLException
+	 */
+	public List<PUMYear> retrieveYears(int afterYearId, int limit) throws SQLException;
+
 	/**
 	 * 
 	 * 
@@ -52,4 +65,20 @@ public interface PUMYearRepository {
 
 	public boolean saveMonth(PUMMonth pumMonth) throws SQLException, ParseException;
 
+	/**
+	 * This method is used to select all fields from quarter table
+	 * 
+	 * @return List
+	 * @throws SQLException
+	 */
+	public List<PUMQuarter> retrieveQuarters() throws SQLException;
+
+	/**
+	 * This method is used to select all fields from month table
+	 * 
+	 * @return List
+	 * @throws SQLException
+	 */
+	public List<PUMMonth> retrieveMonths() throws SQLException;
+
 }
@@ -2,6 +2,7 @@ package com.ph.ibm.repository;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.ph.ibm.model.ProjectEngagement;
 
@@ -57,4 +58,32 @@ public interface ProjectEngagementRepository {
 	 */
 	public List<ProjectEngagement> getAllProjectEngagement() throws SQLException;
 
+	/**
+	 * This method is used to select a page of project engagements in the
+	 * order of their project engagement id
+	 * 
+	 * @param afterProjectEngagementId
+	 *            - project engagement id of the last row of the previous page,
+	 *            0 for the first page
+	 * @param projectId
+	 *            - null for engagements to any project
+	 * @param employeeId
+	 *            - null for engagements of any employee
+	 * @param limit
+	 * @return List of ProjectEngagement
+	 * @throws SQLException
+	 */
+	public List<ProjectEngagement> getProjectEngagements(int afterProjectEngagementId, Integer projectId,
+			Integer employeeId, int limit) throws SQLException;
+
+	/**
+	 * This method is used to read every project engagement as the rows
+	 * arrive from the database instead of as a list. The stream holds a
+	 * connection until it is closed
+	 * 
+	 * @return Stream of ProjectEngagement
+	 * @throws SQLException
+	 */
+	public Stream<ProjectEngagement> streamProjectEngagements() throws SQLException;
+
 }
\ No newline at end of file
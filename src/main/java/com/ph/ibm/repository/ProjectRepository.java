@@ -18,4 +18,22 @@ public interface ProjectRepository {
 	 */
 	public List<Project> retrieveData() throws SQLException;
 
+	/**
+	 * This method is used to select a version of the project table, the version
+	 * changes when a project is inserted, updated or deleted
+	 * 
+	 * @return String - row count, highest id and latest update date of project
+	 * @throws SQLException
+	 */
+	public String getVersion() throws SQLException;
+
+	/**
+	 * This method is used to insert a project
+	 * 
+	 * @param project
+	 * @return int - generated project id
+	 * @throws SQLException
+	 */
+	public int addProject(Project project) throws SQLException;
+
 }
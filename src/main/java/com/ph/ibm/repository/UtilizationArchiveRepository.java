@@ -0,0 +1,33 @@
+package com.ph.ibm.repository;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Data Access Object to utilization_archive and utilization_archived_year
+ * tables
+ */
+public interface UtilizationArchiveRepository {
+
+	/**
+	 * This method is used to select the years moved to the archive
+	 * 
+	 * @return list of year
+	 * @throws SQLException
+	 */
+	public List<Integer> getArchivedYears() throws SQLException;
+
+	/**
+	 * This method is used to move the utilization of a year from utilization
+	 * table to utilization_archive table and record the year as archived, in
+	 * a single transaction
+	 * 
+	 * @param year
+	 * @param archivedBy
+	 * @return int - number of utilization moved
+	 * @throws SQLException
+	 *             also when the year is archived already
+	 */
+	public int archiveYear(int year, String archivedBy) throws SQLException;
+
+}
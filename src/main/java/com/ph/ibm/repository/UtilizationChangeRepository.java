@@ -0,0 +1,43 @@
+package com.ph.ibm.repository;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.ph.ibm.model.UtilizationChange;
+
+/**
+ * Data Access Object to utilization_change_log table. The changes are
+ * appended by {@link UtilizationEngagementRepository} in the transaction of
+ * the save
+ */
+public interface UtilizationChangeRepository {
+
+	/**
+	 * This method is used to select the changes appended after a sequence
+	 * 
+	 * @param afterSequence
+	 *            - 0 to read from the first change
+	 * @param limit
+	 * @return list of utilization change in ascending sequence
+	 * @throws SQLException
+	 */
+	public List<UtilizationChange> getChanges(long afterSequence, int limit) throws SQLException;
+
+	/**
+	 * This method is used to merge the changes of each employee and year
+	 * appended after a sequence and made before a date into the last of them.
+	 * The merged change keeps the oldest old hours and the newest new hours of
+	 * every day
+	 * 
+	 * @param afterSequence
+	 *            - sequence returned by the previous compaction, 0 to compact
+	 *            the whole log
+	 * @param before
+	 * @return long - sequence of the last change compacted, afterSequence when
+	 *         there is none
+	 * @throws SQLException
+	 */
+	public long compactChanges(long afterSequence, Timestamp before) throws SQLException;
+
+}
@@ -2,6 +2,7 @@ package com.ph.ibm.repository;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.ph.ibm.model.Utilization;
 
@@ -14,11 +15,27 @@ public interface UtilizationEngagementRepository {
 	 * This method is used to insert fields to utilization table
 	 * 
 	 * @param utilization
+	 *            - saved by its updated by or ADMIN when it has none
 	 * @return boolean
 	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when the year is archived
 	 */
 	public boolean saveUtilization(Utilization utilization) throws SQLException;
 
+	/**
+	 * This method is used to insert or update a list of utilization in a
+	 * single transaction using a batched upsert
+	 * 
+	 * @param utilizations
+	 *            - employee id number of each utilization holds the employee
+	 *            id, saved by its updated by or ADMIN when it has none
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             when a year is archived, nothing is saved
+	 */
+	public void saveUtilizations(List<Utilization> utilizations) throws SQLException;
+
 	/**
 	 * This method is used to select fields from utilization table
 	 * 
@@ -52,5 +69,18 @@ public interface UtilizationEngagementRepository {
 	 */
 	public Utilization getComputation(int employeeId, int year) throws SQLException;
 
+	/**
+	 * This method is used to read the utilization of every employee for a
+	 * year as the rows arrive from the database instead of as a list. The
+	 * stream holds a connection until it is closed
+	 * 
+	 * @param year
+	 * @return Stream of Utilization - employee id number holds the employee
+	 *         id and employee serial the employee id number, in no particular
+	 *         order
+	 * @throws SQLException
+	 */
+	public Stream<Utilization> streamUtilizations(String year) throws SQLException;
+
 
 }
@@ -5,15 +5,33 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
 
 import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.EmployeeIdentity;
 import com.ph.ibm.model.EmployeeUpdate;
+import com.ph.ibm.model.ProjectEngagement;
 import com.ph.ibm.repository.EmployeeRepository;
 import com.ph.ibm.resources.ConnectionPool;
 import com.ph.ibm.util.OpumConstants;
 
 public class EmployeeRepositoryImpl implements EmployeeRepository {
 
+	private Logger logger = Logger.getLogger(EmployeeRepositoryImpl.class);
+
+	private static final String INSERT_EMPLOYEE_QUERY = "INSERT INTO EMPLOYEE (EMPLOYEE_ID_NUMBER,EMAIL,FULLNAME,CREATEDBY) VALUES (?,?,?,?)";
+
+	private static final String SELECT_EMPLOYEE_IDENTITY_QUERY = "SELECT EMPLOYEE_ID, EMPLOYEE_ID_NUMBER, EMAIL FROM EMPLOYEE";
+
 	private ConnectionPool connectionPool = ConnectionPool.getInstance();
 	
 	private void closeConnection(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
@@ -28,21 +46,21 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 		PreparedStatement preparedStatement = null;
 		try {
 			connection.setAutoCommit(false);
-			String query = "INSERT INTO EMPLOYEE (" + "EMPLOYEE_ID_NUMBER,EMAIL,FULLNAME,CREATEDATE,CREATEDBY) "
-					+ "VALUES (?,?,?,?,?); ";
-			preparedStatement = connection.prepareStatement(query);
+			// CREATEDATE defaults to the time of the insert
+			preparedStatement = connection.prepareStatement(INSERT_EMPLOYEE_QUERY);
 			preparedStatement.setString(1, employee.getEmployeeIdNumber());
 			preparedStatement.setString(2, employee.getEmail());
 			preparedStatement.setString(3, employee.getFullName());
-			preparedStatement.setString(4, employee.getCreateDate());
-			preparedStatement.setString(5, OpumConstants.ADMIN);
+			preparedStatement.setString(4, OpumConstants.ADMIN);
 			preparedStatement.addBatch();
 			preparedStatement.executeBatch();
 			connection.commit();
-			System.out.println(OpumConstants.INSERTED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.INSERTED_SUCCESS);
+			}
 			preparedStatement.close();
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			try { if(preparedStatement != null) preparedStatement.close();} catch(Exception e) { }
 			try { if(connection != null) connection.close(); } catch(Exception e) { }
@@ -50,6 +68,254 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 		return true;
 	}
 
+	@Override
+	public int[] addEmployeeProjectEngagements(List<Employee> employees, List<ProjectEngagement> projectEngagements)
+			throws SQLException {
+		int[] employeeIds = new int[employees.size()];
+		Connection connection = connectionPool.getConnection();
+		try {
+			connection.setAutoCommit(false);
+			Set<String> existingEmployees = getExistingEmployees(connection, employees);
+			Set<String> seen = new HashSet<String>();
+			List<Integer> rows = new ArrayList<Integer>();
+			for (int i = 0; i < employees.size(); i++) {
+				String key = employees.get(i).getEmployeeIdNumber() + "," + employees.get(i).getEmail();
+				if (existingEmployees.contains(key) || !seen.add(key)) {
+					employeeIds[i] = -1;
+				} else {
+					rows.add(i);
+				}
+			}
+			if (!rows.isEmpty()) {
+				try {
+					insertEmployees(connection, employees, rows, employeeIds);
+				} catch (BatchUpdateException e) {
+					// another upload inserted one of the rows after the duplicate check
+					connection.rollback();
+					rows = insertEmployeesPerRow(connection, employees, rows, employeeIds);
+				}
+				insertProjectEngagements(connection, projectEngagements, rows, employeeIds);
+			}
+			connection.commit();
+			return employeeIds;
+		} catch (SQLException e) {
+			try { connection.rollback(); } catch (Exception ex) { }
+			throw e;
+		} finally {
+			try { if(connection != null) connection.close(); } catch(Exception e) { }
+		}
+	}
+
+	@Override
+	public List<EmployeeIdentity> getEmployeeIdentities(Collection<String> employeeIdNumbers) throws SQLException {
+		List<EmployeeIdentity> employeeIdentities = new ArrayList<EmployeeIdentity>();
+		if (employeeIdNumbers.isEmpty()) {
+			return employeeIdentities;
+		}
+		StringBuilder query = new StringBuilder(SELECT_EMPLOYEE_IDENTITY_QUERY + " WHERE EMPLOYEE_ID_NUMBER IN (");
+		for (int i = 0; i < employeeIdNumbers.size(); i++) {
+			query.append(i == 0 ? "?" : ",?");
+		}
+		query.append(")");
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(query.toString());
+			int index = 1;
+			for (String employeeIdNumber : employeeIdNumbers) {
+				preparedStatement.setString(index++, employeeIdNumber);
+			}
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				employeeIdentities.add(toEmployeeIdentity(resultSet));
+			}
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return employeeIdentities;
+	}
+
+	@Override
+	public List<EmployeeIdentity> getEmployeeIdentities(int limit) throws SQLException {
+		List<EmployeeIdentity> employeeIdentities = new ArrayList<EmployeeIdentity>();
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(SELECT_EMPLOYEE_IDENTITY_QUERY + " ORDER BY EMPLOYEE_ID DESC LIMIT ?");
+			preparedStatement.setInt(1, limit);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				employeeIdentities.add(toEmployeeIdentity(resultSet));
+			}
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return employeeIdentities;
+	}
+
+	@Override
+	public EmployeeIdentity getEmployeeIdentity(int employeeId) throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(SELECT_EMPLOYEE_IDENTITY_QUERY + " WHERE EMPLOYEE_ID = ?");
+			preparedStatement.setInt(1, employeeId);
+			resultSet = preparedStatement.executeQuery();
+			return resultSet.next() ? toEmployeeIdentity(resultSet) : null;
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+	}
+
+	@Override
+	public List<EmployeeIdentity> getEmployeeIdentities(int afterEmployeeId, Boolean active, Integer projectId,
+			int limit) throws SQLException {
+		StringBuilder query = new StringBuilder(SELECT_EMPLOYEE_IDENTITY_QUERY + " WHERE EMPLOYEE_ID > ?");
+		if (active != null) {
+			query.append(" AND ISACTIVE = ?");
+		}
+		if (projectId != null) {
+			query.append(" AND EMPLOYEE_ID IN (SELECT EMPLOYEE_ID FROM PROJECT_ENGAGEMENT WHERE PROJECT_ID = ?)");
+		}
+		query.append(" ORDER BY EMPLOYEE_ID LIMIT ?");
+		List<EmployeeIdentity> employeeIdentities = new ArrayList<EmployeeIdentity>();
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(query.toString());
+			int index = 1;
+			preparedStatement.setInt(index++, afterEmployeeId);
+			if (active != null) {
+				preparedStatement.setBoolean(index++, active);
+			}
+			if (projectId != null) {
+				preparedStatement.setInt(index++, projectId);
+			}
+			preparedStatement.setInt(index, limit);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				employeeIdentities.add(toEmployeeIdentity(resultSet));
+			}
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return employeeIdentities;
+	}
+
+	private EmployeeIdentity toEmployeeIdentity(ResultSet resultSet) throws SQLException {
+		return new EmployeeIdentity(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3));
+	}
+
+	private Set<String> getExistingEmployees(Connection connection, List<Employee> employees) throws SQLException {
+		Set<String> existingEmployees = new HashSet<String>();
+		StringBuilder query = new StringBuilder("SELECT EMPLOYEE_ID_NUMBER, EMAIL FROM EMPLOYEE WHERE EMPLOYEE_ID_NUMBER IN (");
+		for (int i = 0; i < employees.size(); i++) {
+			query.append(i == 0 ? "?" : ",?");
+		}
+		query.append(")");
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(query.toString());
+			for (int i = 0; i < employees.size(); i++) {
+				preparedStatement.setString(i + 1, employees.get(i).getEmployeeIdNumber());
+			}
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				existingEmployees.add(resultSet.getString(1) + "," + resultSet.getString(2));
+			}
+		} finally {
+			closeConnection(null, preparedStatement, resultSet);
+		}
+		return existingEmployees;
+	}
+
+	private void insertEmployees(Connection connection, List<Employee> employees, List<Integer> rows, int[] employeeIds)
+			throws SQLException {
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(INSERT_EMPLOYEE_QUERY, Statement.RETURN_GENERATED_KEYS);
+			for (int row : rows) {
+				setEmployeeParameters(preparedStatement, employees.get(row));
+				preparedStatement.addBatch();
+			}
+			preparedStatement.executeBatch();
+			resultSet = preparedStatement.getGeneratedKeys();
+			for (int row : rows) {
+				resultSet.next();
+				employeeIds[row] = resultSet.getInt(1);
+			}
+		} finally {
+			closeConnection(null, preparedStatement, resultSet);
+		}
+	}
+
+	private List<Integer> insertEmployeesPerRow(Connection connection, List<Employee> employees, List<Integer> rows,
+			int[] employeeIds) throws SQLException {
+		List<Integer> insertedRows = new ArrayList<Integer>();
+		PreparedStatement preparedStatement = null;
+		try {
+			preparedStatement = connection.prepareStatement(INSERT_EMPLOYEE_QUERY, Statement.RETURN_GENERATED_KEYS);
+			for (int row : rows) {
+				Savepoint savepoint = connection.setSavepoint();
+				try {
+					setEmployeeParameters(preparedStatement, employees.get(row));
+					preparedStatement.executeUpdate();
+					ResultSet resultSet = preparedStatement.getGeneratedKeys();
+					try {
+						resultSet.next();
+						employeeIds[row] = resultSet.getInt(1);
+					} finally {
+						resultSet.close();
+					}
+					insertedRows.add(row);
+				} catch (SQLException e) {
+					if (e.getErrorCode() != OpumConstants.MYSQL_DUPLICATE_PK_ERROR_CODE) {
+						throw e;
+					}
+					connection.rollback(savepoint);
+					employeeIds[row] = -1;
+				}
+			}
+		} finally {
+			closeConnection(null, preparedStatement, null);
+		}
+		return insertedRows;
+	}
+
+	private void insertProjectEngagements(Connection connection, List<ProjectEngagement> projectEngagements,
+			List<Integer> rows, int[] employeeIds) throws SQLException {
+		PreparedStatement preparedStatement = null;
+		try {
+			String query = "INSERT INTO PROJECT_ENGAGEMENT (PROJECT_ID, EMPLOYEE_ID, START, END) VALUES (?,?,?,?)";
+			preparedStatement = connection.prepareStatement(query);
+			for (int row : rows) {
+				ProjectEngagement projectEngagement = projectEngagements.get(row);
+				projectEngagement.setEmployeeId(employeeIds[row]);
+				preparedStatement.setInt(1, projectEngagement.getProjectId());
+				preparedStatement.setInt(2, projectEngagement.getEmployeeId());
+				preparedStatement.setDate(3, projectEngagement.getStartDate());
+				preparedStatement.setDate(4, projectEngagement.getEndDate());
+				preparedStatement.addBatch();
+			}
+			preparedStatement.executeBatch();
+		} finally {
+			closeConnection(null, preparedStatement, null);
+		}
+	}
+
+	private void setEmployeeParameters(PreparedStatement preparedStatement, Employee employee) throws SQLException {
+		preparedStatement.setString(1, employee.getEmployeeIdNumber());
+		preparedStatement.setString(2, employee.getEmail());
+		preparedStatement.setString(3, employee.getFullName());
+		preparedStatement.setString(4, OpumConstants.ADMIN);
+	}
+
 	@Override
 	public boolean registerEmployee(Employee employee) throws SQLException {
 		Connection connection = connectionPool.getConnection();
@@ -64,10 +330,12 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 			preparedStatement.setString(4, employee.getEmail());
 			preparedStatement.executeUpdate();
 			connection.commit();
-			System.out.println(OpumConstants.UPDATED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.UPDATED_SUCCESS);
+			}
 			return true;
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			try { if(preparedStatement != null) preparedStatement.close();} catch(Exception e) { }
 			try { if(connection != null) connection.close(); } catch(Exception e) { }
@@ -92,7 +360,7 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 			resultSet.close();
 			preparedStatement.close();
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
@@ -119,7 +387,7 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 				employee.setAdmin(resultSet.getBoolean(4));
 			} 
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
@@ -148,7 +416,7 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 			} 
 			return employee;
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 			return null;
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
@@ -172,7 +440,7 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 				return false;
 			}
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 			return false;
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
@@ -208,7 +476,7 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 			}
 			return employee;
 			} catch (SQLException e){
-				e.printStackTrace();
+				logger.error(e.getMessage(), e);
 				return null;
 			} finally {
 				closeConnection(connection, preparedStatement, resultSet);
@@ -242,11 +510,13 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 			preparedStatement.setString(7, employeeUpdate.getEmployeeIdNumber());
 			preparedStatement.executeUpdate();
 			connection.commit();
-			System.out.println(OpumConstants.UPDATED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.UPDATED_SUCCESS);
+			}
 			preparedStatement.close();
 			return true;
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			try { if(preparedStatement != null) preparedStatement.close();} catch(Exception e) { }
 			try { if(connection != null) connection.close(); } catch(Exception e) { }
@@ -254,4 +524,22 @@ public class EmployeeRepositoryImpl implements EmployeeRepository {
 		return false;
 	}
 
+	@Override
+	public Stream<Employee> streamEmployees() throws SQLException {
+		String query = "SELECT EMPLOYEE_ID, EMPLOYEE_ID_NUMBER, EMAIL, FULLNAME, ISACTIVE FROM EMPLOYEE";
+		return ResultSetStream.stream(connectionPool.getConnection(), query, new ResultSetStream.RowMapper<Employee>() {
+
+			@Override
+			public Employee map(ResultSet resultSet) throws SQLException {
+				Employee employee = new Employee();
+				employee.setEmployeeId(resultSet.getInt(1));
+				employee.setEmployeeIdNumber(resultSet.getString(2));
+				employee.setEmail(resultSet.getString(3));
+				employee.setFullName(resultSet.getString(4));
+				employee.setActive(resultSet.getBoolean(5));
+				return employee;
+			}
+		});
+	}
+
 }
@@ -8,6 +8,9 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+
+import org.apache.log4j.Logger;
+
 import com.ph.ibm.model.Holiday;
 import com.ph.ibm.repository.HolidayEngagementRepository;
 import com.ph.ibm.resources.ConnectionPool;
@@ -15,6 +18,8 @@ import com.ph.ibm.util.OpumConstants;
 
 public class HolidayRepositoryImpl implements HolidayEngagementRepository {
 
+	private Logger logger = Logger.getLogger(HolidayRepositoryImpl.class);
+
 	public HolidayRepositoryImpl() {
 	}
 
@@ -34,10 +39,12 @@ public class HolidayRepositoryImpl implements HolidayEngagementRepository {
 			preparedStatement.addBatch();
 			preparedStatement.executeBatch();
 			connection.commit();
-			System.out.println(OpumConstants.INSERTED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.INSERTED_SUCCESS);
+			}
 			return true;
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			try {preparedStatement.close();} catch (Exception e) {}
 			try {connection.close();} catch (Exception e) {}
@@ -58,10 +65,12 @@ public class HolidayRepositoryImpl implements HolidayEngagementRepository {
 			preparedStatement.setDate(2, new java.sql.Date(df.parse(holiday.getDate()).getTime()));
 			preparedStatement.executeUpdate();
 			connection.commit();
-			System.out.println(OpumConstants.UPDATED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.UPDATED_SUCCESS);
+			}
 			return true;
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			try {preparedStatement.close();} catch (Exception e) {}
 			try {connection.close();} catch (Exception e) {}
@@ -81,10 +90,12 @@ public class HolidayRepositoryImpl implements HolidayEngagementRepository {
 			preparedStatement.setString(1, holiday.getName());
 			preparedStatement.executeUpdate();
 			connection.commit();
-			System.out.println(OpumConstants.DELETED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.DELETED_SUCCESS);
+			}
 			return true;
 		}catch(Exception e){
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		}finally {
 			try {preparedStatement.close();} catch (Exception e) {}
 			try {connection.close();} catch (Exception e) {}
@@ -114,7 +125,38 @@ public class HolidayRepositoryImpl implements HolidayEngagementRepository {
 				holidays.add(holiday);
 			}
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
+		} finally {
+			try {resultSet.close();} catch (Exception e) {}
+			try {preparedStatement.close();} catch (Exception e) {}
+			try {connection.close();} catch (Exception e) {}
+		}
+		return holidays;
+	}
+
+	@Override
+	public List<Holiday> getHolidays(int afterHolidayId, Integer year, int limit) throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		List<Holiday> holidays = new ArrayList<Holiday>();
+		try {
+			String query = "SELECT HOLIDAY_ID, NAME, DATE, CREATEDATE, CREATEDBY, UPDATEDATE, UPDATEDBY FROM HOLIDAY WHERE HOLIDAY_ID > ?"
+					+ (year != null ? " AND DATE >= ? AND DATE < ?" : "") + " ORDER BY HOLIDAY_ID LIMIT ?";
+			preparedStatement = connection.prepareStatement(query);
+			int index = 1;
+			preparedStatement.setInt(index++, afterHolidayId);
+			if (year != null) {
+				preparedStatement.setString(index++, year + "-01-01");
+				preparedStatement.setString(index++, (year + 1) + "-01-01");
+			}
+			preparedStatement.setInt(index, limit);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				holidays.add(new Holiday(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3),
+						resultSet.getString(4), resultSet.getString(6), resultSet.getString(5),
+						resultSet.getString(7)));
+			}
 		} finally {
 			try {resultSet.close();} catch (Exception e) {}
 			try {preparedStatement.close();} catch (Exception e) {}
@@ -143,7 +185,7 @@ public class HolidayRepositoryImpl implements HolidayEngagementRepository {
 			}
 			return holiday;
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 			return null;
 		} finally {
 			try {resultSet.close();} catch (Exception e) {}
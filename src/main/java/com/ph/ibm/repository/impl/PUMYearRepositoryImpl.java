@@ -10,6 +10,8 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.log4j.Logger;
+
 import com.ph.ibm.model.PUMMonth;
 import com.ph.ibm.model.PUMQuarter;
 import com.ph.ibm.model.PUMYear;
@@ -21,6 +23,8 @@ import com.ph.ibm.util.OpumConstants;
 
 public class PUMYearRepositoryImpl implements PUMYearRepository {
 
+	private Logger logger = Logger.getLogger(PUMYearRepositoryImpl.class);
+
 	private ConnectionPool connectionPool = ConnectionPool.getInstance();
 
 	private void closeConnection(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
@@ -59,11 +63,13 @@ public class PUMYearRepositoryImpl implements PUMYearRepository {
 			preparedStatement.executeUpdate();
 			connection.commit();
 
-			System.out.println(OpumConstants.UPDATED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.UPDATED_SUCCESS);
+			}
 
 			return true;
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 
 		} finally {
 			try {
@@ -97,10 +103,12 @@ public class PUMYearRepositoryImpl implements PUMYearRepository {
 			preparedStatement.executeUpdate();
 			connection.commit();
 			
-			System.out.println(OpumConstants.UPDATED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.UPDATED_SUCCESS);
+			}
 			return true;
 		} catch (SQLException e){
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally{
 			try{
 				if (preparedStatement != null)
@@ -135,11 +143,13 @@ public class PUMYearRepositoryImpl implements PUMYearRepository {
 			preparedStatement.executeUpdate();
 			connection.commit();
 			
-			System.out.println(OpumConstants.UPDATED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.UPDATED_SUCCESS);
+			}
 			
 			return true;
 		} catch (SQLException e){
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			try {
 				if (preparedStatement != null)
@@ -180,7 +190,30 @@ public class PUMYearRepositoryImpl implements PUMYearRepository {
 			}
 
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return pumYearList;
+	}
+
+	@Override
+	public List<PUMYear> retrieveYears(int afterYearId, int limit) throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		List<PUMYear> pumYearList = new ArrayList<PUMYear>();
+		try {
+			String query = "SELECT YEAR_ID, PUMYEAR, END, START, CREATEDATE, CREATEDBY, UPDATEDATE, UPDATEDBY FROM YEAR WHERE YEAR_ID > ? ORDER BY YEAR_ID LIMIT ?";
+			preparedStatement = connection.prepareStatement(query);
+			preparedStatement.setInt(1, afterYearId);
+			preparedStatement.setInt(2, limit);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				pumYearList.add(new PUMYear(resultSet.getInt(1), resultSet.getInt(2), resultSet.getString(3),
+						resultSet.getString(4), resultSet.getString(5), resultSet.getString(6), resultSet.getString(7),
+						resultSet.getString(8)));
+			}
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
@@ -211,7 +244,7 @@ public class PUMYearRepositoryImpl implements PUMYearRepository {
 			}
 
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
@@ -232,11 +265,13 @@ public class PUMYearRepositoryImpl implements PUMYearRepository {
 			preparedStatement.setInt(3, pumYear.getPumYear());
 			preparedStatement.executeUpdate();
 			connection.commit();
-			System.out.println(OpumConstants.UPDATED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.UPDATED_SUCCESS);
+			}
 			preparedStatement.close();
 			return true;
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 
 		} finally {
 			try {
@@ -253,4 +288,52 @@ public class PUMYearRepositoryImpl implements PUMYearRepository {
 		
 		return false;
 	}
+
+	@Override
+	public List<PUMQuarter> retrieveQuarters() throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		List<PUMQuarter> pumQuarters = new ArrayList<PUMQuarter>();
+		try {
+			String query = "SELECT QUARTER_ID, PUMQUARTER, START, END FROM QUARTER ORDER BY START";
+			preparedStatement = connection.prepareStatement(query);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				PUMQuarter pumQuarter = new PUMQuarter();
+				pumQuarter.setQuarterId(resultSet.getInt(1));
+				pumQuarter.setPumQuarter(resultSet.getInt(2));
+				pumQuarter.setStart(resultSet.getString(3));
+				pumQuarter.setEnd(resultSet.getString(4));
+				pumQuarters.add(pumQuarter);
+			}
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return pumQuarters;
+	}
+
+	@Override
+	public List<PUMMonth> retrieveMonths() throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		List<PUMMonth> pumMonths = new ArrayList<PUMMonth>();
+		try {
+			String query = "SELECT MONTH_ID, PUMMONTH, START, END FROM MONTH ORDER BY START";
+			preparedStatement = connection.prepareStatement(query);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				PUMMonth pumMonth = new PUMMonth();
+				pumMonth.setMonthId(resultSet.getInt(1));
+				pumMonth.setPumMonth(resultSet.getInt(2));
+				pumMonth.setStart(resultSet.getString(3));
+				pumMonth.setEnd(resultSet.getString(4));
+				pumMonths.add(pumMonth);
+			}
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return pumMonths;
+	}
 }
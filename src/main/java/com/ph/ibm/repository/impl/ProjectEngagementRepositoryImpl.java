@@ -8,6 +8,9 @@ import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
 
 import com.ph.ibm.model.ProjectEngagement;
 import com.ph.ibm.repository.ProjectEngagementRepository;
@@ -16,6 +19,8 @@ import com.ph.ibm.util.OpumConstants;
 
 public class ProjectEngagementRepositoryImpl implements ProjectEngagementRepository {
 
+	private Logger logger = Logger.getLogger(ProjectEngagementRepositoryImpl.class);
+
 	private ConnectionPool connectionPool = ConnectionPool.getInstance();
 	
 	private void closeConnection(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
@@ -50,10 +55,12 @@ public class ProjectEngagementRepositoryImpl implements ProjectEngagementReposit
 			preparedStatement.addBatch();
 			preparedStatement.executeBatch();
 			connection.commit();
-			System.out.println(OpumConstants.INSERTED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.INSERTED_SUCCESS);
+			}
 			return true;
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			try { if(preparedStatement != null) preparedStatement.close();} catch(Exception e) { }
 			try { if(connection != null) connection.close(); } catch(Exception e) { }
@@ -88,10 +95,12 @@ public class ProjectEngagementRepositoryImpl implements ProjectEngagementReposit
 			preparedStatement.setInt(6, projectEngagement.getEmployeeId());
 			preparedStatement.executeUpdate();
 			connection.commit();
-			System.out.println(OpumConstants.UPDATED_SUCCESS);
+			if (logger.isDebugEnabled()) {
+				logger.debug(OpumConstants.UPDATED_SUCCESS);
+			}
 			return true;
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 
 		} finally {
 			try { if(preparedStatement != null) preparedStatement.close();} catch(Exception e) { }
@@ -116,7 +125,7 @@ public class ProjectEngagementRepositoryImpl implements ProjectEngagementReposit
 				projectEngagementId = resultSet.getInt(1);
 			}
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
@@ -141,7 +150,7 @@ public class ProjectEngagementRepositoryImpl implements ProjectEngagementReposit
 			}
 
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 			return false;
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
@@ -172,10 +181,64 @@ public class ProjectEngagementRepositoryImpl implements ProjectEngagementReposit
 			}
 
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
 		return dates;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public List<ProjectEngagement> getProjectEngagements(int afterProjectEngagementId, Integer projectId,
+			Integer employeeId, int limit) throws SQLException {
+		StringBuilder query = new StringBuilder(
+				"SELECT PROJECT_ENGAGEMENT_ID, PROJECT_ID, EMPLOYEE_ID, START, END, CREATEDATE, CREATEDBY, UPDATEDATE, UPDATEDBY FROM PROJECT_ENGAGEMENT WHERE PROJECT_ENGAGEMENT_ID > ?");
+		if (projectId != null) {
+			query.append(" AND PROJECT_ID = ?");
+		}
+		if (employeeId != null) {
+			query.append(" AND EMPLOYEE_ID = ?");
+		}
+		query.append(" ORDER BY PROJECT_ENGAGEMENT_ID LIMIT ?");
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		List<ProjectEngagement> projectEngagements = new ArrayList<ProjectEngagement>();
+		try {
+			preparedStatement = connection.prepareStatement(query.toString());
+			int index = 1;
+			preparedStatement.setInt(index++, afterProjectEngagementId);
+			if (projectId != null) {
+				preparedStatement.setInt(index++, projectId);
+			}
+			if (employeeId != null) {
+				preparedStatement.setInt(index++, employeeId);
+			}
+			preparedStatement.setInt(index, limit);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				projectEngagements.add(new ProjectEngagement(resultSet.getInt(1), resultSet.getInt(2),
+						resultSet.getInt(3), resultSet.getDate(4), resultSet.getDate(5), resultSet.getString(6),
+						resultSet.getString(8), resultSet.getString(7), resultSet.getString(9)));
+			}
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return projectEngagements;
+	}
+
+	@Override
+	public Stream<ProjectEngagement> streamProjectEngagements() throws SQLException {
+		String query = "SELECT PROJECT_ENGAGEMENT_ID, PROJECT_ID, EMPLOYEE_ID, START, END, CREATEDATE, CREATEDBY, UPDATEDATE, UPDATEDBY FROM PROJECT_ENGAGEMENT";
+		return ResultSetStream.stream(connectionPool.getConnection(), query,
+				new ResultSetStream.RowMapper<ProjectEngagement>() {
+
+					@Override
+					public ProjectEngagement map(ResultSet resultSet) throws SQLException {
+						return new ProjectEngagement(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3),
+								resultSet.getDate(4), resultSet.getDate(5), resultSet.getString(6),
+								resultSet.getString(8), resultSet.getString(7), resultSet.getString(9));
+					}
+				});
+	}
+}
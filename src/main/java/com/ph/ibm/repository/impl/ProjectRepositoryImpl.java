@@ -4,15 +4,21 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.log4j.Logger;
+
 import com.ph.ibm.model.Project;
 import com.ph.ibm.repository.ProjectRepository;
 import com.ph.ibm.resources.ConnectionPool;
+import com.ph.ibm.util.OpumConstants;
 
 public class ProjectRepositoryImpl implements ProjectRepository {
 
+	private Logger logger = Logger.getLogger(ProjectRepositoryImpl.class);
+
 	private ConnectionPool connectionPool = ConnectionPool.getInstance();
 
 	private void closeConnection(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
@@ -32,19 +38,56 @@ public class ProjectRepositoryImpl implements ProjectRepository {
 			preparedStatement = connection.prepareStatement(query);
 			resultSet = preparedStatement.executeQuery();
 			while (resultSet.next()) {
-				int projectId = resultSet.getInt(1);
-				String projectName = resultSet.getString(2);
-				String createDate = resultSet.getString(3);
-				String createdBy = resultSet.getString(4);
-				Project project = new Project(projectId, projectName, createDate, createdBy);
+				Project project = new Project();
+				project.setProjectId(resultSet.getLong(1));
+				project.setProjectName(resultSet.getString(2));
+				project.setCreateDate(resultSet.getTimestamp(3));
+				project.setCreatedBy(resultSet.getString(4));
 				projects.add(project);
 			}
 
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
 		return projects;
 	}
+
+	@Override
+	public String getVersion() throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			String query = "SELECT COUNT(*), MAX(PROJECT_ID), MAX(UPDATEDATE) FROM PROJECT";
+			preparedStatement = connection.prepareStatement(query);
+			resultSet = preparedStatement.executeQuery();
+			resultSet.next();
+			return resultSet.getLong(1) + ":" + resultSet.getLong(2) + ":" + resultSet.getTimestamp(3);
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+	}
+
+	@Override
+	public int addProject(Project project) throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			String query = "INSERT INTO PROJECT (NAME, CREATEDBY) VALUES (?,?)";
+			preparedStatement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+			preparedStatement.setString(1, project.getProjectName());
+			preparedStatement.setString(2, project.getCreatedBy() != null ? project.getCreatedBy() : OpumConstants.ADMIN);
+			preparedStatement.executeUpdate();
+			resultSet = preparedStatement.getGeneratedKeys();
+			resultSet.next();
+			int projectId = resultSet.getInt(1);
+			project.setProjectId((long) projectId);
+			return projectId;
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+	}
 }
\ No newline at end of file
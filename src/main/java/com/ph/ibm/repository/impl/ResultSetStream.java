@@ -0,0 +1,136 @@
+package com.ph.ibm.repository.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.ph.ibm.resources.ConnectionPool;
+import com.ph.ibm.util.OpumConstants;
+
+/**
+ * This class makes a lazily read stream of the rows of a query. The query is
+ * run with a forward only, read only result set and the streaming fetch size
+ * of the connection pool, so MySQL sends the rows as they are read instead of
+ * the whole result at once. The stream owns its connection and closes it
+ * after the last row or when the stream is closed, use it in a
+ * try-with-resources. A SQLException while reading a row is thrown as an
+ * IllegalStateException
+ */
+final class ResultSetStream {
+
+	/**
+	 * Makes the object of the current row of a result set
+	 *
+	 * @param <T>
+	 */
+	interface RowMapper<T> {
+
+		T map(ResultSet resultSet) throws SQLException;
+	}
+
+	private ResultSetStream() {
+
+	}
+
+	/**
+	 * @param connection
+	 *            - closed with the stream, also when the query fails
+	 * @param query
+	 * @param rowMapper
+	 * @param parameters
+	 *            - values of the parameters of the query, in order
+	 * @return Stream - rows in the order of the result set
+	 * @throws SQLException
+	 */
+	static <T> Stream<T> stream(Connection connection, String query, RowMapper<T> rowMapper, Object... parameters)
+			throws SQLException {
+		if (connection == null) {
+			throw new SQLException(OpumConstants.UNABLE_TO_ESTABLISH_CONNECTION);
+		}
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			preparedStatement.setFetchSize(ConnectionPool.getInstance().getStreamingFetchSize());
+			for (int i = 0; i < parameters.length; i++) {
+				preparedStatement.setObject(i + 1, parameters[i]);
+			}
+			resultSet = preparedStatement.executeQuery();
+		} catch (SQLException e) {
+			new Rows<T>(connection, preparedStatement, resultSet, rowMapper).run();
+			throw e;
+		}
+		Rows<T> rows = new Rows<T>(connection, preparedStatement, resultSet, rowMapper);
+		return StreamSupport.stream(rows, false).onClose(rows);
+	}
+
+	/**
+	 * Reads one row per advance, runs to close the result set, statement and
+	 * connection
+	 */
+	private static class Rows<T> extends Spliterators.AbstractSpliterator<T> implements Runnable {
+
+		private final Connection connection;
+
+		private final PreparedStatement preparedStatement;
+
+		private final ResultSet resultSet;
+
+		private final RowMapper<T> rowMapper;
+
+		private boolean closed;
+
+		Rows(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet, RowMapper<T> rowMapper) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.connection = connection;
+			this.preparedStatement = preparedStatement;
+			this.resultSet = resultSet;
+			this.rowMapper = rowMapper;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (closed) {
+				return false;
+			}
+			try {
+				if (!resultSet.next()) {
+					run();
+					return false;
+				}
+				action.accept(rowMapper.map(resultSet));
+				return true;
+			} catch (SQLException e) {
+				run();
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public void run() {
+			closed = true;
+			try {
+				if (resultSet != null)
+					resultSet.close();
+			} catch (Exception e) {
+			}
+			try {
+				if (preparedStatement != null)
+					preparedStatement.close();
+			} catch (Exception e) {
+			}
+			try {
+				if (connection != null)
+					connection.close();
+			} catch (Exception e) {
+			}
+		}
+	}
+}
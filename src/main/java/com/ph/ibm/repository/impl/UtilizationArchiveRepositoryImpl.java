@@ -0,0 +1,106 @@
+package com.ph.ibm.repository.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.repository.UtilizationArchiveRepository;
+import com.ph.ibm.resources.ConnectionPool;
+
+/**
+ * This class implements methods that is used to archive the utilization of a
+ * year and view the archived years
+ */
+public class UtilizationArchiveRepositoryImpl implements UtilizationArchiveRepository {
+
+	private Logger logger = Logger.getLogger(UtilizationArchiveRepositoryImpl.class);
+
+	private static final String ARCHIVED_YEARS_QUERY = "SELECT YEAR FROM UTILIZATION_ARCHIVED_YEAR ORDER BY YEAR";
+
+	private static final String MARK_ARCHIVED_QUERY = "INSERT INTO UTILIZATION_ARCHIVED_YEAR (YEAR, UTILIZATION_COUNT, ARCHIVEDBY) "
+			+ "SELECT ?, COUNT(*), ? FROM UTILIZATION WHERE YEAR = ?";
+
+	private static final String COPY_TO_ARCHIVE_QUERY = "INSERT INTO UTILIZATION_ARCHIVE (UTILIZATION_ID, EMPLOYEE_ID, YEAR, UTILIZATION_JSON, CREATEDATE, CREATEDBY, UPDATEDATE, UPDATEDBY) "
+			+ "SELECT UTILIZATION_ID, EMPLOYEE_ID, YEAR, UTILIZATION_JSON, CREATEDATE, CREATEDBY, UPDATEDATE, UPDATEDBY FROM UTILIZATION WHERE YEAR = ?";
+
+	private static final String DELETE_ARCHIVED_QUERY = "DELETE FROM UTILIZATION WHERE YEAR = ?";
+
+	private ConnectionPool connectionPool = ConnectionPool.getInstance();
+
+	private void closeConnection(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
+		try {
+			if (resultSet != null)
+				resultSet.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (preparedStatement != null)
+				preparedStatement.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (connection != null)
+				connection.close();
+		} catch (Exception e) {
+		}
+	}
+
+	@Override
+	public List<Integer> getArchivedYears() throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		List<Integer> years = new ArrayList<Integer>();
+		try {
+			preparedStatement = connection.prepareStatement(ARCHIVED_YEARS_QUERY);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				years.add(resultSet.getInt(1));
+			}
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return years;
+	}
+
+	@Override
+	public int archiveYear(int year, String archivedBy) throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		try {
+			connection.setAutoCommit(false);
+			// first, so archiving a year twice fails on its primary key
+			preparedStatement = connection.prepareStatement(MARK_ARCHIVED_QUERY);
+			preparedStatement.setInt(1, year);
+			preparedStatement.setString(2, archivedBy);
+			preparedStatement.setInt(3, year);
+			preparedStatement.executeUpdate();
+			preparedStatement.close();
+
+			preparedStatement = connection.prepareStatement(COPY_TO_ARCHIVE_QUERY);
+			preparedStatement.setInt(1, year);
+			int archived = preparedStatement.executeUpdate();
+			preparedStatement.close();
+
+			preparedStatement = connection.prepareStatement(DELETE_ARCHIVED_QUERY);
+			preparedStatement.setInt(1, year);
+			int deleted = preparedStatement.executeUpdate();
+			if (deleted != archived) {
+				throw new SQLException("Archived " + archived + " utilization/s of " + year + " but deleted " + deleted);
+			}
+			connection.commit();
+			logger.info("Archived " + archived + " utilization/s of " + year);
+			return archived;
+		} catch (SQLException e) {
+			try { connection.rollback(); } catch (Exception ex) { }
+			throw e;
+		} finally {
+			closeConnection(connection, preparedStatement, null);
+		}
+	}
+}
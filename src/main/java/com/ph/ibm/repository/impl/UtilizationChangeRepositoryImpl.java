@@ -0,0 +1,248 @@
+package com.ph.ibm.repository.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.model.UtilizationChange;
+import com.ph.ibm.model.UtilizationDayChange;
+import com.ph.ibm.repository.UtilizationChangeRepository;
+import com.ph.ibm.resources.ConnectionPool;
+import com.ph.ibm.util.JavaToJsonUtil;
+import com.ph.ibm.util.JsonToJavaUtil;
+import com.ph.ibm.util.UtilizationDiff;
+
+/**
+ * This class implements methods that is used to append, read and compact the
+ * utilization change log. The sequence of a change is taken from the single
+ * row of utilization_change_sequence, which stays locked until the saving
+ * transaction ends, so sequences become visible in ascending order and a
+ * reader that tails from the last sequence it read never skips a change
+ */
+public class UtilizationChangeRepositoryImpl implements UtilizationChangeRepository {
+
+	private Logger logger = Logger.getLogger(UtilizationChangeRepositoryImpl.class);
+
+	private static final String LOCK_SEQUENCE_QUERY = "SELECT SEQUENCE FROM UTILIZATION_CHANGE_SEQUENCE WHERE SEQUENCE_ID = 1 FOR UPDATE";
+
+	private static final String UPDATE_SEQUENCE_QUERY = "UPDATE UTILIZATION_CHANGE_SEQUENCE SET SEQUENCE = ? WHERE SEQUENCE_ID = 1";
+
+	private static final String INSERT_CHANGE_QUERY = "INSERT INTO UTILIZATION_CHANGE_LOG (SEQUENCE, EMPLOYEE_ID, YEAR, CHANGES, CHANGEDBY) VALUES (?,?,?,?,?)";
+
+	private static final String SELECT_CHANGES_QUERY = "SELECT SEQUENCE, EMPLOYEE_ID, YEAR, CHANGES, CHANGEDBY, CHANGEDATE FROM UTILIZATION_CHANGE_LOG "
+			+ "WHERE SEQUENCE > ? ORDER BY SEQUENCE LIMIT ?";
+
+	private static final String SELECT_COMPACTABLE_QUERY = "SELECT SEQUENCE, EMPLOYEE_ID, YEAR, CHANGES, CHANGEDBY, CHANGEDATE FROM UTILIZATION_CHANGE_LOG "
+			+ "WHERE SEQUENCE > ? AND CHANGEDATE < ? ORDER BY EMPLOYEE_ID, YEAR, SEQUENCE";
+
+	private static final String UPDATE_CHANGES_QUERY = "UPDATE UTILIZATION_CHANGE_LOG SET CHANGES = ? WHERE SEQUENCE = ?";
+
+	private static final String DELETE_CHANGE_QUERY = "DELETE FROM UTILIZATION_CHANGE_LOG WHERE SEQUENCE = ?";
+
+	/** Employee years merged per transaction of a compaction */
+	private static final int COMPACTION_BATCH_SIZE = 500;
+
+	private ConnectionPool connectionPool = ConnectionPool.getInstance();
+
+	private void closeConnection(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
+		try {
+			if (resultSet != null)
+				resultSet.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (preparedStatement != null)
+				preparedStatement.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (connection != null)
+				connection.close();
+		} catch (Exception e) {
+		}
+	}
+
+	/**
+	 * This method is used to append changes in the transaction of a
+	 * connection. The sequence row stays locked until the transaction ends,
+	 * call it after the other statements of the transaction
+	 * 
+	 * @param connection
+	 *            - not committed nor closed
+	 * @param changes
+	 *            - sequence of each change is set
+	 * @throws SQLException
+	 */
+	static void appendChanges(Connection connection, List<UtilizationChange> changes) throws SQLException {
+		if (changes.isEmpty()) {
+			return;
+		}
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(LOCK_SEQUENCE_QUERY);
+			resultSet = preparedStatement.executeQuery();
+			if (!resultSet.next()) {
+				throw new SQLException("Utilization change sequence is missing");
+			}
+			long sequence = resultSet.getLong(1);
+			resultSet.close();
+			resultSet = null;
+			preparedStatement.close();
+
+			preparedStatement = connection.prepareStatement(INSERT_CHANGE_QUERY);
+			for (UtilizationChange change : changes) {
+				change.setSequence(++sequence);
+				preparedStatement.setLong(1, change.getSequence());
+				preparedStatement.setInt(2, change.getEmployeeId());
+				preparedStatement.setInt(3, change.getYear());
+				preparedStatement.setString(4, JavaToJsonUtil.JavaToJson(change.getDays()));
+				preparedStatement.setString(5, change.getChangedBy());
+				preparedStatement.addBatch();
+			}
+			preparedStatement.executeBatch();
+			preparedStatement.close();
+
+			preparedStatement = connection.prepareStatement(UPDATE_SEQUENCE_QUERY);
+			preparedStatement.setLong(1, sequence);
+			preparedStatement.executeUpdate();
+		} finally {
+			try {
+				if (resultSet != null)
+					resultSet.close();
+			} catch (Exception e) {
+			}
+			try {
+				if (preparedStatement != null)
+					preparedStatement.close();
+			} catch (Exception e) {
+			}
+		}
+	}
+
+	@Override
+	public List<UtilizationChange> getChanges(long afterSequence, int limit) throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		List<UtilizationChange> changes = new ArrayList<UtilizationChange>();
+		try {
+			preparedStatement = connection.prepareStatement(SELECT_CHANGES_QUERY);
+			preparedStatement.setLong(1, afterSequence);
+			preparedStatement.setInt(2, limit);
+			resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				changes.add(mapChange(resultSet));
+			}
+		} finally {
+			closeConnection(connection, preparedStatement, resultSet);
+		}
+		return changes;
+	}
+
+	@Override
+	public long compactChanges(long afterSequence, Timestamp before) throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement updateStatement = null;
+		PreparedStatement deleteStatement = null;
+		int removed = 0;
+		long lastSequence = afterSequence;
+		try (Stream<UtilizationChange> stream = ResultSetStream.stream(connectionPool.getConnection(),
+				SELECT_COMPACTABLE_QUERY, new ResultSetStream.RowMapper<UtilizationChange>() {
+					@Override
+					public UtilizationChange map(ResultSet resultSet) throws SQLException {
+						return mapChange(resultSet);
+					}
+				}, afterSequence, before)) {
+			connection.setAutoCommit(false);
+			updateStatement = connection.prepareStatement(UPDATE_CHANGES_QUERY);
+			deleteStatement = connection.prepareStatement(DELETE_CHANGE_QUERY);
+			List<UtilizationChange> group = new ArrayList<UtilizationChange>();
+			int merged = 0;
+			Iterator<UtilizationChange> iterator = stream.iterator();
+			while (iterator.hasNext()) {
+				UtilizationChange change = iterator.next();
+				lastSequence = Math.max(lastSequence, change.getSequence());
+				if (!group.isEmpty() && !sameEmployeeYear(group.get(0), change)) {
+					if (mergeGroup(group, updateStatement, deleteStatement)) {
+						removed += group.size() - 1;
+						if (++merged % COMPACTION_BATCH_SIZE == 0) {
+							executeCompaction(connection, updateStatement, deleteStatement);
+						}
+					}
+					group.clear();
+				}
+				group.add(change);
+			}
+			if (mergeGroup(group, updateStatement, deleteStatement)) {
+				removed += group.size() - 1;
+			}
+			executeCompaction(connection, updateStatement, deleteStatement);
+			logger.info("Compacted " + removed + " utilization change/s after sequence " + afterSequence + " and before "
+					+ before);
+			return lastSequence;
+		} catch (SQLException | RuntimeException e) {
+			try { connection.rollback(); } catch (Exception ex) { }
+			throw e;
+		} finally {
+			try {
+				if (updateStatement != null)
+					updateStatement.close();
+			} catch (Exception e) {
+			}
+			closeConnection(connection, deleteStatement, null);
+		}
+	}
+
+	private static boolean sameEmployeeYear(UtilizationChange change, UtilizationChange other) {
+		return change.getEmployeeId() == other.getEmployeeId() && change.getYear() == other.getYear();
+	}
+
+	/**
+	 * Adds the statements merging a group of changes of an employee and year
+	 * into its last change
+	 * 
+	 * @return boolean - false if the group has nothing to merge
+	 */
+	private static boolean mergeGroup(List<UtilizationChange> group, PreparedStatement updateStatement,
+			PreparedStatement deleteStatement) throws SQLException {
+		if (group.size() < 2) {
+			return false;
+		}
+		UtilizationChange last = group.get(group.size() - 1);
+		updateStatement.setString(1, JavaToJsonUtil.JavaToJson(UtilizationDiff.merge(group)));
+		updateStatement.setLong(2, last.getSequence());
+		updateStatement.addBatch();
+		for (UtilizationChange change : group.subList(0, group.size() - 1)) {
+			deleteStatement.setLong(1, change.getSequence());
+			deleteStatement.addBatch();
+		}
+		return true;
+	}
+
+	private static void executeCompaction(Connection connection, PreparedStatement updateStatement,
+			PreparedStatement deleteStatement) throws SQLException {
+		updateStatement.executeBatch();
+		deleteStatement.executeBatch();
+		connection.commit();
+	}
+
+	private static UtilizationChange mapChange(ResultSet resultSet) throws SQLException {
+		UtilizationDayChange[] days = JsonToJavaUtil.JsonToJava(resultSet.getString("CHANGES"),
+				UtilizationDayChange[].class);
+		return new UtilizationChange(resultSet.getLong("SEQUENCE"), resultSet.getInt("EMPLOYEE_ID"),
+				resultSet.getInt("YEAR"),
+				days == null ? Collections.<UtilizationDayChange> emptyList() : Arrays.asList(days),
+				resultSet.getString("CHANGEDBY"), resultSet.getString("CHANGEDATE"));
+	}
+}
@@ -5,21 +5,73 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.cache.ArchivedYears;
 import com.ph.ibm.model.Utilization;
+import com.ph.ibm.model.UtilizationChange;
+import com.ph.ibm.model.UtilizationDayChange;
 import com.ph.ibm.repository.UtilizationEngagementRepository;
 import com.ph.ibm.resources.ConnectionPool;
 import com.ph.ibm.util.OpumConstants;
+import com.ph.ibm.util.UtilizationDiff;
 
 /**
  * This class implements methods that is used to insert and view from
- * utilization
+ * utilization. Every save appends the days it changed to the utilization
+ * change log in the same transaction, the saved rows are locked before they
+ * are compared so the old hours are the ones overwritten
  */
 public class UtilizationEngagementRepositoryImpl implements UtilizationEngagementRepository {
 
+	private Logger logger = Logger.getLogger(UtilizationEngagementRepositoryImpl.class);
+
+	private static final String UPSERT_UTILIZATION_QUERY = "INSERT INTO UTILIZATION (EMPLOYEE_ID, YEAR, UTILIZATION_JSON, CREATEDBY, UPDATEDBY) "
+			+ "VALUES (?,?,?,?,?) ON DUPLICATE KEY UPDATE UTILIZATION_JSON = VALUES(UTILIZATION_JSON), UPDATEDBY = VALUES(UPDATEDBY)";
+
+	private static final String LOCK_UTILIZATION_QUERY = "SELECT UTILIZATION_JSON FROM UTILIZATION WHERE EMPLOYEE_ID = ? AND YEAR = ? FOR UPDATE";
+
+	/**
+	 * Locks the archived year row, or the gap it would be inserted into, so an
+	 * archive of the year waits for the save to commit. FOR UPDATE rather than
+	 * LOCK IN SHARE MODE, gap locks of concurrent saves do not block each
+	 * other either way and H2 of the load test only knows FOR UPDATE
+	 */
+	private static final String LOCK_ARCHIVED_YEAR_QUERY = "SELECT YEAR FROM UTILIZATION_ARCHIVED_YEAR WHERE YEAR = ? FOR UPDATE";
+
+	private static final String UTILIZATION_TABLE = "UTILIZATION";
+
+	private static final String UTILIZATION_ARCHIVE_TABLE = "UTILIZATION_ARCHIVE";
+
 	private ConnectionPool connectionPool = ConnectionPool.getInstance();
 
+	/**
+	 * @param year
+	 * @return String - table holding the utilization of the year, the archive
+	 *         once the year is archived
+	 * @throws SQLException
+	 */
+	private String utilizationTable(String year) throws SQLException {
+		if (year == null) {
+			return UTILIZATION_TABLE;
+		}
+		try {
+			return ArchivedYears.getInstance().isArchived(Integer.parseInt(year.trim())) ? UTILIZATION_ARCHIVE_TABLE
+					: UTILIZATION_TABLE;
+		} catch (NumberFormatException e) {
+			// matches no rows in either table
+			return UTILIZATION_TABLE;
+		}
+	}
+
 	private void closeConnection(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
 		try {
 			if (resultSet != null)
@@ -42,10 +94,21 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 	public boolean saveUtilization(Utilization utilization) throws SQLException {
 		Connection connection = connectionPool.getConnection();
 		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
 		try {
 			connection.setAutoCommit(false);
-			Utilization util = downloadUtilization(utilization.getYear(), Integer.parseInt(utilization.getEmployeeIdNumber()));
-			if(util == null)
+			lockOpenYear(connection, utilization.getYear());
+			preparedStatement = connection.prepareStatement(LOCK_UTILIZATION_QUERY);
+			preparedStatement.setString(1, utilization.getEmployeeIdNumber());
+			preparedStatement.setString(2, utilization.getYear());
+			resultSet = preparedStatement.executeQuery();
+			boolean exists = resultSet.next();
+			String oldJson = exists ? resultSet.getString(1) : null;
+			resultSet.close();
+			preparedStatement.close();
+			List<UtilizationChange> changes = new ArrayList<UtilizationChange>(1);
+			addChange(changes, utilization, oldJson, savedBy(utilization));
+			if(!exists)
 			{
 				String query = 
 				"INSERT INTO UTILIZATION (" + "EMPLOYEE_ID, YEAR, UTILIZATION_JSON, CREATEDBY, UPDATEDBY) " + "VALUES (?,?,?,?,?); ";
@@ -53,29 +116,39 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 				preparedStatement.setString(1, utilization.getEmployeeIdNumber());
 				preparedStatement.setString(2, utilization.getYear());
 				preparedStatement.setString(3, utilization.getUtilizationJson());
-				preparedStatement.setString(4, utilization.getEmployeeIdNumber());
-				preparedStatement.setString(5, utilization.getEmployeeIdNumber());
+				preparedStatement.setString(4, savedBy(utilization));
+				preparedStatement.setString(5, savedBy(utilization));
 				preparedStatement.addBatch();
 				preparedStatement.executeBatch();
+				UtilizationChangeRepositoryImpl.appendChanges(connection, changes);
 				connection.commit();
-				System.out.println(OpumConstants.INSERTED_SUCCESS);
+				if (logger.isDebugEnabled()) {
+					logger.debug(OpumConstants.INSERTED_SUCCESS);
+				}
 			}
 			else
 			{
 				String query = "UPDATE UTILIZATION SET UTILIZATION_JSON = ?, UPDATEDBY = ? WHERE EMPLOYEE_ID = ? AND YEAR = ?";
 				preparedStatement = connection.prepareStatement(query);
 				preparedStatement.setString(1, utilization.getUtilizationJson());
-				preparedStatement.setString(2, utilization.getEmployeeIdNumber());
+				preparedStatement.setString(2, savedBy(utilization));
 				preparedStatement.setString(3, utilization.getEmployeeIdNumber());
 				preparedStatement.setString(4, utilization.getYear());
 				preparedStatement.executeUpdate();
+				UtilizationChangeRepositoryImpl.appendChanges(connection, changes);
 				connection.commit();
-				System.out.println(OpumConstants.UPDATED_SUCCESS);
+				if (logger.isDebugEnabled()) {
+					logger.debug(OpumConstants.UPDATED_SUCCESS);
+				}
 			}
 			return true;
 
+		} catch (IllegalArgumentException e) {
+			try { connection.rollback(); } catch (Exception ex) { }
+			throw e;
 		} catch (Exception e) {
-			e.printStackTrace();
+			try { connection.rollback(); } catch (Exception ex) { }
+			logger.error(e.getMessage(), e);
 		} finally {
 			try {
 				if (preparedStatement != null)
@@ -91,6 +164,126 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 		return false;
 	}
 
+	@Override
+	public void saveUtilizations(List<Utilization> utilizations) throws SQLException {
+		Connection connection = connectionPool.getConnection();
+		PreparedStatement preparedStatement = null;
+		try {
+			connection.setAutoCommit(false);
+			Map<String, String> oldJsons = lockUtilizations(connection, utilizations);
+			List<UtilizationChange> changes = new ArrayList<UtilizationChange>();
+			for (Utilization utilization : utilizations) {
+				String key = utilization.getYear() + ":" + utilization.getEmployeeIdNumber();
+				addChange(changes, utilization, oldJsons.put(key, utilization.getUtilizationJson()),
+						savedBy(utilization));
+			}
+			preparedStatement = connection.prepareStatement(UPSERT_UTILIZATION_QUERY);
+			for (Utilization utilization : utilizations) {
+				preparedStatement.setString(1, utilization.getEmployeeIdNumber());
+				preparedStatement.setString(2, utilization.getYear());
+				preparedStatement.setString(3, utilization.getUtilizationJson());
+				preparedStatement.setString(4, savedBy(utilization));
+				preparedStatement.setString(5, savedBy(utilization));
+				preparedStatement.addBatch();
+			}
+			preparedStatement.executeBatch();
+			UtilizationChangeRepositoryImpl.appendChanges(connection, changes);
+			connection.commit();
+		} catch (SQLException | RuntimeException e) {
+			try { connection.rollback(); } catch (Exception ex) { }
+			throw e;
+		} finally {
+			closeConnection(connection, preparedStatement, null);
+		}
+	}
+
+	/**
+	 * Locks the utilization rows of a batch and reads their JSON
+	 * 
+	 * @return Map - utilization JSON by "year:employee id", rows not saved
+	 *         yet have no entry
+	 */
+	private Map<String, String> lockUtilizations(Connection connection, List<Utilization> utilizations)
+			throws SQLException {
+		Map<String, Set<String>> employeeIdsByYear = new LinkedHashMap<String, Set<String>>();
+		for (Utilization utilization : utilizations) {
+			Set<String> employeeIds = employeeIdsByYear.get(utilization.getYear());
+			if (employeeIds == null) {
+				employeeIds = new LinkedHashSet<String>();
+				employeeIdsByYear.put(utilization.getYear(), employeeIds);
+			}
+			employeeIds.add(utilization.getEmployeeIdNumber());
+		}
+		for (String year : employeeIdsByYear.keySet()) {
+			lockOpenYear(connection, year);
+		}
+		Map<String, String> oldJsons = new HashMap<String, String>(utilizations.size() * 2);
+		for (Map.Entry<String, Set<String>> year : employeeIdsByYear.entrySet()) {
+			StringBuilder query = new StringBuilder(
+					"SELECT EMPLOYEE_ID, UTILIZATION_JSON FROM UTILIZATION WHERE YEAR = ? AND EMPLOYEE_ID IN (");
+			for (int i = 0; i < year.getValue().size(); i++) {
+				query.append(i == 0 ? "?" : ",?");
+			}
+			query.append(") ORDER BY EMPLOYEE_ID FOR UPDATE");
+			PreparedStatement preparedStatement = null;
+			ResultSet resultSet = null;
+			try {
+				preparedStatement = connection.prepareStatement(query.toString());
+				preparedStatement.setString(1, year.getKey());
+				int index = 2;
+				for (String employeeId : year.getValue()) {
+					preparedStatement.setString(index++, employeeId);
+				}
+				resultSet = preparedStatement.executeQuery();
+				while (resultSet.next()) {
+					oldJsons.put(year.getKey() + ":" + resultSet.getString(1), resultSet.getString(2));
+				}
+			} finally {
+				closeConnection(null, preparedStatement, resultSet);
+			}
+		}
+		return oldJsons;
+	}
+
+	/**
+	 * Locks the archived year row of a year before its utilization is saved,
+	 * the cached archived years can miss an archive that commits meanwhile
+	 * 
+	 * @throws IllegalArgumentException
+	 *             when the year is archived
+	 */
+	private void lockOpenYear(Connection connection, String year) throws SQLException {
+		PreparedStatement preparedStatement = null;
+		ResultSet resultSet = null;
+		try {
+			preparedStatement = connection.prepareStatement(LOCK_ARCHIVED_YEAR_QUERY);
+			preparedStatement.setString(1, year);
+			resultSet = preparedStatement.executeQuery();
+			if (resultSet.next()) {
+				throw new IllegalArgumentException(OpumConstants.YEAR_ARCHIVED);
+			}
+		} finally {
+			closeConnection(null, preparedStatement, resultSet);
+		}
+	}
+
+	private static String savedBy(Utilization utilization) {
+		return utilization.getUpdatedBy() != null ? utilization.getUpdatedBy() : OpumConstants.ADMIN;
+	}
+
+	/**
+	 * Adds the change of a save to the changes to append, nothing when no
+	 * hours changed
+	 */
+	private void addChange(List<UtilizationChange> changes, Utilization utilization, String oldJson,
+			String changedBy) {
+		List<UtilizationDayChange> days = UtilizationDiff.diff(oldJson, utilization.getUtilizationJson());
+		if (!days.isEmpty()) {
+			changes.add(new UtilizationChange(0, Integer.parseInt(utilization.getEmployeeIdNumber().trim()),
+					Integer.parseInt(utilization.getYear().trim()), days, changedBy, null));
+		}
+	}
+
 	@Override
 	public List<Utilization> retrieveUtilizations(String employeeIdNumber, String year) throws SQLException {
 		Connection connection = connectionPool.getConnection();
@@ -98,7 +291,8 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 		ResultSet resultSet = null;
 		List<Utilization> utilizations = new ArrayList<Utilization>();
 		try {
-			String query = "SELECT EMPLOYEE_ID, YEAR, UTILIZATION_JSON FROM UTILIZATION WHERE EMPLOYEE_ID = ? AND YEAR = ?";
+			String query = "SELECT EMPLOYEE_ID, YEAR, UTILIZATION_JSON FROM " + utilizationTable(year)
+					+ " WHERE EMPLOYEE_ID = ? AND YEAR = ?";
 			preparedStatement = connection.prepareStatement(query);
 			preparedStatement.setString(1, employeeIdNumber);
 			preparedStatement.setString(2, year);
@@ -111,7 +305,7 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 				utilizations.add(utilization);
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
@@ -126,7 +320,7 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 		Utilization utilization = null;
 		try{
 			String query =  
-					"SELECT UTILIZATION.YEAR, UTILIZATION.UTILIZATION_JSON, EMPLOYEE.EMPLOYEE_ID_NUMBER FROM UTILIZATION "
+					"SELECT UTILIZATION.YEAR, UTILIZATION.UTILIZATION_JSON, EMPLOYEE.EMPLOYEE_ID_NUMBER FROM " + utilizationTable(year) + " UTILIZATION "
 					+ "JOIN EMPLOYEE ON UTILIZATION.EMPLOYEE_ID=EMPLOYEE.EMPLOYEE_ID "
 					+ "WHERE UTILIZATION.YEAR = ? AND UTILIZATION.EMPLOYEE_ID =?";
 			preparedStatement = connection.prepareStatement(query);
@@ -141,7 +335,7 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 				utilization = new Utilization(employeeIdNumber, utilization_Year, utilization_JSON);
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
@@ -155,7 +349,8 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 		ResultSet resultSet = null;
 		Utilization utilization = null;
 		try {
-			String query = "SELECT EMPLOYEE_ID, YEAR, UTILIZATION_JSON FROM UTILIZATION WHERE YEAR = ? AND EMPLOYEE_ID = ?";
+			String query = "SELECT EMPLOYEE_ID, YEAR, UTILIZATION_JSON FROM " + utilizationTable(String.valueOf(year))
+					+ " WHERE YEAR = ? AND EMPLOYEE_ID = ?";
 			preparedStatement = connection.prepareStatement(query);
 			preparedStatement.setInt(1, year);
 			preparedStatement.setInt(2, employeeId);
@@ -167,12 +362,28 @@ public class UtilizationEngagementRepositoryImpl implements UtilizationEngagemen
 				utilization = new Utilization(employeeIdNumber, utilization_Year, utilization_JSON);
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.error(e.getMessage(), e);
 		} finally {
 			closeConnection(connection, preparedStatement, resultSet);
 		}
 		return utilization;
 	}
 
-	
+	@Override
+	public Stream<Utilization> streamUtilizations(String year) throws SQLException {
+		String query = "SELECT UTILIZATION.UTILIZATION_ID, UTILIZATION.EMPLOYEE_ID, EMPLOYEE.EMPLOYEE_ID_NUMBER, UTILIZATION.YEAR, UTILIZATION.UTILIZATION_JSON FROM "
+				+ utilizationTable(year) + " UTILIZATION "
+				+ "JOIN EMPLOYEE ON UTILIZATION.EMPLOYEE_ID=EMPLOYEE.EMPLOYEE_ID WHERE UTILIZATION.YEAR = ?";
+		return ResultSetStream.stream(connectionPool.getConnection(), query,
+				new ResultSetStream.RowMapper<Utilization>() {
+
+					@Override
+					public Utilization map(ResultSet resultSet) throws SQLException {
+						Utilization utilization = new Utilization(resultSet.getLong(1), resultSet.getString(3),
+								resultSet.getString(4), resultSet.getString(5));
+						utilization.setEmployeeIdNumber(resultSet.getString(2));
+						return utilization;
+					}
+				}, year);
+	}
 }
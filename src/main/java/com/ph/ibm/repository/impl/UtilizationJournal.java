@@ -0,0 +1,307 @@
+package com.ph.ibm.repository.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.model.Utilization;
+
+/**
+ * This class keeps the buffered utilization saves on disk until they are
+ * written to the database. Saves are appended to the current segment file and
+ * forced to the disk before they are acknowledged. A force covers every save
+ * appended before it, so saves appended while one force runs wait for it and
+ * share the next one instead of forcing one by one. A flush starts a new
+ * segment, the segments before it are deleted once the flush committed. A
+ * record is "length, CRC-32, employee id, year, updated by, JSON", a record
+ * cut short by a crash fails its length or checksum and ends the replay of
+ * its segment
+ */
+final class UtilizationJournal {
+
+	private static final String SEGMENT_PREFIX = "utilization-";
+
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	/** Longer than any utilization JSON, a longer record is a torn length */
+	private static final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+	private Logger logger = Logger.getLogger(UtilizationJournal.class);
+
+	private final Path directory;
+
+	private long segment;
+
+	private FileChannel channel;
+
+	/** Number of saves appended, the ticket of the last one */
+	private long appended;
+
+	/** Ticket of the last save known to be on the disk */
+	private long forced;
+
+	/** True while a force runs outside of the lock */
+	private boolean forcing;
+
+	/**
+	 * @param directory
+	 *            - created if missing
+	 * @throws IOException
+	 */
+	UtilizationJournal(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		List<Long> segments = segments();
+		segment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+	}
+
+	/**
+	 * This method is used to read the saves of every segment, before the
+	 * first append
+	 *
+	 * @return List - saves in the order they were appended
+	 * @throws IOException
+	 */
+	synchronized List<Utilization> recover() throws IOException {
+		List<Utilization> utilizations = new ArrayList<Utilization>();
+		for (long number : segments()) {
+			try (InputStream inputStream = Files.newInputStream(segmentPath(number))) {
+				DataInputStream input = new DataInputStream(inputStream);
+				while (true) {
+					Utilization utilization = read(input);
+					if (utilization == null) {
+						break;
+					}
+					utilizations.add(utilization);
+				}
+			} catch (EOFException e) {
+				logger.warn("Utilization journal " + segmentPath(number) + " ends with an incomplete save");
+			}
+		}
+		return utilizations;
+	}
+
+	/**
+	 * This method is used to append a save, it is on the disk once
+	 * {@link #force(long)} returns for its ticket
+	 *
+	 * @param utilization
+	 * @return long - ticket of the save
+	 * @throws IOException
+	 */
+	synchronized long append(Utilization utilization) throws IOException {
+		if (channel == null) {
+			channel = FileChannel.open(segmentPath(++segment), StandardOpenOption.CREATE_NEW,
+					StandardOpenOption.WRITE);
+			forceDirectory();
+		}
+		ByteBuffer record = encode(utilization);
+		while (record.hasRemaining()) {
+			channel.write(record);
+		}
+		return ++appended;
+	}
+
+	/**
+	 * This method is used to wait until a save is on the disk. The caller
+	 * which finds no force running forces every save appended so far, the
+	 * others wait for it
+	 *
+	 * @param ticket
+	 *            - returned by {@link #append(Utilization)}
+	 * @throws IOException
+	 */
+	void force(long ticket) throws IOException {
+		FileChannel forcedChannel;
+		long upTo;
+		synchronized (this) {
+			while (forced < ticket && forcing) {
+				awaitForce();
+			}
+			// also when a rotation forced the segment before closing it
+			if (forced >= ticket) {
+				return;
+			}
+			forcing = true;
+			forcedChannel = channel;
+			upTo = appended;
+		}
+		boolean done = false;
+		try {
+			forcedChannel.force(false);
+			done = true;
+		} finally {
+			synchronized (this) {
+				forcing = false;
+				if (done) {
+					forced = Math.max(forced, upTo);
+				}
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * This method is used to start a new segment, the next append goes to it
+	 *
+	 * @return long - number of the new segment, every save appended before is
+	 *         in a lower segment
+	 * @throws IOException
+	 */
+	synchronized long rotate() throws IOException {
+		while (forcing) {
+			awaitForce();
+		}
+		if (channel != null) {
+			// saves waiting for a force are in this segment
+			channel.force(false);
+			forced = appended;
+			channel.close();
+			channel = null;
+		}
+		return segment + 1;
+	}
+
+	/**
+	 * This method is used to delete the segments of the saves written to the
+	 * database
+	 *
+	 * @param number
+	 *            - segments lower than it are deleted
+	 * @throws IOException
+	 */
+	synchronized void deleteBefore(long number) throws IOException {
+		for (long existing : segments()) {
+			if (existing < number) {
+				Files.deleteIfExists(segmentPath(existing));
+			}
+		}
+	}
+
+	synchronized void close() throws IOException {
+		while (forcing) {
+			awaitForce();
+		}
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Forces the directory entry of a new segment to the disk, forcing the
+	 * segment alone can leave it without a name after a crash. Not every
+	 * platform can open a directory, there it is left to the file system
+	 */
+	private void forceDirectory() {
+		try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			directoryChannel.force(true);
+		} catch (IOException e) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Unable to force utilization journal directory " + directory + ", " + e.getMessage());
+			}
+		}
+	}
+
+	private void awaitForce() throws IOException {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the utilization journal");
+		}
+	}
+
+	private Path segmentPath(long number) {
+		return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+	}
+
+	private List<Long> segments() throws IOException {
+		List<Long> segments = new ArrayList<Long>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+				SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				try {
+					segments.add(Long.parseLong(
+							name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+				} catch (NumberFormatException e) {
+					// not a segment
+				}
+			}
+		}
+		Collections.sort(segments);
+		return segments;
+	}
+
+	private static ByteBuffer encode(Utilization utilization) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(payload);
+		output.writeUTF(utilization.getEmployeeIdNumber());
+		output.writeUTF(utilization.getYear());
+		output.writeUTF(utilization.getUpdatedBy() == null ? "" : utilization.getUpdatedBy());
+		byte[] json = utilization.getUtilizationJson() == null ? new byte[0]
+				: utilization.getUtilizationJson().getBytes(StandardCharsets.UTF_8);
+		output.writeInt(json.length);
+		output.write(json);
+		output.flush();
+		byte[] bytes = payload.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		ByteBuffer record = ByteBuffer.allocate(12 + bytes.length);
+		record.putInt(bytes.length).putLong(crc.getValue()).put(bytes);
+		record.flip();
+		return record;
+	}
+
+	/**
+	 * @return Utilization - null at the end of the segment or at a record
+	 *         which fails its checksum
+	 */
+	private Utilization read(DataInputStream input) throws IOException {
+		int length;
+		try {
+			length = input.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		long checksum = input.readLong();
+		if (length < 0 || length > MAX_RECORD_LENGTH) {
+			logger.warn("Utilization journal has an invalid save of length " + length);
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		if (crc.getValue() != checksum) {
+			logger.warn("Utilization journal has a save which fails its checksum");
+			return null;
+		}
+		DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+		Utilization utilization = new Utilization(payload.readUTF(), payload.readUTF(), null);
+		String updatedBy = payload.readUTF();
+		utilization.setUpdatedBy(updatedBy.isEmpty() ? null : updatedBy);
+		byte[] json = new byte[payload.readInt()];
+		payload.readFully(json);
+		utilization.setUtilizationJson(new String(json, StandardCharsets.UTF_8));
+		return utilization;
+	}
+}
@@ -0,0 +1,293 @@
+package com.ph.ibm.repository.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.cache.ArchivedYears;
+import com.ph.ibm.metrics.MetricsRegistry;
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.repository.UtilizationEngagementRepository;
+
+/**
+ * This class holds the latest utilization saved for each employee and year
+ * until it is written to the database. A save is written to the
+ * {@link UtilizationJournal} before it is acknowledged and replaces the save
+ * of the same employee and year still waiting, so an employee saving every
+ * few seconds costs one database write per flush. The waiting saves are
+ * written in a single transaction every "opum.writebehind.flush.millis"
+ * (1000), or as soon as "opum.writebehind.flush.size" (200) employee-years
+ * are waiting. Once "opum.writebehind.max.pending" (10000) are waiting a save
+ * waits for a flush, so a database which is down fails the saves instead of
+ * growing the journal. The journal is kept in the directory named by the
+ * "opum.writebehind.dir" system property, by default opum-writebehind in the
+ * temporary directory, and replayed when the buffer starts
+ */
+final class UtilizationWriteBuffer {
+
+	private static final String DIRECTORY_PROPERTY = "opum.writebehind.dir";
+
+	private static final long DEFAULT_FLUSH_MILLIS = 1000;
+
+	private static final int DEFAULT_FLUSH_SIZE = 200;
+
+	private static final int DEFAULT_MAX_PENDING = 10000;
+
+	private static UtilizationWriteBuffer utilizationWriteBuffer;
+
+	private Logger logger = Logger.getLogger(UtilizationWriteBuffer.class);
+
+	private final UtilizationEngagementRepository utilizationEngagementRepository;
+
+	private final UtilizationJournal journal;
+
+	/** Latest save by key, a save stays until the flush writing it committed */
+	private final ConcurrentMap<String, Utilization> pending = new ConcurrentHashMap<String, Utilization>();
+
+	private final Object flushLock = new Object();
+
+	private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+	private final int flushSize = Integer.getInteger("opum.writebehind.flush.size", DEFAULT_FLUSH_SIZE);
+
+	private final int maxPending = Integer.getInteger("opum.writebehind.max.pending", DEFAULT_MAX_PENDING);
+
+	private final ScheduledExecutorService flusher;
+
+	private final LongAdder written = MetricsRegistry.getInstance().counter("opum_write_behind_written_total",
+			"Buffered utilization saves written to the database", "");
+
+	private final LongAdder coalesced = MetricsRegistry.getInstance().counter("opum_write_behind_coalesced_total",
+			"Buffered utilization saves replaced by a later save", "");
+
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			flushQueued.set(false);
+			try {
+				flush();
+			} catch (Exception e) {
+				// the saves stay buffered and journaled for the next flush
+				logger.error("Unable to write buffered utilization due to " + e.getMessage(), e);
+			}
+		}
+	};
+
+	private UtilizationWriteBuffer(UtilizationEngagementRepository utilizationEngagementRepository, Path directory)
+			throws IOException {
+		this.utilizationEngagementRepository = utilizationEngagementRepository;
+		this.journal = new UtilizationJournal(directory);
+		List<Utilization> recovered = journal.recover();
+		for (Utilization utilization : recovered) {
+			String key = key(utilization.getEmployeeIdNumber(), utilization.getYear());
+			if (key != null) {
+				pending.put(key, utilization);
+			}
+		}
+		if (!recovered.isEmpty()) {
+			logger.info("Recovered " + pending.size() + " buffered utilization/s from " + directory);
+		}
+		this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "opum-write-behind");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		long flushMillis = Long.getLong("opum.writebehind.flush.millis", DEFAULT_FLUSH_MILLIS);
+		flusher.scheduleWithFixedDelay(flushTask, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+		MetricsRegistry.getInstance().gauge("opum_write_behind_pending", "Utilization saves waiting to be written", "",
+				new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						return pending.size();
+					}
+				});
+	}
+
+	/**
+	 * This method is used to get the buffer, started and replayed on first
+	 * use
+	 *
+	 * @return UtilizationWriteBuffer
+	 * @throws IllegalStateException
+	 *             when the journal cannot be read
+	 */
+	static synchronized UtilizationWriteBuffer getInstance() {
+		if (utilizationWriteBuffer == null) {
+			Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY,
+					Paths.get(System.getProperty("java.io.tmpdir"), "opum-writebehind").toString()));
+			try {
+				utilizationWriteBuffer = new UtilizationWriteBuffer(WriteBehindUtilizationRepository.newDelegate(),
+						directory);
+			} catch (IOException e) {
+				throw new IllegalStateException("Unable to open utilization journal " + directory, e);
+			}
+		}
+		return utilizationWriteBuffer;
+	}
+
+	/**
+	 * @return UtilizationWriteBuffer - null if the buffer was not used
+	 */
+	static synchronized UtilizationWriteBuffer getStartedInstance() {
+		return utilizationWriteBuffer;
+	}
+
+	/**
+	 * @param employeeId
+	 * @param year
+	 * @return String - key of the employee and year, null if either is not a
+	 *         number
+	 */
+	static String key(String employeeId, String year) {
+		try {
+			return Integer.parseInt(year.trim()) + ":" + Integer.parseInt(employeeId.trim());
+		} catch (NumberFormatException | NullPointerException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to buffer a save, it is on the disk when the method
+	 * returns
+	 *
+	 * @param utilization
+	 *            - employee id number holds the employee id, both it and the
+	 *            year are numbers
+	 * @throws IOException
+	 *             when the save cannot be journaled, it is not buffered
+	 * @throws SQLException
+	 *             when too many saves are waiting and writing them fails
+	 */
+	void put(Utilization utilization) throws IOException, SQLException {
+		if (pending.size() >= maxPending) {
+			flush();
+		}
+		String key = key(utilization.getEmployeeIdNumber(), utilization.getYear());
+		long ticket;
+		Utilization replaced;
+		synchronized (this) {
+			// journal order is the order of the buffer, the replay ends with the same save
+			ticket = journal.append(utilization);
+			replaced = pending.put(key, utilization);
+		}
+		try {
+			// outside of the lock, saves made meanwhile share the force
+			journal.force(ticket);
+		} catch (IOException e) {
+			// not acknowledged, the save it replaced is waiting again
+			if (replaced == null) {
+				pending.remove(key, utilization);
+			} else {
+				pending.replace(key, utilization, replaced);
+			}
+			throw e;
+		}
+		if (replaced != null) {
+			coalesced.increment();
+		}
+		if (pending.size() >= flushSize && flushQueued.compareAndSet(false, true)) {
+			flusher.execute(flushTask);
+		}
+	}
+
+	/**
+	 * @param key
+	 * @return Utilization - save waiting for the key, null if there is none
+	 */
+	Utilization get(String key) {
+		return key == null ? null : pending.get(key);
+	}
+
+	boolean isEmpty() {
+		return pending.isEmpty();
+	}
+
+	/**
+	 * This method is used to write the waiting saves in a single transaction.
+	 * Saves of a year archived while they waited cannot be written and are
+	 * dropped
+	 *
+	 * @throws SQLException
+	 *             the saves stay buffered
+	 */
+	void flush() throws SQLException {
+		synchronized (flushLock) {
+			Map<String, Utilization> batch;
+			long nextSegment;
+			synchronized (this) {
+				if (pending.isEmpty()) {
+					return;
+				}
+				try {
+					nextSegment = journal.rotate();
+				} catch (IOException e) {
+					throw new SQLException("Unable to rotate utilization journal", e);
+				}
+				batch = new HashMap<String, Utilization>(pending);
+			}
+			List<Utilization> utilizations = new ArrayList<Utilization>(batch.size());
+			for (Utilization utilization : batch.values()) {
+				// a year being archived is flushed before its rows are moved
+				if (ArchivedYears.getInstance().isArchived(Integer.parseInt(utilization.getYear().trim()))) {
+					logger.error("Dropped buffered utilization of employee " + utilization.getEmployeeIdNumber()
+							+ ", " + utilization.getYear() + " is archived");
+					continue;
+				}
+				utilizations.add(utilization);
+			}
+			if (!utilizations.isEmpty()) {
+				try {
+					utilizationEngagementRepository.saveUtilizations(utilizations);
+				} catch (IllegalArgumentException e) {
+					// archived elsewhere, the next flush drops the saves of the year
+					ArchivedYears.getInstance().refresh();
+					throw new SQLException("Buffered utilization of an archived year", e);
+				}
+			}
+			for (Map.Entry<String, Utilization> entry : batch.entrySet()) {
+				// a save made during the flush stays for the next one
+				pending.remove(entry.getKey(), entry.getValue());
+			}
+			written.add(utilizations.size());
+			try {
+				journal.deleteBefore(nextSegment);
+			} catch (IOException e) {
+				// a restart writes these saves once more
+				logger.warn("Unable to delete written utilization journal due to " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * This method is used to stop the periodic flush and write the waiting
+	 * saves, what cannot be written stays in the journal for the next start
+	 */
+	void shutdown() {
+		flusher.shutdownNow();
+		flushTask.run();
+		try {
+			journal.close();
+		} catch (IOException e) {
+			logger.warn("Unable to close utilization journal due to " + e.getMessage(), e);
+		}
+	}
+}
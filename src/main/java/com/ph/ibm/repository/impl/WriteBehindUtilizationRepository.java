@@ -0,0 +1,138 @@
+package com.ph.ibm.repository.impl;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.model.Utilization;
+import com.ph.ibm.repository.UtilizationEngagementRepository;
+import com.ph.ibm.resources.OpumBinder;
+
+/**
+ * This class is the write-behind variant of
+ * {@link UtilizationEngagementRepositoryImpl}, for a UI that saves the whole
+ * year on every edit. A save is acknowledged once it is journaled to the
+ * local disk and is written to the database by the {@link UtilizationWriteBuffer}
+ * together with the other saves waiting, keeping only the latest save of each
+ * employee and year. Reads of an employee and year see its waiting save,
+ * scans of a year and imports write the waiting saves first. It is enabled
+ * with -Dopum.repository.UtilizationEngagementRepository=
+ * com.ph.ibm.repository.impl.WriteBehindUtilizationRepository, every instance
+ * shares the same buffer
+ */
+public class WriteBehindUtilizationRepository implements UtilizationEngagementRepository {
+
+	private Logger logger = Logger.getLogger(WriteBehindUtilizationRepository.class);
+
+	private final UtilizationEngagementRepository utilizationEngagementRepository = newDelegate();
+
+	private final UtilizationWriteBuffer utilizationWriteBuffer = UtilizationWriteBuffer.getInstance();
+
+	/**
+	 * This method is used to get the repository the saves are written to and
+	 * read from
+	 *
+	 * @return UtilizationEngagementRepository - configured repository, a new
+	 *         database one when the write-behind repository is configured
+	 */
+	static UtilizationEngagementRepository newDelegate() {
+		Class<? extends UtilizationEngagementRepository> implementation = OpumBinder
+				.repositoryImplementation(UtilizationEngagementRepository.class);
+		if (WriteBehindUtilizationRepository.class.isAssignableFrom(implementation)) {
+			return new UtilizationEngagementRepositoryImpl();
+		}
+		return OpumBinder.getRepository(UtilizationEngagementRepository.class);
+	}
+
+	/**
+	 * This method is used to write the waiting saves, if the write-behind
+	 * repository is in use
+	 *
+	 * @throws SQLException
+	 */
+	public static void flushBuffer() throws SQLException {
+		UtilizationWriteBuffer buffer = UtilizationWriteBuffer.getStartedInstance();
+		if (buffer != null) {
+			buffer.flush();
+		}
+	}
+
+	/**
+	 * This method is used to write the waiting saves and stop the periodic
+	 * flush, if the write-behind repository is in use
+	 */
+	public static void shutdownBuffer() {
+		UtilizationWriteBuffer buffer = UtilizationWriteBuffer.getStartedInstance();
+		if (buffer != null) {
+			buffer.shutdown();
+		}
+	}
+
+	@Override
+	public boolean saveUtilization(Utilization utilization) throws SQLException {
+		if (UtilizationWriteBuffer.key(utilization.getEmployeeIdNumber(), utilization.getYear()) == null) {
+			// cannot be written, fail now instead of on every flush
+			logger.error("Invalid utilization key " + utilization.getEmployeeIdNumber() + "/" + utilization.getYear());
+			return false;
+		}
+		Utilization buffered = new Utilization(utilization.getEmployeeIdNumber(), utilization.getYear(),
+				utilization.getUtilizationJson());
+		buffered.setUpdatedBy(utilization.getUpdatedBy());
+		try {
+			utilizationWriteBuffer.put(buffered);
+			return true;
+		} catch (IOException e) {
+			logger.error("Unable to journal utilization due to " + e.getMessage(), e);
+			return false;
+		}
+	}
+
+	@Override
+	public void saveUtilizations(List<Utilization> utilizations) throws SQLException {
+		// a waiting save written after the batch would overwrite it
+		utilizationWriteBuffer.flush();
+		utilizationEngagementRepository.saveUtilizations(utilizations);
+	}
+
+	@Override
+	public List<Utilization> retrieveUtilizations(String employeeIdNumber, String year) throws SQLException {
+		Utilization buffered = utilizationWriteBuffer.get(UtilizationWriteBuffer.key(employeeIdNumber, year));
+		if (buffered == null) {
+			return utilizationEngagementRepository.retrieveUtilizations(employeeIdNumber, year);
+		}
+		List<Utilization> utilizations = new ArrayList<Utilization>(1);
+		utilizations.add(new Utilization(employeeIdNumber, year, buffered.getUtilizationJson()));
+		return utilizations;
+	}
+
+	@Override
+	public Utilization downloadUtilization(String year, int employeeId) throws SQLException {
+		if (utilizationWriteBuffer.get(UtilizationWriteBuffer.key(String.valueOf(employeeId), year)) != null) {
+			// the employee id number is read with the utilization
+			utilizationWriteBuffer.flush();
+		}
+		return utilizationEngagementRepository.downloadUtilization(year, employeeId);
+	}
+
+	@Override
+	public Utilization getComputation(int employeeId, int year) throws SQLException {
+		Utilization buffered = utilizationWriteBuffer
+				.get(UtilizationWriteBuffer.key(String.valueOf(employeeId), String.valueOf(year)));
+		if (buffered == null) {
+			return utilizationEngagementRepository.getComputation(employeeId, year);
+		}
+		return new Utilization(String.valueOf(employeeId), String.valueOf(year), buffered.getUtilizationJson());
+	}
+
+	@Override
+	public Stream<Utilization> streamUtilizations(String year) throws SQLException {
+		if (!utilizationWriteBuffer.isEmpty()) {
+			utilizationWriteBuffer.flush();
+		}
+		return utilizationEngagementRepository.streamUtilizations(year);
+	}
+}
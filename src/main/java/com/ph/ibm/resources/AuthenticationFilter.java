@@ -0,0 +1,154 @@
+package com.ph.ibm.resources;
+
+import java.io.IOException;
+import java.security.Principal;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.log4j.Logger;
+import org.apache.log4j.MDC;
+
+import com.ph.ibm.model.SessionToken;
+import com.ph.ibm.util.OpumConstants;
+import com.ph.ibm.util.SessionTokenService;
+
+/**
+ * This filter verifies the session token sent in the Authorization header of
+ * every request, except login, registration and the metrics scrape.
+ * Verification is done in memory by {@link SessionTokenService}.
+ * Authentication can be turned off by setting the "opum.auth.enabled" system
+ * property to false, every request is then treated as an admin. The employee
+ * id number of the caller is put into the logging context as the username.
+ * Methods annotated with {@link javax.annotation.security.RolesAllowed} are
+ * checked against the role of the token by the RolesAllowedDynamicFeature
+ * registered in the application
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION)
+public class AuthenticationFilter implements ContainerRequestFilter {
+
+	/** Role of an admin in the security context */
+	public static final String ADMIN_ROLE = "admin";
+
+	private static final String BEARER = "Bearer ";
+
+	private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("opum.auth.enabled", "true"));
+
+	private SessionTokenService sessionTokenService = SessionTokenService.getInstance();
+
+	private Logger logger = Logger.getLogger(AuthenticationFilter.class);
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) throws IOException {
+		if (!ENABLED) {
+			requestContext.setSecurityContext(new UnauthenticatedSecurityContext(requestContext.getSecurityContext().isSecure()));
+			return;
+		}
+		if (HttpMethod.OPTIONS.equals(requestContext.getMethod())) {
+			return;
+		}
+		String path = requestContext.getUriInfo().getPath();
+		if (path.startsWith("opum/userLogin") || path.startsWith("opum/registration")
+				|| path.equals("opum/metrics")) {
+			return;
+		}
+		String authorization = requestContext.getHeaderString(HttpHeaders.AUTHORIZATION);
+		SessionToken sessionToken = authorization != null && authorization.startsWith(BEARER)
+				? sessionTokenService.verify(authorization.substring(BEARER.length())) : null;
+		if (sessionToken == null) {
+			logger.error(OpumConstants.UNAUTHORIZED);
+			requestContext.abortWith(Response.status(Status.UNAUTHORIZED).entity(OpumConstants.UNAUTHORIZED).build());
+			return;
+		}
+		MDC.put(LoggingContextFilter.USERNAME, sessionToken.getEmployeeIdNumber());
+		requestContext.setSecurityContext(
+				new TokenSecurityContext(sessionToken, requestContext.getSecurityContext().isSecure()));
+	}
+
+	/**
+	 * Security context of a request authenticated by a session token, the
+	 * principal name is the employee id
+	 */
+	private static class TokenSecurityContext implements SecurityContext {
+
+		private final SessionToken sessionToken;
+		private final boolean secure;
+
+		TokenSecurityContext(SessionToken sessionToken, boolean secure) {
+			this.sessionToken = sessionToken;
+			this.secure = secure;
+		}
+
+		@Override
+		public Principal getUserPrincipal() {
+			return new Principal() {
+				@Override
+				public String getName() {
+					return String.valueOf(sessionToken.getEmployeeId());
+				}
+			};
+		}
+
+		@Override
+		public boolean isUserInRole(String role) {
+			return ADMIN_ROLE.equals(role) && sessionToken.isAdmin();
+		}
+
+		@Override
+		public boolean isSecure() {
+			return secure;
+		}
+
+		@Override
+		public String getAuthenticationScheme() {
+			return "Bearer";
+		}
+	}
+
+	/**
+	 * Security context used when authentication is turned off, the caller is
+	 * the admin and is in every role
+	 */
+	private static class UnauthenticatedSecurityContext implements SecurityContext {
+
+		private final boolean secure;
+
+		UnauthenticatedSecurityContext(boolean secure) {
+			this.secure = secure;
+		}
+
+		@Override
+		public Principal getUserPrincipal() {
+			return new Principal() {
+				@Override
+				public String getName() {
+					return OpumConstants.ADMIN;
+				}
+			};
+		}
+
+		@Override
+		public boolean isUserInRole(String role) {
+			return true;
+		}
+
+		@Override
+		public boolean isSecure() {
+			return secure;
+		}
+
+		@Override
+		public String getAuthenticationScheme() {
+			return null;
+		}
+	}
+}
@@ -2,29 +2,54 @@ package com.ph.ibm.resources;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.log4j.Logger;
 
+import com.ph.ibm.metrics.LatencyHistogram;
+import com.ph.ibm.metrics.MetricsRegistry;
 import com.ph.ibm.util.OpumConstants;
 
 /**
- * This class contains connection to mysql database.
+ * This class contains connection to mysql database. The database is read from
+ * the "opum.db.url", "opum.db.user" and "opum.db.password" system properties
+ * and the JDBC driver from "opum.db.driver", they default to the local opum
+ * schema. Streamed reads use the fetch size in "opum.db.fetchSize", it
+ * defaults to Integer.MIN_VALUE which makes MySQL send the rows one at a time
  */
 public class ConnectionPool {
 
 	Logger logger = Logger.getLogger(ConnectionPool.class);
 
+	private static final String URL = System.getProperty("opum.db.url",
+			"jdbc:mysql://localhost:3306/opum?rewriteBatchedStatements=true");
+
+	private static final String USER = System.getProperty("opum.db.user", "root");
+
+	private static final String PASSWORD = System.getProperty("opum.db.password", "root");
+
+	private static final int STREAMING_FETCH_SIZE = Integer.getInteger("opum.db.fetchSize", Integer.MIN_VALUE);
+
 	private static ConnectionPool connectionPool = new ConnectionPool();
 
+	private final LongAdder opened = MetricsRegistry.getInstance().counter("opum_db_connections_opened_total",
+			"Database connections opened", "");
+
+	private final LongAdder failures = MetricsRegistry.getInstance().counter("opum_db_connection_failures_total",
+			"Database connections which could not be opened", "");
+
+	private final LatencyHistogram wait = MetricsRegistry.getInstance().histogram("opum_db_connection_wait_seconds",
+			"Time spent opening a database connection", "");
+
 	private ConnectionPool() {
 
 	}
 
 	static {
 		try {
-			Class.forName("com.mysql.jdbc.Driver");
+			Class.forName(System.getProperty("opum.db.driver", "com.mysql.jdbc.Driver"));
 		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
+			Logger.getLogger(ConnectionPool.class).error("JDBC driver not found", e);
 		}
 	}
 
@@ -34,12 +59,23 @@ public class ConnectionPool {
 
 	public Connection getConnection() {
 		Connection connection = null;
+		long start = System.nanoTime();
 		try {
-			connection = DriverManager.getConnection("jdbc:mysql://localhost:3306/opum", "root", "root");
+			connection = DriverManager.getConnection(URL, USER, PASSWORD);
+			opened.increment();
 		} catch (Exception e) {
-			logger.error(OpumConstants.UNABLE_TO_ESTABLISH_CONNECTION);
-			e.printStackTrace();
+			failures.increment();
+			logger.error(OpumConstants.UNABLE_TO_ESTABLISH_CONNECTION, e);
+		} finally {
+			wait.record(System.nanoTime() - start);
 		}
 		return connection;
 	}
+
+	/**
+	 * @return int - fetch size of forward only result sets read as a stream
+	 */
+	public int getStreamingFetchSize() {
+		return STREAMING_FETCH_SIZE;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.ph.ibm.resources;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Priority;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.log4j.MDC;
+
+/**
+ * This filter puts the transaction id of a request into the log4j MDC, so
+ * every line logged while serving the request can be correlated. The
+ * transaction id is taken from the X-Transaction-Id header when the caller
+ * sends one, otherwise a new one is generated, and it is returned in the same
+ * header. The username is added by {@link AuthenticationFilter} once the
+ * session token is verified
+ */
+@Provider
+@PreMatching
+@Priority(0)
+public class LoggingContextFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+	/** MDC key of the transaction id, used by the log4j conversion pattern */
+	public static final String TRANSACTION_ID = "transactionId";
+
+	/** MDC key of the employee id number of the caller */
+	public static final String USERNAME = "username";
+
+	/** Header which carries the transaction id */
+	public static final String TRANSACTION_ID_HEADER = "X-Transaction-Id";
+
+	private static final int MAXIMUM_TRANSACTION_ID_LENGTH = 64;
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) throws IOException {
+		String transactionId = requestContext.getHeaderString(TRANSACTION_ID_HEADER);
+		if (transactionId == null || transactionId.isEmpty()
+				|| transactionId.length() > MAXIMUM_TRANSACTION_ID_LENGTH) {
+			transactionId = UUID.randomUUID().toString();
+		}
+		// container threads are reused, never keep the caller of a previous
+		// request
+		MDC.remove(USERNAME);
+		MDC.put(TRANSACTION_ID, transactionId);
+		requestContext.setProperty(TRANSACTION_ID, transactionId);
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+			throws IOException {
+		Object transactionId = requestContext.getProperty(TRANSACTION_ID);
+		if (transactionId != null) {
+			responseContext.getHeaders().putSingle(TRANSACTION_ID_HEADER, transactionId);
+		}
+		clear();
+	}
+
+	/**
+	 * This method is used to copy the logging context of the current thread,
+	 * to be restored on the thread which continues the request
+	 *
+	 * @return Map - transaction id and username of the current request
+	 */
+	public static Map<String, Object> capture() {
+		Map<String, Object> context = new HashMap<String, Object>(4);
+		Object transactionId = MDC.get(TRANSACTION_ID);
+		if (transactionId != null) {
+			context.put(TRANSACTION_ID, transactionId);
+		}
+		Object username = MDC.get(USERNAME);
+		if (username != null) {
+			context.put(USERNAME, username);
+		}
+		return context;
+	}
+
+	/**
+	 * This method is used to replace the logging context of the current thread
+	 *
+	 * @param context
+	 *            - from {@link #capture()}
+	 */
+	public static void restore(Map<String, Object> context) {
+		clear();
+		for (Map.Entry<String, Object> entry : context.entrySet()) {
+			MDC.put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * This method is used to remove the logging context of the current thread
+	 */
+	public static void clear() {
+		MDC.remove(TRANSACTION_ID);
+		MDC.remove(USERNAME);
+	}
+}
@@ -0,0 +1,73 @@
+package com.ph.ibm.resources;
+
+import javax.ws.rs.core.Response.Status.Family;
+import javax.ws.rs.ext.Provider;
+
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import com.ph.ibm.metrics.EndpointMetrics;
+import com.ph.ibm.metrics.MetricsRegistry;
+
+/**
+ * This listener records the count, server error count, in-flight requests and
+ * latency of every resource method. The latency runs from the moment Jersey
+ * receives the request until the response was written, so suspended requests
+ * include their time on a workload queue
+ */
+@Provider
+public class MetricsListener implements ApplicationEventListener {
+
+	private MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+
+	@Override
+	public void onEvent(ApplicationEvent event) {
+
+	}
+
+	@Override
+	public RequestEventListener onRequest(RequestEvent requestEvent) {
+		return new EndpointListener(System.nanoTime());
+	}
+
+	/**
+	 * Follows a single request
+	 */
+	private class EndpointListener implements RequestEventListener {
+
+		private final long start;
+
+		private EndpointMetrics endpointMetrics;
+
+		private EndpointListener(long start) {
+			this.start = start;
+		}
+
+		@Override
+		public void onEvent(RequestEvent event) {
+			switch (event.getType()) {
+			case RESOURCE_METHOD_START:
+				ResourceMethod resourceMethod = event.getUriInfo().getMatchedResourceMethod();
+				endpointMetrics = metricsRegistry
+						.endpoint(resourceMethod.getInvocable().getHandler().getHandlerClass().getSimpleName() + "."
+								+ resourceMethod.getInvocable().getDefinitionMethod().getName());
+				endpointMetrics.start();
+				break;
+			case FINISHED:
+				if (endpointMetrics != null) {
+					ContainerResponse response = event.getContainerResponse();
+					boolean error = !event.isSuccess() || response == null
+							|| response.getStatusInfo().getFamily() == Family.SERVER_ERROR;
+					endpointMetrics.finish(System.nanoTime() - start, error);
+				}
+				break;
+			default:
+				break;
+			}
+		}
+	}
+}
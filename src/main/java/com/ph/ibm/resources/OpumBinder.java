@@ -0,0 +1,137 @@
+package com.ph.ibm.resources;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Singleton;
+
+import org.apache.log4j.Logger;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+
+import com.ph.ibm.bo.EmployeeBO;
+import com.ph.ibm.bo.HolidayBO;
+import com.ph.ibm.bo.ProjectBO;
+import com.ph.ibm.bo.UtilityBO;
+import com.ph.ibm.bo.YearBO;
+import com.ph.ibm.repository.EmployeeRepository;
+import com.ph.ibm.repository.HolidayEngagementRepository;
+import com.ph.ibm.repository.PUMYearRepository;
+import com.ph.ibm.repository.ProjectEngagementRepository;
+import com.ph.ibm.repository.ProjectRepository;
+import com.ph.ibm.repository.UtilizationArchiveRepository;
+import com.ph.ibm.repository.UtilizationChangeRepository;
+import com.ph.ibm.repository.UtilizationEngagementRepository;
+import com.ph.ibm.repository.impl.EmployeeRepositoryImpl;
+import com.ph.ibm.repository.impl.HolidayRepositoryImpl;
+import com.ph.ibm.repository.impl.PUMYearRepositoryImpl;
+import com.ph.ibm.repository.impl.ProjectEngagementRepositoryImpl;
+import com.ph.ibm.repository.impl.ProjectRepositoryImpl;
+import com.ph.ibm.repository.impl.UtilizationArchiveRepositoryImpl;
+import com.ph.ibm.repository.impl.UtilizationChangeRepositoryImpl;
+import com.ph.ibm.repository.impl.UtilizationEngagementRepositoryImpl;
+
+/**
+ * This class registers the repositories and business objects as application
+ * scoped singletons. A repository is injected by its interface, the
+ * implementation can be replaced at startup with the
+ * "opum.repository.&lt;interface name&gt;" system property, e.g.
+ * -Dopum.repository.EmployeeRepository=com.example.CachedEmployeeRepository.
+ * <br>
+ * The in-memory caches are static singletons, created on first use by the
+ * context listener, the background threads or the business objects, before
+ * or outside of the application, so they cannot be injected. They take the
+ * instances bound here from {@link #getRepository(Class)}, each repository is
+ * created once and the caches and the business objects share it
+ */
+public class OpumBinder extends AbstractBinder {
+
+	private static final String REPOSITORY_PROPERTY_PREFIX = "opum.repository.";
+
+	private static Logger logger = Logger.getLogger(OpumBinder.class);
+
+	/** Implementation of each repository when none is configured */
+	private static final Map<Class<?>, Class<?>> DEFAULT_IMPLEMENTATIONS = new LinkedHashMap<Class<?>, Class<?>>();
+
+	/** Instance of each repository, created on first use */
+	private static final Map<Class<?>, Object> repositories = new HashMap<Class<?>, Object>();
+
+	static {
+		DEFAULT_IMPLEMENTATIONS.put(EmployeeRepository.class, EmployeeRepositoryImpl.class);
+		DEFAULT_IMPLEMENTATIONS.put(HolidayEngagementRepository.class, HolidayRepositoryImpl.class);
+		DEFAULT_IMPLEMENTATIONS.put(PUMYearRepository.class, PUMYearRepositoryImpl.class);
+		DEFAULT_IMPLEMENTATIONS.put(ProjectEngagementRepository.class, ProjectEngagementRepositoryImpl.class);
+		DEFAULT_IMPLEMENTATIONS.put(ProjectRepository.class, ProjectRepositoryImpl.class);
+		DEFAULT_IMPLEMENTATIONS.put(UtilizationEngagementRepository.class, UtilizationEngagementRepositoryImpl.class);
+		DEFAULT_IMPLEMENTATIONS.put(UtilizationChangeRepository.class, UtilizationChangeRepositoryImpl.class);
+		DEFAULT_IMPLEMENTATIONS.put(UtilizationArchiveRepository.class, UtilizationArchiveRepositoryImpl.class);
+	}
+
+	@Override
+	protected void configure() {
+		for (Class<?> contract : DEFAULT_IMPLEMENTATIONS.keySet()) {
+			bindRepository(contract);
+		}
+
+		bindAsContract(EmployeeBO.class).in(Singleton.class);
+		bindAsContract(HolidayBO.class).in(Singleton.class);
+		bindAsContract(ProjectBO.class).in(Singleton.class);
+		bindAsContract(UtilityBO.class).in(Singleton.class);
+		bindAsContract(YearBO.class).in(Singleton.class);
+	}
+
+	private <T> void bindRepository(Class<T> contract) {
+		T repository = getRepository(contract);
+		logger.info("Binding " + contract.getSimpleName() + " to " + repository.getClass().getName());
+		bind(repository).to(contract);
+	}
+
+	/**
+	 * This method is used to get a repository outside of injection, for the
+	 * singletons which are created before the application
+	 *
+	 * @param contract
+	 *            - repository interface
+	 * @return T - instance of the configured implementation, the one injected
+	 * @throws IllegalStateException
+	 *             when the configured implementation cannot be created
+	 */
+	public static synchronized <T> T getRepository(Class<T> contract) {
+		Object repository = repositories.get(contract);
+		if (repository == null) {
+			Class<? extends T> implementation = repositoryImplementation(contract);
+			try {
+				repository = implementation.getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Unable to create " + implementation.getName(), e);
+			}
+			repositories.put(contract, repository);
+		}
+		return contract.cast(repository);
+	}
+
+	/**
+	 * @param contract
+	 *            - repository interface
+	 * @return Class - configured implementation of the repository
+	 * @throws IllegalStateException
+	 *             when the configured implementation is invalid or the
+	 *             repository is unknown
+	 */
+	public static <T> Class<? extends T> repositoryImplementation(Class<T> contract) {
+		Class<?> defaultImplementation = DEFAULT_IMPLEMENTATIONS.get(contract);
+		if (defaultImplementation == null) {
+			throw new IllegalStateException("Unknown repository " + contract.getName());
+		}
+		String className = System.getProperty(REPOSITORY_PROPERTY_PREFIX + contract.getSimpleName());
+		if (className == null || className.trim().isEmpty()) {
+			return defaultImplementation.asSubclass(contract);
+		}
+		try {
+			return Class.forName(className.trim()).asSubclass(contract);
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IllegalStateException("Invalid " + contract.getSimpleName() + " implementation " + className,
+					e);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.ph.ibm.resources;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.cache.ArchivedYears;
+import com.ph.ibm.cache.EmployeeIdentityCache;
+import com.ph.ibm.cache.EmployeeSearchIndex;
+import com.ph.ibm.cache.ProjectCatalog;
+import com.ph.ibm.repository.impl.WriteBehindUtilizationRepository;
+
+/**
+ * This class loads the in-memory caches and starts the change log compaction
+ * when the application starts and stops the background threads when it stops
+ */
+@WebListener
+public class OpumContextListener implements ServletContextListener {
+
+	private Logger logger = Logger.getLogger(OpumContextListener.class);
+
+	@Override
+	public void contextInitialized(ServletContextEvent servletContextEvent) {
+		try {
+			EmployeeIdentityCache.getInstance().warm();
+		} catch (Exception e) {
+			// lookups still load the employees on a miss
+			logger.error("Unable to load employee identity cache due to " + e.getMessage(), e);
+		}
+		try {
+			EmployeeSearchIndex.getInstance().refresh();
+		} catch (Exception e) {
+			// the first search loads the index
+			logger.error("Unable to load employee search index due to " + e.getMessage(), e);
+		}
+		try {
+			ArchivedYears.getInstance().refresh();
+		} catch (Exception e) {
+			// the first utilization read loads the archived years
+			logger.error("Unable to load archived years due to " + e.getMessage(), e);
+		}
+		UtilizationChangeCompactor.getInstance().start();
+	}
+
+	@Override
+	public void contextDestroyed(ServletContextEvent servletContextEvent) {
+		ProjectCatalog.getInstance().shutdown();
+		UtilizationChangeCompactor.getInstance().shutdown();
+		WorkloadExecutors.getInstance().shutdown();
+		WriteBehindUtilizationRepository.shutdownBuffer();
+		// flushes the events still buffered by the asynchronous appender
+		LogManager.shutdown();
+	}
+}
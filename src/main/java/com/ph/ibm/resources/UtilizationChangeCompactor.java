@@ -0,0 +1,94 @@
+package com.ph.ibm.resources;
+
+import java.sql.Timestamp;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.repository.UtilizationChangeRepository;
+
+/**
+ * This class periodically compacts the utilization change log. The changes of
+ * an employee and year older than the retention are merged into one, so the
+ * log holds every change of the retention and a single change per employee
+ * and year of each run before it. Each run only reads the changes after the
+ * last one the previous run compacted, the first run after a start reads the
+ * whole log. A consumer which read the log within the retention misses
+ * nothing, a consumer further behind still ends with the saved hours. The
+ * retention in hours and the interval in minutes are read from the
+ * "opum.changelog.retention.hours" and "opum.changelog.compaction.minutes"
+ * system properties
+ */
+public class UtilizationChangeCompactor {
+
+	private static final long DEFAULT_RETENTION_HOURS = 168;
+
+	private static final long DEFAULT_COMPACTION_MINUTES = 60;
+
+	private static UtilizationChangeCompactor utilizationChangeCompactor = new UtilizationChangeCompactor(
+			OpumBinder.getRepository(UtilizationChangeRepository.class));
+
+	private Logger logger = Logger.getLogger(UtilizationChangeCompactor.class);
+
+	private final UtilizationChangeRepository utilizationChangeRepository;
+
+	private final long retentionHours = Long.getLong("opum.changelog.retention.hours", DEFAULT_RETENTION_HOURS);
+
+	private final ScheduledExecutorService compactor;
+
+	/** Sequence of the last change compacted, changes up to it are not read again */
+	private volatile long lastCompacted;
+
+	private UtilizationChangeCompactor(UtilizationChangeRepository utilizationChangeRepository) {
+		this.utilizationChangeRepository = utilizationChangeRepository;
+		this.compactor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "opum-change-log-compactor");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	public static UtilizationChangeCompactor getInstance() {
+		return utilizationChangeCompactor;
+	}
+
+	/**
+	 * This method is used to start the periodic compaction
+	 */
+	public void start() {
+		long compactionMinutes = Long.getLong("opum.changelog.compaction.minutes", DEFAULT_COMPACTION_MINUTES);
+		compactor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				compact();
+			}
+		}, compactionMinutes, compactionMinutes, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * This method is used to compact the changes older than the retention
+	 * appended since the last compaction
+	 */
+	public synchronized void compact() {
+		Timestamp before = new Timestamp(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours));
+		try {
+			lastCompacted = utilizationChangeRepository.compactChanges(lastCompacted, before);
+		} catch (Exception e) {
+			// the next run compacts what this one left
+			logger.error("Unable to compact utilization change log due to " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * This method is used to stop the periodic compaction
+	 */
+	public void shutdown() {
+		compactor.shutdownNow();
+	}
+}
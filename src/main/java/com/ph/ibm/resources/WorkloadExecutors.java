@@ -0,0 +1,221 @@
+package com.ph.ibm.resources;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.metrics.LatencyHistogram;
+import com.ph.ibm.metrics.MetricsRegistry;
+import com.ph.ibm.opum.exception.OpumException;
+
+/**
+ * This class runs the heavy services outside of the container threads, on a
+ * bounded thread pool per workload so a burst of one workload cannot starve
+ * the others. When the queue of a workload is full, or a request is still
+ * queued at the timeout of its workload, the request is answered with 503 and
+ * a Retry-After header. A request already running at the timeout is answered
+ * with 504 without Retry-After, as it may be partly done. It is interrupted
+ * unless its workload saves data, an import keeps committing until it ends
+ * and its response is dropped. The threads, queue size and timeout of a workload are
+ * read from the "opum.workload.&lt;workload&gt;.threads", ".queue" and
+ * ".timeout.seconds" system properties, e.g. opum.workload.export.threads. The
+ * logging context of the request is carried over to the workload thread
+ */
+public class WorkloadExecutors {
+
+	/**
+	 * Kind of work of a service, each has its own thread pool
+	 */
+	public enum Workload {
+
+		/** Reading and saving uploaded files */
+		IMPORT(2, 4, 600, false),
+
+		/** Generating utilization workbooks */
+		EXPORT(2, 4, 300, true),
+
+		/** Computing the utilization of an employee */
+		COMPUTATION(8, 64, 30, true);
+
+		private final int threads;
+		private final int queue;
+		private final long timeoutSeconds;
+		/** false if the work saves data, the JDBC work is not interrupted anyway */
+		private final boolean interruptible;
+		private final String labels;
+
+		Workload(int threads, int queue, long timeoutSeconds, boolean interruptible) {
+			String prefix = "opum.workload." + name().toLowerCase() + ".";
+			this.threads = Integer.getInteger(prefix + "threads", threads);
+			this.queue = Integer.getInteger(prefix + "queue", queue);
+			this.timeoutSeconds = Long.getLong(prefix + "timeout.seconds", timeoutSeconds);
+			this.interruptible = interruptible;
+			this.labels = "workload=\"" + name().toLowerCase() + "\"";
+		}
+	}
+
+	private static final long RETRY_AFTER_SECONDS = Long.getLong("opum.workload.retry.after.seconds", 30);
+
+	private static WorkloadExecutors workloadExecutors = new WorkloadExecutors();
+
+	private Logger logger = Logger.getLogger(WorkloadExecutors.class);
+
+	private final Map<Workload, ThreadPoolExecutor> executors = new EnumMap<Workload, ThreadPoolExecutor>(
+			Workload.class);
+
+	private MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+
+	private WorkloadExecutors() {
+		for (final Workload workload : Workload.values()) {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(workload.threads, workload.threads, 60,
+					TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(workload.queue), new ThreadFactory() {
+
+						private final AtomicInteger counter = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"opum-" + workload.name().toLowerCase() + "-" + counter.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			executors.put(workload, executor);
+			registerGauges(workload, executor);
+		}
+	}
+
+	public static WorkloadExecutors getInstance() {
+		return workloadExecutors;
+	}
+
+	/**
+	 * This method is used to run a service on the thread pool of its workload
+	 * and resume the suspended request with its response. An exception thrown
+	 * by the service resumes the request with an {@link OpumException}
+	 *
+	 * @param workload
+	 * @param asyncResponse
+	 *            - suspended request
+	 * @param service
+	 *            - computes the response of the request
+	 */
+	public void submit(final Workload workload, final AsyncResponse asyncResponse, final Callable<Response> service) {
+		final AtomicReference<Future<?>> future = new AtomicReference<Future<?>>();
+		// set by whichever comes first, the workload thread or the timeout
+		final AtomicBoolean started = new AtomicBoolean();
+		final LatencyHistogram wait = metricsRegistry.histogram("opum_workload_wait_seconds",
+				"Time a request waited for a workload thread", workload.labels);
+		final long submitted = System.nanoTime();
+		final Map<String, Object> loggingContext = LoggingContextFilter.capture();
+		asyncResponse.setTimeoutHandler(new TimeoutHandler() {
+			@Override
+			public void handleTimeout(AsyncResponse timedOut) {
+				metricsRegistry.counter("opum_workload_timeouts_total", "Requests which timed out", workload.labels)
+						.increment();
+				Future<?> running = future.get();
+				if (started.compareAndSet(false, true)) {
+					logger.warn(workload + " request timed out after " + workload.timeoutSeconds
+							+ " seconds before it started");
+					timedOut.resume(serviceUnavailable());
+					if (running != null) {
+						running.cancel(false);
+					}
+					return;
+				}
+				logger.warn(workload + " request timed out after " + workload.timeoutSeconds + " seconds"
+						+ (workload.interruptible ? "" : ", it keeps running until it ends"));
+				timedOut.resume(Response.status(Status.GATEWAY_TIMEOUT)
+						.entity(Status.GATEWAY_TIMEOUT.getReasonPhrase()).type(MediaType.TEXT_PLAIN).build());
+				if (running != null && workload.interruptible) {
+					running.cancel(true);
+				}
+			}
+		});
+		asyncResponse.setTimeout(workload.timeoutSeconds, TimeUnit.SECONDS);
+		try {
+			future.set(executors.get(workload).submit(new Runnable() {
+				@Override
+				public void run() {
+					wait.record(System.nanoTime() - submitted);
+					if (!started.compareAndSet(false, true)) {
+						return;
+					}
+					LoggingContextFilter.restore(loggingContext);
+					try {
+						asyncResponse.resume(service.call());
+					} catch (Exception e) {
+						logger.error(e);
+						asyncResponse.resume(new OpumException(e.getMessage(), e));
+					} finally {
+						LoggingContextFilter.clear();
+					}
+				}
+			}));
+		} catch (RejectedExecutionException e) {
+			metricsRegistry.counter("opum_workload_rejected_total", "Requests rejected because the queue was full",
+					workload.labels).increment();
+			logger.warn(workload + " queue is full, rejecting request");
+			asyncResponse.resume(serviceUnavailable());
+		}
+	}
+
+	/**
+	 * This method is used to stop the thread pools, running services are
+	 * interrupted
+	 */
+	public void shutdown() {
+		for (ThreadPoolExecutor executor : executors.values()) {
+			executor.shutdownNow();
+		}
+	}
+
+	private void registerGauges(Workload workload, final ThreadPoolExecutor executor) {
+		metricsRegistry.gauge("opum_workload_threads_active", "Workload threads running a request", workload.labels,
+				new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						return executor.getActiveCount();
+					}
+				});
+		metricsRegistry.gauge("opum_workload_threads_idle", "Workload threads waiting for a request", workload.labels,
+				new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						return Math.max(executor.getPoolSize() - executor.getActiveCount(), 0);
+					}
+				});
+		metricsRegistry.gauge("opum_workload_queue_size", "Requests waiting for a workload thread", workload.labels,
+				new DoubleSupplier() {
+					@Override
+					public double getAsDouble() {
+						return executor.getQueue().size();
+					}
+				});
+	}
+
+	private Response serviceUnavailable() {
+		return Response.status(Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+				.entity(Status.SERVICE_UNAVAILABLE.getReasonPhrase()).type(MediaType.TEXT_PLAIN).build();
+	}
+}
@@ -0,0 +1,54 @@
+package com.ph.ibm.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * This class is an immutable validation rule for a single field of a row
+ */
+public final class FieldRule implements Validator<String> {
+
+	private final String field;
+	private final int column;
+	private final Pattern pattern;
+	private final String errorMessage;
+
+	/**
+	 * @param field
+	 *            - name of the field reported in the error
+	 * @param column
+	 *            - index of the field in the row
+	 * @param pattern
+	 *            - precompiled pattern the value must match
+	 * @param errorMessage
+	 *            - message reported when the value is invalid
+	 */
+	public FieldRule(String field, int column, Pattern pattern, String errorMessage) {
+		this.field = field;
+		this.column = column;
+		this.pattern = pattern;
+		this.errorMessage = errorMessage;
+	}
+
+	/**
+	 * This method validates a value against the rule pattern
+	 * 
+	 * @param value
+	 * @return true if value is not null and matches the pattern
+	 */
+	@Override
+	public boolean validate(String value) {
+		return value != null && pattern.matcher(value).matches();
+	}
+
+	public String getField() {
+		return field;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+}
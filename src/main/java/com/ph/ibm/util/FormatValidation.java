@@ -1,11 +1,25 @@
 package com.ph.ibm.util;
 
+import java.util.regex.Pattern;
+
 /**
  * This class contains regular expression patterns that validates format of
  * name, email address, employee id, project name
  */
 public class FormatValidation {
 
+	/** Pattern of employee name */
+	public static final Pattern EMPLOYEE_NAME_PATTERN = Pattern.compile("^([A-Za-z.]+[ ]{0,1})*([A-Za-z.]+[ ]{0,1})*$");
+
+	/** Pattern of employee email address */
+	public static final Pattern EMAIL_ADDRESS_PATTERN = Pattern.compile("^[a-zA-Z0-9]+@+[a-zA-Z]{0,2}([\\.]+)+[ibm]+([\\.]+)([com]{3,})$");
+
+	/** Pattern of employee id */
+	public static final Pattern EMPLOYEE_ID_PATTERN = Pattern.compile("^([A-Za-z0-9]+[ ]{0,1})*([A-Za-z0-9]+[ ]{0,1})*$");
+
+	/** Pattern of project name */
+	public static final Pattern PROJECT_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9]{3,10}$");
+
 	/**
 	 * This method validate the format of employee name
 	 * 
@@ -13,7 +27,7 @@ public class FormatValidation {
 	 * @return true if name matches the regular expression pattern
 	 */
 	public boolean isValidEmployeeName(String name) {
-		return name.matches("^([A-Za-z.]+[ ]{0,1})*([A-Za-z.]+[ ]{0,1})*$");
+		return EMPLOYEE_NAME_PATTERN.matcher(name).matches();
 	}
 
 	/**
@@ -23,7 +37,7 @@ public class FormatValidation {
 	 * @return true if email address matches the regular expression pattern
 	 */
 	public boolean isValidEmailAddress(String emailAddress) {
-		return emailAddress.matches("^[a-zA-Z0-9]+@+[a-zA-Z]{0,2}([\\.]+)+[ibm]+([\\.]+)([com]{3,})$");
+		return EMAIL_ADDRESS_PATTERN.matcher(emailAddress).matches();
 	}
 
 	/**
@@ -33,7 +47,7 @@ public class FormatValidation {
 	 * @return true if employee id matches the regular expression pattern
 	 */
 	public boolean isValidEmployeeId(String id) {
-		return id.matches("^([A-Za-z0-9]+[ ]{0,1})*([A-Za-z0-9]+[ ]{0,1})*$");
+		return EMPLOYEE_ID_PATTERN.matcher(id).matches();
 	}
 
 	/**
@@ -43,7 +57,7 @@ public class FormatValidation {
 	 * @return true if project name matches the regular expression pattern
 	 */
 	public boolean isValidProjectName(String projectName) {
-		return projectName.matches("^[a-zA-Z0-9]{3,10}$");
+		return PROJECT_NAME_PATTERN.matcher(projectName).matches();
 	}
 
 }
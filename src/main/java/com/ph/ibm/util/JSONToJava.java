@@ -1,5 +1,6 @@
 package com.ph.ibm.util;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import com.ph.ibm.model.UtilizationJson;
@@ -14,7 +15,7 @@ public class JSONToJava {
 	 * This method is used to set editable key of JSON to either E or D based on certain condition
 	 * 
 	 * @param jsonEmp
-	 * @return utilizationYear object
+	 * @return utilizationYear object, null if the JSON cannot be read
 	 */
 	public UtilizationYear jsonToJava(String jsonEmp) {
 		LocalDateTime now = LocalDateTime.now();
@@ -22,6 +23,9 @@ public class JSONToJava {
 		int currentMonth = now.getMonthValue();
 		int currentDay = now.getDayOfMonth();
 		UtilizationYear utilizationYear = JsonToJavaUtil.JsonToJava(jsonEmp, UtilizationYear.class);
+		if (utilizationYear == null) {
+			return null;
+		}
 		int counter = 0;
 
 		for (UtilizationJson json : utilizationYear.getUtilizationJSON()) {
@@ -52,4 +56,16 @@ public class JSONToJava {
 		}
 		return utilizationYear;
 	}
+
+	/**
+	 * This method is used to get the editable key of a day with the same rule
+	 * as {@link #jsonToJava(String)}, days before today are D, the rest E
+	 * 
+	 * @param date
+	 * @param today
+	 * @return String - E or D
+	 */
+	public static String editable(LocalDate date, LocalDate today) {
+		return date.isBefore(today) ? "D" : "E";
+	}
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.ph.ibm.util;
 
 import java.io.IOException;
 
+import org.apache.log4j.Logger;
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -10,6 +11,8 @@ import org.codehaus.jackson.map.ObjectMapper;
  * This class is used to convert Java Object into JSON
  */
 public class JavaToJsonUtil {
+	private static final Logger logger = Logger.getLogger(JavaToJsonUtil.class);
+
 	private static ObjectMapper mapper;
 	static {
 		mapper = new ObjectMapper();
@@ -21,14 +24,11 @@ public class JavaToJsonUtil {
 		try {
 			jsonResult = mapper.writeValueAsString(object);
 		} catch (JsonGenerationException e) {
-			System.out.println("Exception Ocurred while converting" + e.getMessage());
-			e.printStackTrace();
+			logger.error("Exception Ocurred while converting " + e.getMessage(), e);
 		} catch (JsonMappingException e) {
-			System.out.println("Exception Ocurred while converting" + e.getMessage());
-			e.printStackTrace();
+			logger.error("Exception Ocurred while converting " + e.getMessage(), e);
 		} catch (IOException e) {
-			System.out.println("Exception Ocurred while converting" + e.getMessage());
-			e.printStackTrace();
+			logger.error("Exception Ocurred while converting " + e.getMessage(), e);
 		}
 		return jsonResult;
 	}
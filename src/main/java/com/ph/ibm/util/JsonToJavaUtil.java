@@ -2,6 +2,7 @@ package com.ph.ibm.util;
 
 import java.io.IOException;
 
+import org.apache.log4j.Logger;
 import org.codehaus.jackson.JsonParseException;
 import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -11,6 +12,8 @@ import org.codehaus.jackson.map.ObjectMapper;
  */
 public class JsonToJavaUtil {
 
+	private static final Logger logger = Logger.getLogger(JsonToJavaUtil.class);
+
 	private static ObjectMapper mapper;
 	static {
 		mapper = new ObjectMapper();
@@ -21,14 +24,11 @@ public class JsonToJavaUtil {
 		try {
 			result = mapper.readValue(jsonString, cls);
 		} catch (JsonParseException e) {
-			System.out.println("Exception Ocurred while converting" + e.getMessage());
-			e.printStackTrace();
+			logger.error("Exception Ocurred while converting " + e.getMessage(), e);
 		} catch (JsonMappingException e) {
-			System.out.println("Exception Ocurred while converting" + e.getMessage());
-			e.printStackTrace();
+			logger.error("Exception Ocurred while converting " + e.getMessage(), e);
 		} catch (IOException e) {
-			System.out.println("Exception Ocurred while converting" + e.getMessage());
-			e.printStackTrace();
+			logger.error("Exception Ocurred while converting " + e.getMessage(), e);
 		}
 		return result;
 	}
@@ -8,6 +8,22 @@ public class OpumConstants {
 	/** MYSQL ERROR MESSAGE/s */
 	public static final int MYSQL_DUPLICATE_PK_ERROR_CODE = 1062;
 	
+	/** BATCH SIZE/s */
+	public static final int UPLOAD_BATCH_SIZE = 500;
+	
+	/** PAGE SIZE/s */
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+	public static final int DEFAULT_SEARCH_RESULTS = 10;
+	public static final int MAX_SEARCH_RESULTS = 100;
+	
+	/** UTILIZATION LIMIT/s */
+	public static final int MAX_UTILIZATION_HOURS = 24;
+	public static final int WORKING_HOURS_PER_DAY = 8;
+	
+	/** ACCOUNT */
+	public static final String ACCOUNT_NAME = "USAA";
+	
 	/** VALIDATION ERROR MESSAGE/s */
 	public static final String UNABLE_TO_ESTABLISH_CONNECTION = "UNABLE TO ESTABLISH CONNECTION";
 	public static final String DUPLICATE_ENTRY = "DUPLICATE ENTRY";
@@ -21,13 +37,23 @@ public class OpumConstants {
 	public static final String INVALID_EMAIL_ADDRESS = "INVALID EMAIL ADDRESS";
 	public static final String INVALID_EMPLOYEE_ID = "INVALID EMPLOYEE ID";
 	public static final String INVALID_HOLIDAY = "INVALID HOLIDAY";
+	public static final String INVALID_YEAR = "INVALID YEAR";
+	public static final String INVALID_CURSOR = "INVALID CURSOR";
+	public static final String INVALID_SEARCH_QUERY = "INVALID SEARCH QUERY";
+	public static final String INVALID_DATE = "INVALID DATE";
+	public static final String INVALID_UTILIZATION = "INVALID UTILIZATION";
+	public static final String INVALID_PERIOD = "INVALID PERIOD";
+	public static final String YEAR_ARCHIVED = "YEAR ARCHIVED";
+	public static final String YEAR_NOT_FINISHED = "YEAR NOT FINISHED";
 	public static final String EMPLOYEE_ID_EMAIL_NOT_FOUND = "EMPLOYEE ID / EMAIL NOT FOUND";
 	public static final String PROJECT_ENGAGEMENT_NOT_FOUND = "PROJECT ENGAGEMENT NOT FOUND";
+	public static final String PROJECT_NOT_FOUND = "PROJECT NOT FOUND";
 	public static final String UNAUTHORIZED = "UNAUTHORIZED";
 	public static final String ERROR_START_DATE = "ERROR START DATE";
 	public static final String ERROR_END_DATE = "ERROR END DATE";
 	public static final String YEAR_START_NOTFOUND = "YEAR START NOT FOUND";
 	public static final String YEAR_END_NOT_FOUND = "YEAR END NOT FOUND";
+	public static final String FILE_REQUIRED = "FILE REQUIRED";
 	
 	/** NOTIFICATION MESSAGE/s */
 	public static final String SUCCESSFULLY_SAVED = "SUCCESSFULLY SAVED";
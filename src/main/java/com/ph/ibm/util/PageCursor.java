@@ -0,0 +1,112 @@
+package com.ph.ibm.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import com.ph.ibm.model.Page;
+
+/**
+ * This class makes the opaque cursors of the paginated listings. A cursor
+ * holds the listing it belongs to and the id of the last row of the page, the
+ * next page is read with "WHERE ID &gt; ? ORDER BY ID LIMIT ?" so it costs the
+ * same on every page however large the table grows
+ */
+public final class PageCursor {
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private PageCursor() {
+
+	}
+
+	/**
+	 * @param listing
+	 *            - name of the listing, a cursor of another listing is
+	 *            rejected
+	 * @param lastId
+	 * @return String - cursor of the page after the row
+	 */
+	public static String encode(String listing, long lastId) {
+		return ENCODER.encodeToString((listing + ":" + lastId).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param listing
+	 * @param cursor
+	 *            - null or empty for the first page
+	 * @return long - id after which the page starts, 0 for the first page
+	 * @throws IllegalArgumentException
+	 *             when the cursor was not issued by the listing
+	 */
+	public static long decode(String listing, String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return 0;
+		}
+		try {
+			String decoded = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+			if (decoded.startsWith(listing + ":")) {
+				long lastId = Long.parseLong(decoded.substring(listing.length() + 1));
+				if (lastId >= 0) {
+					return lastId;
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			// not Base64 or not a number
+		}
+		throw new IllegalArgumentException(OpumConstants.INVALID_CURSOR);
+	}
+
+	/**
+	 * This method is used to decode the cursor of a listing whose ids are int
+	 *
+	 * @param listing
+	 * @param cursor
+	 *            - null or empty for the first page
+	 * @return int - id after which the page starts, 0 for the first page
+	 * @throws IllegalArgumentException
+	 *             when the cursor was not issued by the listing or its id
+	 *             does not fit an int
+	 */
+	public static int decodeInt(String listing, String cursor) {
+		long lastId = decode(listing, cursor);
+		if (lastId > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(OpumConstants.INVALID_CURSOR);
+		}
+		return (int) lastId;
+	}
+
+	/**
+	 * @param limit
+	 *            - requested page size
+	 * @return int - page size between 1 and {@link OpumConstants#MAX_PAGE_SIZE}
+	 */
+	public static int limit(int limit) {
+		return limit < 1 ? OpumConstants.DEFAULT_PAGE_SIZE : Math.min(limit, OpumConstants.MAX_PAGE_SIZE);
+	}
+
+	/**
+	 * This method is used to make a page from rows read with a limit one
+	 * higher than the page size, the extra row only tells that there is a next
+	 * page
+	 *
+	 * @param listing
+	 * @param rows
+	 *            - up to limit + 1 rows ordered by id
+	 * @param limit
+	 *            - page size
+	 * @param id
+	 *            - id of a row
+	 * @return Page
+	 */
+	public static <T> Page<T> page(String listing, List<T> rows, int limit, ToLongFunction<T> id) {
+		if (rows.size() <= limit) {
+			return new Page<T>(rows, null);
+		}
+		List<T> items = rows.subList(0, limit);
+		return new Page<T>(items, encode(listing, id.applyAsLong(items.get(limit - 1))));
+	}
+}
@@ -0,0 +1,162 @@
+package com.ph.ibm.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.log4j.Logger;
+
+import com.ph.ibm.model.Employee;
+import com.ph.ibm.model.SessionToken;
+
+/**
+ * This class issues and verifies HMAC-SHA256 signed session tokens. A token
+ * carries the employee id and admin role of the logged in user and is
+ * verified in memory, without a database call. The signing secret is read from
+ * the "opum.token.secret" system property or the OPUM_TOKEN_SECRET environment
+ * variable
+ */
+public class SessionTokenService {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	/** Separator of the payload fields and of the payload and signature */
+	private static final String SEPARATOR = ".";
+
+	private static final long DEFAULT_TTL_MINUTES = 480;
+
+	private static SessionTokenService sessionTokenService = new SessionTokenService();
+
+	private Logger logger = Logger.getLogger(SessionTokenService.class);
+
+	private final SecretKeySpec secretKey;
+
+	private final long ttlMillis;
+
+	/** Mac is not thread safe, each thread keeps its own instance */
+	private final ThreadLocal<Mac> mac = new ThreadLocal<Mac>() {
+		@Override
+		protected Mac initialValue() {
+			try {
+				Mac mac = Mac.getInstance(ALGORITHM);
+				mac.init(secretKey);
+				return mac;
+			} catch (GeneralSecurityException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	};
+
+	/** Revoked token id and its expiry, entries are removed once expired */
+	private final Map<String, Long> revokedTokens = new ConcurrentHashMap<String, Long>();
+
+	private SessionTokenService() {
+		String secret = System.getProperty("opum.token.secret", System.getenv("OPUM_TOKEN_SECRET"));
+		byte[] key;
+		if (secret == null || secret.isEmpty()) {
+			logger.warn("opum.token.secret is not set, tokens will not survive a restart");
+			key = new byte[32];
+			new SecureRandom().nextBytes(key);
+		} else {
+			key = secret.getBytes(StandardCharsets.UTF_8);
+		}
+		secretKey = new SecretKeySpec(key, ALGORITHM);
+		ttlMillis = TimeUnit.MINUTES.toMillis(Long.getLong("opum.token.ttl.minutes", DEFAULT_TTL_MINUTES));
+	}
+
+	public static SessionTokenService getInstance() {
+		return sessionTokenService;
+	}
+
+	/**
+	 * This method is used to issue a token to a logged in employee
+	 * 
+	 * @param employee
+	 * @return String - signed token
+	 */
+	public String issue(Employee employee) {
+		long expiresAt = System.currentTimeMillis() + ttlMillis;
+		String employeeIdNumber = employee.getEmployeeIdNumber() == null ? "" : employee.getEmployeeIdNumber();
+		String payload = UUID.randomUUID().toString().replace("-", "") + SEPARATOR + employee.getEmployeeId()
+				+ SEPARATOR + encode(employeeIdNumber.getBytes(StandardCharsets.UTF_8)) + SEPARATOR
+				+ (employee.isAdmin() ? 1 : 0) + SEPARATOR + expiresAt;
+		return payload + SEPARATOR + encode(sign(payload));
+	}
+
+	/**
+	 * This method is used to verify the signature, expiry and revocation of a
+	 * token
+	 * 
+	 * @param token
+	 * @return SessionToken - content of the token, null if the token is not
+	 *         valid
+	 */
+	public SessionToken verify(String token) {
+		if (token == null) {
+			return null;
+		}
+		int signatureStart = token.lastIndexOf(SEPARATOR);
+		if (signatureStart < 0) {
+			return null;
+		}
+		String payload = token.substring(0, signatureStart);
+		try {
+			byte[] signature = Base64.getUrlDecoder().decode(token.substring(signatureStart + 1));
+			if (!MessageDigest.isEqual(signature, sign(payload))) {
+				return null;
+			}
+			String[] fields = payload.split("\\.");
+			if (fields.length != 5) {
+				return null;
+			}
+			long expiresAt = Long.parseLong(fields[4]);
+			if (expiresAt < System.currentTimeMillis() || revokedTokens.containsKey(fields[0])) {
+				return null;
+			}
+			return new SessionToken(fields[0], Integer.parseInt(fields[1]),
+					new String(Base64.getUrlDecoder().decode(fields[2]), StandardCharsets.UTF_8), "1".equals(fields[3]),
+					expiresAt);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to revoke a token before it expires
+	 * 
+	 * @param token
+	 * @return boolean - false if the token is not valid
+	 */
+	public boolean revoke(String token) {
+		SessionToken sessionToken = verify(token);
+		if (sessionToken == null) {
+			return false;
+		}
+		long now = System.currentTimeMillis();
+		for (Iterator<Long> expiries = revokedTokens.values().iterator(); expiries.hasNext();) {
+			if (expiries.next() < now) {
+				expiries.remove();
+			}
+		}
+		revokedTokens.put(sessionToken.getTokenId(), sessionToken.getExpiresAt());
+		return true;
+	}
+
+	private byte[] sign(String payload) {
+		return mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String encode(byte[] bytes) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+}
@@ -0,0 +1,167 @@
+package com.ph.ibm.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * This class reads the first sheet of a CSV, XLS or XLSX file row by row and
+ * passes each row to a {@link RowHandler} as a list of formatted cell values.
+ * CSV and XLSX files are parsed as a stream, XLS files are loaded as a
+ * workbook. XLSX files are spooled to a temporary file first so the zip is
+ * read from disk instead of being buffered in memory
+ */
+public class SpreadsheetRowReader {
+
+	/**
+	 * Receives the rows of a sheet in order
+	 */
+	public interface RowHandler {
+
+		/**
+		 * @param rowIndex
+		 *            - zero based index of the row in the sheet
+		 * @param cells
+		 *            - formatted value of each cell, empty string for blank cells
+		 */
+		public void handleRow(int rowIndex, List<String> cells);
+	}
+
+	/**
+	 * This method is used to read a file, the format is chosen from the file
+	 * name extension
+	 *
+	 * @param inputStream
+	 * @param fileName
+	 * @param rowHandler
+	 * @throws IOException
+	 *             if the file cannot be read or the format is not supported
+	 */
+	public static void read(InputStream inputStream, String fileName, RowHandler rowHandler) throws IOException {
+		String name = fileName == null ? "" : fileName.toLowerCase();
+		if (name.endsWith(".csv")) {
+			readCsv(inputStream, rowHandler);
+		} else if (name.endsWith(".xlsx")) {
+			readXlsx(inputStream, rowHandler);
+		} else if (name.endsWith(".xls")) {
+			readXls(inputStream, rowHandler);
+		} else {
+			throw new IOException("Unsupported file " + fileName + ", expected csv, xls or xlsx");
+		}
+	}
+
+	private static void readCsv(InputStream inputStream, RowHandler rowHandler) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+		try {
+			String line;
+			int rowIndex = 0;
+			while ((line = reader.readLine()) != null) {
+				rowHandler.handleRow(rowIndex++, Arrays.asList(line.split(",", -1)));
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static void readXls(InputStream inputStream, RowHandler rowHandler) throws IOException {
+		HSSFWorkbook workbook = new HSSFWorkbook(inputStream);
+		try {
+			DataFormatter formatter = new DataFormatter();
+			Sheet sheet = workbook.getSheetAt(0);
+			for (Row row : sheet) {
+				List<String> cells = new ArrayList<String>();
+				for (int i = 0; i < row.getLastCellNum(); i++) {
+					Cell cell = row.getCell(i);
+					cells.add(cell == null ? "" : formatter.formatCellValue(cell));
+				}
+				rowHandler.handleRow(row.getRowNum(), cells);
+			}
+		} finally {
+			workbook.close();
+		}
+	}
+
+	private static void readXlsx(InputStream inputStream, final RowHandler rowHandler) throws IOException {
+		File spool = File.createTempFile("opum-import", ".xlsx");
+		OPCPackage opcPackage = null;
+		try {
+			Files.copy(inputStream, spool.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			opcPackage = OPCPackage.open(spool, PackageAccess.READ);
+			XSSFReader xssfReader = new XSSFReader(opcPackage);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(opcPackage);
+			SheetContentsHandler contentsHandler = new SheetContentsHandler() {
+
+				private List<String> cells;
+
+				@Override
+				public void startRow(int rowNum) {
+					cells = new ArrayList<String>();
+				}
+
+				@Override
+				public void endRow(int rowNum) {
+					rowHandler.handleRow(rowNum, cells);
+				}
+
+				@Override
+				public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+					int column = new CellReference(cellReference).getCol();
+					while (cells.size() < column) {
+						cells.add("");
+					}
+					cells.add(formattedValue == null ? "" : formattedValue);
+				}
+
+				@Override
+				public void headerFooter(String text, boolean isHeader, String tagName) {
+
+				}
+			};
+			InputStream sheet = xssfReader.getSheetsData().next();
+			try {
+				XMLReader parser = SAXHelper.newXMLReader();
+				parser.setContentHandler(new XSSFSheetXMLHandler(xssfReader.getStylesTable(), null, strings,
+						contentsHandler, new DataFormatter(), false));
+				parser.parse(new InputSource(sheet));
+			} finally {
+				sheet.close();
+			}
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IOException(e.getMessage(), e);
+		} finally {
+			if (opcPackage != null) {
+				opcPackage.revert();
+			}
+			spool.delete();
+		}
+	}
+}
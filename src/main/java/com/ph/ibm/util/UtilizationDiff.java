@@ -0,0 +1,93 @@
+package com.ph.ibm.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.ph.ibm.model.UtilizationChange;
+import com.ph.ibm.model.UtilizationDayChange;
+import com.ph.ibm.model.UtilizationJson;
+import com.ph.ibm.model.UtilizationYear;
+
+/**
+ * This class finds the days of a utilization year whose hours changed between
+ * two saves and merges the changes of consecutive saves. Days are matched by
+ * month and day of month, a day missing on one side has null hours on that
+ * side and the editable flag is not compared
+ */
+public final class UtilizationDiff {
+
+	private UtilizationDiff() {
+
+	}
+
+	/**
+	 * @param oldJson
+	 *            - utilization JSON before the save, null when there was none
+	 * @param newJson
+	 *            - utilization JSON saved
+	 * @return List - changed days in the order of the new JSON followed by the
+	 *         days removed, empty when no hours changed
+	 */
+	public static List<UtilizationDayChange> diff(String oldJson, String newJson) {
+		Map<Integer, String> oldHours = hoursByDay(oldJson);
+		Map<Integer, String> newHours = hoursByDay(newJson);
+		List<UtilizationDayChange> changes = new ArrayList<UtilizationDayChange>();
+		for (Map.Entry<Integer, String> day : newHours.entrySet()) {
+			String before = oldHours.remove(day.getKey());
+			if (!Objects.equals(before, day.getValue())) {
+				changes.add(change(day.getKey(), before, day.getValue()));
+			}
+		}
+		for (Map.Entry<Integer, String> day : oldHours.entrySet()) {
+			changes.add(change(day.getKey(), day.getValue(), null));
+		}
+		return changes;
+	}
+
+	/**
+	 * This method is used to merge the changes of an employee and year into
+	 * one, a day keeps its first old hours and last new hours so applying the
+	 * merged change ends in the same state as applying the changes in order
+	 * 
+	 * @param changes
+	 *            - changes of one employee and year in ascending sequence
+	 * @return List - changed days in the order they were first changed
+	 */
+	public static List<UtilizationDayChange> merge(List<UtilizationChange> changes) {
+		Map<Integer, UtilizationDayChange> days = new LinkedHashMap<Integer, UtilizationDayChange>();
+		for (UtilizationChange change : changes) {
+			for (UtilizationDayChange day : change.getDays()) {
+				int key = day.getMonth() * 32 + day.getDayOfMonth();
+				UtilizationDayChange merged = days.get(key);
+				if (merged == null) {
+					days.put(key, change(key, day.getOldHours(), day.getNewHours()));
+				} else {
+					merged.setNewHours(day.getNewHours());
+				}
+			}
+		}
+		return new ArrayList<UtilizationDayChange>(days.values());
+	}
+
+	private static UtilizationDayChange change(int key, String oldHours, String newHours) {
+		return new UtilizationDayChange(key / 32, key % 32, oldHours, newHours);
+	}
+
+	private static Map<Integer, String> hoursByDay(String json) {
+		Map<Integer, String> hours = new LinkedHashMap<Integer, String>();
+		if (json == null || json.isEmpty()) {
+			return hours;
+		}
+		UtilizationYear utilizationYear = JsonToJavaUtil.JsonToJava(json, UtilizationYear.class);
+		if (utilizationYear == null || utilizationYear.getUtilizationJSON() == null) {
+			return hours;
+		}
+		for (UtilizationJson day : utilizationYear.getUtilizationJSON()) {
+			hours.put(day.getMonth() * 32 + day.getDayOfMonth(), day.getUtilizationHours());
+		}
+		return hours;
+	}
+}
@@ -0,0 +1,68 @@
+package com.ph.ibm.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.ph.ibm.model.FieldError;
+import com.ph.ibm.model.RowValidationResult;
+
+/**
+ * This class validates rows against a {@link ValidationRuleSet}. It holds no
+ * state, one instance is shared by the application
+ */
+public class ValidationEngine {
+
+	/** Minimum number of rows before a batch is validated in parallel */
+	private static final int PARALLEL_THRESHOLD = 256;
+
+	private static ValidationEngine validationEngine = new ValidationEngine();
+
+	private ValidationEngine() {
+
+	}
+
+	public static ValidationEngine getInstance() {
+		return validationEngine;
+	}
+
+	/**
+	 * This method is used to validate a single row
+	 * 
+	 * @param ruleSet
+	 * @param row
+	 *            - field values of the row
+	 * @return List - errors of the row, empty if the row is valid
+	 */
+	public List<FieldError> validate(ValidationRuleSet ruleSet, List<String> row) {
+		List<FieldError> errors = new ArrayList<FieldError>(0);
+		for (FieldRule rule : ruleSet.getRules()) {
+			String value = rule.getColumn() < row.size() ? row.get(rule.getColumn()) : null;
+			if (!rule.validate(value)) {
+				errors.add(new FieldError(rule.getField(), value, rule.getErrorMessage()));
+			}
+		}
+		return errors;
+	}
+
+	/**
+	 * This method is used to validate a list of rows, large lists are validated
+	 * in parallel
+	 * 
+	 * @param ruleSet
+	 * @param rows
+	 * @param firstRowNumber
+	 *            - row number reported for the first row of the list
+	 * @return List - result of each row in the same order as the given rows
+	 */
+	public List<RowValidationResult> validateAll(final ValidationRuleSet ruleSet, final List<List<String>> rows,
+			final int firstRowNumber) {
+		IntStream indexes = IntStream.range(0, rows.size());
+		if (rows.size() >= PARALLEL_THRESHOLD) {
+			indexes = indexes.parallel();
+		}
+		return indexes.mapToObj(i -> new RowValidationResult(firstRowNumber + i, validate(ruleSet, rows.get(i))))
+				.collect(Collectors.toList());
+	}
+}
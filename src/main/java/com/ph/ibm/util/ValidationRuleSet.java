@@ -0,0 +1,44 @@
+package com.ph.ibm.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This class contains the immutable validation rules of an entity
+ */
+public final class ValidationRuleSet {
+
+	/** Pattern of a required value */
+	private static final Pattern REQUIRED_PATTERN = Pattern.compile("^.+$");
+
+	/** Rules of a row of the employee upload file - id, name, email, project */
+	public static final ValidationRuleSet EMPLOYEE_UPLOAD = new ValidationRuleSet("employeeUpload",
+			new FieldRule("employeeIdNumber", 0, FormatValidation.EMPLOYEE_ID_PATTERN, OpumConstants.INVALID_COMPANY_ID),
+			new FieldRule("fullName", 1, FormatValidation.EMPLOYEE_NAME_PATTERN, OpumConstants.INVALID_NAME),
+			new FieldRule("email", 2, FormatValidation.EMAIL_ADDRESS_PATTERN, OpumConstants.INVALID_EMAIL_ADDRESS),
+			new FieldRule("projectName", 3, REQUIRED_PATTERN, OpumConstants.INVALID_PROJECT_NAME));
+
+	/** Rules of employee registration - id, email, project */
+	public static final ValidationRuleSet EMPLOYEE_REGISTRATION = new ValidationRuleSet("employeeRegistration",
+			new FieldRule("employeeIdNumber", 0, FormatValidation.EMPLOYEE_ID_PATTERN, OpumConstants.INVALID_COMPANY_ID),
+			new FieldRule("email", 1, FormatValidation.EMAIL_ADDRESS_PATTERN, OpumConstants.INVALID_EMAIL_ID),
+			new FieldRule("projectName", 2, FormatValidation.PROJECT_NAME_PATTERN, OpumConstants.INVALID_PROJECT_NAME));
+
+	private final String name;
+	private final List<FieldRule> rules;
+
+	private ValidationRuleSet(String name, FieldRule... rules) {
+		this.name = name;
+		this.rules = Collections.unmodifiableList(Arrays.asList(rules));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<FieldRule> getRules() {
+		return rules;
+	}
+}
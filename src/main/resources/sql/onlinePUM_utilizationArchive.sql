@@ -0,0 +1,59 @@
+--
+-- Partitions the utilization table by year and adds the archive of closed
+-- PUM years. Applied after onlinePUM_databaseDefinition_20170816v2.sql
+--
+-- Every unique key of a partitioned table has to contain the partitioning
+-- column, so Year is added to the primary key. Rows of a year not listed
+-- below land in pmax, split the next year off before it starts with
+--   ALTER TABLE `utilization` REORGANIZE PARTITION pmax INTO (
+--     PARTITION p2020 VALUES LESS THAN (2021),
+--     PARTITION pmax VALUES LESS THAN MAXVALUE);
+-- Archiving a year empties its partition, which can then be dropped with
+--   ALTER TABLE `utilization` DROP PARTITION p2017;
+--
+
+ALTER TABLE `utilization` DROP PRIMARY KEY, ADD PRIMARY KEY (`Utilization_ID`,`Year`);
+
+ALTER TABLE `utilization` PARTITION BY RANGE (`Year`) (
+  PARTITION p2017 VALUES LESS THAN (2018),
+  PARTITION p2018 VALUES LESS THAN (2019),
+  PARTITION p2019 VALUES LESS THAN (2020),
+  PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
+--
+-- Utilization of archived years, moved out of the utilization table in a
+-- single transaction and never written again. Compressed pages hold the
+-- JSON of a year in about a fourth of the space, at the cost of slower
+-- writes which the archive does not have
+--
+
+DROP TABLE IF EXISTS `utilization_archive`;
+
+CREATE TABLE `utilization_archive` (
+  `Utilization_ID` int(11) NOT NULL,
+  `Employee_ID` varchar(45) NOT NULL,
+  `Year` smallint(6) NOT NULL,
+  `Utilization_JSON` mediumtext,
+  `CreateDate` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `CreatedBy` varchar(45) DEFAULT NULL,
+  `UpdateDate` timestamp NULL DEFAULT NULL,
+  `UpdatedBy` varchar(45) DEFAULT NULL,
+  PRIMARY KEY (`Utilization_ID`),
+  UNIQUE KEY `UNQ_Utilization_Archive` (`Employee_ID`,`Year`)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 DEFAULT CHARSET=utf8;
+
+--
+-- Archived years, a year with a row here is read from utilization_archive
+-- and its utilization cannot be saved
+--
+
+DROP TABLE IF EXISTS `utilization_archived_year`;
+
+CREATE TABLE `utilization_archived_year` (
+  `Year` smallint(6) NOT NULL,
+  `Utilization_Count` int(11) NOT NULL,
+  `ArchiveDate` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `ArchivedBy` varchar(45) DEFAULT NULL,
+  PRIMARY KEY (`Year`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
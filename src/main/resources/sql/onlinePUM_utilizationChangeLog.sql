@@ -0,0 +1,36 @@
+--
+-- Change log of the utilization table. Applied after
+-- onlinePUM_utilizationArchive.sql
+--
+-- Every save of a utilization appends the days whose hours it changed, in
+-- the transaction of the save. The sequence is taken from the single row of
+-- utilization_change_sequence, which the saving transaction keeps locked
+-- until it commits, so a change is never visible before the changes with a
+-- lower sequence and a consumer can tail the log from the last sequence it
+-- read. Changes older than the retention are compacted to one change per
+-- employee and year
+--
+
+DROP TABLE IF EXISTS `utilization_change_log`;
+
+CREATE TABLE `utilization_change_log` (
+  `Sequence` bigint(20) NOT NULL,
+  `Employee_ID` varchar(45) NOT NULL,
+  `Year` smallint(6) NOT NULL,
+  `Changes` mediumtext NOT NULL,
+  `ChangedBy` varchar(45) DEFAULT NULL,
+  `ChangeDate` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`Sequence`),
+  KEY `IDX_Utilization_Change_Employee_Year` (`Employee_ID`,`Year`,`Sequence`),
+  KEY `IDX_Utilization_Change_Date` (`ChangeDate`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+DROP TABLE IF EXISTS `utilization_change_sequence`;
+
+CREATE TABLE `utilization_change_sequence` (
+  `Sequence_ID` tinyint(4) NOT NULL,
+  `Sequence` bigint(20) NOT NULL,
+  PRIMARY KEY (`Sequence_ID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+INSERT INTO `utilization_change_sequence` (`Sequence_ID`, `Sequence`) VALUES (1, 0);